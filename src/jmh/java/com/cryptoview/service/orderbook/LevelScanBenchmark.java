@@ -0,0 +1,53 @@
+package com.cryptoview.service.orderbook;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scalar vs vector floor scan over a side's notionals: {@code ./gradlew jmh -PjmhInclude=LevelScan}.
+ * Notionals are log-uniform from $10 to $10M, so a handful of levels clear the $50K tracking floor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LevelScanBenchmark {
+
+    private static final double FLOOR = 50_000;
+
+    @Param({"50", "400", "5000"})
+    int levels;
+
+    private double[] notional;
+    private int[] out;
+    private LevelScan.Kernel vector;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(49);
+        notional = new double[levels];
+        for (int i = 0; i < levels; i++) {
+            notional[i] = Math.pow(10, 1 + random.nextDouble() * 6);
+        }
+        out = new int[levels];
+        vector = LevelScan.vectorKernel();
+        if (vector == null) {
+            throw new IllegalStateException("jdk.incubator.vector is not on the benchmark JVM");
+        }
+    }
+
+    @Benchmark
+    public void scalar(Blackhole bh) {
+        bh.consume(LevelScan.SCALAR.select(notional, levels, FLOOR, out));
+    }
+
+    @Benchmark
+    public void vector(Blackhole bh) {
+        bh.consume(vector.select(notional, levels, FLOOR, out));
+    }
+}
@@ -0,0 +1,25 @@
+package com.cryptoview.config;
+
+import com.cryptoview.exchange.replay.ReplayClock;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+
+/**
+ * Time source of the pipeline: wall clock live, recorded time on replay.
+ */
+@Configuration
+public class ClockConfig {
+
+    @Bean
+    public Clock clock(CryptoViewProperties properties) throws IOException {
+        CryptoViewProperties.ReplayConfig replay = properties.getReplay();
+        if (!replay.isEnabled()) {
+            return Clock.systemUTC();
+        }
+        return new ReplayClock(ReplayClock.recordingStart(Path.of(replay.getPath())));
+    }
+}
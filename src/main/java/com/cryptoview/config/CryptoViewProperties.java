@@ -1,5 +1,6 @@
 package com.cryptoview.config;
 
+import com.cryptoview.exchange.common.DepthTier;
 import com.cryptoview.model.config.ExchangeConfig;
 import com.cryptoview.model.config.GlobalConfig;
 import com.cryptoview.model.enums.Exchange;
@@ -7,6 +8,8 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -19,6 +22,22 @@ public class CryptoViewProperties {
     private TelegramConfig telegram = new TelegramConfig();
     private GlobalConfig global = new GlobalConfig();
     private Map<Exchange, ExchangeConfig> exchanges = new HashMap<>();
+    private DepthTierConfig depthTiers = new DepthTierConfig();
+    private PartialDepthConfig partialDepth = new PartialDepthConfig();
+    private RecorderConfig recorder = new RecorderConfig();
+    private ReplayConfig replay = new ReplayConfig();
+    private MockExchangeConfig mockExchange = new MockExchangeConfig();
+    private PipelineConfig pipeline = new PipelineConfig();
+    private PublishConfig publish = new PublishConfig();
+    private ConsolidatedConfig consolidated = new ConsolidatedConfig();
+    /**
+     * Per-connector base URL overrides, keyed by storage key ("BINANCE_FUTURES"); path and query are kept.
+     */
+    private Map<String, EndpointConfig> endpoints = new HashMap<>();
+    /**
+     * Per-symbol overrides, read on startup and rewritten on every change.
+     */
+    private String symbolsConfigFile = "symbols-config.json";
 
     @Data
     public static class TelegramConfig {
@@ -26,4 +45,179 @@ public class CryptoViewProperties {
         private List<String> chatIds;
         private boolean enabled = true;
     }
+
+    @Data
+    public static class DepthTierConfig {
+        private boolean enabled = true;
+        private long evaluationIntervalMs = 300_000;
+        private BigDecimal deepVolumeUsd = new BigDecimal("5000000");
+        private BigDecimal shallowVolumeUsd = new BigDecimal("200000");
+        /**
+         * USD notional of the top 5 levels per side (bids + asks) from which a symbol goes deep / stays shallow.
+         */
+        private BigDecimal deepTopDepthUsd = new BigDecimal("1000000");
+        private BigDecimal shallowTopDepthUsd = new BigDecimal("50000");
+        private int maxChangesPerRun = 50;
+        private long minHoldMinutes = 30;
+        /**
+         * Pin a connector to one tier (storage key like "BYBIT_SPOT" → tier).
+         */
+        private Map<String, DepthTier> fixedTiers = new HashMap<>();
+    }
+
+    @Data
+    public static class PartialDepthConfig {
+        /**
+         * Levels of the Binance/Aster partial book stream (5, 10 or 20) used for the SHALLOW tier.
+         */
+        private int levels = 20;
+        /**
+         * Symbols that run diff-depth and the partial stream side by side; a diverged diff-depth book is resynced.
+         */
+        private List<String> compareSymbols = new ArrayList<>();
+    }
+
+    @Data
+    public static class RecorderConfig {
+        private boolean enabled = false;
+        private String directory = "recordings";
+        private int segmentSizeMb = 256;
+        /**
+         * Closed segments kept on disk; the oldest are deleted beyond this.
+         */
+        private int maxSegments = 40;
+        /**
+         * Connectors to record (storage keys like "BINANCE_FUTURES"); empty records all.
+         */
+        private List<String> connectors = new ArrayList<>();
+    }
+
+    @Data
+    public static class ReplayConfig {
+        /**
+         * Replaces live connectors with a recorded frame log; nothing connects to the exchanges.
+         */
+        private boolean enabled = false;
+        /**
+         * Recorder directory or a single segment file.
+         */
+        private String path = "recordings";
+        /**
+         * 1 = recorded pace, N = N times faster, 0 = as fast as possible.
+         */
+        private double speed = 1.0;
+        /**
+         * Sources to replay (storage keys like "BINANCE_FUTURES"); empty replays all.
+         */
+        private List<String> connectors = new ArrayList<>();
+    }
+
+    @Data
+    public static class PipelineConfig {
+        /**
+         * Analysis threads; orderbooks are partitioned over them by symbol. 0 = run listeners on the connector thread.
+         */
+        private int workers = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        /**
+         * Pending updates per worker before new ones are dropped.
+         */
+        private int queueCapacity = 8192;
+    }
+
+    @Data
+    public static class PublishConfig {
+        /**
+         * Minimum gap between two published snapshots of one symbol while analysis keeps up.
+         */
+        private long intervalMs = 250;
+        /**
+         * Gap for busy symbols when the pipeline queues are full; scaled linearly in between.
+         */
+        private long maxIntervalMs = 2000;
+        private long flushTickMs = 50;
+    }
+
+    @Data
+    public static class ConsolidatedConfig {
+        private boolean enabled = true;
+        /**
+         * A venue that has not published for this long is dropped from the consolidated book.
+         */
+        private long staleAfterMs = 30_000;
+        private int defaultDepth = 50;
+        /**
+         * Quote → USDT price multiplier; USDC follows a live USDCUSDT book when one is subscribed.
+         */
+        private Map<String, BigDecimal> quoteRates = new HashMap<>(Map.of(
+                "USDC", BigDecimal.ONE,
+                "USD", BigDecimal.ONE));
+        /**
+         * The live USDC rate is adopted only once it moves this many bp from the one in use: every adopted
+         * rate re-prices, and so re-diffs, every level of every USDC-quoted venue.
+         */
+        private int rateStepBps = 5;
+    }
+
+    @Data
+    public static class EndpointConfig {
+        /**
+         * e.g. "ws://127.0.0.1:18080"; empty keeps the venue URL.
+         */
+        private String ws;
+        /**
+         * e.g. "http://127.0.0.1:18080"; empty keeps the venue URL.
+         */
+        private String rest;
+    }
+
+    @Data
+    public static class MockExchangeConfig {
+        /**
+         * Starts the embedded mock venue (Binance, Bybit and OKX protocols) for load tests.
+         */
+        private boolean enabled = false;
+        private String host = "127.0.0.1";
+        private int port = 18080;
+        private int symbols = 200;
+        /**
+         * Diff events per symbol per second.
+         */
+        private int updatesPerSecond = 10;
+        private int levelsPerSide = 500;
+        /**
+         * Level changes per diff event.
+         */
+        private int churn = 8;
+        /**
+         * Share of events never sent, leaving a sequence gap on the client.
+         */
+        private double gapProbability = 0.0;
+        private double tradeProbability = 0.3;
+        /**
+         * Share of REST requests answered with 429.
+         */
+        private double rateLimitProbability = 0.0;
+        /**
+         * REST requests per second before 429; 0 = unlimited.
+         */
+        private int restRequestsPerSecond = 0;
+        /**
+         * Client messages per second per connection before the mock closes it (Binance: 10); 0 = unlimited.
+         */
+        private int wsMessagesPerSecond = 0;
+        /**
+         * Forced disconnects every N ms; 0 = never.
+         */
+        private long disconnectIntervalMs = 0;
+        /**
+         * Share of connections dropped each time; 1.0 = reconnect storm.
+         */
+        private double disconnectFraction = 1.0;
+        private int sessionQueueSize = 20_000;
+        private long seed = 42;
+        /**
+         * Connectors pointed at the mock (storage keys like "BINANCE_FUTURES").
+         */
+        private List<String> connectors = new ArrayList<>(List.of("BINANCE_FUTURES", "BYBIT_FUTURES", "OKX_FUTURES"));
+    }
 }
@@ -1,6 +1,9 @@
 package com.cryptoview.config;
 
+import com.cryptoview.controller.BboWebSocketHandler;
+import com.cryptoview.controller.ConsolidatedBookWebSocketHandler;
 import com.cryptoview.controller.DensityWebSocketHandler;
+import com.cryptoview.controller.LiveBookWebSocketHandler;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.socket.config.annotation.EnableWebSocket;
@@ -13,10 +16,19 @@ import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry
 public class WebSocketConfig implements WebSocketConfigurer {
 
     private final DensityWebSocketHandler densityWebSocketHandler;
+    private final ConsolidatedBookWebSocketHandler consolidatedBookWebSocketHandler;
+    private final BboWebSocketHandler bboWebSocketHandler;
+    private final LiveBookWebSocketHandler liveBookWebSocketHandler;
 
     @Override
     public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
         registry.addHandler(densityWebSocketHandler, "/ws/densities")
                 .setAllowedOrigins("*");
+        registry.addHandler(consolidatedBookWebSocketHandler, "/ws/consolidated")
+                .setAllowedOrigins("*");
+        registry.addHandler(bboWebSocketHandler, "/ws/bbo")
+                .setAllowedOrigins("*");
+        registry.addHandler(liveBookWebSocketHandler, "/ws/orderbook")
+                .setAllowedOrigins("*");
     }
 }
@@ -0,0 +1,67 @@
+package com.cryptoview.controller;
+
+import com.cryptoview.model.dto.BboResponse;
+import com.cryptoview.model.enums.Exchange;
+import com.cryptoview.model.enums.MarketType;
+import com.cryptoview.service.orderbook.BboTable;
+import com.cryptoview.service.orderbook.OrderBookManager;
+import com.cryptoview.service.symbol.SymbolRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/bbo")
+@RequiredArgsConstructor
+public class BboController {
+
+    private final OrderBookManager orderBookManager;
+    private final SymbolRegistry symbolRegistry;
+    private final Clock clock;
+
+    /**
+     * All known quotes, optionally narrowed by venue; {@code maxAgeMs} drops symbols that went quiet.
+     */
+    @GetMapping
+    public List<BboResponse> getAll(@RequestParam(required = false) Exchange exchange,
+                                    @RequestParam(required = false) MarketType marketType,
+                                    @RequestParam(defaultValue = "0") long maxAgeMs) {
+        BboTable table = orderBookManager.getBbo();
+        BboTable.Quote quote = new BboTable.Quote();
+        long now = clock.millis();
+        List<BboResponse> result = new ArrayList<>();
+        table.forEach(id -> {
+            SymbolRegistry.SymbolKey key = symbolRegistry.key(id);
+            if (exchange != null && key.exchange() != exchange) return;
+            if (marketType != null && key.marketType() != marketType) return;
+            if (!table.read(id, quote)) return;
+            if (maxAgeMs > 0 && now - quote.updatedAt() > maxAgeMs) return;
+            result.add(toResponse(key, quote, now));
+        });
+        return result;
+    }
+
+    @GetMapping("/{exchange}/{marketType}/{symbol}")
+    public ResponseEntity<BboResponse> get(@PathVariable Exchange exchange,
+                                           @PathVariable MarketType marketType,
+                                           @PathVariable String symbol) {
+        int id = symbolRegistry.find(exchange, marketType, symbol);
+        BboTable.Quote quote = new BboTable.Quote();
+        if (id == SymbolRegistry.UNKNOWN || !orderBookManager.getBbo().read(id, quote)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(toResponse(symbolRegistry.key(id), quote, clock.millis()));
+    }
+
+    static BboResponse toResponse(SymbolRegistry.SymbolKey key, BboTable.Quote quote, long now) {
+        return new BboResponse(key.symbol(), key.exchange(), key.marketType(),
+                BboResponse.orNull(quote.bidPrice()), BboResponse.orNull(quote.bidQty()),
+                BboResponse.orNull(quote.askPrice()), BboResponse.orNull(quote.askQty()),
+                BboResponse.orNull(quote.mid()), BboResponse.orNull(quote.spreadBps()),
+                Math.max(0, now - quote.updatedAt()));
+    }
+}
@@ -0,0 +1,123 @@
+package com.cryptoview.controller;
+
+import com.cryptoview.model.dto.BboResponse;
+import com.cryptoview.model.enums.Exchange;
+import com.cryptoview.model.enums.MarketType;
+import com.cryptoview.service.orderbook.BboTable;
+import com.cryptoview.service.orderbook.OrderBookManager;
+import com.cryptoview.service.symbol.SymbolRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Streams top-of-book changes: /ws/bbo?exchange=BINANCE&marketType=FUTURES (both optional).
+ * Each frame carries only the symbols whose touch changed since the previous one.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BboWebSocketHandler extends TextWebSocketHandler {
+
+    private final OrderBookManager orderBookManager;
+    private final SymbolRegistry symbolRegistry;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+
+    private final Map<String, ClientState> sessions = new ConcurrentHashMap<>();
+    private final BboTable.Quote quote = new BboTable.Quote(); // broadcast only
+    private long lastStamp;
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        Exchange exchange = null;
+        MarketType marketType = null;
+        if (session.getUri() != null) {
+            MultiValueMap<String, String> params = UriComponentsBuilder.fromUri(session.getUri()).build().getQueryParams();
+            exchange = parse(Exchange.class, params.getFirst("exchange"));
+            marketType = parse(MarketType.class, params.getFirst("marketType"));
+        }
+        sessions.put(session.getId(), new ClientState(session, exchange, marketType));
+        log.info("BBO WebSocket connected: {} ({} {})", session.getId(),
+                exchange != null ? exchange : "all", marketType != null ? marketType : "");
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        sessions.remove(session.getId());
+        log.info("BBO WebSocket disconnected: {} ({})", session.getId(), status);
+    }
+
+    @Scheduled(fixedRate = 200)
+    public void broadcastChanges() {
+        BboTable table = orderBookManager.getBbo();
+        if (sessions.isEmpty()) {
+            lastStamp = table.changeCount(); // новым клиентам не нужна история
+            return;
+        }
+
+        long now = clock.millis();
+        List<BboResponse> changed = new ArrayList<>();
+        lastStamp = table.changedSince(lastStamp, id -> {
+            if (table.read(id, quote)) {
+                changed.add(BboController.toResponse(symbolRegistry.key(id), quote, now));
+            }
+        });
+        if (changed.isEmpty()) return;
+
+        for (ClientState client : sessions.values()) {
+            if (!client.session.isOpen()) {
+                sessions.remove(client.session.getId());
+                continue;
+            }
+            List<BboResponse> data = client.exchange == null && client.marketType == null ? changed
+                    : changed.stream()
+                    .filter(q -> client.exchange == null || q.exchange() == client.exchange)
+                    .filter(q -> client.marketType == null || q.marketType() == client.marketType)
+                    .toList();
+            if (data.isEmpty()) continue;
+
+            try {
+                String json = objectMapper.writeValueAsString(Map.of(
+                        "type", "bbo",
+                        "timestamp", now,
+                        "data", data));
+                client.session.sendMessage(new TextMessage(json));
+            } catch (IOException e) {
+                log.warn("Failed to send BBO update to {}: {}", client.session.getId(), e.getMessage());
+                try {
+                    client.session.close(CloseStatus.SERVER_ERROR);
+                } catch (IOException ex) {
+                    // ignore
+                }
+                sessions.remove(client.session.getId());
+            }
+        }
+    }
+
+    private static <E extends Enum<E>> E parse(Class<E> type, String value) {
+        if (value == null || value.isBlank()) return null;
+        try {
+            return Enum.valueOf(type, value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private record ClientState(WebSocketSession session, Exchange exchange, MarketType marketType) {}
+}
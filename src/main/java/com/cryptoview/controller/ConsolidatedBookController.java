@@ -0,0 +1,38 @@
+package com.cryptoview.controller;
+
+import com.cryptoview.model.enums.MarketType;
+import com.cryptoview.service.consolidated.ConsolidatedBookService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/v1/consolidated")
+@RequiredArgsConstructor
+public class ConsolidatedBookController {
+
+    private final ConsolidatedBookService consolidatedBookService;
+
+    @GetMapping
+    public List<String> getTickers() {
+        return consolidatedBookService.getTickers();
+    }
+
+    @GetMapping("/{baseTicker}")
+    public ResponseEntity<ConsolidatedBookService.View> getBook(
+            @PathVariable String baseTicker,
+            @RequestParam(defaultValue = "0") int depth,
+            @RequestParam(required = false) Set<MarketType> marketType) {
+        return consolidatedBookService.getBook(baseTicker, depth, marketType)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/stats")
+    public ConsolidatedBookService.Stats getStats() {
+        return consolidatedBookService.getStats();
+    }
+}
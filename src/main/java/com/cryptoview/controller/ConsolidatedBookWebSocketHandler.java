@@ -0,0 +1,135 @@
+package com.cryptoview.controller;
+
+import com.cryptoview.model.enums.MarketType;
+import com.cryptoview.service.consolidated.ConsolidatedBookService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pushes the consolidated book of one base ticker: /ws/consolidated?ticker=BTC&depth=20&marketType=FUTURES.
+ * A frame is sent only when the book changed since the client's last one; {"action":"subscribe","ticker":"ETH"}
+ * switches the ticker.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ConsolidatedBookWebSocketHandler extends TextWebSocketHandler {
+
+    private final ConsolidatedBookService consolidatedBookService;
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, ClientState> sessions = new ConcurrentHashMap<>();
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        ClientState state = new ClientState(session);
+        if (session.getUri() != null) {
+            MultiValueMap<String, String> params = UriComponentsBuilder.fromUri(session.getUri()).build().getQueryParams();
+            state.ticker = params.getFirst("ticker");
+            state.depth = parseDepth(params.getFirst("depth"));
+            state.marketTypes = parseMarketType(params.getFirst("marketType"));
+        }
+        sessions.put(session.getId(), state);
+        log.info("Consolidated WebSocket connected: {} (ticker: {})", session.getId(), state.ticker);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        sessions.remove(session.getId());
+        log.info("Consolidated WebSocket disconnected: {} ({})", session.getId(), status);
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        try {
+            JsonNode node = objectMapper.readTree(message.getPayload());
+            ClientState state = sessions.get(session.getId());
+            if (state == null || !"subscribe".equals(node.path("action").asText(""))) return;
+
+            state.ticker = node.path("ticker").asText(state.ticker);
+            if (node.has("depth")) state.depth = node.path("depth").asInt(0);
+            if (node.has("marketType")) state.marketTypes = parseMarketType(node.path("marketType").asText(null));
+            state.sentVersion = -1;
+        } catch (Exception e) {
+            log.warn("Failed to parse consolidated WebSocket message from {}: {}", session.getId(), e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedRate = 500)
+    public void broadcast() {
+        if (sessions.isEmpty()) return;
+
+        for (ClientState client : sessions.values()) {
+            if (!client.session.isOpen()) {
+                sessions.remove(client.session.getId());
+                continue;
+            }
+            String ticker = client.ticker;
+            if (ticker == null) continue;
+
+            long version = consolidatedBookService.getVersion(ticker);
+            if (version < 0 || version == client.sentVersion) continue;
+
+            try {
+                var view = consolidatedBookService.getBook(ticker, client.depth, client.marketTypes);
+                if (view.isEmpty()) continue;
+                String json = objectMapper.writeValueAsString(Map.of("type", "consolidated", "data", view.get()));
+                client.session.sendMessage(new TextMessage(json));
+                client.sentVersion = view.get().version();
+            } catch (IOException e) {
+                log.warn("Failed to send consolidated book to {}: {}", client.session.getId(), e.getMessage());
+                try {
+                    client.session.close(CloseStatus.SERVER_ERROR);
+                } catch (IOException ex) {
+                    // ignore
+                }
+                sessions.remove(client.session.getId());
+            }
+        }
+    }
+
+    private static int parseDepth(String value) {
+        try {
+            return value != null ? Integer.parseInt(value) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static Set<MarketType> parseMarketType(String value) {
+        if (value == null || value.isBlank()) return null;
+        try {
+            return EnumSet.of(MarketType.valueOf(value.toUpperCase()));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static class ClientState {
+        final WebSocketSession session;
+        volatile String ticker;
+        volatile int depth;
+        volatile Set<MarketType> marketTypes;
+        volatile long sentVersion = -1;
+
+        ClientState(WebSocketSession session) {
+            this.session = session;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.cryptoview.controller;
+
+import com.cryptoview.model.enums.Exchange;
+import com.cryptoview.model.enums.MarketType;
+import com.cryptoview.service.depth.DepthIndexService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/depth")
+@RequiredArgsConstructor
+public class DepthProfileController {
+
+    private final DepthIndexService depthIndexService;
+
+    /**
+     * Cumulative USD depth and bid/ask imbalance within each requested distance from mid, e.g. ?pct=0.5,1,2,5.
+     */
+    @GetMapping("/{exchange}/{marketType}/{symbol}")
+    public ResponseEntity<DepthIndexService.DepthProfile> getProfile(
+            @PathVariable Exchange exchange,
+            @PathVariable MarketType marketType,
+            @PathVariable String symbol,
+            @RequestParam(defaultValue = "0.5,1,2,5") List<Double> pct) {
+        return depthIndexService.getProfile(exchange, marketType, symbol, pct)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,131 @@
+package com.cryptoview.controller;
+
+import com.cryptoview.model.enums.Exchange;
+import com.cryptoview.model.enums.MarketType;
+import com.cryptoview.service.orderbook.LiveBookFeed;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One symbol's live book: /ws/orderbook?exchange=BINANCE&marketType=FUTURES&symbol=BTCUSDT&depth=50&maxRate=4.
+ * The client gets a snapshot, then diffs whose seq grows by one; on a gap it sends {"action":"resync"}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LiveBookWebSocketHandler extends TextWebSocketHandler {
+
+    // Медленный клиент не тормозит тик: буфер переполнился — соединение закрывается, клиент делает resync
+    private static final int SEND_TIME_LIMIT_MS = 5_000;
+    private static final int BUFFER_SIZE_LIMIT = 1024 * 1024;
+
+    private final LiveBookFeed liveBookFeed;
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, LiveBookFeed.Subscription> subscriptions = new ConcurrentHashMap<>();
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws IOException {
+        MultiValueMap<String, String> params = session.getUri() != null
+                ? UriComponentsBuilder.fromUri(session.getUri()).build().getQueryParams() : null;
+        Exchange exchange = params != null ? parse(Exchange.class, params.getFirst("exchange")) : null;
+        MarketType marketType = params != null ? parse(MarketType.class, params.getFirst("marketType")) : null;
+        String symbol = params != null ? params.getFirst("symbol") : null;
+        if (exchange == null || marketType == null || symbol == null || symbol.isBlank()) {
+            session.close(CloseStatus.BAD_DATA.withReason("exchange, marketType and symbol are required"));
+            return;
+        }
+
+        WebSocketSession out = new ConcurrentWebSocketSessionDecorator(session, SEND_TIME_LIMIT_MS, BUFFER_SIZE_LIMIT);
+        Optional<LiveBookFeed.Subscription> subscription = liveBookFeed.subscribe(exchange, marketType, symbol,
+                parseInt(params.getFirst("depth"), 50), parseDouble(params.getFirst("maxRate"), 4),
+                json -> send(out, json));
+        if (subscription.isEmpty()) {
+            session.close(CloseStatus.BAD_DATA.withReason("Unknown symbol " + symbol));
+            return;
+        }
+        subscriptions.put(session.getId(), subscription.get());
+        if (!session.isOpen()) { // отвалился ещё на снапшоте, afterConnectionClosed подписку не застал
+            afterConnectionClosed(session, CloseStatus.SESSION_NOT_RELIABLE);
+            return;
+        }
+        log.info("[{}:{}] Live book WebSocket connected: {} {} (depth {}, every {}ms)", exchange, marketType,
+                session.getId(), symbol, subscription.get().depth(), subscription.get().intervalMs());
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        LiveBookFeed.Subscription subscription = subscriptions.remove(session.getId());
+        if (subscription != null) {
+            subscription.close();
+        }
+        log.info("Live book WebSocket disconnected: {} ({})", session.getId(), status);
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        try {
+            String action = objectMapper.readTree(message.getPayload()).path("action").asText("");
+            LiveBookFeed.Subscription subscription = subscriptions.get(session.getId());
+            if ("resync".equals(action) && subscription != null) {
+                subscription.resync();
+            }
+        } catch (Exception e) {
+            log.warn("Failed to parse WebSocket message from {}: {}", session.getId(), e.getMessage());
+        }
+    }
+
+    private void send(WebSocketSession session, String json) {
+        if (!session.isOpen()) return;
+        try {
+            session.sendMessage(new TextMessage(json));
+        } catch (Exception e) {
+            // IOException или переполнение буфера декоратора (он сам закрывает сессию)
+            log.warn("Failed to send live book frame to {}: {}", session.getId(), e.getMessage());
+            try {
+                session.close(CloseStatus.SESSION_NOT_RELIABLE);
+            } catch (IOException ex) {
+                // ignore
+            }
+        }
+    }
+
+    private static <E extends Enum<E>> E parse(Class<E> type, String value) {
+        if (value == null || value.isBlank()) return null;
+        try {
+            return Enum.valueOf(type, value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static int parseInt(String value, int fallback) {
+        try {
+            return value != null ? Integer.parseInt(value) : fallback;
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    private static double parseDouble(String value, double fallback) {
+        try {
+            return value != null ? Double.parseDouble(value) : fallback;
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.cryptoview.controller;
+
+import com.cryptoview.model.enums.Exchange;
+import com.cryptoview.model.enums.MarketType;
+import com.cryptoview.service.orderbook.OrderBookSnapshotCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/orderbooks")
+@RequiredArgsConstructor
+public class OrderBookController {
+
+    private final OrderBookSnapshotCache snapshotCache;
+
+    /**
+     * Current book, {@code depth} levels per side (0 = all), optionally folded into {@code buckets} price ranges.
+     * Answers 304 when the client already holds this version (If-None-Match).
+     */
+    @GetMapping("/{exchange}/{marketType}/{symbol}")
+    public ResponseEntity<byte[]> get(@PathVariable Exchange exchange,
+                                      @PathVariable MarketType marketType,
+                                      @PathVariable String symbol,
+                                      @RequestParam(defaultValue = "0") int depth,
+                                      @RequestParam(defaultValue = "0") int buckets,
+                                      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return snapshotCache.get(exchange, marketType, symbol, depth, buckets)
+                .map(payload -> payload.eTag().equals(ifNoneMatch)
+                        ? ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(payload.eTag()).<byte[]>build()
+                        : ResponseEntity.ok()
+                        .eTag(payload.eTag())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(payload.json()))
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
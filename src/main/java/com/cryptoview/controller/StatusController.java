@@ -1,13 +1,29 @@
 package com.cryptoview.controller;
 
+import com.cryptoview.exchange.DepthTierService;
 import com.cryptoview.exchange.ExchangeManager;
+import com.cryptoview.exchange.common.DepthTier;
+import com.cryptoview.exchange.common.SubscriptionManager;
+import com.cryptoview.exchange.mock.MockExchangeServer;
+import com.cryptoview.exchange.mock.MockExchangeService;
+import com.cryptoview.exchange.replay.ReplayService;
 import com.cryptoview.service.density.DensityTracker;
+import com.cryptoview.service.orderbook.LiveBookFeed;
+import com.cryptoview.service.orderbook.OrderBookManager;
+import com.cryptoview.service.orderbook.OrderBookSnapshotCache;
+import com.cryptoview.service.orderbook.OrderBookStreams;
+import com.cryptoview.service.orderbook.PublishCoalescer;
+import com.cryptoview.service.pipeline.OrderBookPipeline;
+import com.cryptoview.service.recorder.FrameRecorder;
+import com.cryptoview.service.timer.HashedWheelTimer;
 import com.cryptoview.service.volume.VolumeTracker;
 import com.cryptoview.service.workspace.WorkspaceService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
@@ -22,6 +38,16 @@ public class StatusController {
     private final DensityTracker densityTracker;
     private final WorkspaceService workspaceService;
     private final VolumeTracker volumeTracker;
+    private final DepthTierService depthTierService;
+    private final HashedWheelTimer timer;
+    private final FrameRecorder frameRecorder;
+    private final ReplayService replayService;
+    private final MockExchangeService mockExchangeService;
+    private final OrderBookPipeline orderBookPipeline;
+    private final OrderBookManager orderBookManager;
+    private final OrderBookStreams orderBookStreams;
+    private final OrderBookSnapshotCache snapshotCache;
+    private final LiveBookFeed liveBookFeed;
 
     @GetMapping
     public Map<String, Object> getStatus() {
@@ -40,4 +66,67 @@ public class StatusController {
     public List<String> getMarketsForSymbol(@PathVariable String baseTicker) {
         return exchangeManager.getMarketsForSymbol(baseTicker);
     }
+
+    @GetMapping("/depth-tiers")
+    public Map<String, Map<DepthTier, Integer>> getDepthTiers() {
+        return depthTierService.getTierDistribution();
+    }
+
+    @GetMapping("/subscriptions")
+    public Map<String, SubscriptionManager.Stats> getSubscriptions() {
+        return exchangeManager.getSubscriptionStats();
+    }
+
+    @GetMapping("/recorder")
+    public FrameRecorder.Status getRecorder() {
+        return frameRecorder.getStatus();
+    }
+
+    @GetMapping("/replay")
+    public ReplayService.Status getReplay() {
+        return replayService.getStatus();
+    }
+
+    @GetMapping("/pipeline")
+    public OrderBookPipeline.Stats getPipeline() {
+        return orderBookPipeline.getStats();
+    }
+
+    @GetMapping("/publish")
+    public PublishCoalescer.Stats getPublish() {
+        return orderBookManager.getPublishStats();
+    }
+
+    @GetMapping("/streams")
+    public List<OrderBookStreams.SubscriberStats> getStreams() {
+        return orderBookStreams.getStats();
+    }
+
+    @GetMapping("/snapshot-cache")
+    public Map<String, Object> getSnapshotCache() {
+        return snapshotCache.getStats();
+    }
+
+    @GetMapping("/live-books")
+    public Map<String, Object> getLiveBooks() {
+        return liveBookFeed.getStats();
+    }
+
+    @GetMapping("/mock-exchange")
+    public MockExchangeServer.Stats getMockExchange() {
+        return mockExchangeService.getStats();
+    }
+
+    /**
+     * Drops a share of the mock exchange's connections now (fraction=1 → reconnect storm).
+     */
+    @PostMapping("/mock-exchange/disconnect")
+    public Map<String, Object> disconnectMockSessions(@RequestParam(defaultValue = "1.0") double fraction) {
+        return Map.of("dropped", mockExchangeService.disconnect(fraction));
+    }
+
+    @GetMapping("/timer")
+    public HashedWheelTimer.Stats getTimerStats() {
+        return timer.getStats();
+    }
 }
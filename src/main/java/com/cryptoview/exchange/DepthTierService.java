@@ -0,0 +1,179 @@
+package com.cryptoview.exchange;
+
+import com.cryptoview.config.CryptoViewProperties;
+import com.cryptoview.exchange.common.DepthTier;
+import com.cryptoview.exchange.common.DepthTierPolicy;
+import com.cryptoview.exchange.common.ExchangeConnector;
+import com.cryptoview.exchange.common.SymbolActivity;
+import com.cryptoview.exchange.common.TieredDepthConnector;
+import com.cryptoview.exchange.common.VolumeDepthTierPolicy;
+import com.cryptoview.model.config.ExchangeMarketKey;
+import com.cryptoview.model.domain.OrderBook;
+import com.cryptoview.model.domain.OrderBookLevel;
+import com.cryptoview.service.orderbook.OrderBookManager;
+import com.cryptoview.service.symbol.SymbolRegistry;
+import com.cryptoview.service.volume.VolumeTracker;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Periodically re-evaluates the depth tier of every symbol on tiered connectors
+ * and moves symbols between deep and shallow feeds.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DepthTierService {
+
+    // Уровней на сторону, которые есть в фиде любого тира (самый мелкий — OKX books5)
+    static final int TOP_LEVELS = 5;
+
+    private final List<ExchangeConnector> connectors;
+    private final CryptoViewProperties properties;
+    private final VolumeTracker volumeTracker;
+    private final OrderBookManager orderBookManager;
+    private final SymbolRegistry symbolRegistry;
+    private final Clock clock;
+
+    // "BYBIT_SPOT:BTCUSDT" -> last tier change
+    private final Map<String, Instant> lastTierChange = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        CryptoViewProperties.DepthTierConfig config = properties.getDepthTiers();
+        DepthTierPolicy defaultPolicy = new VolumeDepthTierPolicy(
+                config.getDeepVolumeUsd(),
+                config.getShallowVolumeUsd(),
+                config.getDeepTopDepthUsd(),
+                config.getShallowTopDepthUsd()
+        );
+
+        for (TieredDepthConnector connector : tieredConnectors()) {
+            String key = new ExchangeMarketKey(connector.getExchange(), connector.getMarketType()).toStorageKey();
+            DepthTier fixed = config.getFixedTiers().get(key);
+            connector.setDepthTierPolicy(fixed != null ? DepthTierPolicy.fixed(fixed) : defaultPolicy);
+            log.info("[{}:{}] Depth tiers {} (supported: {})", connector.getExchange(), connector.getMarketType(),
+                    fixed != null ? "fixed to " + fixed : "by volume/top depth", connector.getSupportedDepthTiers());
+        }
+    }
+
+    @Scheduled(fixedRateString = "${cryptoview.depth-tiers.evaluation-interval-ms:300000}",
+            initialDelayString = "${cryptoview.depth-tiers.evaluation-interval-ms:300000}")
+    public void evaluateTiers() {
+        CryptoViewProperties.DepthTierConfig config = properties.getDepthTiers();
+        if (!config.isEnabled()) {
+            return;
+        }
+        // Volume-based tiers are meaningless until the 15-minute window is filled
+        if (!volumeTracker.isVolumeDataReady()) {
+            return;
+        }
+
+        Duration minHold = Duration.ofMinutes(config.getMinHoldMinutes());
+        Instant now = Instant.now(clock);
+
+        for (TieredDepthConnector connector : tieredConnectors()) {
+            if (!connector.isConnected()) continue;
+
+            String marketKey = new ExchangeMarketKey(connector.getExchange(), connector.getMarketType()).toStorageKey();
+            DepthTierPolicy policy = connector.getDepthTierPolicy();
+            int changes = 0;
+
+            for (String subscribed : connector.getSubscribedSymbols()) {
+                if (changes >= config.getMaxChangesPerRun()) {
+                    log.debug("[{}:{}] Tier change limit reached ({}), rest deferred to next run",
+                            connector.getExchange(), connector.getMarketType(), changes);
+                    break;
+                }
+
+                String symbol = connector.toMarketSymbol(subscribed);
+                String changeKey = marketKey + ":" + subscribed;
+                Instant lastChange = lastTierChange.get(changeKey);
+                if (lastChange != null && Duration.between(lastChange, now).compareTo(minHold) < 0) {
+                    continue;
+                }
+
+                DepthTier current = connector.getDepthTier(subscribed);
+                SymbolActivity activity = new SymbolActivity(
+                        symbol,
+                        connector.getExchange(),
+                        connector.getMarketType(),
+                        volumeTracker.getVolume15Min(symbol, connector.getExchange(), connector.getMarketType()),
+                        topDepthUsd(connector, symbol),
+                        current
+                );
+
+                DepthTier target = policy.resolve(activity).clampTo(connector.getSupportedDepthTiers());
+                if (target != current && connector.changeDepthTier(subscribed, target)) {
+                    lastTierChange.put(changeKey, now);
+                    changes++;
+                }
+            }
+
+            if (changes > 0) {
+                log.info("[{}:{}] Depth tiers re-evaluated: {} symbols moved | {}",
+                        connector.getExchange(), connector.getMarketType(), changes, countTiers(connector));
+            }
+        }
+    }
+
+    /**
+     * Tier distribution per connector ("BYBIT_FUTURES" → {DEEP=12, STANDARD=300, SHALLOW=150}).
+     */
+    public Map<String, Map<DepthTier, Integer>> getTierDistribution() {
+        Map<String, Map<DepthTier, Integer>> result = new TreeMap<>();
+        for (TieredDepthConnector connector : tieredConnectors()) {
+            String key = new ExchangeMarketKey(connector.getExchange(), connector.getMarketType()).toStorageKey();
+            result.put(key, countTiers(connector));
+        }
+        return result;
+    }
+
+    private Map<DepthTier, Integer> countTiers(TieredDepthConnector connector) {
+        Map<DepthTier, Integer> counts = new EnumMap<>(DepthTier.class);
+        for (String symbol : connector.getSubscribedSymbols()) {
+            counts.merge(connector.getDepthTier(symbol), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    /**
+     * USD notional of the top {@value #TOP_LEVELS} levels of both sides of the latest book; null without one.
+     * Every tier delivers at least these levels, so the value does not depend on the tier being judged.
+     */
+    private BigDecimal topDepthUsd(TieredDepthConnector connector, String symbol) {
+        int id = symbolRegistry.find(connector.getExchange(), connector.getMarketType(), symbol);
+        if (id == SymbolRegistry.UNKNOWN) return null;
+        OrderBook book = orderBookManager.getOrderBook(id).orElse(null);
+        if (book == null) return null;
+        return top(book.bids()).add(top(book.asks()));
+    }
+
+    private static BigDecimal top(List<OrderBookLevel> side) {
+        BigDecimal sum = BigDecimal.ZERO;
+        for (int i = 0; i < Math.min(TOP_LEVELS, side.size()); i++) {
+            sum = sum.add(side.get(i).getVolumeUsd());
+        }
+        return sum;
+    }
+
+    private List<TieredDepthConnector> tieredConnectors() {
+        List<TieredDepthConnector> result = new ArrayList<>();
+        for (ExchangeConnector connector : connectors) {
+            if (connector instanceof TieredDepthConnector tiered) {
+                result.add(tiered);
+            }
+        }
+        return result;
+    }
+}
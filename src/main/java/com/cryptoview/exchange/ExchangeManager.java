@@ -1,8 +1,15 @@
 package com.cryptoview.exchange;
 
 import com.cryptoview.config.CryptoViewProperties;
+import com.cryptoview.exchange.common.AbstractWebSocketConnector;
+import com.cryptoview.exchange.common.EndpointOverridable;
+import com.cryptoview.exchange.common.EndpointOverride;
 import com.cryptoview.exchange.common.ExchangeConnector;
+import com.cryptoview.exchange.common.SubscriptionManager;
+import com.cryptoview.exchange.mock.MockExchangeService;
+import com.cryptoview.exchange.replay.ReplayService;
 import com.cryptoview.model.config.ExchangeConfig;
+import com.cryptoview.model.config.ExchangeMarketKey;
 import com.cryptoview.model.enums.Exchange;
 import com.cryptoview.model.enums.MarketType;
 import com.cryptoview.service.config.ConfigService;
@@ -11,12 +18,14 @@ import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -25,12 +34,15 @@ import java.util.concurrent.TimeUnit;
 @Slf4j
 @Service
 @RequiredArgsConstructor
+@DependsOn({"depthTierService", "frameRecorder"}) // tier policies and frame sinks must be in place before the first subscribe
 public class ExchangeManager {
 
     private final List<ExchangeConnector> connectors;
     private final ConfigService configService;
     private final CryptoViewProperties properties;
     private final VolumeTracker volumeTracker;
+    private final ReplayService replayService;
+    private final MockExchangeService mockExchangeService;
 
     private final Map<String, ExchangeConnector> connectorMap = new ConcurrentHashMap<>();
     private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
@@ -39,9 +51,19 @@ public class ExchangeManager {
     public void init() {
         logStartupSummary();
 
+        if (replayService.isEnabled()) {
+            log.info("Replay mode: live connectors stay offline");
+            for (ExchangeConnector connector : replayService.getConnectors()) {
+                connectorMap.put(buildKey(connector.getExchange(), connector.getMarketType()), connector);
+            }
+            replayService.start();
+            return;
+        }
+
         for (ExchangeConnector connector : connectors) {
             String key = buildKey(connector.getExchange(), connector.getMarketType());
             connectorMap.put(key, connector);
+            applyEndpointOverride(connector);
 
             if (configService.isExchangeMarketEnabled(connector.getExchange(), connector.getMarketType())) {
                 log.info("Starting connector: {} {}", connector.getExchange(), connector.getMarketType());
@@ -59,6 +81,20 @@ public class ExchangeManager {
         }
     }
 
+    /**
+     * Explicit cryptoview.endpoints entry first, then the embedded mock exchange if it serves this connector.
+     */
+    private void applyEndpointOverride(ExchangeConnector connector) {
+        if (!(connector instanceof EndpointOverridable overridable)) return;
+        String key = new ExchangeMarketKey(connector.getExchange(), connector.getMarketType()).toStorageKey();
+        CryptoViewProperties.EndpointConfig configured = properties.getEndpoints().get(key);
+        if (configured != null) {
+            overridable.setEndpointOverride(new EndpointOverride(configured.getWs(), configured.getRest()));
+            return;
+        }
+        mockExchangeService.endpointFor(key).ifPresent(overridable::setEndpointOverride);
+    }
+
     private void logStartupSummary() {
         var global = properties.getGlobal();
         StringBuilder sb = new StringBuilder();
@@ -110,13 +146,13 @@ public class ExchangeManager {
     }
 
     public int getTotalSubscribedSymbols() {
-        return connectors.stream()
+        return activeConnectors().stream()
                 .mapToInt(ExchangeConnector::getSubscribedSymbolsCount)
                 .sum();
     }
 
     public int getConnectedExchangesCount() {
-        return (int) connectors.stream()
+        return (int) activeConnectors().stream()
                 .filter(ExchangeConnector::isConnected)
                 .count();
     }
@@ -124,14 +160,14 @@ public class ExchangeManager {
     @Scheduled(fixedRate = 60000) // каждую минуту
     public void logStatus() {
         int connectedCount = getConnectedExchangesCount();
-        int total = connectors.size();
+        int total = activeConnectors().size();
         int symbols = getTotalSubscribedSymbols();
         int trackedVolumes = volumeTracker.getTrackedSymbolsCount();
 
         log.info("=== Exchange Status: {}/{} connected, {} symbols, {} volumes ===",
                 connectedCount, total, symbols, trackedVolumes);
 
-        for (ExchangeConnector connector : connectors) {
+        for (ExchangeConnector connector : activeConnectors()) {
             String status = connector.isConnected() ? "OK" : "DISCONNECTED";
             String stats = connector.getStatusSummary();
             if (connector.isConnected()) {
@@ -157,7 +193,7 @@ public class ExchangeManager {
         List<String> suffixes = List.of("USDT", "USDC", "USD", "");
         List<String> result = new ArrayList<>();
 
-        for (ExchangeConnector connector : connectors) {
+        for (ExchangeConnector connector : activeConnectors()) {
             if (!connector.isConnected()) continue;
             var symbols = connector.getSubscribedSymbols();
             for (String suffix : suffixes) {
@@ -173,6 +209,27 @@ public class ExchangeManager {
         return result;
     }
 
+    /**
+     * Subscription pipeline state per connector ("BYBIT_FUTURES" → acked/pending/failed symbols, settle time).
+     */
+    public Map<String, SubscriptionManager.Stats> getSubscriptionStats() {
+        Map<String, SubscriptionManager.Stats> result = new TreeMap<>();
+        for (ExchangeConnector connector : connectors) {
+            if (connector instanceof AbstractWebSocketConnector wsConnector) {
+                result.put(buildKey(connector.getExchange(), connector.getMarketType()),
+                        wsConnector.getSubscriptionStats());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Connectors feeding the pipeline: the live ones, or their replay stand-ins in replay mode.
+     */
+    private List<ExchangeConnector> activeConnectors() {
+        return replayService.isEnabled() ? replayService.getConnectors() : connectors;
+    }
+
     private String buildKey(Exchange exchange, MarketType marketType) {
         return exchange.name() + "_" + marketType.name();
     }
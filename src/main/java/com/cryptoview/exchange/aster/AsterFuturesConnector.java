@@ -1,10 +1,16 @@
 package com.cryptoview.exchange.aster;
 
+import com.cryptoview.config.CryptoViewProperties;
 import com.cryptoview.exchange.common.AbstractWebSocketConnector;
+import com.cryptoview.exchange.common.DepthTier;
 import com.cryptoview.exchange.common.LocalOrderBook;
+import com.cryptoview.exchange.common.PartialDepthStream;
+import com.cryptoview.exchange.common.SubscriptionManager;
+import com.cryptoview.exchange.common.TieredDepthConnector;
 import com.cryptoview.model.enums.Exchange;
 import com.cryptoview.model.enums.MarketType;
 import com.cryptoview.service.orderbook.OrderBookManager;
+import com.cryptoview.service.timer.HashedWheelTimer;
 import com.cryptoview.service.volume.VolumeTracker;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -28,22 +34,26 @@ import java.util.stream.Collectors;
 
 @Slf4j
 @Component
-public class AsterFuturesConnector extends AbstractWebSocketConnector {
+public class AsterFuturesConnector extends AbstractWebSocketConnector implements TieredDepthConnector {
 
     private static final String WS_URL = "wss://fstream.asterdex.com/stream";
     private static final String REST_URL = "https://fapi.asterdex.com/fapi/v1/exchangeInfo";
     private static final String DEPTH_SNAPSHOT_URL = "https://fapi.asterdex.com/fapi/v1/depth";
     private static final int SNAPSHOT_LIMIT = 1000;
     private static final long SNAPSHOT_FETCH_DELAY_MS = 600;
-    private static final long PUBLISH_THROTTLE_MS = 2000;
-    private static final int MAX_SYMBOLS = 100; // 200 streams / 2 per symbol
+    private static final int MAX_STREAMS = 200; // per connection
+    private static final int STREAMS_PER_SYMBOL = 2; // depth + trades; compared symbols add the partial stream
     private static final int MAX_GAP_RETRIES = 3;
     private static final int MAX_PENDING_BUFFER_SIZE = 500;
+    private static final String DIFF_DEPTH_SUFFIX = "@depth@500ms";
+    // SHALLOW = partial depthN@100ms stream (no REST snapshot), STANDARD = diff-depth + snapshot
+    private static final Set<DepthTier> SUPPORTED_TIERS = Set.of(DepthTier.SHALLOW, DepthTier.STANDARD);
+    private static final SubscriptionManager.Limits SUBSCRIPTION_LIMITS =
+            new SubscriptionManager.Limits(100, 8, 4, 5000); // Binance-compatible: 10 incoming msgs/sec
 
     private final Map<String, LocalOrderBook> localBooks = new ConcurrentHashMap<>();
     private final Map<String, Queue<JsonNode>> eventBuffers = new ConcurrentHashMap<>();
     private final Set<String> initializing = ConcurrentHashMap.newKeySet();
-    private final Map<String, Instant> lastPublishTime = new ConcurrentHashMap<>();
     private final BlockingQueue<String> refetchQueue = new LinkedBlockingQueue<>();
     private final Set<String> refetchPending = ConcurrentHashMap.newKeySet();
     private final Map<String, AtomicInteger> gapRetryCounts = new ConcurrentHashMap<>();
@@ -51,12 +61,18 @@ public class AsterFuturesConnector extends AbstractWebSocketConnector {
     private final Map<String, Long> pendingBridging = new ConcurrentHashMap<>();
     private volatile CountDownLatch initLatch = new CountDownLatch(1);
     private volatile Thread refetchWorkerThread;
+    private final PartialDepthStream partialDepth;
 
     public AsterFuturesConnector(OkHttpClient httpClient,
                                   ObjectMapper objectMapper,
                                   OrderBookManager orderBookManager,
-                                  VolumeTracker volumeTracker) {
-        super(httpClient, objectMapper, orderBookManager, volumeTracker);
+                                  VolumeTracker volumeTracker,
+                                  HashedWheelTimer timer,
+                                  CryptoViewProperties properties) {
+        super(httpClient, objectMapper, orderBookManager, volumeTracker, timer);
+        CryptoViewProperties.PartialDepthConfig partialConfig = properties.getPartialDepth();
+        this.partialDepth = new PartialDepthStream("[ASTER:FUTURES]",
+                partialConfig.getLevels(), partialConfig.getCompareSymbols());
     }
 
     @Override
@@ -87,9 +103,11 @@ public class AsterFuturesConnector extends AbstractWebSocketConnector {
             return;
         }
 
-        if (symbols.size() > MAX_SYMBOLS) {
-            log.warn("[ASTER:FUTURES] Limiting from {} to {} symbols", symbols.size(), MAX_SYMBOLS);
-            symbols = symbols.subList(0, MAX_SYMBOLS);
+        List<String> budgeted = partialDepth.withinStreamBudget(symbols, MAX_STREAMS, STREAMS_PER_SYMBOL);
+        if (budgeted.size() < symbols.size()) {
+            log.warn("[ASTER:FUTURES] Limiting from {} to {} symbols ({} stream limit)",
+                    symbols.size(), budgeted.size(), MAX_STREAMS);
+            symbols = budgeted;
         }
 
         if (!connectAndWait(5000)) {
@@ -97,22 +115,12 @@ public class AsterFuturesConnector extends AbstractWebSocketConnector {
             return;
         }
 
-        int batchSize = 20;
-        for (int i = 0; i < symbols.size(); i += batchSize) {
-            int end = Math.min(i + batchSize, symbols.size());
-            List<String> batch = symbols.subList(i, end);
-            subscribe(batch);
-            try {
-                Thread.sleep(500);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                break;
-            }
-        }
-        log.info("[ASTER:FUTURES] Subscribed to {} symbols ({} streams)", symbols.size(), symbols.size() * 2);
+        subscribeAndAwait(symbols);
+        List<String> diffSymbols = diffDepthSymbols();
+        log.info("[ASTER:FUTURES] Subscribed to {} symbols ({} diff-depth, {} partial depth)",
+                symbols.size(), diffSymbols.size(), subscribedSymbols.size() - diffSymbols.size());
 
-        List<String> symbolsCopy = List.copyOf(subscribedSymbols);
-        Thread.startVirtualThread(() -> fetchSnapshotsForAll(symbolsCopy));
+        Thread.startVirtualThread(() -> fetchSnapshotsForAll(diffSymbols));
         startRefetchWorker();
     }
 
@@ -124,14 +132,19 @@ public class AsterFuturesConnector extends AbstractWebSocketConnector {
         refetchPending.clear();
         refetchQueue.clear();
         pendingBridging.clear();
-        for (String symbol : subscribedSymbols) {
+        List<String> diffSymbols = diffDepthSymbols();
+        for (String symbol : diffSymbols) {
             LocalOrderBook book = localBooks.get(symbol);
             if (book != null) book.reset();
             initializing.add(symbol);
             eventBuffers.put(symbol, new ConcurrentLinkedQueue<>());
         }
-        List<String> symbolsCopy = List.copyOf(subscribedSymbols);
-        Thread.startVirtualThread(() -> fetchSnapshotsForAll(symbolsCopy));
+        // Partial depth symbols need no snapshot — the next message replaces the whole book
+        Thread.startVirtualThread(() -> fetchSnapshotsForAll(diffSymbols));
+    }
+
+    private List<String> diffDepthSymbols() {
+        return subscribedSymbols.stream().filter(s -> getDepthTier(s) != DepthTier.SHALLOW).toList();
     }
 
     private void startRefetchWorker() {
@@ -145,6 +158,7 @@ public class AsterFuturesConnector extends AbstractWebSocketConnector {
                     String symbol = refetchQueue.poll(5, TimeUnit.SECONDS);
                     if (symbol != null) {
                         refetchPending.remove(symbol);
+                        if (getDepthTier(symbol) == DepthTier.SHALLOW) continue; // moved to partial depth
                         if (!initializing.contains(symbol)) {
                             initializing.add(symbol);
                             eventBuffers.put(symbol, new ConcurrentLinkedQueue<>());
@@ -198,50 +212,70 @@ public class AsterFuturesConnector extends AbstractWebSocketConnector {
                 return;
             }
 
-            JsonNode root = objectMapper.readTree(response.body().string());
-            long lastUpdateId = root.get("lastUpdateId").asLong();
-            List<List<String>> bids = parseLevelsRaw(root.get("bids"));
-            List<List<String>> asks = parseLevelsRaw(root.get("asks"));
+            String body = response.body().string();
+            recordSnapshot(symbol, body);
+            applySnapshotResponse(symbol, objectMapper.readTree(body));
+        } catch (IOException e) {
+            log.error("[ASTER:FUTURES] Snapshot fetch failed for {}: {}", symbol, e.getMessage());
+            initializing.remove(symbol);
+            eventBuffers.remove(symbol);
+            pendingBridging.remove(symbol);
+        }
+    }
+
+    /**
+     * Applies a depth snapshot (REST response, or a recorded one on replay) and bridges buffered events.
+     */
+    private void applySnapshotResponse(String symbol, JsonNode root) {
+        initializing.add(symbol);
+        eventBuffers.putIfAbsent(symbol, new ConcurrentLinkedQueue<>());
 
-            LocalOrderBook book = localBooks.computeIfAbsent(symbol, LocalOrderBook::new);
-            book.applySnapshot(bids, asks, lastUpdateId);
+        long lastUpdateId = root.get("lastUpdateId").asLong();
+        List<List<String>> bids = parseLevelsRaw(root.get("bids"));
+        List<List<String>> asks = parseLevelsRaw(root.get("asks"));
 
-            // Try to find bridging event (Futures algorithm: U <= lastUpdateId AND u >= lastUpdateId)
-            if (tryDrainBuffer(symbol, book, lastUpdateId)) {
-                if (!book.isInitialized()) return; // re-queued
+        LocalOrderBook book = localBooks.computeIfAbsent(symbol, LocalOrderBook::new);
+        book.applySnapshot(bids, asks, lastUpdateId);
 
-                initializing.remove(symbol);
-                // Drain tail
-                Queue<JsonNode> buffer = eventBuffers.get(symbol);
-                if (buffer != null) {
-                    JsonNode tailEvent;
-                    while ((tailEvent = buffer.poll()) != null) {
-                        long u = tailEvent.get("u").asLong();
-                        if (u <= book.getLastUpdateId()) continue;
-                        long pu = tailEvent.has("pu") ? tailEvent.get("pu").asLong() : -1;
-                        if (pu != -1 && pu != book.getLastUpdateId()) {
-                            book.reset();
-                            eventBuffers.remove(symbol);
-                            pendingBridging.remove(symbol);
-                            queueRefetch(symbol);
-                            return;
-                        }
-                        applyDiffEvent(book, tailEvent);
+        // Try to find bridging event (Futures algorithm: U <= lastUpdateId AND u >= lastUpdateId)
+        if (tryDrainBuffer(symbol, book, lastUpdateId)) {
+            if (!book.isInitialized()) return; // re-queued
+
+            initializing.remove(symbol);
+            // Drain tail
+            Queue<JsonNode> buffer = eventBuffers.get(symbol);
+            if (buffer != null) {
+                JsonNode tailEvent;
+                while ((tailEvent = buffer.poll()) != null) {
+                    long u = tailEvent.get("u").asLong();
+                    if (u <= book.getLastUpdateId()) continue;
+                    long pu = tailEvent.has("pu") ? tailEvent.get("pu").asLong() : -1;
+                    if (pu != -1 && pu != book.getLastUpdateId()) {
+                        book.reset();
+                        eventBuffers.remove(symbol);
+                        pendingBridging.remove(symbol);
+                        queueRefetch(symbol);
+                        return;
                     }
+                    applyDiffEvent(book, tailEvent);
                 }
-                eventBuffers.remove(symbol);
-                pendingBridging.remove(symbol);
-                publishOrderBook(symbol, book);
-                gapRetryCounts.remove(symbol);
-            } else {
-                // Bridging not yet in buffer — keep initializing
-                pendingBridging.put(symbol, lastUpdateId);
             }
-        } catch (IOException e) {
-            log.error("[ASTER:FUTURES] Snapshot fetch failed for {}: {}", symbol, e.getMessage());
-            initializing.remove(symbol);
             eventBuffers.remove(symbol);
             pendingBridging.remove(symbol);
+            publishOrderBook(symbol, book);
+            gapRetryCounts.remove(symbol);
+            partialDepth.markReady(symbol, false);
+        } else {
+            // Bridging not yet in buffer — keep initializing
+            pendingBridging.put(symbol, lastUpdateId);
+        }
+    }
+
+    @Override
+    public void replaySnapshot(String symbol, String body) {
+        JsonNode root = parseJson(body);
+        if (root != null) {
+            applySnapshotResponse(symbol, root);
         }
     }
 
@@ -342,27 +376,83 @@ public class AsterFuturesConnector extends AbstractWebSocketConnector {
 
     @Override
     public void subscribe(List<String> symbols) {
-        if (!connected.get()) return;
-        List<String> allStreams = new ArrayList<>();
-        for (String s : symbols) {
-            allStreams.add(s.toLowerCase() + "@depth@500ms");
-            allStreams.add(s.toLowerCase() + "@aggTrade");
+        super.subscribe(symbols);
+        if (connected.get()) {
+            symbols.forEach(partialDepth::markSubscribed);
         }
-        String msg = String.format("{\"method\":\"SUBSCRIBE\",\"params\":%s,\"id\":%d}",
-                toJsonArray(allStreams), System.currentTimeMillis());
-        webSocket.send(msg);
-        subscribedSymbols.addAll(symbols);
     }
 
     @Override
-    protected String buildSubscribeMessage(List<String> symbols) {
-        List<String> allStreams = new ArrayList<>();
-        for (String s : symbols) {
-            allStreams.add(s.toLowerCase() + "@depth@500ms");
-            allStreams.add(s.toLowerCase() + "@aggTrade");
+    protected List<String> subscriptionTopics(String symbol) {
+        List<String> streams = new ArrayList<>(depthStreams(symbol, getDepthTier(symbol)));
+        streams.add(symbol.toLowerCase() + "@aggTrade");
+        return streams;
+    }
+
+    @Override
+    protected String buildSubscribeRequest(long requestId, List<String> topics) {
+        return String.format("{\"method\":\"SUBSCRIBE\",\"params\":%s,\"id\":%d}", toJsonArray(topics), requestId);
+    }
+
+    @Override
+    protected SubscriptionManager.Ack parseSubscriptionAck(JsonNode root) {
+        if (root.has("stream") || !root.has("id")) return null;
+        Long id = SubscriptionManager.Ack.requestId(root.get("id"));
+        if (id == null) return null;
+        if (root.has("error") || root.has("code")) {
+            JsonNode error = root.has("error") ? root.get("error") : root;
+            return SubscriptionManager.Ack.ofRequest(id, false, error.path("msg").asText());
+        }
+        return root.has("result") ? SubscriptionManager.Ack.ofRequest(id, true, null) : null;
+    }
+
+    @Override
+    protected SubscriptionManager.Limits getSubscriptionLimits() {
+        return SUBSCRIPTION_LIMITS;
+    }
+
+    private List<String> depthStreams(String symbol, DepthTier tier) {
+        if (partialDepth.isCompared(symbol)) {
+            return List.of(symbol.toLowerCase() + DIFF_DEPTH_SUFFIX, partialDepth.streamName(symbol));
+        }
+        return List.of(tier == DepthTier.SHALLOW ? partialDepth.streamName(symbol) : symbol.toLowerCase() + DIFF_DEPTH_SUFFIX);
+    }
+
+    // ======================== Depth Tiers ========================
+
+    @Override
+    public Set<DepthTier> getSupportedDepthTiers() {
+        return SUPPORTED_TIERS;
+    }
+
+    @Override
+    public DepthTier getDepthTier(String symbol) {
+        // Compared symbols always publish from diff-depth, with the partial stream alongside
+        return partialDepth.isCompared(symbol) ? DepthTier.STANDARD : super.getDepthTier(symbol);
+    }
+
+    @Override
+    protected String buildDepthUnsubscribe(String symbol, DepthTier tier) {
+        if (partialDepth.isCompared(symbol)) return null;
+        return String.format("{\"method\":\"UNSUBSCRIBE\",\"params\":%s,\"id\":%d}",
+                toJsonArray(depthStreams(symbol, tier)), System.currentTimeMillis());
+    }
+
+    @Override
+    protected void onDepthTierChanged(String symbol, DepthTier from, DepthTier to) {
+        LocalOrderBook book = localBooks.get(symbol);
+        if (book != null) book.reset();
+        gapRetryCounts.remove(symbol);
+        pendingBridging.remove(symbol);
+        partialDepth.markSubscribed(symbol);
+        if (to == DepthTier.SHALLOW) {
+            initializing.remove(symbol);
+            eventBuffers.remove(symbol);
+        } else {
+            initializing.add(symbol);
+            eventBuffers.put(symbol, new ConcurrentLinkedQueue<>());
+            queueRefetch(symbol);
         }
-        return String.format("{\"method\":\"SUBSCRIBE\",\"params\":%s,\"id\":%d}",
-                toJsonArray(allStreams), System.currentTimeMillis());
     }
 
     private String toJsonArray(List<String> items) {
@@ -375,13 +465,15 @@ public class AsterFuturesConnector extends AbstractWebSocketConnector {
     protected void handleMessage(String message) {
         JsonNode root = parseJson(message);
         if (root == null) return;
-        if (root.has("result") && root.has("id")) return;
+        if (handleSubscriptionAck(root)) return;
 
         String stream = root.has("stream") ? root.get("stream").asText() : null;
         JsonNode data = root.has("data") ? root.get("data") : root;
 
         if (stream != null) {
-            if (stream.contains("@depth")) {
+            if (partialDepth.isPartialStream(stream)) {
+                handlePartialDepth(data, extractSymbol(stream));
+            } else if (stream.contains("@depth")) {
                 handleDepthUpdate(data, extractSymbol(stream));
             } else if (stream.contains("@aggTrade")) {
                 handleTradeUpdate(data);
@@ -401,7 +493,35 @@ public class AsterFuturesConnector extends AbstractWebSocketConnector {
         return stream.split("@")[0].toUpperCase();
     }
 
+    private void handlePartialDepth(JsonNode data, String symbol) {
+        if (partialDepth.isCompared(symbol)) {
+            if (partialDepth.onShadowMessage(symbol, localBooks.get(symbol), data)) {
+                resyncDiverged(symbol);
+            }
+            return;
+        }
+        if (!isReplaying() && getDepthTier(symbol) != DepthTier.SHALLOW) return; // in-flight message from the previous tier
+
+        LocalOrderBook book = localBooks.computeIfAbsent(symbol, LocalOrderBook::new);
+        partialDepth.apply(book, data);
+        incrementOrderbookUpdates();
+        publishOrderBook(symbol, book);
+    }
+
+    /**
+     * Diff-depth book disagrees with the partial book at the same update id — rebuild it from a snapshot.
+     */
+    private void resyncDiverged(String symbol) {
+        LocalOrderBook book = localBooks.get(symbol);
+        if (book != null) book.reset();
+        initializing.add(symbol);
+        eventBuffers.put(symbol, new ConcurrentLinkedQueue<>());
+        queueRefetch(symbol);
+    }
+
     private void handleDepthUpdate(JsonNode data, String symbol) {
+        if (!isReplaying() && getDepthTier(symbol) == DepthTier.SHALLOW) return; // in-flight message from the previous tier
+
         if (initializing.contains(symbol)) {
             Queue<JsonNode> buffer = eventBuffers.get(symbol);
             if (buffer != null) buffer.add(data);
@@ -449,6 +569,7 @@ public class AsterFuturesConnector extends AbstractWebSocketConnector {
                             pendingBridging.remove(symbol);
                             publishOrderBook(symbol, book);
                             gapRetryCounts.remove(symbol);
+                            partialDepth.markReady(symbol, false);
                         }
                     }
                 }
@@ -481,13 +602,12 @@ public class AsterFuturesConnector extends AbstractWebSocketConnector {
 
         applyDiffEvent(book, data);
         incrementOrderbookUpdates();
-
-        Instant lastPublish = lastPublishTime.get(symbol);
-        Instant now = Instant.now();
-        if (lastPublish == null || java.time.Duration.between(lastPublish, now).toMillis() >= PUBLISH_THROTTLE_MS) {
-            publishOrderBook(symbol, book);
-            lastPublishTime.put(symbol, now);
+        if (partialDepth.isCompared(symbol) && partialDepth.onDiffApplied(book)) {
+            resyncDiverged(symbol);
+            return;
         }
+
+        publishOrderBook(symbol, book);
     }
 
     private void applyDiffEvent(LocalOrderBook book, JsonNode data) {
@@ -500,12 +620,7 @@ public class AsterFuturesConnector extends AbstractWebSocketConnector {
     }
 
     private void publishOrderBook(String symbol, LocalOrderBook book) {
-        LocalOrderBook.Snapshot snapshot = book.getSnapshot();
-        if (!snapshot.bids().isEmpty() || !snapshot.asks().isEmpty()) {
-            orderBookManager.updateOrderBook(
-                    symbol.toUpperCase(), Exchange.ASTER, MarketType.FUTURES,
-                    snapshot.bids(), snapshot.asks(), null);
-        }
+        orderBookManager.markDirty(symbol.toUpperCase(), Exchange.ASTER, MarketType.FUTURES, book);
     }
 
     private void handleTradeUpdate(JsonNode data) {
@@ -546,9 +661,10 @@ public class AsterFuturesConnector extends AbstractWebSocketConnector {
                 ? java.time.Duration.between(lastMsg, Instant.now()).toSeconds() + "s ago" : "never";
         int initialized = countInitializedBooks();
         int totalGaps = gapCounts.values().stream().mapToInt(AtomicInteger::get).sum();
-        return String.format("msgs=%d, errs=%d, ob=%d, trades=%d, last=%s, syms=%d, books=%d/%d, gaps=%d, bridging=%d",
+        return String.format("msgs=%d, errs=%d, ob=%d, trades=%d, last=%s, syms=%d, books=%d/%d, gaps=%d, bridging=%d, %s",
                 messagesReceived.get(), messageErrors.get(),
                 orderbookUpdates.get(), tradeUpdates.get(),
-                lastMsgStr, subscribedSymbols.size(), initialized, localBooks.size(), totalGaps, pendingBridging.size());
+                lastMsgStr, subscribedSymbols.size(), initialized, localBooks.size(), totalGaps, pendingBridging.size(),
+                partialDepth.getStatusSummary());
     }
 }
@@ -1,10 +1,16 @@
 package com.cryptoview.exchange.binance;
 
+import com.cryptoview.config.CryptoViewProperties;
 import com.cryptoview.exchange.common.AbstractWebSocketConnector;
+import com.cryptoview.exchange.common.DepthTier;
 import com.cryptoview.exchange.common.LocalOrderBook;
+import com.cryptoview.exchange.common.PartialDepthStream;
+import com.cryptoview.exchange.common.SubscriptionManager;
+import com.cryptoview.exchange.common.TieredDepthConnector;
 import com.cryptoview.model.enums.Exchange;
 import com.cryptoview.model.enums.MarketType;
 import com.cryptoview.service.orderbook.OrderBookManager;
+import com.cryptoview.service.timer.HashedWheelTimer;
 import com.cryptoview.service.volume.VolumeTracker;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -28,22 +34,26 @@ import java.util.stream.Collectors;
 
 @Slf4j
 @Component
-public class BinanceFuturesConnector extends AbstractWebSocketConnector {
+public class BinanceFuturesConnector extends AbstractWebSocketConnector implements TieredDepthConnector {
 
     private static final String WS_URL = "wss://fstream.binance.com/stream";
     private static final String REST_URL = "https://fapi.binance.com/fapi/v1/exchangeInfo";
     private static final String DEPTH_SNAPSHOT_URL = "https://fapi.binance.com/fapi/v1/depth";
     private static final int SNAPSHOT_LIMIT = 1000; // weight 20 for futures
     private static final long SNAPSHOT_FETCH_DELAY_MS = 600; // weight 20 × 100/min = 2000 weight/min (limit 2400)
-    private static final long PUBLISH_THROTTLE_MS = 2000; // publish orderbook max once per 2 sec per symbol
-    private static final int MAX_SYMBOLS = 512; // 1024 streams / 2 streams per symbol
+    private static final int MAX_STREAMS = 1024; // per connection
+    private static final int STREAMS_PER_SYMBOL = 2; // depth + trades; compared symbols add the partial stream
     private static final int MAX_GAP_RETRIES = 3;
     private static final int MAX_PENDING_BUFFER_SIZE = 500; // safety limit for pending bridging buffer
+    private static final String DIFF_DEPTH_SUFFIX = "@depth@500ms";
+    // SHALLOW = partial depthN@100ms stream (no REST snapshot), STANDARD = diff-depth + snapshot
+    private static final Set<DepthTier> SUPPORTED_TIERS = Set.of(DepthTier.SHALLOW, DepthTier.STANDARD);
+    private static final SubscriptionManager.Limits SUBSCRIPTION_LIMITS =
+            new SubscriptionManager.Limits(100, 8, 4, 5000); // 10 incoming msgs/sec per connection
 
     private final Map<String, LocalOrderBook> localBooks = new ConcurrentHashMap<>();
     private final Map<String, Queue<JsonNode>> eventBuffers = new ConcurrentHashMap<>();
     private final Set<String> initializing = ConcurrentHashMap.newKeySet();
-    private final Map<String, Instant> lastPublishTime = new ConcurrentHashMap<>();
     private final BlockingQueue<String> refetchQueue = new LinkedBlockingQueue<>();
     private final Set<String> refetchPending = ConcurrentHashMap.newKeySet();
     private final Map<String, AtomicInteger> gapRetryCounts = new ConcurrentHashMap<>();
@@ -55,11 +65,18 @@ public class BinanceFuturesConnector extends AbstractWebSocketConnector {
 
     private volatile Thread refetchWorkerThread;
 
+    private final PartialDepthStream partialDepth;
+
     public BinanceFuturesConnector(OkHttpClient httpClient,
                                     ObjectMapper objectMapper,
                                     OrderBookManager orderBookManager,
-                                    VolumeTracker volumeTracker) {
-        super(httpClient, objectMapper, orderBookManager, volumeTracker);
+                                    VolumeTracker volumeTracker,
+                                    HashedWheelTimer timer,
+                                    CryptoViewProperties properties) {
+        super(httpClient, objectMapper, orderBookManager, volumeTracker, timer);
+        CryptoViewProperties.PartialDepthConfig partialConfig = properties.getPartialDepth();
+        this.partialDepth = new PartialDepthStream("[BINANCE:FUTURES]",
+                partialConfig.getLevels(), partialConfig.getCompareSymbols());
     }
 
     @Override
@@ -90,9 +107,11 @@ public class BinanceFuturesConnector extends AbstractWebSocketConnector {
             return;
         }
 
-        if (symbols.size() > MAX_SYMBOLS) {
-            log.warn("[BINANCE:FUTURES] Limiting from {} to {} symbols (1024 stream limit)", symbols.size(), MAX_SYMBOLS);
-            symbols = symbols.subList(0, MAX_SYMBOLS);
+        List<String> budgeted = partialDepth.withinStreamBudget(symbols, MAX_STREAMS, STREAMS_PER_SYMBOL);
+        if (budgeted.size() < symbols.size()) {
+            log.warn("[BINANCE:FUTURES] Limiting from {} to {} symbols ({} stream limit)",
+                    symbols.size(), budgeted.size(), MAX_STREAMS);
+            symbols = budgeted;
         }
 
         if (!connectAndWait(5000)) {
@@ -100,22 +119,12 @@ public class BinanceFuturesConnector extends AbstractWebSocketConnector {
             return;
         }
 
-        int batchSize = 20;
-        for (int i = 0; i < symbols.size(); i += batchSize) {
-            int end = Math.min(i + batchSize, symbols.size());
-            List<String> batch = symbols.subList(i, end);
-            subscribe(batch);
-            try {
-                Thread.sleep(500);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                break;
-            }
-        }
-        log.info("[BINANCE:FUTURES] Subscribed to {} symbols ({} streams)", symbols.size(), symbols.size() * 2);
+        subscribeAndAwait(symbols);
+        List<String> diffSymbols = diffDepthSymbols();
+        log.info("[BINANCE:FUTURES] Subscribed to {} symbols ({} diff-depth, {} partial depth)",
+                symbols.size(), diffSymbols.size(), subscribedSymbols.size() - diffSymbols.size());
 
-        List<String> symbolsCopy = List.copyOf(subscribedSymbols);
-        Thread.startVirtualThread(() -> fetchSnapshotsForAll(symbolsCopy));
+        Thread.startVirtualThread(() -> fetchSnapshotsForAll(diffSymbols));
 
         startRefetchWorker();
     }
@@ -128,7 +137,8 @@ public class BinanceFuturesConnector extends AbstractWebSocketConnector {
         refetchPending.clear();
         refetchQueue.clear();
         pendingBridging.clear();
-        for (String symbol : subscribedSymbols) {
+        List<String> diffSymbols = diffDepthSymbols();
+        for (String symbol : diffSymbols) {
             LocalOrderBook book = localBooks.get(symbol);
             if (book != null) {
                 book.reset();
@@ -136,8 +146,14 @@ public class BinanceFuturesConnector extends AbstractWebSocketConnector {
             initializing.add(symbol);
             eventBuffers.put(symbol, new ConcurrentLinkedQueue<>());
         }
-        List<String> symbolsCopy = List.copyOf(subscribedSymbols);
-        Thread.startVirtualThread(() -> fetchSnapshotsForAll(symbolsCopy));
+        // Partial depth symbols need no snapshot — the next message replaces the whole book
+        Thread.startVirtualThread(() -> fetchSnapshotsForAll(diffSymbols));
+    }
+
+    private List<String> diffDepthSymbols() {
+        return subscribedSymbols.stream()
+                .filter(s -> getDepthTier(s) != DepthTier.SHALLOW)
+                .toList();
     }
 
     private void startRefetchWorker() {
@@ -158,6 +174,9 @@ public class BinanceFuturesConnector extends AbstractWebSocketConnector {
                     String symbol = refetchQueue.poll(5, TimeUnit.SECONDS);
                     if (symbol != null) {
                         refetchPending.remove(symbol);
+                        if (getDepthTier(symbol) == DepthTier.SHALLOW) {
+                            continue; // moved to partial depth while queued
+                        }
                         if (!initializing.contains(symbol)) {
                             initializing.add(symbol);
                             eventBuffers.put(symbol, new ConcurrentLinkedQueue<>());
@@ -233,57 +252,77 @@ public class BinanceFuturesConnector extends AbstractWebSocketConnector {
                 return;
             }
 
-            JsonNode root = objectMapper.readTree(response.body().string());
-            long lastUpdateId = root.get("lastUpdateId").asLong();
-            List<List<String>> bids = parseLevelsRaw(root.get("bids"));
-            List<List<String>> asks = parseLevelsRaw(root.get("asks"));
+            String body = response.body().string();
+            recordSnapshot(symbol, body);
+            applySnapshotResponse(symbol, objectMapper.readTree(body));
+        } catch (IOException e) {
+            log.error("[BINANCE:FUTURES] Snapshot fetch failed for {}: {}", symbol, e.getMessage());
+            initializing.remove(symbol);
+            eventBuffers.remove(symbol);
+            pendingBridging.remove(symbol);
+        }
+    }
 
-            LocalOrderBook book = localBooks.computeIfAbsent(symbol, LocalOrderBook::new);
-            book.applySnapshot(bids, asks, lastUpdateId);
+    /**
+     * Applies a depth snapshot (REST response, or a recorded one on replay) and bridges buffered events.
+     */
+    private void applySnapshotResponse(String symbol, JsonNode root) {
+        initializing.add(symbol);
+        eventBuffers.putIfAbsent(symbol, new ConcurrentLinkedQueue<>());
 
-            // Try to find bridging event in buffer and apply chain
-            if (tryDrainBuffer(symbol, book, lastUpdateId)) {
-                // Bridging found and buffer drained successfully
-                // Now transition to runtime: remove initializing, drain tail, cleanup
-                initializing.remove(symbol);
+        long lastUpdateId = root.get("lastUpdateId").asLong();
+        List<List<String>> bids = parseLevelsRaw(root.get("bids"));
+        List<List<String>> asks = parseLevelsRaw(root.get("asks"));
 
-                // Drain tail events that arrived between buffer drain and initializing.remove
-                Queue<JsonNode> buffer = eventBuffers.get(symbol);
-                int tailApplied = 0;
-                if (buffer != null) {
-                    JsonNode tailEvent;
-                    while ((tailEvent = buffer.poll()) != null) {
-                        long u = tailEvent.get("u").asLong();
-                        if (u <= book.getLastUpdateId()) continue;
-                        long pu = tailEvent.has("pu") ? tailEvent.get("pu").asLong() : -1;
-                        if (pu != -1 && pu != book.getLastUpdateId()) {
-                            log.warn("[BINANCE:FUTURES] Gap in tail for {} (pu={}, expected={}), re-queuing",
-                                    symbol, pu, book.getLastUpdateId());
-                            book.reset();
-                            eventBuffers.remove(symbol);
-                            queueRefetch(symbol);
-                            return;
-                        }
-                        applyDiffEvent(book, tailEvent);
-                        tailApplied++;
+        LocalOrderBook book = localBooks.computeIfAbsent(symbol, LocalOrderBook::new);
+        book.applySnapshot(bids, asks, lastUpdateId);
+
+        // Try to find bridging event in buffer and apply chain
+        if (tryDrainBuffer(symbol, book, lastUpdateId)) {
+            // Bridging found and buffer drained successfully
+            // Now transition to runtime: remove initializing, drain tail, cleanup
+            initializing.remove(symbol);
+
+            // Drain tail events that arrived between buffer drain and initializing.remove
+            Queue<JsonNode> buffer = eventBuffers.get(symbol);
+            int tailApplied = 0;
+            if (buffer != null) {
+                JsonNode tailEvent;
+                while ((tailEvent = buffer.poll()) != null) {
+                    long u = tailEvent.get("u").asLong();
+                    if (u <= book.getLastUpdateId()) continue;
+                    long pu = tailEvent.has("pu") ? tailEvent.get("pu").asLong() : -1;
+                    if (pu != -1 && pu != book.getLastUpdateId()) {
+                        log.warn("[BINANCE:FUTURES] Gap in tail for {} (pu={}, expected={}), re-queuing",
+                                symbol, pu, book.getLastUpdateId());
+                        book.reset();
+                        eventBuffers.remove(symbol);
+                        queueRefetch(symbol);
+                        return;
                     }
+                    applyDiffEvent(book, tailEvent);
+                    tailApplied++;
                 }
-                eventBuffers.remove(symbol);
-                pendingBridging.remove(symbol);
-                publishOrderBook(symbol, book);
-                gapRetryCounts.remove(symbol);
-                log.info("[BINANCE:FUTURES] Initialized {} (snapshotId={}, tail={}, bookLastId={})",
-                        symbol, lastUpdateId, tailApplied, book.getLastUpdateId());
-            } else {
-                // Bridging event NOT in buffer yet — keep initializing, let handleDepthUpdate find it
-                pendingBridging.put(symbol, lastUpdateId);
-                log.debug("[BINANCE:FUTURES] {} waiting for bridging event (snapshotId={})", symbol, lastUpdateId);
             }
-        } catch (IOException e) {
-            log.error("[BINANCE:FUTURES] Snapshot fetch failed for {}: {}", symbol, e.getMessage());
-            initializing.remove(symbol);
             eventBuffers.remove(symbol);
             pendingBridging.remove(symbol);
+            publishOrderBook(symbol, book);
+            gapRetryCounts.remove(symbol);
+            partialDepth.markReady(symbol, false);
+            log.info("[BINANCE:FUTURES] Initialized {} (snapshotId={}, tail={}, bookLastId={})",
+                    symbol, lastUpdateId, tailApplied, book.getLastUpdateId());
+        } else {
+            // Bridging event NOT in buffer yet — keep initializing, let handleDepthUpdate find it
+            pendingBridging.put(symbol, lastUpdateId);
+            log.debug("[BINANCE:FUTURES] {} waiting for bridging event (snapshotId={})", symbol, lastUpdateId);
+        }
+    }
+
+    @Override
+    public void replaySnapshot(String symbol, String body) {
+        JsonNode root = parseJson(body);
+        if (root != null) {
+            applySnapshotResponse(symbol, root);
         }
     }
 
@@ -424,32 +463,93 @@ public class BinanceFuturesConnector extends AbstractWebSocketConnector {
 
     @Override
     public void subscribe(List<String> symbols) {
-        if (!connected.get()) {
-            log.warn("[BINANCE:FUTURES] Cannot subscribe - not connected");
-            return;
+        super.subscribe(symbols);
+        if (connected.get()) {
+            symbols.forEach(partialDepth::markSubscribed);
+        }
+    }
+
+    @Override
+    protected List<String> subscriptionTopics(String symbol) {
+        List<String> streams = new ArrayList<>(depthStreams(symbol, getDepthTier(symbol)));
+        streams.add(symbol.toLowerCase() + "@aggTrade");
+        return streams;
+    }
+
+    @Override
+    protected String buildSubscribeRequest(long requestId, List<String> topics) {
+        return String.format("{\"method\":\"SUBSCRIBE\",\"params\":%s,\"id\":%d}", toJsonArray(topics), requestId);
+    }
+
+    /**
+     * {"result":null,"id":N} on success, {"error":{"code":..,"msg":..},"id":N} (or flat code/msg) on rejection.
+     */
+    @Override
+    protected SubscriptionManager.Ack parseSubscriptionAck(JsonNode root) {
+        if (root.has("stream") || !root.has("id")) return null;
+        Long id = SubscriptionManager.Ack.requestId(root.get("id"));
+        if (id == null) return null;
+        if (root.has("error") || root.has("code")) {
+            JsonNode error = root.has("error") ? root.get("error") : root;
+            return SubscriptionManager.Ack.ofRequest(id, false, error.path("msg").asText());
         }
+        return root.has("result") ? SubscriptionManager.Ack.ofRequest(id, true, null) : null;
+    }
 
-        List<String> allStreams = new ArrayList<>();
-        for (String s : symbols) {
-            allStreams.add(s.toLowerCase() + "@depth@500ms");
-            allStreams.add(s.toLowerCase() + "@aggTrade");
+    @Override
+    protected SubscriptionManager.Limits getSubscriptionLimits() {
+        return SUBSCRIPTION_LIMITS;
+    }
+
+    private List<String> depthStreams(String symbol, DepthTier tier) {
+        if (partialDepth.isCompared(symbol)) {
+            return List.of(symbol.toLowerCase() + DIFF_DEPTH_SUFFIX, partialDepth.streamName(symbol));
         }
-        String msg = String.format("{\"method\":\"SUBSCRIBE\",\"params\":%s,\"id\":%d}",
-                toJsonArray(allStreams), System.currentTimeMillis());
-        webSocket.send(msg);
+        return List.of(tier == DepthTier.SHALLOW
+                ? partialDepth.streamName(symbol)
+                : symbol.toLowerCase() + DIFF_DEPTH_SUFFIX);
+    }
+
+    // ======================== Depth Tiers ========================
 
-        subscribedSymbols.addAll(symbols);
+    @Override
+    public Set<DepthTier> getSupportedDepthTiers() {
+        return SUPPORTED_TIERS;
     }
 
     @Override
-    protected String buildSubscribeMessage(List<String> symbols) {
-        List<String> allStreams = new ArrayList<>();
-        for (String s : symbols) {
-            allStreams.add(s.toLowerCase() + "@depth@500ms");
-            allStreams.add(s.toLowerCase() + "@aggTrade");
+    public DepthTier getDepthTier(String symbol) {
+        // Compared symbols always publish from diff-depth, with the partial stream alongside
+        return partialDepth.isCompared(symbol) ? DepthTier.STANDARD : super.getDepthTier(symbol);
+    }
+
+    @Override
+    protected String buildDepthUnsubscribe(String symbol, DepthTier tier) {
+        if (partialDepth.isCompared(symbol)) {
+            return null;
+        }
+        return String.format("{\"method\":\"UNSUBSCRIBE\",\"params\":%s,\"id\":%d}",
+                toJsonArray(depthStreams(symbol, tier)), System.currentTimeMillis());
+    }
+
+    @Override
+    protected void onDepthTierChanged(String symbol, DepthTier from, DepthTier to) {
+        LocalOrderBook book = localBooks.get(symbol);
+        if (book != null) {
+            book.reset();
+        }
+        gapRetryCounts.remove(symbol);
+        pendingBridging.remove(symbol);
+        partialDepth.markSubscribed(symbol);
+        if (to == DepthTier.SHALLOW) {
+            initializing.remove(symbol);
+            eventBuffers.remove(symbol);
+        } else {
+            // Back to diff-depth: buffer events until the snapshot arrives
+            initializing.add(symbol);
+            eventBuffers.put(symbol, new ConcurrentLinkedQueue<>());
+            queueRefetch(symbol);
         }
-        return String.format("{\"method\":\"SUBSCRIBE\",\"params\":%s,\"id\":%d}",
-                toJsonArray(allStreams), System.currentTimeMillis());
     }
 
     private String toJsonArray(List<String> items) {
@@ -465,7 +565,7 @@ public class BinanceFuturesConnector extends AbstractWebSocketConnector {
         JsonNode root = parseJson(message);
         if (root == null) return;
 
-        if (root.has("result") && root.has("id")) {
+        if (handleSubscriptionAck(root)) {
             return;
         }
 
@@ -473,7 +573,9 @@ public class BinanceFuturesConnector extends AbstractWebSocketConnector {
         JsonNode data = root.has("data") ? root.get("data") : root;
 
         if (stream != null) {
-            if (stream.contains("@depth")) {
+            if (partialDepth.isPartialStream(stream)) {
+                handlePartialDepth(data, extractSymbol(stream));
+            } else if (stream.contains("@depth")) {
                 handleDepthUpdate(data, extractSymbol(stream));
             } else if (stream.contains("@aggTrade")) {
                 handleTradeUpdate(data);
@@ -495,7 +597,39 @@ public class BinanceFuturesConnector extends AbstractWebSocketConnector {
         return stream.split("@")[0].toUpperCase();
     }
 
+    private void handlePartialDepth(JsonNode data, String symbol) {
+        if (partialDepth.isCompared(symbol)) {
+            if (partialDepth.onShadowMessage(symbol, localBooks.get(symbol), data)) {
+                resyncDiverged(symbol);
+            }
+            return;
+        }
+        if (!isReplaying() && getDepthTier(symbol) != DepthTier.SHALLOW) {
+            return; // in-flight message from the previous depth tier
+        }
+
+        LocalOrderBook book = localBooks.computeIfAbsent(symbol, LocalOrderBook::new);
+        partialDepth.apply(book, data);
+        incrementOrderbookUpdates();
+        publishOrderBook(symbol, book);
+    }
+
+    /**
+     * Diff-depth book disagrees with the partial book at the same update id — rebuild it from a snapshot.
+     */
+    private void resyncDiverged(String symbol) {
+        LocalOrderBook book = localBooks.get(symbol);
+        if (book != null) book.reset();
+        initializing.add(symbol);
+        eventBuffers.put(symbol, new ConcurrentLinkedQueue<>());
+        queueRefetch(symbol);
+    }
+
     private void handleDepthUpdate(JsonNode data, String symbol) {
+        if (!isReplaying() && getDepthTier(symbol) == DepthTier.SHALLOW) {
+            return; // in-flight message from the previous depth tier
+        }
+
         // If initializing — buffer the event, then try bridging if pending
         if (initializing.contains(symbol)) {
             Queue<JsonNode> buffer = eventBuffers.get(symbol);
@@ -561,6 +695,7 @@ public class BinanceFuturesConnector extends AbstractWebSocketConnector {
                             pendingBridging.remove(symbol);
                             publishOrderBook(symbol, book);
                             gapRetryCounts.remove(symbol);
+                            partialDepth.markReady(symbol, false);
                             log.info("[BINANCE:FUTURES] Initialized {} via WS bridging (snapshotId={}, bookLastId={})",
                                     symbol, snapshotId, book.getLastUpdateId());
                         }
@@ -601,14 +736,12 @@ public class BinanceFuturesConnector extends AbstractWebSocketConnector {
         // Apply delta
         applyDiffEvent(book, data);
         incrementOrderbookUpdates();
-
-        // Throttled publish
-        Instant lastPublish = lastPublishTime.get(symbol);
-        Instant now = Instant.now();
-        if (lastPublish == null || java.time.Duration.between(lastPublish, now).toMillis() >= PUBLISH_THROTTLE_MS) {
-            publishOrderBook(symbol, book);
-            lastPublishTime.put(symbol, now);
+        if (partialDepth.isCompared(symbol) && partialDepth.onDiffApplied(book)) {
+            resyncDiverged(symbol);
+            return;
         }
+
+        publishOrderBook(symbol, book);
     }
 
     private void applyDiffEvent(LocalOrderBook book, JsonNode data) {
@@ -623,17 +756,7 @@ public class BinanceFuturesConnector extends AbstractWebSocketConnector {
     }
 
     private void publishOrderBook(String symbol, LocalOrderBook book) {
-        LocalOrderBook.Snapshot snapshot = book.getSnapshot();
-        if (!snapshot.bids().isEmpty() || !snapshot.asks().isEmpty()) {
-            orderBookManager.updateOrderBook(
-                    symbol.toUpperCase(),
-                    Exchange.BINANCE,
-                    MarketType.FUTURES,
-                    snapshot.bids(),
-                    snapshot.asks(),
-                    null
-            );
-        }
+        orderBookManager.markDirty(symbol.toUpperCase(), Exchange.BINANCE, MarketType.FUTURES, book);
     }
 
     private void handleTradeUpdate(JsonNode data) {
@@ -682,11 +805,11 @@ public class BinanceFuturesConnector extends AbstractWebSocketConnector {
         int initialized = countInitializedBooks();
         int totalGaps = gapCounts.values().stream().mapToInt(AtomicInteger::get).sum();
         long exhausted = gapRetryCounts.values().stream().filter(c -> c.get() > MAX_GAP_RETRIES).count();
-        return String.format("msgs=%d, errs=%d, ob=%d, trades=%d, last=%s, syms=%d, books=%d/%d, gaps=%d, refetchQ=%d, pendingRefetch=%d, pendingBridging=%d, exhausted=%d",
+        return String.format("msgs=%d, errs=%d, ob=%d, trades=%d, last=%s, syms=%d, books=%d/%d, gaps=%d, refetchQ=%d, pendingRefetch=%d, pendingBridging=%d, exhausted=%d, %s",
                 messagesReceived.get(), messageErrors.get(),
                 orderbookUpdates.get(), tradeUpdates.get(),
                 lastMsgStr, subscribedSymbols.size(),
                 initialized, localBooks.size(), totalGaps, refetchQueue.size(),
-                refetchPending.size(), pendingBridging.size(), exhausted);
+                refetchPending.size(), pendingBridging.size(), exhausted, partialDepth.getStatusSummary());
     }
 }
@@ -1,10 +1,16 @@
 package com.cryptoview.exchange.binance;
 
+import com.cryptoview.config.CryptoViewProperties;
 import com.cryptoview.exchange.common.AbstractWebSocketConnector;
+import com.cryptoview.exchange.common.DepthTier;
 import com.cryptoview.exchange.common.LocalOrderBook;
+import com.cryptoview.exchange.common.PartialDepthStream;
+import com.cryptoview.exchange.common.SubscriptionManager;
+import com.cryptoview.exchange.common.TieredDepthConnector;
 import com.cryptoview.model.enums.Exchange;
 import com.cryptoview.model.enums.MarketType;
 import com.cryptoview.service.orderbook.OrderBookManager;
+import com.cryptoview.service.timer.HashedWheelTimer;
 import com.cryptoview.service.volume.VolumeTracker;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -28,17 +34,22 @@ import java.util.stream.Collectors;
 
 @Slf4j
 @Component
-public class BinanceSpotConnector extends AbstractWebSocketConnector {
+public class BinanceSpotConnector extends AbstractWebSocketConnector implements TieredDepthConnector {
 
     private static final String WS_URL = "wss://stream.binance.com:9443/stream";
     private static final String REST_URL = "https://api.binance.com/api/v3/exchangeInfo";
     private static final String DEPTH_SNAPSHOT_URL = "https://api.binance.com/api/v3/depth";
     private static final int SNAPSHOT_LIMIT = 1000; // weight 10
     private static final long SNAPSHOT_FETCH_DELAY_MS = 500; // weight 10 × 120/min = 1200 weight/min (limit 6000)
-    private static final long PUBLISH_THROTTLE_MS = 2000; // publish orderbook max once per 2 sec per symbol
-    private static final int MAX_SYMBOLS = 512; // 1024 streams / 2 streams per symbol
+    private static final int MAX_STREAMS = 1024; // per connection
+    private static final int STREAMS_PER_SYMBOL = 2; // depth + trades; compared symbols add the partial stream
 
     private static final int MAX_GAP_RETRIES = 3;
+    private static final String DIFF_DEPTH_SUFFIX = "@depth@100ms";
+    // SHALLOW = partial depthN@100ms stream (no REST snapshot), STANDARD = diff-depth + snapshot
+    private static final Set<DepthTier> SUPPORTED_TIERS = Set.of(DepthTier.SHALLOW, DepthTier.STANDARD);
+    private static final SubscriptionManager.Limits SUBSCRIPTION_LIMITS =
+            new SubscriptionManager.Limits(100, 4, 2, 5000); // 5 incoming msgs/sec per connection
 
     // Local orderbooks for diff-based depth management
     private final Map<String, LocalOrderBook> localBooks = new ConcurrentHashMap<>();
@@ -47,7 +58,6 @@ public class BinanceSpotConnector extends AbstractWebSocketConnector {
     // Track symbols currently initializing (fetching snapshot)
     private final Set<String> initializing = ConcurrentHashMap.newKeySet();
     // Throttle: last publish time per symbol
-    private final Map<String, Instant> lastPublishTime = new ConcurrentHashMap<>();
     // Queue for symbols that need snapshot refetch (gap detected)
     private final BlockingQueue<String> refetchQueue = new LinkedBlockingQueue<>();
     // Dedup set: symbols already in refetchQueue
@@ -61,11 +71,19 @@ public class BinanceSpotConnector extends AbstractWebSocketConnector {
 
     private volatile Thread refetchWorkerThread;
 
+    // Partial book stream for SHALLOW tier symbols
+    private final PartialDepthStream partialDepth;
+
     public BinanceSpotConnector(OkHttpClient httpClient,
                                  ObjectMapper objectMapper,
                                  OrderBookManager orderBookManager,
-                                 VolumeTracker volumeTracker) {
-        super(httpClient, objectMapper, orderBookManager, volumeTracker);
+                                 VolumeTracker volumeTracker,
+                                 HashedWheelTimer timer,
+                                 CryptoViewProperties properties) {
+        super(httpClient, objectMapper, orderBookManager, volumeTracker, timer);
+        CryptoViewProperties.PartialDepthConfig partialConfig = properties.getPartialDepth();
+        this.partialDepth = new PartialDepthStream("[BINANCE:SPOT]",
+                partialConfig.getLevels(), partialConfig.getCompareSymbols());
     }
 
     @Override
@@ -96,9 +114,11 @@ public class BinanceSpotConnector extends AbstractWebSocketConnector {
             return;
         }
 
-        if (symbols.size() > MAX_SYMBOLS) {
-            log.warn("[BINANCE:SPOT] Limiting from {} to {} symbols (1024 stream limit)", symbols.size(), MAX_SYMBOLS);
-            symbols = symbols.subList(0, MAX_SYMBOLS);
+        List<String> budgeted = partialDepth.withinStreamBudget(symbols, MAX_STREAMS, STREAMS_PER_SYMBOL);
+        if (budgeted.size() < symbols.size()) {
+            log.warn("[BINANCE:SPOT] Limiting from {} to {} symbols ({} stream limit)",
+                    symbols.size(), budgeted.size(), MAX_STREAMS);
+            symbols = budgeted;
         }
 
         if (!connectAndWait(5000)) {
@@ -106,24 +126,13 @@ public class BinanceSpotConnector extends AbstractWebSocketConnector {
             return;
         }
 
-        // Subscribe in batches
-        int batchSize = 20;
-        for (int i = 0; i < symbols.size(); i += batchSize) {
-            int end = Math.min(i + batchSize, symbols.size());
-            List<String> batch = symbols.subList(i, end);
-            subscribe(batch);
-            try {
-                Thread.sleep(500);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                break;
-            }
-        }
-        log.info("[BINANCE:SPOT] Subscribed to {} symbols ({} streams)", symbols.size(), symbols.size() * 2);
+        subscribeAndAwait(symbols);
+        List<String> diffSymbols = diffDepthSymbols();
+        log.info("[BINANCE:SPOT] Subscribed to {} symbols ({} diff-depth, {} partial depth)",
+                symbols.size(), diffSymbols.size(), subscribedSymbols.size() - diffSymbols.size());
 
-        // Start sequential snapshot fetcher
-        List<String> symbolsCopy = List.copyOf(subscribedSymbols);
-        Thread.startVirtualThread(() -> fetchSnapshotsForAll(symbolsCopy));
+        // Start sequential snapshot fetcher (partial depth symbols need no snapshot)
+        Thread.startVirtualThread(() -> fetchSnapshotsForAll(diffSymbols));
 
         // Start refetch worker for gap recovery
         startRefetchWorker();
@@ -137,7 +146,8 @@ public class BinanceSpotConnector extends AbstractWebSocketConnector {
         gapRetryCounts.clear();
         refetchPending.clear();
         refetchQueue.clear();
-        for (String symbol : subscribedSymbols) {
+        List<String> diffSymbols = diffDepthSymbols();
+        for (String symbol : diffSymbols) {
             LocalOrderBook book = localBooks.get(symbol);
             if (book != null) {
                 book.reset();
@@ -145,8 +155,14 @@ public class BinanceSpotConnector extends AbstractWebSocketConnector {
             initializing.add(symbol);
             eventBuffers.put(symbol, new ConcurrentLinkedQueue<>());
         }
-        List<String> symbolsCopy = List.copyOf(subscribedSymbols);
-        Thread.startVirtualThread(() -> fetchSnapshotsForAll(symbolsCopy));
+        // Partial depth symbols need no snapshot — the next message replaces the whole book
+        Thread.startVirtualThread(() -> fetchSnapshotsForAll(diffSymbols));
+    }
+
+    private List<String> diffDepthSymbols() {
+        return subscribedSymbols.stream()
+                .filter(s -> getDepthTier(s) != DepthTier.SHALLOW)
+                .toList();
     }
 
     private void startRefetchWorker() {
@@ -167,6 +183,9 @@ public class BinanceSpotConnector extends AbstractWebSocketConnector {
                     String symbol = refetchQueue.poll(5, TimeUnit.SECONDS);
                     if (symbol != null) {
                         refetchPending.remove(symbol);
+                        if (getDepthTier(symbol) == DepthTier.SHALLOW) {
+                            continue; // moved to partial depth while queued
+                        }
                         if (!initializing.contains(symbol)) {
                             initializing.add(symbol);
                             eventBuffers.put(symbol, new ConcurrentLinkedQueue<>());
@@ -242,87 +261,107 @@ public class BinanceSpotConnector extends AbstractWebSocketConnector {
                 return;
             }
 
-            JsonNode root = objectMapper.readTree(response.body().string());
-            long lastUpdateId = root.get("lastUpdateId").asLong();
-            List<List<String>> bids = parseLevelsRaw(root.get("bids"));
-            List<List<String>> asks = parseLevelsRaw(root.get("asks"));
+            String body = response.body().string();
+            recordSnapshot(symbol, body);
+            applySnapshotResponse(symbol, objectMapper.readTree(body));
+        } catch (IOException e) {
+            log.error("[BINANCE:SPOT] Snapshot fetch failed for {}: {}", symbol, e.getMessage());
+            initializing.remove(symbol);
+            eventBuffers.remove(symbol);
+        }
+    }
 
-            LocalOrderBook book = localBooks.computeIfAbsent(symbol, LocalOrderBook::new);
-            book.applySnapshot(bids, asks, lastUpdateId);
+    /**
+     * Applies a depth snapshot (REST response, or a recorded one on replay) and bridges buffered events.
+     */
+    private void applySnapshotResponse(String symbol, JsonNode root) {
+        initializing.add(symbol);
+        eventBuffers.putIfAbsent(symbol, new ConcurrentLinkedQueue<>());
 
-            // Phase 1: Drain buffer while initializing flag is set
-            // handleDepthUpdate sees initializing=true → adds to buffer (not lost)
-            Queue<JsonNode> buffer = eventBuffers.get(symbol);
-            if (buffer != null) {
-                int applied = 0;
-                boolean foundFirst = false;
-                JsonNode event;
-
-                while ((event = buffer.poll()) != null) {
-                    long u = event.get("u").asLong();
-                    long U = event.get("U").asLong();
-
-                    if (u <= lastUpdateId) continue;
-
-                    if (!foundFirst) {
-                        if (U <= lastUpdateId + 1 && u >= lastUpdateId + 1) {
-                            foundFirst = true;
-                        } else if (U > lastUpdateId + 1) {
-                            log.warn("[BINANCE:SPOT] Gap after snapshot for {} (snapshotId={}, firstEventU={}, delta={}), re-queuing",
-                                    symbol, lastUpdateId, U, U - lastUpdateId - 1);
-                            book.reset();
-                            eventBuffers.remove(symbol);
-                            initializing.remove(symbol);
-                            queueRefetch(symbol);
-                            return;
-                        } else {
-                            continue;
-                        }
+        long lastUpdateId = root.get("lastUpdateId").asLong();
+        List<List<String>> bids = parseLevelsRaw(root.get("bids"));
+        List<List<String>> asks = parseLevelsRaw(root.get("asks"));
+
+        LocalOrderBook book = localBooks.computeIfAbsent(symbol, LocalOrderBook::new);
+        book.applySnapshot(bids, asks, lastUpdateId);
+
+        // Phase 1: Drain buffer while initializing flag is set
+        // handleDepthUpdate sees initializing=true → adds to buffer (not lost)
+        Queue<JsonNode> buffer = eventBuffers.get(symbol);
+        if (buffer != null) {
+            int applied = 0;
+            boolean foundFirst = false;
+            JsonNode event;
+
+            while ((event = buffer.poll()) != null) {
+                long u = event.get("u").asLong();
+                long U = event.get("U").asLong();
+
+                if (u <= lastUpdateId) continue;
+
+                if (!foundFirst) {
+                    if (U <= lastUpdateId + 1 && u >= lastUpdateId + 1) {
+                        foundFirst = true;
+                    } else if (U > lastUpdateId + 1) {
+                        log.warn("[BINANCE:SPOT] Gap after snapshot for {} (snapshotId={}, firstEventU={}, delta={}), re-queuing",
+                                symbol, lastUpdateId, U, U - lastUpdateId - 1);
+                        book.reset();
+                        eventBuffers.remove(symbol);
+                        initializing.remove(symbol);
+                        queueRefetch(symbol);
+                        return;
+                    } else {
+                        continue;
                     }
-
-                    applyDiffEvent(book, event);
-                    applied++;
                 }
 
-                if (applied > 0) {
-                    log.debug("[BINANCE:SPOT] {} buffered events applied for {}", applied, symbol);
-                }
+                applyDiffEvent(book, event);
+                applied++;
             }
 
-            // Phase 2: Remove initializing flag — handleDepthUpdate now goes to runtime path
-            initializing.remove(symbol);
+            if (applied > 0) {
+                log.debug("[BINANCE:SPOT] {} buffered events applied for {}", applied, symbol);
+            }
+        }
 
-            // Phase 3: Drain any events that arrived between phase 1 drain and initializing.remove
-            if (buffer != null) {
-                JsonNode tailEvent;
-                while ((tailEvent = buffer.poll()) != null) {
-                    long u = tailEvent.get("u").asLong();
-                    long U = tailEvent.get("U").asLong();
-                    if (u <= book.getLastUpdateId()) continue;
-                    if (U > book.getLastUpdateId() + 1) {
-                        log.warn("[BINANCE:SPOT] Gap in tail events for {} (expected U<={}, got U={}), re-queuing",
-                                symbol, book.getLastUpdateId() + 1, U);
-                        book.reset();
-                        eventBuffers.remove(symbol);
-                        queueRefetch(symbol);
-                        return;
-                    }
-                    applyDiffEvent(book, tailEvent);
+        // Phase 2: Remove initializing flag — handleDepthUpdate now goes to runtime path
+        initializing.remove(symbol);
+
+        // Phase 3: Drain any events that arrived between phase 1 drain and initializing.remove
+        if (buffer != null) {
+            JsonNode tailEvent;
+            while ((tailEvent = buffer.poll()) != null) {
+                long u = tailEvent.get("u").asLong();
+                long U = tailEvent.get("U").asLong();
+                if (u <= book.getLastUpdateId()) continue;
+                if (U > book.getLastUpdateId() + 1) {
+                    log.warn("[BINANCE:SPOT] Gap in tail events for {} (expected U<={}, got U={}), re-queuing",
+                            symbol, book.getLastUpdateId() + 1, U);
+                    book.reset();
+                    eventBuffers.remove(symbol);
+                    queueRefetch(symbol);
+                    return;
                 }
+                applyDiffEvent(book, tailEvent);
             }
+        }
 
-            // Cleanup buffer entry
-            eventBuffers.remove(symbol);
+        // Cleanup buffer entry
+        eventBuffers.remove(symbol);
 
-            publishOrderBook(symbol, book);
-            gapRetryCounts.remove(symbol);
+        publishOrderBook(symbol, book);
+        gapRetryCounts.remove(symbol);
+        partialDepth.markReady(symbol, false);
 
-            log.debug("[BINANCE:SPOT] Initialized {} ({} bids + {} asks, lastUpdateId={})",
-                    symbol, book.getBidCount(), book.getAskCount(), lastUpdateId);
-        } catch (IOException e) {
-            log.error("[BINANCE:SPOT] Snapshot fetch failed for {}: {}", symbol, e.getMessage());
-            initializing.remove(symbol);
-            eventBuffers.remove(symbol);
+        log.debug("[BINANCE:SPOT] Initialized {} ({} bids + {} asks, lastUpdateId={})",
+                symbol, book.getBidCount(), book.getAskCount(), lastUpdateId);
+    }
+
+    @Override
+    public void replaySnapshot(String symbol, String body) {
+        JsonNode root = parseJson(body);
+        if (root != null) {
+            applySnapshotResponse(symbol, root);
         }
     }
 
@@ -373,32 +412,92 @@ public class BinanceSpotConnector extends AbstractWebSocketConnector {
 
     @Override
     public void subscribe(List<String> symbols) {
-        if (!connected.get()) {
-            log.warn("[BINANCE:SPOT] Cannot subscribe - not connected");
-            return;
+        super.subscribe(symbols);
+        if (connected.get()) {
+            symbols.forEach(partialDepth::markSubscribed);
+        }
+    }
+
+    @Override
+    protected List<String> subscriptionTopics(String symbol) {
+        List<String> streams = new ArrayList<>(depthStreams(symbol, getDepthTier(symbol)));
+        streams.add(symbol.toLowerCase() + "@trade");
+        return streams;
+    }
+
+    @Override
+    protected String buildSubscribeRequest(long requestId, List<String> topics) {
+        return String.format("{\"method\":\"SUBSCRIBE\",\"params\":%s,\"id\":%d}", toJsonArray(topics), requestId);
+    }
+
+    /**
+     * {"result":null,"id":N} on success, {"error":{"code":..,"msg":..},"id":N} (or flat code/msg) on rejection.
+     */
+    @Override
+    protected SubscriptionManager.Ack parseSubscriptionAck(JsonNode root) {
+        if (root.has("stream") || !root.has("id")) return null;
+        Long id = SubscriptionManager.Ack.requestId(root.get("id"));
+        if (id == null) return null;
+        if (root.has("error") || root.has("code")) {
+            JsonNode error = root.has("error") ? root.get("error") : root;
+            return SubscriptionManager.Ack.ofRequest(id, false, error.path("msg").asText());
         }
+        return root.has("result") ? SubscriptionManager.Ack.ofRequest(id, true, null) : null;
+    }
+
+    @Override
+    protected SubscriptionManager.Limits getSubscriptionLimits() {
+        return SUBSCRIPTION_LIMITS;
+    }
 
-        List<String> allStreams = new ArrayList<>();
-        for (String s : symbols) {
-            allStreams.add(s.toLowerCase() + "@depth@100ms");
-            allStreams.add(s.toLowerCase() + "@trade");
+    private List<String> depthStreams(String symbol, DepthTier tier) {
+        if (partialDepth.isCompared(symbol)) {
+            return List.of(symbol.toLowerCase() + DIFF_DEPTH_SUFFIX, partialDepth.streamName(symbol));
         }
-        String msg = String.format("{\"method\":\"SUBSCRIBE\",\"params\":%s,\"id\":%d}",
-                toJsonArray(allStreams), System.currentTimeMillis());
-        webSocket.send(msg);
+        return List.of(tier == DepthTier.SHALLOW
+                ? partialDepth.streamName(symbol)
+                : symbol.toLowerCase() + DIFF_DEPTH_SUFFIX);
+    }
 
-        subscribedSymbols.addAll(symbols);
+    // ======================== Depth Tiers ========================
+
+    @Override
+    public Set<DepthTier> getSupportedDepthTiers() {
+        return SUPPORTED_TIERS;
+    }
+
+    @Override
+    public DepthTier getDepthTier(String symbol) {
+        // Compared symbols always publish from diff-depth, with the partial stream alongside
+        return partialDepth.isCompared(symbol) ? DepthTier.STANDARD : super.getDepthTier(symbol);
+    }
+
+    @Override
+    protected String buildDepthUnsubscribe(String symbol, DepthTier tier) {
+        if (partialDepth.isCompared(symbol)) {
+            return null;
+        }
+        return String.format("{\"method\":\"UNSUBSCRIBE\",\"params\":%s,\"id\":%d}",
+                toJsonArray(depthStreams(symbol, tier)), System.currentTimeMillis());
     }
 
     @Override
-    protected String buildSubscribeMessage(List<String> symbols) {
-        List<String> allStreams = new ArrayList<>();
-        for (String s : symbols) {
-            allStreams.add(s.toLowerCase() + "@depth@100ms");
-            allStreams.add(s.toLowerCase() + "@trade");
+    protected void onDepthTierChanged(String symbol, DepthTier from, DepthTier to) {
+        LocalOrderBook book = localBooks.get(symbol);
+        if (book != null) {
+            book.reset();
+        }
+        gapRetryCounts.remove(symbol);
+        partialDepth.markSubscribed(symbol);
+        if (to == DepthTier.SHALLOW) {
+            initializing.remove(symbol);
+            eventBuffers.remove(symbol);
+        } else {
+            // Back to diff-depth: buffer events until the snapshot arrives
+            initializing.add(symbol);
+            eventBuffers.put(symbol, new ConcurrentLinkedQueue<>());
+            queueRefetch(symbol);
         }
-        return String.format("{\"method\":\"SUBSCRIBE\",\"params\":%s,\"id\":%d}",
-                toJsonArray(allStreams), System.currentTimeMillis());
     }
 
     private String toJsonArray(List<String> items) {
@@ -415,7 +514,7 @@ public class BinanceSpotConnector extends AbstractWebSocketConnector {
         if (root == null) return;
 
         // Skip subscription confirmation
-        if (root.has("result") && root.has("id")) {
+        if (handleSubscriptionAck(root)) {
             return;
         }
 
@@ -423,7 +522,9 @@ public class BinanceSpotConnector extends AbstractWebSocketConnector {
         JsonNode data = root.has("data") ? root.get("data") : root;
 
         if (stream != null) {
-            if (stream.contains("@depth")) {
+            if (partialDepth.isPartialStream(stream)) {
+                handlePartialDepth(data, extractSymbol(stream));
+            } else if (stream.contains("@depth")) {
                 handleDepthUpdate(data, extractSymbol(stream));
             } else if (stream.contains("@trade")) {
                 handleTradeUpdate(data);
@@ -445,7 +546,39 @@ public class BinanceSpotConnector extends AbstractWebSocketConnector {
         return stream.split("@")[0].toUpperCase();
     }
 
+    private void handlePartialDepth(JsonNode data, String symbol) {
+        if (partialDepth.isCompared(symbol)) {
+            if (partialDepth.onShadowMessage(symbol, localBooks.get(symbol), data)) {
+                resyncDiverged(symbol);
+            }
+            return;
+        }
+        if (!isReplaying() && getDepthTier(symbol) != DepthTier.SHALLOW) {
+            return; // in-flight message from the previous depth tier
+        }
+
+        LocalOrderBook book = localBooks.computeIfAbsent(symbol, LocalOrderBook::new);
+        partialDepth.apply(book, data);
+        incrementOrderbookUpdates();
+        publishOrderBook(symbol, book);
+    }
+
+    /**
+     * Diff-depth book disagrees with the partial book at the same update id — rebuild it from a snapshot.
+     */
+    private void resyncDiverged(String symbol) {
+        LocalOrderBook book = localBooks.get(symbol);
+        if (book != null) book.reset();
+        initializing.add(symbol);
+        eventBuffers.put(symbol, new ConcurrentLinkedQueue<>());
+        queueRefetch(symbol);
+    }
+
     private void handleDepthUpdate(JsonNode data, String symbol) {
+        if (!isReplaying() && getDepthTier(symbol) == DepthTier.SHALLOW) {
+            return; // in-flight message from the previous depth tier
+        }
+
         // If initializing — buffer the event
         if (initializing.contains(symbol)) {
             Queue<JsonNode> buffer = eventBuffers.get(symbol);
@@ -487,16 +620,15 @@ public class BinanceSpotConnector extends AbstractWebSocketConnector {
         // Apply delta — always keep local book up-to-date
         applyDiffEvent(book, data);
         incrementOrderbookUpdates();
-
-        // Throttled publish: only publish if enough time has passed
-        Instant lastPublish = lastPublishTime.get(symbol);
-        Instant now = Instant.now();
-        if (lastPublish == null || java.time.Duration.between(lastPublish, now).toMillis() >= PUBLISH_THROTTLE_MS) {
-            publishOrderBook(symbol, book);
-            lastPublishTime.put(symbol, now);
+        if (partialDepth.isCompared(symbol) && partialDepth.onDiffApplied(book)) {
+            resyncDiverged(symbol);
+            return;
         }
+
+        publishOrderBook(symbol, book);
     }
 
+    // Throttled publish: only publish if enough time has passed
     private void applyDiffEvent(LocalOrderBook book, JsonNode data) {
         long u = data.get("u").asLong();
         List<List<String>> bids = parseLevelsRaw(data.get("b"));
@@ -510,17 +642,7 @@ public class BinanceSpotConnector extends AbstractWebSocketConnector {
     }
 
     private void publishOrderBook(String symbol, LocalOrderBook book) {
-        LocalOrderBook.Snapshot snapshot = book.getSnapshot();
-        if (!snapshot.bids().isEmpty() || !snapshot.asks().isEmpty()) {
-            orderBookManager.updateOrderBook(
-                    symbol.toUpperCase(),
-                    Exchange.BINANCE,
-                    MarketType.SPOT,
-                    snapshot.bids(),
-                    snapshot.asks(),
-                    null
-            );
-        }
+        orderBookManager.markDirty(symbol.toUpperCase(), Exchange.BINANCE, MarketType.SPOT, book);
     }
 
     private void handleTradeUpdate(JsonNode data) {
@@ -570,11 +692,11 @@ public class BinanceSpotConnector extends AbstractWebSocketConnector {
         int initialized = countInitializedBooks();
         int totalGaps = gapCounts.values().stream().mapToInt(AtomicInteger::get).sum();
         long exhausted = gapRetryCounts.values().stream().filter(c -> c.get() > MAX_GAP_RETRIES).count();
-        return String.format("msgs=%d, errs=%d, ob=%d, trades=%d, last=%s, syms=%d, books=%d/%d, gaps=%d, refetchQ=%d, pendingRefetch=%d, exhausted=%d",
+        return String.format("msgs=%d, errs=%d, ob=%d, trades=%d, last=%s, syms=%d, books=%d/%d, gaps=%d, refetchQ=%d, pendingRefetch=%d, exhausted=%d, %s",
                 messagesReceived.get(), messageErrors.get(),
                 orderbookUpdates.get(), tradeUpdates.get(),
                 lastMsgStr, subscribedSymbols.size(),
                 initialized, localBooks.size(), totalGaps, refetchQueue.size(),
-                refetchPending.size(), exhausted);
+                refetchPending.size(), exhausted, partialDepth.getStatusSummary());
     }
 }
@@ -1,10 +1,14 @@
 package com.cryptoview.exchange.bitget;
 
 import com.cryptoview.exchange.common.AbstractWebSocketConnector;
+import com.cryptoview.exchange.common.DepthTier;
 import com.cryptoview.exchange.common.LocalOrderBook;
+import com.cryptoview.exchange.common.SubscriptionManager;
+import com.cryptoview.exchange.common.TieredDepthConnector;
 import com.cryptoview.model.enums.Exchange;
 import com.cryptoview.model.enums.MarketType;
 import com.cryptoview.service.orderbook.OrderBookManager;
+import com.cryptoview.service.timer.HashedWheelTimer;
 import com.cryptoview.service.volume.VolumeTracker;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -19,23 +23,33 @@ import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 @Component
-public class BitgetFuturesConnector extends AbstractWebSocketConnector {
+public class BitgetFuturesConnector extends AbstractWebSocketConnector implements TieredDepthConnector {
 
     private static final String WS_URL = "wss://ws.bitget.com/v2/ws/public";
     private static final String REST_URL = "https://api.bitget.com/api/v2/mix/market/contracts?productType=USDT-FUTURES";
     private static final String DEPTH_SNAPSHOT_URL = "https://api.bitget.com/api/v2/mix/market/merge-depth";
+    // books = full depth incremental, books15/books5 = full snapshot on every push
+    private static final Map<DepthTier, String> BOOK_CHANNELS = Map.of(
+            DepthTier.SHALLOW, "books5",
+            DepthTier.STANDARD, "books15",
+            DepthTier.DEEP, "books"
+    );
+    // 10 messages/sec per connection
+    private static final SubscriptionManager.Limits SUBSCRIPTION_LIMITS = new SubscriptionManager.Limits(100, 8, 4, 5000);
 
     private final Map<String, LocalOrderBook> localBooks = new ConcurrentHashMap<>();
 
     public BitgetFuturesConnector(OkHttpClient httpClient,
                                    ObjectMapper objectMapper,
                                    OrderBookManager orderBookManager,
-                                   VolumeTracker volumeTracker) {
-        super(httpClient, objectMapper, orderBookManager, volumeTracker);
+                                   VolumeTracker volumeTracker,
+                                   HashedWheelTimer timer) {
+        super(httpClient, objectMapper, orderBookManager, volumeTracker, timer);
     }
 
     @Override
@@ -67,19 +81,7 @@ public class BitgetFuturesConnector extends AbstractWebSocketConnector {
                 return;
             }
 
-            int batchSize = 50;
-            for (int i = 0; i < symbols.size(); i += batchSize) {
-                int end = Math.min(i + batchSize, symbols.size());
-                List<String> batch = symbols.subList(i, end);
-                subscribe(batch);
-
-                try {
-                    Thread.sleep(100);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    break;
-                }
-            }
+            subscribeAndAwait(symbols);
             log.info("[BITGET:FUTURES] Subscribed to {} symbols", symbols.size());
         }
     }
@@ -116,21 +118,68 @@ public class BitgetFuturesConnector extends AbstractWebSocketConnector {
     }
 
     @Override
-    protected String buildSubscribeMessage(List<String> symbols) {
-        List<String> args = new ArrayList<>();
-        for (String symbol : symbols) {
-            args.add(String.format("{\"instType\":\"USDT-FUTURES\",\"channel\":\"books\",\"instId\":\"%s\"}", symbol));
-            args.add(String.format("{\"instType\":\"USDT-FUTURES\",\"channel\":\"trade\",\"instId\":\"%s\"}", symbol));
+    protected List<String> subscriptionTopics(String symbol) {
+        return List.of(BOOK_CHANNELS.get(getDepthTier(symbol)) + ":" + symbol, "trade:" + symbol);
+    }
+
+    @Override
+    protected String buildSubscribeRequest(long requestId, List<String> topics) {
+        // Bitget has no request id — acks are matched per channel
+        List<String> args = new ArrayList<>(topics.size());
+        for (String topic : topics) {
+            int sep = topic.indexOf(':');
+            args.add(String.format("{\"instType\":\"USDT-FUTURES\",\"channel\":\"%s\",\"instId\":\"%s\"}",
+                    topic.substring(0, sep), topic.substring(sep + 1)));
         }
         return String.format("{\"op\":\"subscribe\",\"args\":[%s]}", String.join(",", args));
     }
 
+    @Override
+    protected SubscriptionManager.Ack parseSubscriptionAck(JsonNode root) {
+        String event = root.path("event").asText();
+        JsonNode arg = root.get("arg");
+        if (arg == null || !("subscribe".equals(event) || "error".equals(event))) return null;
+        String topic = arg.path("channel").asText() + ":" + arg.path("instId").asText();
+        return "subscribe".equals(event)
+                ? SubscriptionManager.Ack.ofTopic(topic, true, null)
+                : SubscriptionManager.Ack.ofTopic(topic, false, root.path("msg").asText());
+    }
+
+    @Override
+    protected SubscriptionManager.Limits getSubscriptionLimits() {
+        return SUBSCRIPTION_LIMITS;
+    }
+
+    @Override
+    public DepthTier getDefaultDepthTier() {
+        return DepthTier.DEEP;
+    }
+
+    @Override
+    public Set<DepthTier> getSupportedDepthTiers() {
+        return BOOK_CHANNELS.keySet();
+    }
+
+    @Override
+    protected String buildDepthUnsubscribe(String symbol, DepthTier tier) {
+        return String.format("{\"op\":\"unsubscribe\",\"args\":[{\"instType\":\"USDT-FUTURES\",\"channel\":\"%s\",\"instId\":\"%s\"}]}",
+                BOOK_CHANNELS.get(tier), symbol);
+    }
+
+    @Override
+    protected void onDepthTierChanged(String symbol, DepthTier from, DepthTier to) {
+        LocalOrderBook book = localBooks.get(toMarketSymbol(symbol));
+        if (book != null) {
+            book.reset();
+        }
+    }
+
     @Override
     protected void handleMessage(String message) {
         JsonNode root = parseJson(message);
         if (root == null) return;
 
-        if (root.has("event")) {
+        if (handleSubscriptionAck(root) || root.has("event")) {
             return;
         }
 
@@ -144,7 +193,10 @@ public class BitgetFuturesConnector extends AbstractWebSocketConnector {
         String channel = arg.get("channel").asText();
         String instId = arg.get("instId").asText();
 
-        if ("books".equals(channel)) {
+        if (channel.startsWith("books")) {
+            if (!isReplaying() && !channel.equals(BOOK_CHANNELS.get(getDepthTier(instId)))) {
+                return; // in-flight message from the previous depth tier
+            }
             String action = root.has("action") ? root.get("action").asText() : "snapshot";
             handleOrderBook(data, instId, action);
         } else if ("trade".equals(channel)) {
@@ -158,7 +210,7 @@ public class BitgetFuturesConnector extends AbstractWebSocketConnector {
         }
 
         JsonNode bookData = data.get(0);
-        String symbol = instId.replace("_", "");
+        String symbol = toMarketSymbol(instId);
         LocalOrderBook book = localBooks.computeIfAbsent(symbol, LocalOrderBook::new);
 
         long seq = bookData.has("seq") ? bookData.get("seq").asLong() : 0;
@@ -189,6 +241,11 @@ public class BitgetFuturesConnector extends AbstractWebSocketConnector {
         publishOrderBook(symbol, book);
     }
 
+    @Override
+    public String toMarketSymbol(String instId) {
+        return instId.replace("_", "");
+    }
+
     private void fetchRestSnapshot(String instId, LocalOrderBook book) {
         Thread.startVirtualThread(() -> {
             String url = DEPTH_SNAPSHOT_URL + "?productType=USDT-FUTURES&symbol=" + instId + "&limit=100";
@@ -212,17 +269,7 @@ public class BitgetFuturesConnector extends AbstractWebSocketConnector {
     }
 
     private void publishOrderBook(String symbol, LocalOrderBook book) {
-        LocalOrderBook.Snapshot snapshot = book.getSnapshot();
-        if (!snapshot.bids().isEmpty() || !snapshot.asks().isEmpty()) {
-            orderBookManager.updateOrderBook(
-                    symbol,
-                    Exchange.BITGET,
-                    MarketType.FUTURES,
-                    snapshot.bids(),
-                    snapshot.asks(),
-                    null
-            );
-        }
+        orderBookManager.markDirty(symbol, Exchange.BITGET, MarketType.FUTURES, book);
     }
 
     private void handleTrades(JsonNode data, String instId) {
@@ -1,10 +1,14 @@
 package com.cryptoview.exchange.bybit;
 
 import com.cryptoview.exchange.common.AbstractWebSocketConnector;
+import com.cryptoview.exchange.common.DepthTier;
 import com.cryptoview.exchange.common.LocalOrderBook;
+import com.cryptoview.exchange.common.SubscriptionManager;
+import com.cryptoview.exchange.common.TieredDepthConnector;
 import com.cryptoview.model.enums.Exchange;
 import com.cryptoview.model.enums.MarketType;
 import com.cryptoview.service.orderbook.OrderBookManager;
+import com.cryptoview.service.timer.HashedWheelTimer;
 import com.cryptoview.service.volume.VolumeTracker;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -17,25 +21,39 @@ import org.springframework.stereotype.Component;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Component
-public class BybitFuturesConnector extends AbstractWebSocketConnector {
+public class BybitFuturesConnector extends AbstractWebSocketConnector implements TieredDepthConnector {
 
     private static final String WS_URL = "wss://stream.bybit.com/v5/public/linear";
     private static final String REST_URL = "https://api.bybit.com/v5/market/instruments-info?category=linear";
 
+    // Bybit orderbook depth per tier: orderbook.{depth}.{symbol}
+    private static final Map<DepthTier, Integer> BOOK_DEPTHS = Map.of(DepthTier.SHALLOW, 50, DepthTier.STANDARD, 200, DepthTier.DEEP, 500);
+    private static final Map<DepthTier, String> BOOK_TOPIC_PREFIXES = new EnumMap<>(DepthTier.class);
+
+    static {
+        BOOK_DEPTHS.forEach((tier, depth) -> BOOK_TOPIC_PREFIXES.put(tier, "orderbook." + depth + "."));
+    }
+
+    // Same 10-arg batches as spot (linear caps only the request length); acks echo req_id
+    private static final SubscriptionManager.Limits SUBSCRIPTION_LIMITS = new SubscriptionManager.Limits(10, 20, 10, 5000);
+
     private final Map<String, LocalOrderBook> localBooks = new ConcurrentHashMap<>();
 
     public BybitFuturesConnector(OkHttpClient httpClient,
                                   ObjectMapper objectMapper,
                                   OrderBookManager orderBookManager,
-                                  VolumeTracker volumeTracker) {
-        super(httpClient, objectMapper, orderBookManager, volumeTracker);
+                                  VolumeTracker volumeTracker,
+                                  HashedWheelTimer timer) {
+        super(httpClient, objectMapper, orderBookManager, volumeTracker, timer);
     }
 
     @Override
@@ -67,19 +85,7 @@ public class BybitFuturesConnector extends AbstractWebSocketConnector {
                 return;
             }
 
-            int batchSize = 5; // 2 args per symbol (orderbook + trade), Bybit limit 10 args per message
-            for (int i = 0; i < symbols.size(); i += batchSize) {
-                int end = Math.min(i + batchSize, symbols.size());
-                List<String> batch = symbols.subList(i, end);
-                subscribe(batch);
-
-                try {
-                    Thread.sleep(50);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    break;
-                }
-            }
+            subscribeAndAwait(symbols);
             log.info("[BYBIT:FUTURES] Subscribed to {} symbols", symbols.size());
         }
     }
@@ -129,13 +135,48 @@ public class BybitFuturesConnector extends AbstractWebSocketConnector {
     }
 
     @Override
-    protected String buildSubscribeMessage(List<String> symbols) {
-        List<String> args = new ArrayList<>();
-        for (String symbol : symbols) {
-            args.add("orderbook.200." + symbol);
-            args.add("publicTrade." + symbol);
+    protected List<String> subscriptionTopics(String symbol) {
+        return List.of(BOOK_TOPIC_PREFIXES.get(getDepthTier(symbol)) + symbol, "publicTrade." + symbol);
+    }
+
+    @Override
+    protected String buildSubscribeRequest(long requestId, List<String> topics) {
+        return String.format("{\"req_id\":\"%d\",\"op\":\"subscribe\",\"args\":%s}", requestId, toJsonArray(topics));
+    }
+
+    @Override
+    protected SubscriptionManager.Ack parseSubscriptionAck(JsonNode root) {
+        if (!"subscribe".equals(root.path("op").asText())) return null;
+        Long id = SubscriptionManager.Ack.requestId(root.get("req_id"));
+        if (id == null) return null;
+        String retMsg = root.path("ret_msg").asText("");
+        // A topic that is already live is rejected as "already subscribed" — that is a success for us
+        boolean success = root.path("success").asBoolean(false) || retMsg.contains("already subscribed");
+        return SubscriptionManager.Ack.ofRequest(id, success, retMsg);
+    }
+
+    @Override
+    protected SubscriptionManager.Limits getSubscriptionLimits() {
+        return SUBSCRIPTION_LIMITS;
+    }
+
+    @Override
+    public Set<DepthTier> getSupportedDepthTiers() {
+        return BOOK_DEPTHS.keySet();
+    }
+
+    @Override
+    protected String buildDepthUnsubscribe(String symbol, DepthTier tier) {
+        String topic = BOOK_TOPIC_PREFIXES.get(tier) + symbol;
+        return String.format("{\"op\":\"unsubscribe\",\"args\":[\"%s\"]}", topic);
+    }
+
+    @Override
+    protected void onDepthTierChanged(String symbol, DepthTier from, DepthTier to) {
+        LocalOrderBook book = localBooks.get(symbol);
+        if (book != null) {
+            book.reset();
         }
-        return String.format("{\"op\":\"subscribe\",\"args\":%s}", toJsonArray(args));
     }
 
     private String toJsonArray(List<String> items) {
@@ -149,7 +190,7 @@ public class BybitFuturesConnector extends AbstractWebSocketConnector {
         JsonNode root = parseJson(message);
         if (root == null) return;
 
-        if (root.has("success") || root.has("ret_msg")) {
+        if (handleSubscriptionAck(root) || root.has("success") || root.has("ret_msg")) {
             return;
         }
 
@@ -169,6 +210,9 @@ public class BybitFuturesConnector extends AbstractWebSocketConnector {
 
     private void handleOrderBook(JsonNode data, String topic, String type) {
         String symbol = data.get("s").asText();
+        if (!isReplaying() && !topic.startsWith(BOOK_TOPIC_PREFIXES.get(getDepthTier(symbol)))) {
+            return; // in-flight message from the previous depth tier
+        }
         long u = data.has("u") ? data.get("u").asLong() : 0;
         long seq = data.has("seq") ? data.get("seq").asLong() : 0;
 
@@ -192,17 +236,7 @@ public class BybitFuturesConnector extends AbstractWebSocketConnector {
     }
 
     private void publishOrderBook(String symbol, LocalOrderBook book) {
-        LocalOrderBook.Snapshot snapshot = book.getSnapshot();
-        if (!snapshot.bids().isEmpty() || !snapshot.asks().isEmpty()) {
-            orderBookManager.updateOrderBook(
-                    symbol,
-                    Exchange.BYBIT,
-                    MarketType.FUTURES,
-                    snapshot.bids(),
-                    snapshot.asks(),
-                    null
-            );
-        }
+        orderBookManager.markDirty(symbol, Exchange.BYBIT, MarketType.FUTURES, book);
     }
 
     private void handleTrade(JsonNode data) {
@@ -242,11 +276,6 @@ public class BybitFuturesConnector extends AbstractWebSocketConnector {
         return result;
     }
 
-    @Override
-    protected int getResubscribeBatchSize() {
-        return 5; // 2 args per symbol, Bybit limit 10 args per message
-    }
-
     @Override
     protected String getPingMessage() {
         return "{\"op\":\"ping\"}";
@@ -3,6 +3,7 @@ package com.cryptoview.exchange.common;
 import com.cryptoview.model.enums.Exchange;
 import com.cryptoview.model.enums.MarketType;
 import com.cryptoview.service.orderbook.OrderBookManager;
+import com.cryptoview.service.timer.HashedWheelTimer;
 import com.cryptoview.service.volume.VolumeTracker;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -10,8 +11,11 @@ import lombok.extern.slf4j.Slf4j;
 import okhttp3.*;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -20,12 +24,13 @@ import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 @Slf4j
-public abstract class AbstractWebSocketConnector implements ExchangeConnector {
+public abstract class AbstractWebSocketConnector implements RecordableConnector, EndpointOverridable {
 
     protected final OkHttpClient httpClient;
     protected final ObjectMapper objectMapper;
     protected final OrderBookManager orderBookManager;
     protected final VolumeTracker volumeTracker;
+    protected final HashedWheelTimer timer;
 
     protected WebSocket webSocket;
     protected final AtomicBoolean connected = new AtomicBoolean(false);
@@ -33,6 +38,10 @@ public abstract class AbstractWebSocketConnector implements ExchangeConnector {
     protected final Set<String> subscribedSymbols = ConcurrentHashMap.newKeySet();
     protected final AtomicInteger reconnectAttempts = new AtomicInteger(0);
 
+    // Depth tiers (used by connectors implementing TieredDepthConnector)
+    protected final Map<String, DepthTier> depthTiers = new ConcurrentHashMap<>();
+    private volatile DepthTierPolicy depthTierPolicy = DepthTierPolicy.fixed(DepthTier.STANDARD);
+
     // Metrics
     protected final AtomicLong messagesReceived = new AtomicLong(0);
     protected final AtomicLong messageErrors = new AtomicLong(0);
@@ -43,9 +52,24 @@ public abstract class AbstractWebSocketConnector implements ExchangeConnector {
     private final AtomicInteger debugMessageCount = new AtomicInteger(0);
     private static final int DEBUG_MESSAGE_LIMIT = 3;
 
-    protected final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
-    protected ScheduledFuture<?> reconnectTask;
-    protected ScheduledFuture<?> pingTask;
+    // Ping/stale/lifetime checks and reconnect backoff run on the shared timer
+    protected volatile HashedWheelTimer.Timeout reconnectTask;
+    protected volatile HashedWheelTimer.Timeout pingTask;
+
+    protected final SubscriptionManager subscriptions;
+
+    // Raw frame capture; connection ids tell frames of successive connections apart
+    private volatile FrameSink frameSink = FrameSink.NONE;
+    private final AtomicInteger connectionSeq = new AtomicInteger(0);
+
+    // Replay: frames are injected instead of read from the socket, time comes from the recording
+    private volatile boolean replaying;
+    private volatile Clock clock = Clock.systemUTC();
+    private volatile EndpointOverride endpointOverride = EndpointOverride.NONE;
+
+    private static final long SUBSCRIBE_SETTLE_TIMEOUT_MS = 120_000;
+    private static final SubscriptionManager.Limits DEFAULT_SUBSCRIPTION_LIMITS =
+            new SubscriptionManager.Limits(20, 5, 5, 10_000);
 
     private static final int MAX_RECONNECT_ATTEMPTS = 10; // before switching to periodic reconnect
     private static final long INITIAL_RECONNECT_DELAY_MS = 1000;
@@ -57,21 +81,47 @@ public abstract class AbstractWebSocketConnector implements ExchangeConnector {
     protected AbstractWebSocketConnector(OkHttpClient httpClient,
                                           ObjectMapper objectMapper,
                                           OrderBookManager orderBookManager,
-                                          VolumeTracker volumeTracker) {
+                                          VolumeTracker volumeTracker,
+                                          HashedWheelTimer timer) {
         this.httpClient = httpClient;
         this.objectMapper = objectMapper;
         this.orderBookManager = orderBookManager;
         this.volumeTracker = volumeTracker;
+        this.timer = timer;
+        this.subscriptions = new SubscriptionManager(new ConnectorSubscriptionProtocol(), timer, Clock.systemUTC());
     }
 
     protected abstract String getWebSocketUrl();
 
     protected abstract void handleMessage(String message);
 
-    protected abstract String buildSubscribeMessage(List<String> symbols);
+    /**
+     * Venue topics (channels) subscribed for one symbol — depth and trades.
+     */
+    protected abstract List<String> subscriptionTopics(String symbol);
+
+    /**
+     * One subscribe message for the given topics. Venues that echo a request id should include it.
+     */
+    protected abstract String buildSubscribeRequest(long requestId, List<String> topics);
 
     protected abstract void onConnected();
 
+    /**
+     * Extracts a subscribe ack (or rejection) from a control message, null for anything else.
+     * Venues without acks rely on the ack timeout and retry.
+     */
+    protected SubscriptionManager.Ack parseSubscriptionAck(JsonNode root) {
+        return null;
+    }
+
+    /**
+     * Message-rate and batching limits of the venue's subscribe requests.
+     */
+    protected SubscriptionManager.Limits getSubscriptionLimits() {
+        return DEFAULT_SUBSCRIPTION_LIMITS;
+    }
+
     protected boolean isPongMessage(String text) {
         if (text == null) return false;
         String trimmed = text.trim().toLowerCase();
@@ -98,8 +148,9 @@ public abstract class AbstractWebSocketConnector implements ExchangeConnector {
         log.info("[{}:{}] Connecting to WebSocket...", getExchange(), getMarketType());
 
         Request request = new Request.Builder()
-                .url(getWebSocketUrl())
+                .url(endpointOverride.ws(getWebSocketUrl()))
                 .build();
+        int connectionId = connectionSeq.incrementAndGet();
 
         webSocket = httpClient.newWebSocket(request, new WebSocketListener() {
             @Override
@@ -116,29 +167,9 @@ public abstract class AbstractWebSocketConnector implements ExchangeConnector {
 
             @Override
             public void onMessage(WebSocket webSocket, String text) {
-                try {
-                    messagesReceived.incrementAndGet();
-                    lastMessageTime.set(Instant.now());
-
-                    if (isPongMessage(text)) {
-                        return;
-                    }
-
-                    // Log first N messages per connector for debugging
-                    if (debugMessageCount.getAndIncrement() < DEBUG_MESSAGE_LIMIT) {
-                        String preview = text.length() > 300 ? text.substring(0, 300) + "..." : text;
-                        log.info("[{}:{}] RAW MSG #{}: {}", getExchange(), getMarketType(),
-                                debugMessageCount.get(), preview);
-                    }
-
-                    handleMessage(text);
-                } catch (Exception e) {
-                    messageErrors.incrementAndGet();
-                    String preview = text != null && text.length() > 200
-                            ? text.substring(0, 200) + "..." : text;
-                    log.error("[{}:{}] Error handling message: {} | msg: {}",
-                            getExchange(), getMarketType(), e.getMessage(), preview);
-                }
+                Instant now = Instant.now();
+                frameSink.onText(connectionId, now, text);
+                processFrame(text, now);
             }
 
             @Override
@@ -163,6 +194,32 @@ public abstract class AbstractWebSocketConnector implements ExchangeConnector {
         });
     }
 
+    private void processFrame(String text, Instant receivedAt) {
+        try {
+            messagesReceived.incrementAndGet();
+            lastMessageTime.set(receivedAt);
+
+            if (isPongMessage(text)) {
+                return;
+            }
+
+            // Log first N messages per connector for debugging
+            if (debugMessageCount.getAndIncrement() < DEBUG_MESSAGE_LIMIT) {
+                String preview = text.length() > 300 ? text.substring(0, 300) + "..." : text;
+                log.info("[{}:{}] RAW MSG #{}: {}", getExchange(), getMarketType(),
+                        debugMessageCount.get(), preview);
+            }
+
+            handleMessage(text);
+        } catch (Exception e) {
+            messageErrors.incrementAndGet();
+            String preview = text != null && text.length() > 200
+                    ? text.substring(0, 200) + "..." : text;
+            log.error("[{}:{}] Error handling message: {} | msg: {}",
+                    getExchange(), getMarketType(), e.getMessage(), preview);
+        }
+    }
+
     protected boolean connectAndWait(long timeoutMs) {
         connect();
         long waited = 0;
@@ -184,6 +241,7 @@ public abstract class AbstractWebSocketConnector implements ExchangeConnector {
         log.info("[{}:{}] Disconnecting...", getExchange(), getMarketType());
         stopPingTask();
         cancelReconnect();
+        subscriptions.onDisconnected();
 
         if (webSocket != null) {
             webSocket.close(1000, "Normal closure");
@@ -194,6 +252,9 @@ public abstract class AbstractWebSocketConnector implements ExchangeConnector {
         connecting.set(false);
     }
 
+    /**
+     * Queues the symbols on the subscription pipeline; returns without waiting for acks.
+     */
     @Override
     public void subscribe(List<String> symbols) {
         if (!connected.get()) {
@@ -201,12 +262,99 @@ public abstract class AbstractWebSocketConnector implements ExchangeConnector {
             return;
         }
 
-        String message = buildSubscribeMessage(symbols);
-        if (message != null && !message.isEmpty()) {
-            webSocket.send(message);
-            subscribedSymbols.addAll(symbols);
-            log.debug("[{}:{}] Subscribed to {} symbols", getExchange(), getMarketType(), symbols.size());
+        subscribedSymbols.addAll(symbols);
+        subscriptions.subscribe(symbols);
+        log.debug("[{}:{}] Queued {} symbols for subscription", getExchange(), getMarketType(), symbols.size());
+    }
+
+    /**
+     * Subscribes and waits until every topic is acked, rejected for good, or the timeout expires.
+     */
+    protected boolean subscribeAndAwait(List<String> symbols) {
+        subscribe(symbols);
+        boolean settled = subscriptions.awaitSettled(SUBSCRIBE_SETTLE_TIMEOUT_MS);
+        if (!settled) {
+            log.warn("[{}:{}] Subscriptions not settled after {}s | {}", getExchange(), getMarketType(),
+                    SUBSCRIBE_SETTLE_TIMEOUT_MS / 1000, subscriptions.getStatusSummary());
+        }
+        return settled;
+    }
+
+    /**
+     * Routes subscribe acks to the subscription manager. Returns true if the message was an ack.
+     */
+    protected boolean handleSubscriptionAck(JsonNode root) {
+        SubscriptionManager.Ack ack = parseSubscriptionAck(root);
+        if (ack == null) {
+            return false;
+        }
+        if (!ack.success()) {
+            log.debug("[{}:{}] Subscription rejected: {}", getExchange(), getMarketType(), ack.error());
         }
+        subscriptions.onAck(ack);
+        return true;
+    }
+
+    @Override
+    public void setFrameSink(FrameSink sink) {
+        this.frameSink = sink != null ? sink : FrameSink.NONE;
+    }
+
+    @Override
+    public void setEndpointOverride(EndpointOverride override) {
+        this.endpointOverride = override != null ? override : EndpointOverride.NONE;
+        if (!this.endpointOverride.isEmpty()) {
+            log.info("[{}:{}] Endpoints redirected: ws={}, rest={}", getExchange(), getMarketType(),
+                    endpointOverride.wsBase(), endpointOverride.restBase());
+        }
+    }
+
+    @Override
+    public void beginReplay(Clock replayClock) {
+        this.clock = replayClock;
+        this.replaying = true;
+        log.info("[{}:{}] Replay mode: decoding recorded frames", getExchange(), getMarketType());
+    }
+
+    @Override
+    public void replayFrame(int connectionId, boolean binary, byte[] payload) {
+        if (binary) {
+            return; // all venues on this base class speak text frames
+        }
+        processFrame(new String(payload, StandardCharsets.UTF_8), now());
+    }
+
+    /**
+     * Venues that get their snapshots over the socket have nothing to do here.
+     */
+    @Override
+    public void replaySnapshot(String symbol, String body) {
+    }
+
+    protected boolean isReplaying() {
+        return replaying;
+    }
+
+    /**
+     * Current time for book logic (publish throttling etc.) — the recording's time on replay.
+     */
+    protected Instant now() {
+        return Instant.now(clock);
+    }
+
+    /**
+     * Hands a REST depth snapshot to the frame recorder so replays can rebuild diff-depth books.
+     */
+    protected void recordSnapshot(String symbol, String body) {
+        frameSink.onSnapshot(symbol, Instant.now(), body);
+    }
+
+    public SubscriptionManager.Stats getSubscriptionStats() {
+        return subscriptions.getStats();
+    }
+
+    public SubscriptionManager.State getSubscriptionState(String symbol) {
+        return subscriptions.getState(symbol);
     }
 
     @Override
@@ -224,10 +372,73 @@ public abstract class AbstractWebSocketConnector implements ExchangeConnector {
         return Set.copyOf(subscribedSymbols);
     }
 
+    // ======================== Depth Tiers ========================
+
+    public DepthTier getDefaultDepthTier() {
+        return DepthTier.STANDARD;
+    }
+
+    public Set<DepthTier> getSupportedDepthTiers() {
+        return Set.of(getDefaultDepthTier());
+    }
+
+    public DepthTier getDepthTier(String symbol) {
+        DepthTier tier = depthTiers.get(symbol);
+        return tier != null ? tier : depthTierPolicy.initialTier(getDefaultDepthTier()).clampTo(getSupportedDepthTiers());
+    }
+
+    public DepthTierPolicy getDepthTierPolicy() {
+        return depthTierPolicy;
+    }
+
+    public void setDepthTierPolicy(DepthTierPolicy policy) {
+        this.depthTierPolicy = policy;
+    }
+
+    public boolean changeDepthTier(String symbol, DepthTier tier) {
+        DepthTier target = tier.clampTo(getSupportedDepthTiers());
+        DepthTier current = getDepthTier(symbol);
+        if (target == current || !subscribedSymbols.contains(symbol) || !connected.get()) {
+            return false;
+        }
+
+        String unsubscribe = buildDepthUnsubscribe(symbol, current);
+        if (unsubscribe == null) {
+            return false;
+        }
+
+        // Both sides of the switch go through the pipeline, paced with the rest of the subscribe traffic;
+        // the new depth topic is also acked and retried like any other
+        subscriptions.unsubscribe(unsubscribe);
+        depthTiers.put(symbol, target);
+        onDepthTierChanged(symbol, current, target);
+        subscriptions.resync(symbol);
+        log.debug("[{}:{}] Depth tier for {} changed {} -> {}",
+                getExchange(), getMarketType(), symbol, current, target);
+        return true;
+    }
+
+    /**
+     * Builds an unsubscribe message for the depth channel of one symbol at the given tier
+     * (the subscribe side goes through {@link #subscriptionTopics}).
+     * Tiered connectors must override; null means the connector has a single depth feed.
+     */
+    protected String buildDepthUnsubscribe(String symbol, DepthTier tier) {
+        return null;
+    }
+
+    /**
+     * Called between unsubscribe and subscribe of a tier change. Override to reset local book state.
+     */
+    protected void onDepthTierChanged(String symbol, DepthTier from, DepthTier to) {
+        // Default: no-op. The new channel starts with a snapshot.
+    }
+
     protected void handleDisconnect() {
         connected.set(false);
         connecting.set(false);
         stopPingTask();
+        subscriptions.onDisconnected();
         scheduleReconnect();
     }
 
@@ -249,7 +460,7 @@ public abstract class AbstractWebSocketConnector implements ExchangeConnector {
                 getExchange(), getMarketType(), delay, attempts,
                 attempts > MAX_RECONNECT_ATTEMPTS ? ", periodic mode" : "");
 
-        reconnectTask = scheduler.schedule(() -> {
+        reconnectTask = timer.schedule(timerName("reconnect"), () -> {
             if (connectAndWait(5000) && !subscribedSymbols.isEmpty()) {
                 resubscribeAll();
             } else if (!connected.get()) {
@@ -261,18 +472,9 @@ public abstract class AbstractWebSocketConnector implements ExchangeConnector {
 
     protected void resubscribeAll() {
         List<String> symbols = List.copyOf(subscribedSymbols);
-        int batchSize = getResubscribeBatchSize();
-        for (int i = 0; i < symbols.size(); i += batchSize) {
-            int end = Math.min(i + batchSize, symbols.size());
-            subscribe(symbols.subList(i, end));
-            try {
-                Thread.sleep(100);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                break;
-            }
-        }
-        log.info("[{}:{}] Resubscribed to {} symbols", getExchange(), getMarketType(), symbols.size());
+        subscribeAndAwait(symbols);
+        log.info("[{}:{}] Resubscribed to {} symbols | {}", getExchange(), getMarketType(),
+                symbols.size(), subscriptions.getStatusSummary());
         onResubscribed();
     }
 
@@ -283,20 +485,16 @@ public abstract class AbstractWebSocketConnector implements ExchangeConnector {
         // Default: no-op. Subclasses can override.
     }
 
-    protected int getResubscribeBatchSize() {
-        return 50;
-    }
-
     protected void cancelReconnect() {
         if (reconnectTask != null) {
-            reconnectTask.cancel(false);
+            reconnectTask.cancel();
             reconnectTask = null;
         }
     }
 
     protected void startPingTask() {
         stopPingTask();
-        pingTask = scheduler.scheduleAtFixedRate(() -> {
+        pingTask = timer.scheduleAtFixedRate(timerName("ping"), () -> {
             if (connected.get() && webSocket != null) {
                 // Send application-level ping (if connector needs it)
                 String ping = getPingMessage();
@@ -337,9 +535,13 @@ public abstract class AbstractWebSocketConnector implements ExchangeConnector {
         }, getPingIntervalMs(), getPingIntervalMs(), TimeUnit.MILLISECONDS);
     }
 
+    protected String timerName(String task) {
+        return getExchange() + ":" + getMarketType() + " " + task;
+    }
+
     protected void stopPingTask() {
         if (pingTask != null) {
-            pingTask.cancel(false);
+            pingTask.cancel();
             pingTask = null;
         }
     }
@@ -364,6 +566,7 @@ public abstract class AbstractWebSocketConnector implements ExchangeConnector {
     }
 
     protected Response executeWithRetry(Request request, int maxRetries, long retryDelayMs) throws IOException {
+        request = endpointOverride.rest(request);
         IOException lastException = null;
         for (int attempt = 1; attempt <= maxRetries; attempt++) {
             try {
@@ -428,9 +631,46 @@ public abstract class AbstractWebSocketConnector implements ExchangeConnector {
         String lastMsgStr = lastMsg != null
                 ? java.time.Duration.between(lastMsg, Instant.now()).toSeconds() + "s ago"
                 : "never";
-        return String.format("msgs=%d, errs=%d, ob=%d, trades=%d, last=%s, syms=%d",
+        return String.format("msgs=%d, errs=%d, ob=%d, trades=%d, last=%s, syms=%d, %s",
                 messagesReceived.get(), messageErrors.get(),
                 orderbookUpdates.get(), tradeUpdates.get(),
-                lastMsgStr, subscribedSymbols.size());
+                lastMsgStr, subscribedSymbols.size(), subscriptions.getStatusSummary());
+    }
+
+    /**
+     * Adapts the connector's subscription hooks for the subscription manager.
+     */
+    private final class ConnectorSubscriptionProtocol implements SubscriptionManager.Protocol {
+
+        @Override
+        public String name() {
+            return "[" + getExchange() + ":" + getMarketType() + "]";
+        }
+
+        @Override
+        public List<String> topics(String symbol) {
+            return subscriptionTopics(symbol);
+        }
+
+        @Override
+        public String buildRequest(long requestId, List<String> topics) {
+            return buildSubscribeRequest(requestId, topics);
+        }
+
+        @Override
+        public boolean send(String message) {
+            WebSocket ws = webSocket;
+            return connected.get() && ws != null && ws.send(message);
+        }
+
+        @Override
+        public boolean isConnected() {
+            return connected.get() && webSocket != null;
+        }
+
+        @Override
+        public SubscriptionManager.Limits limits() {
+            return getSubscriptionLimits();
+        }
     }
 }
@@ -0,0 +1,35 @@
+package com.cryptoview.exchange.common;
+
+import java.util.Set;
+
+/**
+ * Depth granularity a connector subscribes to for a single symbol.
+ * Ordered from the cheapest feed to the most detailed one.
+ */
+public enum DepthTier {
+    SHALLOW,
+    STANDARD,
+    DEEP;
+
+    /**
+     * Returns the closest tier the connector actually supports.
+     * Rounds up first (more depth is safer for detection), then falls back to the deepest available.
+     */
+    public DepthTier clampTo(Set<DepthTier> supported) {
+        if (supported.contains(this)) {
+            return this;
+        }
+        for (DepthTier tier : values()) {
+            if (tier.ordinal() > ordinal() && supported.contains(tier)) {
+                return tier;
+            }
+        }
+        DepthTier deepest = null;
+        for (DepthTier tier : values()) {
+            if (supported.contains(tier)) {
+                deepest = tier;
+            }
+        }
+        return deepest != null ? deepest : this;
+    }
+}
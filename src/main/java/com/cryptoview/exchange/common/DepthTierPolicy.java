@@ -0,0 +1,32 @@
+package com.cryptoview.exchange.common;
+
+/**
+ * Chooses the depth tier for a symbol. Each tiered connector holds its own policy,
+ * so venues can be tuned independently or pinned to a fixed tier.
+ */
+@FunctionalInterface
+public interface DepthTierPolicy {
+
+    DepthTier resolve(SymbolActivity activity);
+
+    /**
+     * Tier for symbols that have not been evaluated yet (cold start, before volume data is ready).
+     */
+    default DepthTier initialTier(DepthTier connectorDefault) {
+        return connectorDefault;
+    }
+
+    static DepthTierPolicy fixed(DepthTier tier) {
+        return new DepthTierPolicy() {
+            @Override
+            public DepthTier resolve(SymbolActivity activity) {
+                return tier;
+            }
+
+            @Override
+            public DepthTier initialTier(DepthTier connectorDefault) {
+                return tier;
+            }
+        };
+    }
+}
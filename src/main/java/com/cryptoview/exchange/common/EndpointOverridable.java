@@ -0,0 +1,10 @@
+package com.cryptoview.exchange.common;
+
+/**
+ * Connector whose WebSocket and REST base URLs can be redirected (see {@link EndpointOverride}).
+ * Must be set before the first connect.
+ */
+public interface EndpointOverridable extends ExchangeConnector {
+
+    void setEndpointOverride(EndpointOverride override);
+}
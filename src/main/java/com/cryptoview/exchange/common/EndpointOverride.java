@@ -0,0 +1,44 @@
+package com.cryptoview.exchange.common;
+
+import okhttp3.Request;
+
+/**
+ * Points a connector's hard-coded venue URLs at another server (mock exchange, local proxy):
+ * scheme, host and port are replaced, path and query kept, e.g.
+ * {@code wss://fstream.binance.com/stream} → {@code ws://127.0.0.1:18080/stream}.
+ * A null base leaves that kind of URL untouched.
+ */
+public record EndpointOverride(String wsBase, String restBase) {
+
+    public static final EndpointOverride NONE = new EndpointOverride(null, null);
+
+    public boolean isEmpty() {
+        return isBlank(wsBase) && isBlank(restBase);
+    }
+
+    public String ws(String url) {
+        return rebase(url, wsBase);
+    }
+
+    public String rest(String url) {
+        return rebase(url, restBase);
+    }
+
+    public Request rest(Request request) {
+        if (isBlank(restBase)) return request;
+        return request.newBuilder().url(rest(request.url().toString())).build();
+    }
+
+    static String rebase(String url, String base) {
+        if (isBlank(base)) return url;
+        int schemeEnd = url.indexOf("://");
+        int pathStart = url.indexOf('/', schemeEnd < 0 ? 0 : schemeEnd + 3);
+        String tail = pathStart < 0 ? "" : url.substring(pathStart);
+        String origin = base.endsWith("/") ? base.substring(0, base.length() - 1) : base;
+        return origin + tail;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
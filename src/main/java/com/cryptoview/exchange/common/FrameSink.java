@@ -0,0 +1,34 @@
+package com.cryptoview.exchange.common;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+
+/**
+ * Receives every raw frame of a connector as it comes off the socket, before any parsing.
+ * Called on the WebSocket reader thread — implementations must not block.
+ */
+public interface FrameSink {
+
+    FrameSink NONE = new FrameSink() {
+        @Override
+        public void onText(int connectionId, Instant receivedAt, String text) {
+        }
+
+        @Override
+        public void onBinary(int connectionId, Instant receivedAt, ByteBuffer bytes) {
+        }
+
+        @Override
+        public void onSnapshot(String symbol, Instant receivedAt, String body) {
+        }
+    };
+
+    void onText(int connectionId, Instant receivedAt, String text);
+
+    void onBinary(int connectionId, Instant receivedAt, ByteBuffer bytes);
+
+    /**
+     * REST depth snapshot a diff-depth book was seeded from — needed to rebuild that book on replay.
+     */
+    void onSnapshot(String symbol, Instant receivedAt, String body);
+}
@@ -1,6 +1,8 @@
 package com.cryptoview.exchange.common;
 
 import com.cryptoview.model.domain.OrderBookLevel;
+import com.cryptoview.service.orderbook.BboTable;
+import com.cryptoview.service.orderbook.OrderBookSource;
 
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -14,7 +16,7 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
  * Bids are sorted by price descending, asks by price ascending.
  * When a delta has quantity=0, the price level is removed.
  */
-public class LocalOrderBook {
+public class LocalOrderBook implements OrderBookSource {
 
     private final String symbol;
     private final TreeMap<BigDecimal, BigDecimal> bids = new TreeMap<>(Comparator.reverseOrder());
@@ -177,6 +179,61 @@ public class LocalOrderBook {
         }
     }
 
+    @Override
+    public Snapshot snapshot() {
+        return getSnapshot();
+    }
+
+    /**
+     * Best bid/ask straight from the tree heads — no level copies, unlike {@link #getSnapshot()}.
+     */
+    @Override
+    public void writeTop(BboTable table, int symbolId, long millis) {
+        writeTop(table, symbolId, millis, null);
+    }
+
+    /**
+     * Source for books quoted in contracts (OKX futures): quantities are multiplied on the way out.
+     */
+    public OrderBookSource withQuantityMultiplier(BigDecimal quantityMultiplier) {
+        return new OrderBookSource() {
+            @Override
+            public Snapshot snapshot() {
+                return getSnapshot(quantityMultiplier);
+            }
+
+            @Override
+            public void writeTop(BboTable table, int symbolId, long millis) {
+                LocalOrderBook.this.writeTop(table, symbolId, millis, quantityMultiplier);
+            }
+        };
+    }
+
+    private void writeTop(BboTable table, int symbolId, long millis, BigDecimal quantityMultiplier) {
+        double bidPrice = Double.NaN, bidQty = Double.NaN, askPrice = Double.NaN, askQty = Double.NaN;
+        lock.readLock().lock();
+        try {
+            if (!bids.isEmpty()) {
+                BigDecimal price = bids.firstKey();
+                bidPrice = price.doubleValue();
+                bidQty = bids.get(price).doubleValue();
+            }
+            if (!asks.isEmpty()) {
+                BigDecimal price = asks.firstKey();
+                askPrice = price.doubleValue();
+                askQty = asks.get(price).doubleValue();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (quantityMultiplier != null) {
+            double multiplier = quantityMultiplier.doubleValue();
+            bidQty *= multiplier;
+            askQty *= multiplier;
+        }
+        table.update(symbolId, bidPrice, bidQty, askPrice, askQty, millis);
+    }
+
     /**
      * Reset the orderbook (e.g. on gap detection).
      */
@@ -211,6 +268,37 @@ public class LocalOrderBook {
         }
     }
 
+    /**
+     * Compare the top of the book against a reference partial-depth snapshot.
+     * Returns the number of reference levels whose price or quantity differ; reference levels past
+     * the end of the local book count as mismatches, local levels past the reference are ignored.
+     */
+    public int countTopMismatches(List<List<String>> bidLevels, List<List<String>> askLevels) {
+        lock.readLock().lock();
+        try {
+            return countMismatches(bids, bidLevels) + countMismatches(asks, askLevels);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int countMismatches(TreeMap<BigDecimal, BigDecimal> side, List<List<String>> reference) {
+        int mismatches = 0;
+        Iterator<Map.Entry<BigDecimal, BigDecimal>> it = side.entrySet().iterator();
+        for (List<String> level : reference) {
+            if (!it.hasNext()) {
+                mismatches++;
+                continue;
+            }
+            Map.Entry<BigDecimal, BigDecimal> entry = it.next();
+            if (entry.getKey().compareTo(new BigDecimal(level.get(0))) != 0
+                    || entry.getValue().compareTo(new BigDecimal(level.get(1))) != 0) {
+                mismatches++;
+            }
+        }
+        return mismatches;
+    }
+
     private void applyLevels(TreeMap<BigDecimal, BigDecimal> side, List<List<String>> levels) {
         if (levels == null) return;
         for (List<String> level : levels) {
@@ -235,5 +323,27 @@ public class LocalOrderBook {
         }
     }
 
-    public record Snapshot(List<OrderBookLevel> bids, List<OrderBookLevel> asks) {}
+    public record Snapshot(List<OrderBookLevel> bids, List<OrderBookLevel> asks) {
+
+        private static final Comparator<OrderBookLevel> BY_PRICE = Comparator.comparing(OrderBookLevel::price);
+
+        /**
+         * Snapshot of levels in the venue's order, sorted best first where they are not.
+         * Venues almost always send sorted sides, and those are only checked, not copied.
+         */
+        public static Snapshot bestFirst(List<OrderBookLevel> bids, List<OrderBookLevel> asks) {
+            return new Snapshot(ordered(bids, BY_PRICE.reversed()), ordered(asks, BY_PRICE));
+        }
+
+        private static List<OrderBookLevel> ordered(List<OrderBookLevel> levels, Comparator<OrderBookLevel> order) {
+            for (int i = 1; i < levels.size(); i++) {
+                if (order.compare(levels.get(i - 1), levels.get(i)) > 0) {
+                    List<OrderBookLevel> sorted = new ArrayList<>(levels);
+                    sorted.sort(order);
+                    return sorted;
+                }
+            }
+            return levels;
+        }
+    }
 }
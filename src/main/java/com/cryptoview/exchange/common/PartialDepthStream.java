@@ -0,0 +1,206 @@
+package com.cryptoview.exchange.common;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Binance-style partial book stream ({@code <symbol>@depth<N>@100ms}).
+ * Every message is a complete top-N book, so no REST snapshot and no update-id bridging is needed:
+ * a symbol is usable from the first message and recovers instantly after reconnect.
+ *
+ * Also measures the mode against diff-depth: time to first usable book per mode, and for
+ * symbols listed in compare-symbols the top-N divergence between the two books at equal update ids.
+ * Both books describe the same update id, so any divergence means the diff-depth book is broken
+ * and the caller resyncs it from a fresh snapshot.
+ */
+@Slf4j
+public class PartialDepthStream {
+
+    private static final Set<Integer> SUPPORTED_LEVELS = Set.of(5, 10, 20);
+    private static final int DEFAULT_LEVELS = 20;
+
+    private final String logPrefix;
+    private final int levels;
+    private final String streamSuffix;
+    private final Set<String> compareSymbols;
+
+    // Latest partial book for compared symbols that arrived ahead of the diff-depth book
+    private final Map<String, Levels> pendingComparisons = new ConcurrentHashMap<>();
+
+    // Time to first usable book, per mode
+    private final Map<String, Long> awaitingFirstBook = new ConcurrentHashMap<>();
+    private final AtomicLong partialReadyCount = new AtomicLong();
+    private final AtomicLong partialReadyTotalMs = new AtomicLong();
+    private final AtomicLong diffReadyCount = new AtomicLong();
+    private final AtomicLong diffReadyTotalMs = new AtomicLong();
+
+    // Accuracy of diff-depth vs partial (compare-symbols only)
+    private final AtomicLong comparisons = new AtomicLong();
+    private final AtomicLong divergedComparisons = new AtomicLong();
+    private final AtomicLong divergedLevels = new AtomicLong();
+
+    public PartialDepthStream(String logPrefix, int levels, List<String> compareSymbols) {
+        if (!SUPPORTED_LEVELS.contains(levels)) {
+            log.warn("{} Unsupported partial depth levels {}, using {}", logPrefix, levels, DEFAULT_LEVELS);
+            levels = DEFAULT_LEVELS;
+        }
+        this.logPrefix = logPrefix;
+        this.levels = levels;
+        this.streamSuffix = "@depth" + levels + "@100ms";
+        this.compareSymbols = compareSymbols.stream().map(String::toUpperCase).collect(Collectors.toUnmodifiableSet());
+    }
+
+    public String streamName(String symbol) {
+        return symbol.toLowerCase() + streamSuffix;
+    }
+
+    public boolean isPartialStream(String stream) {
+        return stream.endsWith(streamSuffix);
+    }
+
+    /**
+     * Longest run of {@code symbols}, in order, that fits {@code maxStreams}: each symbol takes
+     * {@code streamsPerSymbol}, a compared one its partial stream on top. Compared symbols are budgeted first,
+     * so the cut never drops the ones being measured.
+     */
+    public List<String> withinStreamBudget(List<String> symbols, int maxStreams, int streamsPerSymbol) {
+        int budget = maxStreams;
+        Set<String> kept = new HashSet<>();
+        for (String symbol : symbols) {
+            if (isCompared(symbol) && budget >= streamsPerSymbol + 1) {
+                kept.add(symbol);
+                budget -= streamsPerSymbol + 1;
+            }
+        }
+        List<String> result = new ArrayList<>(symbols.size());
+        for (String symbol : symbols) {
+            if (kept.contains(symbol)) {
+                result.add(symbol);
+            } else if (!isCompared(symbol) && budget >= streamsPerSymbol) {
+                result.add(symbol);
+                budget -= streamsPerSymbol;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Symbols that get both streams while on diff-depth, to measure book accuracy.
+     */
+    public boolean isCompared(String symbol) {
+        return compareSymbols.contains(symbol);
+    }
+
+    /**
+     * Replace the local book with the partial snapshot.
+     * Spot payload: {lastUpdateId, bids, asks}; futures payload: {u, b, a}.
+     */
+    public void apply(LocalOrderBook book, JsonNode data) {
+        Levels partial = parse(data);
+        book.applySnapshot(partial.bids(), partial.asks(), partial.updateId());
+        markReady(book.getSymbol(), true);
+    }
+
+    /**
+     * Partial message for a symbol that runs on diff-depth — compare if both books are at the same update id,
+     * otherwise keep it until the diff-depth book catches up.
+     *
+     * @return true if the diff-depth book diverged and has to be resynced
+     */
+    public boolean onShadowMessage(String symbol, LocalOrderBook diffBook, JsonNode data) {
+        Levels partial = parse(data);
+        if (diffBook == null || !diffBook.isInitialized() || partial.updateId() > diffBook.getLastUpdateId()) {
+            pendingComparisons.put(symbol, partial);
+            return false;
+        }
+        return partial.updateId() == diffBook.getLastUpdateId() && diverges(diffBook, partial);
+    }
+
+    /**
+     * Called after a diff-depth event was applied for a compared symbol.
+     *
+     * @return true if the diff-depth book diverged and has to be resynced
+     */
+    public boolean onDiffApplied(LocalOrderBook diffBook) {
+        Levels pending = pendingComparisons.get(diffBook.getSymbol());
+        if (pending == null) return false;
+        if (pending.updateId() == diffBook.getLastUpdateId()) {
+            pendingComparisons.remove(diffBook.getSymbol());
+            return diverges(diffBook, pending);
+        }
+        if (pending.updateId() < diffBook.getLastUpdateId()) {
+            pendingComparisons.remove(diffBook.getSymbol()); // update ids never aligned, skip this one
+        }
+        return false;
+    }
+
+    public void markSubscribed(String symbol) {
+        awaitingFirstBook.put(symbol, System.currentTimeMillis());
+    }
+
+    public void markReady(String symbol, boolean partial) {
+        Long subscribedAt = awaitingFirstBook.remove(symbol);
+        if (subscribedAt == null) return;
+        long elapsed = System.currentTimeMillis() - subscribedAt;
+        if (partial) {
+            partialReadyCount.incrementAndGet();
+            partialReadyTotalMs.addAndGet(elapsed);
+        } else {
+            diffReadyCount.incrementAndGet();
+            diffReadyTotalMs.addAndGet(elapsed);
+        }
+    }
+
+    public void forget(String symbol) {
+        pendingComparisons.remove(symbol);
+    }
+
+    public String getStatusSummary() {
+        long partialCount = partialReadyCount.get();
+        long diffCount = diffReadyCount.get();
+        return String.format("partialReady=%d(avg %dms), diffReady=%d(avg %dms), compared=%d, diverged=%d(%d lvls)",
+                partialCount, partialCount > 0 ? partialReadyTotalMs.get() / partialCount : 0,
+                diffCount, diffCount > 0 ? diffReadyTotalMs.get() / diffCount : 0,
+                comparisons.get(), divergedComparisons.get(), divergedLevels.get());
+    }
+
+    private boolean diverges(LocalOrderBook diffBook, Levels partial) {
+        comparisons.incrementAndGet();
+        int mismatches = diffBook.countTopMismatches(partial.bids(), partial.asks());
+        if (mismatches == 0) {
+            return false;
+        }
+        divergedComparisons.incrementAndGet();
+        divergedLevels.addAndGet(mismatches);
+        log.warn("{} {} diff-depth book diverges from depth{} in {} levels (updateId={}), resyncing",
+                logPrefix, diffBook.getSymbol(), levels, mismatches, partial.updateId());
+        return true;
+    }
+
+    private Levels parse(JsonNode data) {
+        long updateId = data.has("lastUpdateId") ? data.get("lastUpdateId").asLong() : data.get("u").asLong();
+        List<List<String>> bids = parseLevels(data.has("bids") ? data.get("bids") : data.get("b"));
+        List<List<String>> asks = parseLevels(data.has("asks") ? data.get("asks") : data.get("a"));
+        return new Levels(updateId, bids, asks);
+    }
+
+    private static List<List<String>> parseLevels(JsonNode levels) {
+        List<List<String>> result = new ArrayList<>();
+        if (levels == null || !levels.isArray()) return result;
+        for (JsonNode level : levels) {
+            result.add(List.of(level.get(0).asText(), level.get(1).asText()));
+        }
+        return result;
+    }
+
+    private record Levels(long updateId, List<List<String>> bids, List<List<String>> asks) {}
+}
@@ -0,0 +1,27 @@
+package com.cryptoview.exchange.common;
+
+import java.time.Clock;
+
+/**
+ * Connector whose raw frames can be captured (see FrameRecorder) and fed back in on replay (see ReplayConnector).
+ */
+public interface RecordableConnector extends ExchangeConnector {
+
+    void setFrameSink(FrameSink sink);
+
+    /**
+     * Switches the connector to replay: frames come from {@link #replayFrame}, time from the given clock.
+     * The connector must not be connected.
+     */
+    void beginReplay(Clock clock);
+
+    /**
+     * Runs one recorded frame through the venue decoder as if it had just come off the socket.
+     */
+    void replayFrame(int connectionId, boolean binary, byte[] payload);
+
+    /**
+     * Applies a recorded REST depth snapshot (see {@link FrameSink#onSnapshot}).
+     */
+    void replaySnapshot(String symbol, String body);
+}
@@ -0,0 +1,612 @@
+package com.cryptoview.exchange.common;
+
+import com.cryptoview.service.timer.HashedWheelTimer;
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Clock;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pipelined subscription sender for one WebSocket connection.
+ *
+ * Topics (venue channel names) are packed into subscribe requests and sent as fast as the
+ * venue's message-rate limit allows, with a bounded number of requests awaiting an ack.
+ * Acks are correlated by request id (or by topic on venues that ack per channel);
+ * only rejected or unacknowledged topics are retried, with backoff, up to {@link #MAX_ATTEMPTS}.
+ * Unsubscribe messages (depth tier changes) draw on the same message-rate budget and go out first.
+ *
+ * Pacing, ack timeouts and retry delays run on the shared connector timer and read time from the clock.
+ */
+@Slf4j
+public class SubscriptionManager {
+
+    static final int MAX_ATTEMPTS = 3;
+    static final long RETRY_BASE_DELAY_MS = 1000;
+    static final long TICK_MS = 50;
+
+    public enum State { PENDING, SUBSCRIBED, FAILED }
+
+    private enum Phase { QUEUED, IN_FLIGHT, ACKED, FAILED }
+
+    private final Protocol protocol;
+    private final HashedWheelTimer timer;
+    private final Clock clock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition settled = lock.newCondition();
+
+    // Guarded by lock
+    private final Map<String, Topic> topics = new HashMap<>();
+    private final Map<String, List<String>> symbolTopics = new HashMap<>();
+    private final ArrayDeque<Topic> queue = new ArrayDeque<>();
+    private final ArrayDeque<String> unsubscribes = new ArrayDeque<>();
+    private final List<Topic> delayed = new ArrayList<>();
+    private final Map<Long, InFlight> inFlight = new LinkedHashMap<>();
+    private long nextRequestId = 1;
+    private double tokens;
+    private long lastRefillMillis; // 0 = bucket not started
+    private HashedWheelTimer.Timeout tickTask;
+    private long cycleStartMillis; // 0 = idle
+
+    // Metrics (guarded by lock)
+    private long requestsSent;
+    private long topicsRetried;
+    private long ackTimeouts;
+    private long ackLatencyTotalMs;
+    private long ackCount;
+    private long lastSettleMs = -1;
+    private int lastSettleRequests;
+    private int cycleRequests;
+
+    public SubscriptionManager(Protocol protocol, HashedWheelTimer timer, Clock clock) {
+        this.protocol = protocol;
+        this.timer = timer;
+        this.clock = clock;
+    }
+
+    /**
+     * Queues every topic of the symbols that is not already subscribed or on its way, and starts sending.
+     */
+    public void subscribe(Collection<String> symbols) {
+        lock.lock();
+        try {
+            for (String symbol : symbols) {
+                for (String name : symbolTopics.computeIfAbsent(symbol, protocol::topics)) {
+                    Topic topic = topics.computeIfAbsent(name, Topic::new);
+                    if (topic.phase == Phase.FAILED) {
+                        topic.attempts = 0; // explicit resubscribe gives failed topics a fresh budget
+                        enqueue(topic);
+                    } else if (topic.phase == Phase.QUEUED && !topic.queued) {
+                        enqueue(topic);
+                    }
+                }
+            }
+            pump();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Recomputes the topics of a symbol (e.g. after a depth tier change) and subscribes the new ones.
+     * Topics that are no longer wanted are forgotten — the caller unsubscribes them.
+     */
+    public void resync(String symbol) {
+        lock.lock();
+        try {
+            List<String> previous = symbolTopics.remove(symbol);
+            List<String> current = protocol.topics(symbol);
+            if (previous != null) {
+                for (String name : previous) {
+                    if (!current.contains(name)) {
+                        forget(topics.remove(name));
+                    }
+                }
+            }
+            symbolTopics.put(symbol, current);
+        } finally {
+            lock.unlock();
+        }
+        subscribe(List.of(symbol));
+    }
+
+    /**
+     * Queues an unsubscribe message. It is not acked or retried, but it counts against the message rate
+     * like a subscribe request, so a burst of tier changes cannot push the connection over the venue limit.
+     */
+    public void unsubscribe(String message) {
+        lock.lock();
+        try {
+            unsubscribes.add(message);
+            pump();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Routes a venue ack. Unknown request ids and topics (e.g. unsubscribe acks) are ignored.
+     */
+    public void onAck(Ack ack) {
+        lock.lock();
+        try {
+            InFlight request = ack.requestId() != null ? inFlight.get(ack.requestId()) : null;
+            if (ack.topics().isEmpty()) {
+                if (request == null) return;
+                resolveRequest(request, ack.success(), ack.error());
+            } else {
+                for (String name : ack.topics()) {
+                    resolve(topics.get(name), ack.success(), ack.error());
+                }
+            }
+            pump();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The connection is gone: every topic has to be subscribed again on the next connection.
+     */
+    public void onDisconnected() {
+        lock.lock();
+        try {
+            inFlight.clear();
+            queue.clear();
+            unsubscribes.clear(); // the next connection starts without subscriptions
+            delayed.clear();
+            for (Topic topic : topics.values()) {
+                topic.phase = Phase.QUEUED;
+                topic.queued = false;
+                topic.attempts = 0;
+                topic.requestId = 0;
+            }
+            cycleStartMillis = 0;
+            cycleRequests = 0;
+            stopTicking();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Blocks until nothing is queued or awaiting an ack. Returns false on timeout.
+     */
+    public boolean awaitSettled(long timeoutMs) {
+        long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        lock.lock();
+        try {
+            while (!isIdle()) {
+                if (remaining <= 0) return false;
+                remaining = settled.awaitNanos(remaining);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public State getState(String symbol) {
+        lock.lock();
+        try {
+            return symbolState(symbol);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Subscription state of every known symbol.
+     */
+    public Map<String, State> getStates() {
+        lock.lock();
+        try {
+            Map<String, State> result = new TreeMap<>();
+            for (String symbol : symbolTopics.keySet()) {
+                result.put(symbol, symbolState(symbol));
+            }
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Stats getStats() {
+        lock.lock();
+        try {
+            int subscribed = 0;
+            int pending = 0;
+            List<String> failed = new ArrayList<>();
+            for (String symbol : symbolTopics.keySet()) {
+                switch (symbolState(symbol)) {
+                    case SUBSCRIBED -> subscribed++;
+                    case PENDING -> pending++;
+                    case FAILED -> failed.add(symbol);
+                }
+            }
+            Collections.sort(failed);
+            return new Stats(subscribed, pending, failed.size(), failed, inFlight.size(),
+                    requestsSent, topicsRetried, ackTimeouts,
+                    ackCount > 0 ? ackLatencyTotalMs / ackCount : 0,
+                    lastSettleMs, lastSettleRequests);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public String getStatusSummary() {
+        Stats stats = getStats();
+        return String.format("subs=%d/%d ok, %d pending, %d failed, retried=%d, settle=%s",
+                stats.subscribed(), stats.subscribed() + stats.pending() + stats.failed(),
+                stats.pending(), stats.failed(), stats.topicsRetried(),
+                stats.lastSettleMs() >= 0 ? stats.lastSettleMs() + "ms" : "n/a");
+    }
+
+    // ======================== Sending ========================
+
+    private void pump() {
+        if (!protocol.isConnected()) return;
+        refillTokens();
+        Limits limits = protocol.limits();
+
+        while (!unsubscribes.isEmpty() && tokens >= 1) {
+            if (!protocol.send(unsubscribes.peek())) {
+                return;
+            }
+            unsubscribes.poll();
+            tokens -= 1;
+        }
+
+        while (!queue.isEmpty() && inFlight.size() < limits.maxInFlight() && tokens >= 1) {
+            long id = nextRequestId++;
+            List<Topic> batch = new ArrayList<>(Math.min(queue.size(), limits.maxTopicsPerRequest()));
+            while (!queue.isEmpty() && batch.size() < limits.maxTopicsPerRequest()) {
+                Topic topic = queue.poll();
+                topic.queued = false;
+                batch.add(topic);
+            }
+            List<String> names = batch.stream().map(t -> t.name).toList();
+
+            if (!protocol.send(protocol.buildRequest(id, names))) {
+                // Socket is closing — keep the topics for the next connection
+                for (int i = batch.size() - 1; i >= 0; i--) {
+                    batch.get(i).queued = true;
+                    queue.addFirst(batch.get(i));
+                }
+                return;
+            }
+
+            tokens -= 1;
+            requestsSent++;
+            cycleRequests++;
+            if (cycleStartMillis == 0) {
+                cycleStartMillis = clock.millis();
+            }
+            for (Topic topic : batch) {
+                topic.phase = Phase.IN_FLIGHT;
+                topic.requestId = id;
+                topic.attempts++;
+            }
+            inFlight.put(id, new InFlight(id, names, clock.millis()));
+        }
+
+        if (isIdle()) {
+            onSettled();
+        } else {
+            ensureTicking();
+        }
+    }
+
+    /**
+     * Token bucket sized to one tick of the rate, so sends are spread evenly instead of bursting
+     * a whole second's budget at once (venues count messages per sliding or fixed second).
+     */
+    private void refillTokens() {
+        Limits limits = protocol.limits();
+        long now = clock.millis();
+        double burst = Math.max(1, limits.requestsPerSecond() * TICK_MS / 1000.0);
+        if (lastRefillMillis == 0) {
+            tokens = burst;
+        } else {
+            tokens = Math.min(burst, tokens + (now - lastRefillMillis) / 1000.0 * limits.requestsPerSecond());
+        }
+        lastRefillMillis = now;
+    }
+
+    private void tick() {
+        lock.lock();
+        try {
+            if (!protocol.isConnected()) {
+                stopTicking(); // resumes with resubscribe after reconnect
+                return;
+            }
+            long now = clock.millis();
+            long timeoutMs = protocol.limits().ackTimeoutMs();
+
+            List<InFlight> expired = new ArrayList<>();
+            for (InFlight request : inFlight.values()) {
+                if (now - request.sentAtMillis > timeoutMs) {
+                    expired.add(request);
+                }
+            }
+            for (InFlight request : expired) {
+                ackTimeouts++;
+                resolveRequest(request, false, "ack timeout");
+            }
+
+            Iterator<Topic> it = delayed.iterator();
+            while (it.hasNext()) {
+                Topic topic = it.next();
+                if (topic.retryAtMillis <= now) {
+                    it.remove();
+                    queue.add(topic); // still marked queued
+                }
+            }
+
+            pump();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void ensureTicking() {
+        if (tickTask == null || tickTask.isDone()) {
+            tickTask = timer.scheduleAtFixedRate(protocol.name() + " subscriptions", this::tick,
+                    TICK_MS, TICK_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void stopTicking() {
+        if (tickTask != null) {
+            tickTask.cancel();
+            tickTask = null;
+        }
+    }
+
+    private void onSettled() {
+        stopTicking();
+        if (cycleStartMillis != 0) {
+            lastSettleMs = clock.millis() - cycleStartMillis;
+            lastSettleRequests = cycleRequests;
+            cycleStartMillis = 0;
+            cycleRequests = 0;
+            log.info("{} Subscriptions settled in {}ms ({} requests) | {}",
+                    protocol.name(), lastSettleMs, lastSettleRequests, summaryCounts());
+        }
+        settled.signalAll();
+    }
+
+    // ======================== Acks ========================
+
+    private void resolveRequest(InFlight request, boolean success, String error) {
+        List<String> unresolved = new ArrayList<>();
+        for (String name : request.topics) {
+            Topic topic = topics.get(name);
+            if (topic != null && topic.phase == Phase.IN_FLIGHT && topic.requestId == request.id) {
+                unresolved.add(name);
+            }
+        }
+        if (!success && error != null) {
+            // Venues that reject a batch usually name the offending topics — retry only those
+            Set<String> mentioned = mentionedTopics(error, unresolved);
+            if (!mentioned.isEmpty()) {
+                for (String name : unresolved) {
+                    resolve(topics.get(name), !mentioned.contains(name), error);
+                }
+                return;
+            }
+        }
+        for (String name : unresolved) {
+            resolve(topics.get(name), success, error);
+        }
+    }
+
+    private void resolve(Topic topic, boolean success, String error) {
+        if (topic == null || topic.phase != Phase.IN_FLIGHT) return;
+
+        InFlight request = inFlight.get(topic.requestId);
+        if (request != null && --request.remaining <= 0) {
+            inFlight.remove(request.id);
+            ackCount++;
+            ackLatencyTotalMs += clock.millis() - request.sentAtMillis;
+        }
+
+        if (success) {
+            topic.phase = Phase.ACKED;
+            return;
+        }
+
+        if (topic.attempts >= MAX_ATTEMPTS) {
+            topic.phase = Phase.FAILED;
+            log.warn("{} Subscription to {} failed after {} attempts: {}",
+                    protocol.name(), topic.name, topic.attempts, error);
+            return;
+        }
+
+        topicsRetried++;
+        topic.phase = Phase.QUEUED;
+        topic.queued = true;
+        topic.retryAtMillis = clock.millis() + (RETRY_BASE_DELAY_MS << (topic.attempts - 1));
+        delayed.add(topic);
+        log.debug("{} Subscription to {} rejected ({}), retry {}/{}",
+                protocol.name(), topic.name, error, topic.attempts, MAX_ATTEMPTS - 1);
+    }
+
+    private static Set<String> mentionedTopics(String error, List<String> candidates) {
+        Set<String> tokens = new HashSet<>();
+        for (String token : error.split("[^A-Za-z0-9@._:/-]+")) {
+            tokens.add(token);
+            // "topic:orderbook.50.BTCUSDT" also mentions "orderbook.50.BTCUSDT"
+            for (int i = token.indexOf(':'); i >= 0; i = token.indexOf(':', i + 1)) {
+                tokens.add(token.substring(i + 1));
+            }
+        }
+        Set<String> mentioned = new HashSet<>();
+        for (String name : candidates) {
+            if (tokens.contains(name)) {
+                mentioned.add(name);
+            }
+        }
+        return mentioned;
+    }
+
+    // ======================== State ========================
+
+    private void enqueue(Topic topic) {
+        topic.phase = Phase.QUEUED;
+        topic.queued = true;
+        queue.add(topic);
+    }
+
+    private void forget(Topic topic) {
+        if (topic == null) return;
+        if (topic.queued) {
+            queue.remove(topic);
+            delayed.remove(topic);
+        }
+        if (topic.phase == Phase.IN_FLIGHT) {
+            InFlight request = inFlight.get(topic.requestId);
+            if (request != null && --request.remaining <= 0) {
+                inFlight.remove(request.id);
+            }
+        }
+    }
+
+    private boolean isIdle() {
+        return queue.isEmpty() && unsubscribes.isEmpty() && delayed.isEmpty() && inFlight.isEmpty();
+    }
+
+    private State symbolState(String symbol) {
+        List<String> names = symbolTopics.get(symbol);
+        if (names == null) return State.PENDING;
+        boolean allAcked = true;
+        for (String name : names) {
+            Topic topic = topics.get(name);
+            if (topic == null) {
+                allAcked = false;
+            } else if (topic.phase == Phase.FAILED) {
+                return State.FAILED;
+            } else if (topic.phase != Phase.ACKED) {
+                allAcked = false;
+            }
+        }
+        return allAcked ? State.SUBSCRIBED : State.PENDING;
+    }
+
+    private String summaryCounts() {
+        int ok = 0;
+        int failed = 0;
+        for (String symbol : symbolTopics.keySet()) {
+            State state = symbolState(symbol);
+            if (state == State.SUBSCRIBED) ok++;
+            else if (state == State.FAILED) failed++;
+        }
+        return ok + " symbols subscribed, " + failed + " failed";
+    }
+
+    private static final class Topic {
+        private final String name;
+        private Phase phase = Phase.QUEUED;
+        private boolean queued; // in the send queue or waiting for a retry
+        private int attempts;
+        private long requestId;
+        private long retryAtMillis;
+
+        Topic(String name) {
+            this.name = name;
+        }
+    }
+
+    private static final class InFlight {
+        private final long id;
+        private final List<String> topics;
+        private final long sentAtMillis;
+        private int remaining;
+
+        InFlight(long id, List<String> topics, long sentAtMillis) {
+            this.id = id;
+            this.topics = topics;
+            this.sentAtMillis = sentAtMillis;
+            this.remaining = topics.size();
+        }
+    }
+
+    // ======================== API types ========================
+
+    /**
+     * Venue-specific side of the subscription protocol, implemented by the connector.
+     */
+    public interface Protocol {
+
+        /** Log prefix, e.g. "[BYBIT:SPOT]". */
+        String name();
+
+        /** Venue topics (channels) that make up a subscription to one symbol. */
+        List<String> topics(String symbol);
+
+        /** One subscribe message for the topics; the id must be echoed by id-correlated venues. */
+        String buildRequest(long requestId, List<String> topics);
+
+        boolean send(String message);
+
+        boolean isConnected();
+
+        Limits limits();
+    }
+
+    /**
+     * Venue limits: topics per message, messages per second, requests awaiting an ack, ack timeout.
+     */
+    public record Limits(int maxTopicsPerRequest, double requestsPerSecond, int maxInFlight, long ackTimeoutMs) {}
+
+    /**
+     * Subscription ack. Without topics it answers the whole request (requires an id);
+     * with topics it answers just those channels.
+     */
+    public record Ack(Long requestId, List<String> topics, boolean success, String error) {
+
+        public static Ack ofRequest(long requestId, boolean success, String error) {
+            return new Ack(requestId, List.of(), success, error);
+        }
+
+        public static Ack ofTopic(String topic, boolean success, String error) {
+            return new Ack(null, List.of(topic), success, error);
+        }
+
+        /**
+         * Numeric request id from an ack field (number or numeric string), null if absent.
+         */
+        public static Long requestId(JsonNode idNode) {
+            if (idNode == null || idNode.isNull()) return null;
+            if (idNode.isNumber()) return idNode.asLong();
+            String text = idNode.asText();
+            if (text.isEmpty() || !text.chars().allMatch(Character::isDigit)) return null;
+            try {
+                return Long.parseLong(text);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+
+    public record Stats(
+            int subscribed,
+            int pending,
+            int failed,
+            List<String> failedSymbols,
+            int inFlightRequests,
+            long requestsSent,
+            long topicsRetried,
+            long ackTimeouts,
+            long avgAckLatencyMs,
+            long lastSettleMs,
+            int lastSettleRequests
+    ) {}
+}
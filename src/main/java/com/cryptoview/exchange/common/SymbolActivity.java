@@ -0,0 +1,22 @@
+package com.cryptoview.exchange.common;
+
+import com.cryptoview.model.enums.Exchange;
+import com.cryptoview.model.enums.MarketType;
+
+import java.math.BigDecimal;
+
+/**
+ * Activity snapshot of a subscribed symbol used to choose its depth tier.
+ *
+ * @param topDepthUsd USD notional of the top levels of both sides that every tier's feed carries,
+ *                    null while there is no book
+ */
+public record SymbolActivity(
+        String symbol,
+        Exchange exchange,
+        MarketType marketType,
+        BigDecimal volume15minUsd,
+        BigDecimal topDepthUsd,
+        DepthTier currentTier
+) {
+}
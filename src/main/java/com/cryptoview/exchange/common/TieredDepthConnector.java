@@ -0,0 +1,34 @@
+package com.cryptoview.exchange.common;
+
+import java.util.Set;
+
+/**
+ * Connector that can subscribe individual symbols to different depth feeds
+ * (e.g. Bybit orderbook.50/200/500, OKX books/books5, Bitget books/books15/books5,
+ * Binance/Aster partial depth20 vs diff-depth).
+ */
+public interface TieredDepthConnector extends ExchangeConnector {
+
+    Set<DepthTier> getSupportedDepthTiers();
+
+    DepthTier getDefaultDepthTier();
+
+    DepthTier getDepthTier(String symbol);
+
+    /**
+     * Moves a subscribed symbol to another depth feed (unsubscribe old channel, subscribe new one).
+     * Returns false if the tier is unchanged or the connector is not connected.
+     */
+    boolean changeDepthTier(String symbol, DepthTier tier);
+
+    DepthTierPolicy getDepthTierPolicy();
+
+    void setDepthTierPolicy(DepthTierPolicy policy);
+
+    /**
+     * Maps a subscription symbol (e.g. OKX instId "BTC-USDT-SWAP") to the symbol published to OrderBookManager.
+     */
+    default String toMarketSymbol(String subscribedSymbol) {
+        return subscribedSymbol;
+    }
+}
@@ -0,0 +1,55 @@
+package com.cryptoview.exchange.common;
+
+import java.math.BigDecimal;
+
+/**
+ * Default tiering: liquid symbols and symbols with a thick book at the touch get deep books, quiet symbols
+ * with a thin touch get shallow feeds. Both signals are the same whatever tier the symbol is on now, so a
+ * shallow feed cannot keep a symbol shallow just by hiding the book behind its last level.
+ *
+ * Leaving the current tier takes a {@value #HYSTERESIS} margin past the threshold, so a symbol sitting right
+ * at a boundary does not flip on every evaluation.
+ */
+public class VolumeDepthTierPolicy implements DepthTierPolicy {
+
+    static final double HYSTERESIS = 0.2;
+
+    private final BigDecimal deepVolumeUsd;
+    private final BigDecimal shallowVolumeUsd;
+    private final BigDecimal deepTopDepthUsd;
+    private final BigDecimal shallowTopDepthUsd;
+
+    public VolumeDepthTierPolicy(BigDecimal deepVolumeUsd, BigDecimal shallowVolumeUsd,
+                                 BigDecimal deepTopDepthUsd, BigDecimal shallowTopDepthUsd) {
+        this.deepVolumeUsd = deepVolumeUsd;
+        this.shallowVolumeUsd = shallowVolumeUsd;
+        this.deepTopDepthUsd = deepTopDepthUsd;
+        this.shallowTopDepthUsd = shallowTopDepthUsd;
+    }
+
+    @Override
+    public DepthTier resolve(SymbolActivity activity) {
+        BigDecimal volume = activity.volume15minUsd() != null ? activity.volume15minUsd() : BigDecimal.ZERO;
+        BigDecimal depth = activity.topDepthUsd();
+        DepthTier current = activity.currentTier();
+
+        // DEEP держим, пока сигнал не упал ниже порога с запасом; чтобы войти — порог как есть
+        double deepFactor = current == DepthTier.DEEP ? 1 - HYSTERESIS : 1;
+        if (atLeast(volume, deepVolumeUsd, deepFactor)) {
+            return DepthTier.DEEP;
+        }
+        if (depth != null && atLeast(depth, deepTopDepthUsd, deepFactor)) {
+            return DepthTier.DEEP;
+        }
+        double shallowFactor = current == DepthTier.SHALLOW ? 1 + HYSTERESIS : 1;
+        if (!atLeast(volume, shallowVolumeUsd, shallowFactor)
+                && (depth == null || !atLeast(depth, shallowTopDepthUsd, shallowFactor))) {
+            return DepthTier.SHALLOW;
+        }
+        return DepthTier.STANDARD;
+    }
+
+    private static boolean atLeast(BigDecimal value, BigDecimal threshold, double factor) {
+        return value.compareTo(factor == 1 ? threshold : threshold.multiply(BigDecimal.valueOf(factor))) >= 0;
+    }
+}
@@ -1,10 +1,13 @@
 package com.cryptoview.exchange.gate;
 
 import com.cryptoview.exchange.common.AbstractWebSocketConnector;
+import com.cryptoview.exchange.common.LocalOrderBook;
+import com.cryptoview.exchange.common.SubscriptionManager;
 import com.cryptoview.model.domain.OrderBookLevel;
 import com.cryptoview.model.enums.Exchange;
 import com.cryptoview.model.enums.MarketType;
 import com.cryptoview.service.orderbook.OrderBookManager;
+import com.cryptoview.service.timer.HashedWheelTimer;
 import com.cryptoview.service.volume.VolumeTracker;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -24,13 +27,16 @@ import java.util.List;
 public class GateSpotConnector extends AbstractWebSocketConnector {
 
     private static final String WS_URL = "wss://api.gateio.ws/ws/v4/";
+    // One topic per message; acks echo the request id
+    private static final SubscriptionManager.Limits SUBSCRIPTION_LIMITS = new SubscriptionManager.Limits(1, 100, 50, 5000);
     private static final String REST_URL = "https://api.gateio.ws/api/v4/spot/currency_pairs";
 
     public GateSpotConnector(OkHttpClient httpClient,
                               ObjectMapper objectMapper,
                               OrderBookManager orderBookManager,
-                              VolumeTracker volumeTracker) {
-        super(httpClient, objectMapper, orderBookManager, volumeTracker);
+                              VolumeTracker volumeTracker,
+                              HashedWheelTimer timer) {
+        super(httpClient, objectMapper, orderBookManager, volumeTracker, timer);
     }
 
     @Override
@@ -62,19 +68,7 @@ public class GateSpotConnector extends AbstractWebSocketConnector {
                 return;
             }
 
-            int batchSize = 20;
-            for (int i = 0; i < symbols.size(); i += batchSize) {
-                int end = Math.min(i + batchSize, symbols.size());
-                List<String> batch = symbols.subList(i, end);
-                subscribe(batch);
-
-                try {
-                    Thread.sleep(200);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    break;
-                }
-            }
+            subscribeAndAwait(symbols);
             log.info("[GATE:SPOT] Subscribed to {} symbols", symbols.size());
         }
     }
@@ -110,37 +104,39 @@ public class GateSpotConnector extends AbstractWebSocketConnector {
     }
 
     @Override
-    protected String buildSubscribeMessage(List<String> symbols) {
-        // Not used directly - subscribe() is overridden
-        return null;
+    protected List<String> subscriptionTopics(String symbol) {
+        return List.of("spot.order_book:" + symbol, "spot.trades:" + symbol);
     }
 
     @Override
-    public void subscribe(List<String> symbols) {
-        if (!connected.get()) {
-            log.warn("[GATE:SPOT] Cannot subscribe - not connected");
-            return;
-        }
+    protected String buildSubscribeRequest(long requestId, List<String> topics) {
+        // Gate.io requires one currency pair per subscription message (limits allow one topic per request)
+        String topic = topics.getFirst();
+        int sep = topic.indexOf(':');
+        String channel = topic.substring(0, sep);
+        String symbol = topic.substring(sep + 1);
+        // Orderbook payload = [currency_pair, level, interval], trades payload = [currency_pair]
+        String payload = "spot.order_book".equals(channel)
+                ? String.format("[\"%s\",\"20\",\"100ms\"]", symbol)
+                : String.format("[\"%s\"]", symbol);
+        return String.format("{\"time\":%d,\"id\":%d,\"channel\":\"%s\",\"event\":\"subscribe\",\"payload\":%s}",
+                System.currentTimeMillis() / 1000, requestId, channel, payload);
+    }
 
-        // Gate.io requires one currency pair per subscription message
-        for (String symbol : symbols) {
-            // Orderbook subscription: payload = [currency_pair, level, interval]
-            String obMsg = String.format(
-                    "{\"time\":%d,\"channel\":\"spot.order_book\",\"event\":\"subscribe\",\"payload\":[\"%s\",\"20\",\"100ms\"]}",
-                    System.currentTimeMillis() / 1000, symbol
-            );
-            send(obMsg);
-
-            // Trades subscription: payload = [currency_pair]
-            String tradeMsg = String.format(
-                    "{\"time\":%d,\"channel\":\"spot.trades\",\"event\":\"subscribe\",\"payload\":[\"%s\"]}",
-                    System.currentTimeMillis() / 1000, symbol
-            );
-            send(tradeMsg);
-
-            subscribedSymbols.add(symbol);
+    @Override
+    protected SubscriptionManager.Ack parseSubscriptionAck(JsonNode root) {
+        Long id = SubscriptionManager.Ack.requestId(root.get("id"));
+        if (id == null) return null;
+        JsonNode error = root.get("error");
+        if (error != null && !error.isNull()) {
+            return SubscriptionManager.Ack.ofRequest(id, false, error.path("message").asText());
         }
-        log.debug("[GATE:SPOT] Subscribed to {} symbols", symbols.size());
+        return SubscriptionManager.Ack.ofRequest(id, true, null);
+    }
+
+    @Override
+    protected SubscriptionManager.Limits getSubscriptionLimits() {
+        return SUBSCRIPTION_LIMITS;
     }
 
     @Override
@@ -152,6 +148,7 @@ public class GateSpotConnector extends AbstractWebSocketConnector {
         String event = root.has("event") ? root.get("event").asText() : null;
 
         if ("subscribe".equals(event)) {
+            handleSubscriptionAck(root);
             return;
         }
 
@@ -181,14 +178,8 @@ public class GateSpotConnector extends AbstractWebSocketConnector {
 
         if (!bids.isEmpty() || !asks.isEmpty()) {
             incrementOrderbookUpdates();
-            orderBookManager.updateOrderBook(
-                    symbol,
-                    Exchange.GATE,
-                    MarketType.SPOT,
-                    bids,
-                    asks,
-                    null
-            );
+            LocalOrderBook.Snapshot snapshot = LocalOrderBook.Snapshot.bestFirst(bids, asks);
+            orderBookManager.markDirty(symbol, Exchange.GATE, MarketType.SPOT, () -> snapshot);
         }
     }
 
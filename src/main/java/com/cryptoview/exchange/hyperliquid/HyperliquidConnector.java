@@ -1,10 +1,13 @@
 package com.cryptoview.exchange.hyperliquid;
 
 import com.cryptoview.exchange.common.AbstractWebSocketConnector;
+import com.cryptoview.exchange.common.LocalOrderBook;
+import com.cryptoview.exchange.common.SubscriptionManager;
 import com.cryptoview.model.domain.OrderBookLevel;
 import com.cryptoview.model.enums.Exchange;
 import com.cryptoview.model.enums.MarketType;
 import com.cryptoview.service.orderbook.OrderBookManager;
+import com.cryptoview.service.timer.HashedWheelTimer;
 import com.cryptoview.service.volume.VolumeTracker;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -26,14 +29,17 @@ public class HyperliquidConnector extends AbstractWebSocketConnector {
 
     private static final String WS_URL = "wss://api.hyperliquid.xyz/ws";
     private static final String REST_URL = "https://api.hyperliquid.xyz/info";
+    // 2000 сообщений в минуту на IP для всех соединений
+    private static final SubscriptionManager.Limits SUBSCRIPTION_LIMITS = new SubscriptionManager.Limits(1, 25, 25, 10_000);
 
     private final MarketType marketType;
 
     public HyperliquidConnector(OkHttpClient httpClient,
                                  ObjectMapper objectMapper,
                                  OrderBookManager orderBookManager,
-                                 VolumeTracker volumeTracker) {
-        super(httpClient, objectMapper, orderBookManager, volumeTracker);
+                                 VolumeTracker volumeTracker,
+                                 HashedWheelTimer timer) {
+        super(httpClient, objectMapper, orderBookManager, volumeTracker, timer);
         // Hyperliquid - это perpetual DEX, работает как futures
         this.marketType = MarketType.FUTURES;
     }
@@ -67,17 +73,7 @@ public class HyperliquidConnector extends AbstractWebSocketConnector {
                 return;
             }
 
-            // Hyperliquid может иметь ограничения, подписываемся по одному
-            for (String symbol : symbols) {
-                subscribe(List.of(symbol));
-
-                try {
-                    Thread.sleep(50);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    break;
-                }
-            }
+            subscribeAndAwait(symbols);
             log.info("[HYPERLIQUID] Subscribed to {} symbols", symbols.size());
         }
     }
@@ -115,43 +111,37 @@ public class HyperliquidConnector extends AbstractWebSocketConnector {
     }
 
     @Override
-    protected String buildSubscribeMessage(List<String> symbols) {
-        // Hyperliquid использует другой формат подписки
-        StringBuilder sb = new StringBuilder();
-        sb.append("{\"method\":\"subscribe\",\"subscription\":{\"type\":\"l2Book\",\"coin\":\"");
-        sb.append(symbols.getFirst());
-        sb.append("\"}}");
-        return sb.toString();
+    protected List<String> subscriptionTopics(String symbol) {
+        return List.of("l2Book:" + symbol, "trades:" + symbol);
     }
 
-    public void subscribeToTrades(String symbol) {
-        String msg = String.format(
-                "{\"method\":\"subscribe\",\"subscription\":{\"type\":\"trades\",\"coin\":\"%s\"}}",
-                symbol
-        );
-        send(msg);
+    @Override
+    protected String buildSubscribeRequest(long requestId, List<String> topics) {
+        // Hyperliquid: одна подписка на сообщение, без request id — ack приходит как subscriptionResponse
+        String topic = topics.getFirst();
+        int sep = topic.indexOf(':');
+        return String.format("{\"method\":\"subscribe\",\"subscription\":{\"type\":\"%s\",\"coin\":\"%s\"}}",
+                topic.substring(0, sep), topic.substring(sep + 1));
     }
 
     @Override
-    public void subscribe(List<String> symbols) {
-        for (String symbol : symbols) {
-            // L2 Book subscription
-            String bookMsg = String.format(
-                    "{\"method\":\"subscribe\",\"subscription\":{\"type\":\"l2Book\",\"coin\":\"%s\"}}",
-                    symbol
-            );
-            send(bookMsg);
-            subscribedSymbols.add(symbol);
+    protected SubscriptionManager.Ack parseSubscriptionAck(JsonNode root) {
+        if (!"subscriptionResponse".equals(root.path("channel").asText())) return null;
+        JsonNode subscription = root.path("data").path("subscription");
+        return SubscriptionManager.Ack.ofTopic(
+                subscription.path("type").asText() + ":" + subscription.path("coin").asText(), true, null);
+    }
 
-            // Trades subscription
-            subscribeToTrades(symbol);
-        }
+    @Override
+    protected SubscriptionManager.Limits getSubscriptionLimits() {
+        return SUBSCRIPTION_LIMITS;
     }
 
     @Override
     protected void handleMessage(String message) {
         JsonNode root = parseJson(message);
         if (root == null) return;
+        if (handleSubscriptionAck(root)) return;
 
         String channel = root.has("channel") ? root.get("channel").asText() : null;
         JsonNode data = root.get("data");
@@ -185,14 +175,8 @@ public class HyperliquidConnector extends AbstractWebSocketConnector {
 
         if (!bids.isEmpty() || !asks.isEmpty()) {
             incrementOrderbookUpdates();
-            orderBookManager.updateOrderBook(
-                    symbol,
-                    Exchange.HYPERLIQUID,
-                    marketType,
-                    bids,
-                    asks,
-                    null
-            );
+            LocalOrderBook.Snapshot snapshot = LocalOrderBook.Snapshot.bestFirst(bids, asks);
+            orderBookManager.markDirty(symbol, Exchange.HYPERLIQUID, marketType, () -> snapshot);
         }
     }
 
@@ -1,10 +1,13 @@
 package com.cryptoview.exchange.lighter;
 
 import com.cryptoview.exchange.common.AbstractWebSocketConnector;
+import com.cryptoview.exchange.common.LocalOrderBook;
+import com.cryptoview.exchange.common.SubscriptionManager;
 import com.cryptoview.model.domain.OrderBookLevel;
 import com.cryptoview.model.enums.Exchange;
 import com.cryptoview.model.enums.MarketType;
 import com.cryptoview.service.orderbook.OrderBookManager;
+import com.cryptoview.service.timer.HashedWheelTimer;
 import com.cryptoview.service.volume.VolumeTracker;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -23,6 +26,7 @@ public abstract class AbstractLighterConnector extends AbstractWebSocketConnecto
 
     private static final String WS_URL = "wss://mainnet.zklighter.elliot.ai/stream?readonly=true";
     private static final String REST_BASE = "https://mainnet.zklighter.elliot.ai/api/v1";
+    private static final SubscriptionManager.Limits SUBSCRIPTION_LIMITS = new SubscriptionManager.Limits(1, 20, 20, 10_000);
 
     // market_id -> symbol (e.g., 0 -> "ETHUSDC", 1 -> "BTCUSDC")
     protected final Map<Integer, String> marketIdToSymbol = new ConcurrentHashMap<>();
@@ -31,8 +35,9 @@ public abstract class AbstractLighterConnector extends AbstractWebSocketConnecto
     protected AbstractLighterConnector(OkHttpClient httpClient,
                                         ObjectMapper objectMapper,
                                         OrderBookManager orderBookManager,
-                                        VolumeTracker volumeTracker) {
-        super(httpClient, objectMapper, orderBookManager, volumeTracker);
+                                        VolumeTracker volumeTracker,
+                                        HashedWheelTimer timer) {
+        super(httpClient, objectMapper, orderBookManager, volumeTracker, timer);
     }
 
     @Override
@@ -66,15 +71,7 @@ public abstract class AbstractLighterConnector extends AbstractWebSocketConnecto
             return;
         }
 
-        for (String symbol : symbols) {
-            subscribe(List.of(symbol));
-            try {
-                Thread.sleep(50);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                break;
-            }
-        }
+        subscribeAndAwait(symbols);
         log.info("[LIGHTER:{}] Subscribed to {} symbols", getMarketType(), symbols.size());
     }
 
@@ -126,30 +123,42 @@ public abstract class AbstractLighterConnector extends AbstractWebSocketConnecto
     }
 
     @Override
-    protected String buildSubscribeMessage(List<String> symbols) {
-        // Not used directly — subscribe() is overridden
-        return null;
+    public void subscribe(List<String> symbols) {
+        // Only markets resolved from orderBookDetails can be subscribed
+        super.subscribe(symbols.stream().filter(symbolToMarketId::containsKey).toList());
     }
 
     @Override
-    public void subscribe(List<String> symbols) {
-        for (String symbol : symbols) {
-            Integer marketId = symbolToMarketId.get(symbol);
-            if (marketId == null) continue;
+    protected List<String> subscriptionTopics(String symbol) {
+        int marketId = symbolToMarketId.get(symbol);
+        return List.of("order_book/" + marketId, "trade/" + marketId);
+    }
+
+    @Override
+    protected String buildSubscribeRequest(long requestId, List<String> topics) {
+        // One channel per message, no request id
+        return String.format("{\"type\":\"subscribe\",\"channel\":\"%s\"}", topics.getFirst());
+    }
 
-            // Order book subscription
-            send(String.format("{\"type\":\"subscribe\",\"channel\":\"order_book/%d\"}", marketId));
-            // Trade subscription
-            send(String.format("{\"type\":\"subscribe\",\"channel\":\"trade/%d\"}", marketId));
+    /**
+     * The first message on a channel ("subscribed/order_book", "subscribed/trade") doubles as the ack.
+     */
+    @Override
+    protected SubscriptionManager.Ack parseSubscriptionAck(JsonNode root) {
+        if (!root.path("type").asText().startsWith("subscribed/") || !root.has("channel")) return null;
+        return SubscriptionManager.Ack.ofTopic(root.get("channel").asText().replace(':', '/'), true, null);
+    }
 
-            subscribedSymbols.add(symbol);
-        }
+    @Override
+    protected SubscriptionManager.Limits getSubscriptionLimits() {
+        return SUBSCRIPTION_LIMITS;
     }
 
     @Override
     protected void handleMessage(String message) {
         JsonNode root = parseJson(message);
         if (root == null) return;
+        handleSubscriptionAck(root); // the ack carries the initial data, keep processing
 
         // Lighter sends channel info in the message
         String channel = root.has("channel") ? root.get("channel").asText() : null;
@@ -175,14 +184,8 @@ public abstract class AbstractLighterConnector extends AbstractWebSocketConnecto
 
         if (!bidLevels.isEmpty() || !askLevels.isEmpty()) {
             incrementOrderbookUpdates();
-            orderBookManager.updateOrderBook(
-                    symbol,
-                    Exchange.LIGHTER,
-                    getMarketType(),
-                    bidLevels,
-                    askLevels,
-                    null
-            );
+            LocalOrderBook.Snapshot snapshot = LocalOrderBook.Snapshot.bestFirst(bidLevels, askLevels);
+            orderBookManager.markDirty(symbol, Exchange.LIGHTER, getMarketType(), () -> snapshot);
         }
     }
 
@@ -2,6 +2,7 @@ package com.cryptoview.exchange.lighter;
 
 import com.cryptoview.model.enums.MarketType;
 import com.cryptoview.service.orderbook.OrderBookManager;
+import com.cryptoview.service.timer.HashedWheelTimer;
 import com.cryptoview.service.volume.VolumeTracker;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import okhttp3.OkHttpClient;
@@ -13,8 +14,9 @@ public class LighterFuturesConnector extends AbstractLighterConnector {
     public LighterFuturesConnector(OkHttpClient httpClient,
                                     ObjectMapper objectMapper,
                                     OrderBookManager orderBookManager,
-                                    VolumeTracker volumeTracker) {
-        super(httpClient, objectMapper, orderBookManager, volumeTracker);
+                                    VolumeTracker volumeTracker,
+                                    HashedWheelTimer timer) {
+        super(httpClient, objectMapper, orderBookManager, volumeTracker, timer);
     }
 
     @Override
@@ -1,6 +1,10 @@
 package com.cryptoview.exchange.mexc;
 
-import com.cryptoview.exchange.common.ExchangeConnector;
+import com.cryptoview.exchange.common.EndpointOverridable;
+import com.cryptoview.exchange.common.EndpointOverride;
+import com.cryptoview.exchange.common.FrameSink;
+import com.cryptoview.exchange.common.LocalOrderBook;
+import com.cryptoview.exchange.common.RecordableConnector;
 import com.cryptoview.exchange.mexc.proto.MexcProto.PushDataV3ApiWrapper;
 import com.cryptoview.exchange.mexc.proto.MexcProto.PublicLimitDepthsV3Api;
 import com.cryptoview.exchange.mexc.proto.MexcProto.PublicLimitDepthV3ApiItem;
@@ -10,6 +14,7 @@ import com.cryptoview.model.domain.OrderBookLevel;
 import com.cryptoview.model.enums.Exchange;
 import com.cryptoview.model.enums.MarketType;
 import com.cryptoview.service.orderbook.OrderBookManager;
+import com.cryptoview.service.timer.HashedWheelTimer;
 import com.cryptoview.service.volume.VolumeTracker;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -21,6 +26,8 @@ import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
 import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.*;
@@ -32,7 +39,7 @@ import java.util.stream.Collectors;
 
 @Slf4j
 @Component
-public class MexcSpotConnector implements ExchangeConnector {
+public class MexcSpotConnector implements RecordableConnector, EndpointOverridable {
 
     private static final String WS_URL = "wss://wbs-api.mexc.com/ws";
     private static final String REST_URL = "https://api.mexc.com/api/v3/exchangeInfo";
@@ -50,14 +57,14 @@ public class MexcSpotConnector implements ExchangeConnector {
     private final ObjectMapper objectMapper;
     private final OrderBookManager orderBookManager;
     private final VolumeTracker volumeTracker;
+    private final HashedWheelTimer timer;
 
     private final List<MexcWebSocketConnection> connections = new CopyOnWriteArrayList<>();
     private final Set<String> allSubscribedSymbols = ConcurrentHashMap.newKeySet();
-    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
-        Thread t = new Thread(r, "mexc-spot-scheduler");
-        t.setDaemon(true);
-        return t;
-    });
+    private volatile HashedWheelTimer.Timeout pingTask;
+    private volatile FrameSink frameSink = FrameSink.NONE;
+    private volatile Clock clock = Clock.systemUTC();
+    private volatile EndpointOverride endpointOverride = EndpointOverride.NONE;
 
     // Global metrics
     private final AtomicLong totalMessagesReceived = new AtomicLong(0);
@@ -69,11 +76,13 @@ public class MexcSpotConnector implements ExchangeConnector {
     public MexcSpotConnector(OkHttpClient httpClient,
                              ObjectMapper objectMapper,
                              OrderBookManager orderBookManager,
-                             VolumeTracker volumeTracker) {
+                             VolumeTracker volumeTracker,
+                             HashedWheelTimer timer) {
         this.httpClient = httpClient;
         this.objectMapper = objectMapper;
         this.orderBookManager = orderBookManager;
         this.volumeTracker = volumeTracker;
+        this.timer = timer;
     }
 
     @Override
@@ -99,7 +108,51 @@ public class MexcSpotConnector implements ExchangeConnector {
         }
         connections.clear();
         allSubscribedSymbols.clear();
-        scheduler.shutdown();
+        if (pingTask != null) {
+            pingTask.cancel();
+            pingTask = null;
+        }
+    }
+
+    @Override
+    public void setFrameSink(FrameSink sink) {
+        this.frameSink = sink != null ? sink : FrameSink.NONE;
+    }
+
+    @Override
+    public void setEndpointOverride(EndpointOverride override) {
+        this.endpointOverride = override != null ? override : EndpointOverride.NONE;
+        if (!this.endpointOverride.isEmpty()) {
+            log.info("[MEXC:SPOT] Endpoints redirected: ws={}, rest={}",
+                    endpointOverride.wsBase(), endpointOverride.restBase());
+        }
+    }
+
+    @Override
+    public void beginReplay(Clock replayClock) {
+        this.clock = replayClock;
+        log.info("[MEXC:SPOT] Replay mode: decoding recorded frames");
+    }
+
+    @Override
+    public void replayFrame(int connectionId, boolean binary, byte[] payload) {
+        totalMessagesReceived.incrementAndGet();
+        lastMessageTime.set(Instant.now(clock));
+        try {
+            if (binary) {
+                handleBinaryMessage(ByteString.of(payload), connectionId);
+            } else {
+                handleTextMessage(new String(payload, StandardCharsets.UTF_8), connectionId);
+            }
+        } catch (Exception e) {
+            totalMessageErrors.incrementAndGet();
+            log.error("[MEXC:SPOT] conn#{} Error handling replayed message: {}", connectionId, e.getMessage());
+        }
+    }
+
+    @Override
+    public void replaySnapshot(String symbol, String body) {
+        // Limit depth pushes are full books — MEXC takes no REST snapshots
     }
 
     @Override
@@ -140,7 +193,11 @@ public class MexcSpotConnector implements ExchangeConnector {
         allSubscribedSymbols.addAll(symbols);
 
         // Start global ping/stale check task
-        scheduler.scheduleAtFixedRate(this::pingAndCheckAllConnections, PING_INTERVAL_MS, PING_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        if (pingTask != null) {
+            pingTask.cancel();
+        }
+        pingTask = timer.scheduleAtFixedRate("MEXC:SPOT ping", this::pingAndCheckAllConnections,
+                PING_INTERVAL_MS, PING_INTERVAL_MS, TimeUnit.MILLISECONDS);
     }
 
     @Override
@@ -245,6 +302,7 @@ public class MexcSpotConnector implements ExchangeConnector {
     }
 
     private Response executeWithRetry(Request request, int maxRetries, long retryDelayMs) throws IOException {
+        request = endpointOverride.rest(request);
         IOException lastException = null;
         for (int attempt = 1; attempt <= maxRetries; attempt++) {
             try {
@@ -319,14 +377,8 @@ public class MexcSpotConnector implements ExchangeConnector {
 
         if (!bids.isEmpty() || !asks.isEmpty()) {
             totalOrderbookUpdates.incrementAndGet();
-            orderBookManager.updateOrderBook(
-                    symbol,
-                    Exchange.MEXC,
-                    MarketType.SPOT,
-                    bids,
-                    asks,
-                    null
-            );
+            LocalOrderBook.Snapshot snapshot = LocalOrderBook.Snapshot.bestFirst(bids, asks);
+            orderBookManager.markDirty(symbol, Exchange.MEXC, MarketType.SPOT, () -> snapshot);
         }
     }
 
@@ -424,7 +476,7 @@ public class MexcSpotConnector implements ExchangeConnector {
 
             log.info("[MEXC:SPOT] conn#{} Connecting ({} symbols)...", id, symbols.size());
 
-            Request request = new Request.Builder().url(WS_URL).build();
+            Request request = new Request.Builder().url(endpointOverride.ws(WS_URL)).build();
             webSocket = httpClient.newWebSocket(request, new WebSocketListener() {
                 @Override
                 public void onOpen(WebSocket ws, Response response) {
@@ -441,6 +493,7 @@ public class MexcSpotConnector implements ExchangeConnector {
                     Instant now = Instant.now();
                     lastMessageTime.set(now);
                     connLastMessageTime.set(now);
+                    frameSink.onText(id, now, text);
                     handleTextMessage(text, id);
                 }
 
@@ -450,6 +503,7 @@ public class MexcSpotConnector implements ExchangeConnector {
                     Instant now = Instant.now();
                     lastMessageTime.set(now);
                     connLastMessageTime.set(now);
+                    frameSink.onBinary(id, now, bytes.asByteBuffer());
 
                     if (debugMessageCount.getAndIncrement() < DEBUG_MESSAGE_LIMIT) {
                         log.info("[MEXC:SPOT] conn#{} Binary MSG #{}: {} bytes, channel={}",
@@ -548,7 +602,7 @@ public class MexcSpotConnector implements ExchangeConnector {
             long delay = Math.min(INITIAL_RECONNECT_DELAY_MS * (1L << (attempts - 1)), MAX_RECONNECT_DELAY_MS);
             log.info("[MEXC:SPOT] conn#{} Scheduling reconnect in {}ms (attempt {})", id, delay, attempts);
 
-            scheduler.schedule(() -> {
+            timer.schedule("MEXC:SPOT conn#" + id + " reconnect", () -> {
                 debugMessageCount.set(0);
                 connectAndSubscribe();
             }, delay, TimeUnit.MILLISECONDS);
@@ -0,0 +1,234 @@
+package com.cryptoview.exchange.mock;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Simulated book of one mock symbol: a fixed price grid around an anchor price, quantities in lots,
+ * the mid drifting by a tick now and then.
+ *
+ * The working state runs one event ahead of the stream: {@link #prepareNext} generates and applies the next
+ * event, {@link #takePending} hands it out for publishing and brings the published state up to it.
+ * A Binance-style REST snapshot ({@link #topLevels} with {@code ahead=true}) therefore reports the id of an event
+ * the client is about to receive — the overlap the diff-depth bridging relies on — while WS snapshots and
+ * OKX REST books use the published state. Not thread-safe: callers synchronize on the book.
+ */
+final class MockBook {
+
+    private static final int LOT_SCALE = 3;
+    private static final double DELETE_PROBABILITY = 0.2;
+    private static final double DRIFT_PROBABILITY = 0.05;
+    private static final double WALL_PROBABILITY = 0.01;
+
+    private final String base;
+    private final String symbol;
+    private final String[] prices;
+    private final long[] lots;
+    private final long[] publishedLots;
+    private final int churn;
+    private final int activeLevels;
+    private final double gapProbability;
+    private final double tradeProbability;
+    private final SplittableRandom random;
+
+    private int mid;
+    private int publishedMid;
+    private long lastId;
+    private long publishedId;
+    private Event pending;
+
+    MockBook(String base, int levelsPerSide, int churn, double gapProbability, double tradeProbability,
+             SplittableRandom random) {
+        this.base = base;
+        this.symbol = base + "USDT";
+        this.churn = Math.max(1, churn);
+        this.activeLevels = Math.max(1, Math.min(levelsPerSide / 4, 50));
+        this.gapProbability = gapProbability;
+        this.tradeProbability = tradeProbability;
+        this.random = random;
+
+        int gridSize = levelsPerSide * 2 + 2 * activeLevels;
+        double anchor = Math.pow(10, random.nextDouble(-1, 4.5));
+        int exponent = (int) Math.floor(Math.log10(anchor));
+        int scale = Math.max(0, 4 - exponent);
+        BigDecimal tick = BigDecimal.ONE.movePointLeft(scale);
+        BigDecimal first = BigDecimal.valueOf(anchor).setScale(scale, RoundingMode.HALF_UP)
+                .subtract(tick.multiply(BigDecimal.valueOf(gridSize / 2)));
+        if (first.signum() <= 0) {
+            first = tick;
+        }
+        this.prices = new String[gridSize];
+        for (int i = 0; i < gridSize; i++) {
+            prices[i] = first.add(tick.multiply(BigDecimal.valueOf(i))).toPlainString();
+        }
+
+        // Lot size scaled so that a level is worth roughly the same notional on every symbol
+        this.lots = new long[gridSize];
+        this.publishedLots = new long[gridSize];
+        for (int i = 0; i < gridSize; i++) {
+            lots[i] = randomLots(anchor);
+        }
+        System.arraycopy(lots, 0, publishedLots, 0, gridSize);
+        this.mid = gridSize / 2;
+        this.publishedMid = mid;
+        this.lastId = random.nextLong(1_000_000, 1_000_000_000);
+        this.publishedId = lastId;
+        this.pending = generate(anchor);
+    }
+
+    String base() {
+        return base;
+    }
+
+    String symbol() {
+        return symbol;
+    }
+
+    String price(int index) {
+        return prices[index];
+    }
+
+    static String quantity(long lots) {
+        return BigDecimal.valueOf(lots, LOT_SCALE).toPlainString();
+    }
+
+    /**
+     * Update id of the newest state: of the published book, or of the one ahead (see class doc).
+     */
+    long updateId(boolean ahead) {
+        return ahead ? lastId : publishedId;
+    }
+
+    /**
+     * Non-empty levels from the best price outwards, as {@code [index, lots]} pairs packed into one array.
+     */
+    long[] topLevels(boolean bid, int limit, boolean ahead) {
+        long[] source = ahead ? lots : publishedLots;
+        int center = ahead ? mid : publishedMid;
+        long[] result = new long[Math.min(limit, prices.length) * 2];
+        int count = 0;
+        int step = bid ? -1 : 1;
+        for (int i = bid ? center - 1 : center; i >= 0 && i < source.length && count < result.length; i += step) {
+            if (source[i] > 0) {
+                result[count++] = i;
+                result[count++] = source[i];
+            }
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Hands out the event generated by the previous {@link #prepareNext} and brings the published state up to it.
+     */
+    Event takePending() {
+        Event event = pending;
+        for (int i = 0; i < event.size(); i++) {
+            publishedLots[event.index(i)] = event.lots(i);
+        }
+        publishedMid = mid;
+        publishedId = event.lastId();
+        pending = null;
+        return event;
+    }
+
+    void prepareNext() {
+        pending = generate(Double.parseDouble(prices[mid]));
+    }
+
+    private Event generate(double price) {
+        int changes = churn;
+        boolean drift = random.nextDouble() < DRIFT_PROBABILITY;
+        int extra = drift ? 2 : 0;
+        int[] indexes = new int[changes + extra];
+        long[] newLots = new long[changes + extra];
+        boolean[] bids = new boolean[changes + extra];
+        int n = 0;
+
+        if (drift) {
+            // Mid moves one tick: the level crossing over switches side
+            boolean up = random.nextBoolean();
+            int lowBound = activeLevels + 1;
+            int highBound = lots.length - activeLevels - 1;
+            if (up && mid + 1 >= highBound) up = false;
+            if (!up && mid - 1 <= lowBound) up = true;
+            int crossing = up ? mid : mid - 1;
+            indexes[n] = crossing;
+            newLots[n] = 0;
+            bids[n++] = !up;
+            mid += up ? 1 : -1;
+            long moved = randomLots(price);
+            lots[crossing] = moved;
+            indexes[n] = crossing;
+            newLots[n] = moved;
+            bids[n++] = up;
+        }
+
+        for (int c = 0; c < changes; c++) {
+            boolean bid = random.nextBoolean();
+            int offset = (int) Math.min(activeLevels - 1, Math.abs(random.nextInt(activeLevels) * random.nextDouble()));
+            int index = bid ? mid - 1 - offset : mid + offset;
+            long value = random.nextDouble() < DELETE_PROBABILITY ? 0 : randomLots(price);
+            lots[index] = value;
+            indexes[n] = index;
+            newLots[n] = value;
+            bids[n++] = bid;
+        }
+
+        long firstId = lastId + 1;
+        long prevId = lastId;
+        lastId += n;
+
+        int tradeIndex = -1;
+        long tradeLots = 0;
+        boolean buyerMaker = false;
+        if (random.nextDouble() < tradeProbability) {
+            buyerMaker = random.nextBoolean();
+            tradeIndex = buyerMaker ? mid - 1 : mid;
+            tradeLots = Math.max(1, randomLots(price) / 10);
+        }
+
+        boolean dropped = random.nextDouble() < gapProbability;
+        return new Event(firstId, lastId, prevId, indexes, newLots, bids, dropped, tradeIndex, tradeLots, buyerMaker);
+    }
+
+    /**
+     * Exponential around ~2k USD per level, with the occasional wall two orders of magnitude larger.
+     */
+    private long randomLots(double price) {
+        double notional = -Math.log(1 - random.nextDouble()) * 2_000;
+        if (random.nextDouble() < WALL_PROBABILITY) {
+            notional *= 100;
+        }
+        return Math.max(1, (long) (notional / price * Math.pow(10, LOT_SCALE)));
+    }
+
+    /**
+     * One diff event: level changes (lots = 0 removes the level) over update ids {@code firstId..lastId},
+     * {@code prevId} being the previous event's last id. A dropped event is applied but never sent (sequence gap).
+     */
+    record Event(long firstId, long lastId, long prevId, int[] indexes, long[] newLots, boolean[] bids,
+                 boolean dropped, int tradeIndex, long tradeLots, boolean buyerMaker) {
+
+        int size() {
+            return indexes.length;
+        }
+
+        int index(int i) {
+            return indexes[i];
+        }
+
+        long lots(int i) {
+            return newLots[i];
+        }
+
+        boolean bid(int i) {
+            return bids[i];
+        }
+
+        boolean hasTrade() {
+            return tradeIndex >= 0;
+        }
+    }
+}
@@ -0,0 +1,522 @@
+package com.cryptoview.exchange.mock;
+
+import com.cryptoview.exchange.mock.MockSession.Subscription;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Embeddable mock venue for load-testing the connectors end to end on one box: HTTP/1.1 and WebSocket on a single
+ * port, plain JDK sockets, one virtual thread per connection.
+ *
+ * Speaks the Binance combined-stream protocol plus {@code /exchangeInfo} and {@code /depth}, and the Bybit and OKX
+ * v5 public topics (see {@link MockVenue}). Every symbol ({@code MOCK1USDT}, {@code MOCK2USDT}, ...) gets
+ * {@code updatesPerSecond} diff events with {@code churn} level changes each; faults are injected on request:
+ * dropped events (sequence gaps), 429 replies, rate-limit disconnects and forced disconnect storms.
+ */
+@Slf4j
+public class MockExchangeServer implements AutoCloseable {
+
+    private static final String WEBSOCKET_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+    private static final int MAX_HEADER_BYTES = 16 * 1024;
+
+    private final Settings settings;
+    private final Map<String, MockBook> books;
+    private final Map<String, Set<MockSession>> subscribers = new ConcurrentHashMap<>();
+    private final Set<MockSession> sessions = ConcurrentHashMap.newKeySet();
+    private final ExecutorService connectionExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicInteger sessionSeq = new AtomicInteger();
+
+    private volatile ServerSocket serverSocket;
+    private volatile Thread acceptor;
+    private volatile Thread ticker;
+    private volatile boolean running;
+
+    // REST fixed-window limiter
+    private long restWindowStart;
+    private int restWindowCount;
+
+    // Metrics
+    private final AtomicLong connectionsAccepted = new AtomicLong();
+    private final AtomicLong restRequests = new AtomicLong();
+    private final AtomicLong restRateLimited = new AtomicLong();
+    private final AtomicLong framesSent = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+    private final AtomicLong events = new AtomicLong();
+    private final AtomicLong gapsInjected = new AtomicLong();
+    private final AtomicLong forcedDisconnects = new AtomicLong();
+    private final AtomicLong slowConsumerDisconnects = new AtomicLong();
+    private final AtomicLong policyDisconnects = new AtomicLong();
+    private final AtomicLong maxTickLagMicros = new AtomicLong();
+
+    public MockExchangeServer(Settings settings) {
+        this.settings = settings;
+        SplittableRandom seed = new SplittableRandom(settings.seed());
+        Map<String, MockBook> created = new LinkedHashMap<>();
+        for (int i = 1; i <= settings.symbols(); i++) {
+            MockBook book = new MockBook("MOCK" + i, settings.levelsPerSide(), settings.churn(),
+                    settings.gapProbability(), settings.tradeProbability(), seed.split());
+            created.put(book.symbol(), book);
+        }
+        this.books = Collections.unmodifiableMap(created);
+    }
+
+    public synchronized void start() throws IOException {
+        if (running) return;
+        serverSocket = new ServerSocket(settings.port(), 1024, InetAddress.getByName(settings.host()));
+        running = true;
+        acceptor = Thread.ofPlatform().name("mock-exchange-accept").daemon(true).start(this::acceptLoop);
+        ticker = Thread.ofPlatform().name("mock-exchange-ticker").daemon(true).start(this::tickLoop);
+        log.info("[MOCK] Listening on {}:{} — {} symbols, {} updates/s, churn {}, gaps {}, 429 {}, disconnect every {}ms",
+                settings.host(), getPort(), books.size(), settings.updatesPerSecond(), settings.churn(),
+                settings.gapProbability(), settings.rateLimitProbability(), settings.disconnectIntervalMs());
+    }
+
+    public int getPort() {
+        ServerSocket socket = serverSocket;
+        return socket != null ? socket.getLocalPort() : settings.port();
+    }
+
+    public Settings settings() {
+        return settings;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!running) return;
+        running = false;
+        try {
+            serverSocket.close();
+        } catch (IOException ignored) {
+        }
+        new ArrayList<>(sessions).forEach(MockSession::abort);
+        ticker.interrupt();
+        connectionExecutor.shutdownNow();
+        log.info("[MOCK] Stopped");
+    }
+
+    /**
+     * Drops the given fraction of open sessions without a close frame (1.0 = reconnect storm).
+     */
+    public int disconnect(double fraction) {
+        List<MockSession> open = new ArrayList<>(sessions);
+        Collections.shuffle(open);
+        int count = (int) Math.ceil(open.size() * Math.max(0, Math.min(1, fraction)));
+        for (int i = 0; i < count; i++) {
+            open.get(i).abort();
+        }
+        forcedDisconnects.addAndGet(count);
+        if (count > 0) {
+            log.info("[MOCK] Forced disconnect of {}/{} sessions", count, open.size());
+        }
+        return count;
+    }
+
+    // ======================== Books and subscriptions ========================
+
+    MockBook book(String symbol) {
+        return books.get(symbol);
+    }
+
+    Collection<MockBook> books() {
+        return books.values();
+    }
+
+    void onSubscribed(MockSession session, String symbol) {
+        if (!session.isOpen()) return;
+        subscribers.computeIfAbsent(symbol, k -> ConcurrentHashMap.newKeySet()).add(session);
+    }
+
+    void onUnsubscribed(MockSession session, String symbol) {
+        Set<MockSession> set = subscribers.get(symbol);
+        if (set != null) {
+            set.remove(session);
+        }
+    }
+
+    void onClosed(MockSession session) {
+        sessions.remove(session);
+        for (String symbol : session.symbols()) {
+            onUnsubscribed(session, symbol);
+        }
+    }
+
+    void countSent(int bytes) {
+        framesSent.incrementAndGet();
+        bytesSent.addAndGet(bytes);
+    }
+
+    void countSlowConsumer() {
+        slowConsumerDisconnects.incrementAndGet();
+    }
+
+    void countPolicyDisconnect() {
+        policyDisconnects.incrementAndGet();
+    }
+
+    // ======================== Update generation ========================
+
+    private void tickLoop() {
+        long periodNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, settings.updatesPerSecond());
+        long disconnectNanos = TimeUnit.MILLISECONDS.toNanos(settings.disconnectIntervalMs());
+        long nextTick = System.nanoTime();
+        long nextDisconnect = nextTick + disconnectNanos;
+
+        while (running && !Thread.currentThread().isInterrupted()) {
+            long now = System.nanoTime();
+            if (now < nextTick) {
+                LockSupport.parkNanos(this, nextTick - now);
+                continue;
+            }
+            maxTickLagMicros.accumulateAndGet((now - nextTick) / 1000, Math::max);
+            try {
+                tick(System.currentTimeMillis());
+            } catch (Exception e) {
+                log.error("[MOCK] Tick failed", e);
+            }
+            nextTick += periodNanos;
+            if (now - nextTick > TimeUnit.SECONDS.toNanos(1)) {
+                nextTick = now; // fell behind by more than a second: skip instead of bursting
+            }
+            if (disconnectNanos > 0 && now >= nextDisconnect) {
+                disconnect(settings.disconnectFraction());
+                nextDisconnect = now + disconnectNanos;
+            }
+        }
+    }
+
+    /**
+     * Publishes the pending event of every book and prepares the next one.
+     */
+    void tick(long nowMs) {
+        for (MockBook book : books.values()) {
+            Set<MockSession> targets = subscribers.get(book.symbol());
+            synchronized (book) {
+                MockBook.Event event = book.takePending();
+                events.incrementAndGet();
+                if (event.dropped()) {
+                    gapsInjected.incrementAndGet();
+                }
+                if (targets != null && !targets.isEmpty()) {
+                    publish(book, event, targets, nowMs);
+                }
+                book.prepareNext();
+            }
+        }
+    }
+
+    private void publish(MockBook book, MockBook.Event event, Set<MockSession> targets, long nowMs) {
+        for (MockSession session : targets) {
+            MockVenue venue = session.venue();
+            for (Subscription subscription : session.subscriptions(book.symbol())) {
+                switch (subscription.kind()) {
+                    case DIFF -> {
+                        if (!event.dropped()) {
+                            session.sendText(venue.diff(subscription, book, event, nowMs));
+                        }
+                    }
+                    case BOOK -> {
+                        if (subscription.takeSnapshotPending()) {
+                            session.sendText(venue.snapshot(subscription, book, nowMs));
+                        } else if (!event.dropped()) {
+                            session.sendText(venue.diff(subscription, book, event, nowMs));
+                        }
+                    }
+                    case PARTIAL -> session.sendText(venue.snapshot(subscription, book, nowMs));
+                    case TRADES -> {
+                        if (event.hasTrade()) {
+                            session.sendText(venue.trade(subscription, book, event, nowMs));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // ======================== Connections ========================
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                connectionsAccepted.incrementAndGet();
+                connectionExecutor.submit(() -> handleConnection(socket));
+            } catch (IOException e) {
+                if (running) {
+                    log.warn("[MOCK] Accept failed: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void handleConnection(Socket socket) {
+        try (socket) {
+            InputStream in = new BufferedInputStream(socket.getInputStream(), 16 * 1024);
+            OutputStream out = new BufferedOutputStream(socket.getOutputStream(), 64 * 1024);
+            while (running) {
+                HttpRequest request = readRequest(in);
+                if (request == null) return;
+
+                if ("websocket".equalsIgnoreCase(request.headers().get("upgrade"))) {
+                    upgrade(socket, in, out, request);
+                    return;
+                }
+                handleRest(out, request);
+                if ("close".equalsIgnoreCase(request.headers().get("connection"))) return;
+            }
+        } catch (IOException e) {
+            // client went away
+        }
+    }
+
+    private void upgrade(Socket socket, InputStream in, OutputStream out, HttpRequest request) throws IOException {
+        MockVenue venue = MockVenue.forPath(request.path());
+        String key = request.headers().get("sec-websocket-key");
+        if (venue == null || key == null) {
+            writeResponse(out, 404, "Not Found", "{\"msg\":\"no mock stream at " + request.path() + "\"}", null);
+            return;
+        }
+        out.write(("HTTP/1.1 101 Switching Protocols\r\n"
+                + "Upgrade: websocket\r\n"
+                + "Connection: Upgrade\r\n"
+                + "Sec-WebSocket-Accept: " + acceptKey(key) + "\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1));
+        out.flush();
+
+        MockSession session = new MockSession(sessionSeq.incrementAndGet(), venue, socket, in, out, this,
+                settings.sessionQueueSize());
+        sessions.add(session);
+        log.debug("[MOCK] session#{} {} opened from {}", session.id(), venue, socket.getRemoteSocketAddress());
+        connectionExecutor.submit(session::runWriter);
+        session.runReader();
+    }
+
+    private void handleRest(OutputStream out, HttpRequest request) throws IOException {
+        restRequests.incrementAndGet();
+        if (shouldRateLimit()) {
+            restRateLimited.incrementAndGet();
+            writeResponse(out, 429, "Too Many Requests",
+                    "{\"code\":-1003,\"msg\":\"Too many requests; mock rate limit.\"}", "Retry-After: 1\r\n");
+            return;
+        }
+        for (MockVenue venue : MockVenue.values()) {
+            MockVenue.Reply reply = venue.rest(this, request.path(), request.query());
+            if (reply != null) {
+                writeResponse(out, reply.status(), reply.status() == 200 ? "OK" : "Bad Request", reply.body(), null);
+                return;
+            }
+        }
+        writeResponse(out, 404, "Not Found", "{\"msg\":\"no mock endpoint " + request.path() + "\"}", null);
+    }
+
+    private boolean shouldRateLimit() {
+        if (settings.rateLimitProbability() > 0
+                && ThreadLocalRandom.current().nextDouble() < settings.rateLimitProbability()) {
+            return true;
+        }
+        int limit = settings.restRequestsPerSecond();
+        if (limit <= 0) return false;
+        synchronized (this) {
+            long now = System.nanoTime();
+            if (now - restWindowStart >= TimeUnit.SECONDS.toNanos(1)) {
+                restWindowStart = now;
+                restWindowCount = 0;
+            }
+            return ++restWindowCount > limit;
+        }
+    }
+
+    private static void writeResponse(OutputStream out, int status, String reason, String body,
+                                      String extraHeaders) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        String head = "HTTP/1.1 " + status + " " + reason + "\r\n"
+                + "Content-Type: application/json\r\n"
+                + "Content-Length: " + bytes.length + "\r\n"
+                + (extraHeaders != null ? extraHeaders : "")
+                + "\r\n";
+        out.write(head.getBytes(StandardCharsets.ISO_8859_1));
+        out.write(bytes);
+        out.flush();
+    }
+
+    /**
+     * Request line and headers (names lower-cased); a body, if any, is skipped. Null on a cleanly closed connection.
+     */
+    private static HttpRequest readRequest(InputStream in) throws IOException {
+        String requestLine = readLine(in);
+        if (requestLine == null) return null;
+        if (requestLine.isEmpty()) {
+            requestLine = readLine(in); // tolerate a stray CRLF between keep-alive requests
+            if (requestLine == null) return null;
+        }
+        String[] parts = requestLine.split(" ");
+        if (parts.length < 2) throw new IOException("Bad request line: " + requestLine);
+
+        Map<String, String> headers = new HashMap<>();
+        String line;
+        while ((line = readLine(in)) != null && !line.isEmpty()) {
+            int colon = line.indexOf(':');
+            if (colon > 0) {
+                headers.put(line.substring(0, colon).trim().toLowerCase(), line.substring(colon + 1).trim());
+            }
+        }
+        String contentLength = headers.get("content-length");
+        if (contentLength != null) {
+            in.skipNBytes(Long.parseLong(contentLength));
+        }
+
+        String target = parts[1];
+        int q = target.indexOf('?');
+        String path = q < 0 ? target : target.substring(0, q);
+        Map<String, String> query = new HashMap<>();
+        if (q >= 0) {
+            for (String pair : target.substring(q + 1).split("&")) {
+                int eq = pair.indexOf('=');
+                if (eq > 0) {
+                    query.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                            URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return new HttpRequest(parts[0], path, query, headers);
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(128);
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b == '\n') {
+                byte[] bytes = line.toByteArray();
+                int length = bytes.length > 0 && bytes[bytes.length - 1] == '\r' ? bytes.length - 1 : bytes.length;
+                return new String(bytes, 0, length, StandardCharsets.ISO_8859_1);
+            }
+            line.write(b);
+            if (line.size() > MAX_HEADER_BYTES) throw new IOException("Header line too long");
+        }
+        if (line.size() == 0) return null;
+        throw new IOException("Connection closed mid-line");
+    }
+
+    static String acceptKey(String key) {
+        try {
+            MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+            byte[] digest = sha1.digest((key + WEBSOCKET_GUID).getBytes(StandardCharsets.ISO_8859_1));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record HttpRequest(String method, String path, Map<String, String> query, Map<String, String> headers) {}
+
+    // ======================== Settings and stats ========================
+
+    /**
+     * @param updatesPerSecond diff events per symbol per second
+     * @param levelsPerSide book depth per side
+     * @param churn level changes per event
+     * @param gapProbability share of events generated but never sent (sequence gap on the client)
+     * @param tradeProbability share of events that come with a trade
+     * @param rateLimitProbability share of REST requests answered with 429
+     * @param restRequestsPerSecond REST requests per second before 429 (0 = unlimited)
+     * @param wsMessagesPerSecond client messages per second per session before a policy close (0 = unlimited)
+     * @param disconnectIntervalMs period of forced disconnects (0 = never)
+     * @param disconnectFraction share of sessions dropped each time (1.0 = reconnect storm)
+     * @param sessionQueueSize outbound frames buffered per session before it is dropped as a slow consumer
+     */
+    public record Settings(
+            String host,
+            int port,
+            int symbols,
+            int updatesPerSecond,
+            int levelsPerSide,
+            int churn,
+            double gapProbability,
+            double tradeProbability,
+            double rateLimitProbability,
+            int restRequestsPerSecond,
+            int wsMessagesPerSecond,
+            long disconnectIntervalMs,
+            double disconnectFraction,
+            int sessionQueueSize,
+            long seed
+    ) {
+        public static Settings defaults() {
+            return new Settings("127.0.0.1", 18080, 200, 10, 500, 8, 0.0, 0.3, 0.0, 0, 0, 0, 1.0, 20_000, 42);
+        }
+    }
+
+    public Stats getStats() {
+        int subscriptions = 0;
+        for (MockSession session : sessions) {
+            subscriptions += session.subscriptionCount();
+        }
+        return new Stats(
+                running,
+                getPort(),
+                books.size(),
+                sessions.size(),
+                subscriptions,
+                connectionsAccepted.get(),
+                restRequests.get(),
+                restRateLimited.get(),
+                events.get(),
+                gapsInjected.get(),
+                framesSent.get(),
+                bytesSent.get(),
+                forcedDisconnects.get(),
+                slowConsumerDisconnects.get(),
+                policyDisconnects.get(),
+                maxTickLagMicros.get() / 1000.0
+        );
+    }
+
+    public record Stats(
+            boolean running,
+            int port,
+            int symbols,
+            int sessions,
+            int subscriptions,
+            long connectionsAccepted,
+            long restRequests,
+            long restRateLimited,
+            long events,
+            long gapsInjected,
+            long framesSent,
+            long bytesSent,
+            long forcedDisconnects,
+            long slowConsumerDisconnects,
+            long policyDisconnects,
+            double maxTickLagMs
+    ) {}
+}
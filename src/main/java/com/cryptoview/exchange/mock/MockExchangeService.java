@@ -0,0 +1,92 @@
+package com.cryptoview.exchange.mock;
+
+import com.cryptoview.config.CryptoViewProperties;
+import com.cryptoview.exchange.common.EndpointOverride;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Runs the {@link MockExchangeServer} inside the application (cryptoview.mock-exchange.*) and points the listed
+ * connectors at it, so reconnect storms, snapshot bridging and update-rate limits can be measured on one box.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MockExchangeService {
+
+    private final CryptoViewProperties properties;
+
+    private volatile MockExchangeServer server;
+
+    @PostConstruct
+    public void init() {
+        CryptoViewProperties.MockExchangeConfig config = properties.getMockExchange();
+        if (!config.isEnabled()) {
+            return;
+        }
+        MockExchangeServer candidate = new MockExchangeServer(new MockExchangeServer.Settings(
+                config.getHost(),
+                config.getPort(),
+                config.getSymbols(),
+                config.getUpdatesPerSecond(),
+                config.getLevelsPerSide(),
+                config.getChurn(),
+                config.getGapProbability(),
+                config.getTradeProbability(),
+                config.getRateLimitProbability(),
+                config.getRestRequestsPerSecond(),
+                config.getWsMessagesPerSecond(),
+                config.getDisconnectIntervalMs(),
+                config.getDisconnectFraction(),
+                config.getSessionQueueSize(),
+                config.getSeed()));
+        try {
+            candidate.start();
+            server = candidate;
+        } catch (IOException e) {
+            log.error("[MOCK] Cannot listen on {}:{}, mock exchange disabled", config.getHost(), config.getPort(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    /**
+     * Mock endpoints for a connector listed in cryptoview.mock-exchange.connectors (storage key like "BINANCE_FUTURES").
+     */
+    public Optional<EndpointOverride> endpointFor(String storageKey) {
+        MockExchangeServer running = server;
+        if (running == null || !properties.getMockExchange().getConnectors().contains(storageKey)) {
+            return Optional.empty();
+        }
+        String host = running.settings().host();
+        return Optional.of(new EndpointOverride("ws://" + host + ":" + running.getPort(),
+                "http://" + host + ":" + running.getPort()));
+    }
+
+    /**
+     * Drops a share of the open mock sessions right away (1.0 = reconnect storm).
+     */
+    public int disconnect(double fraction) {
+        return server != null ? server.disconnect(fraction) : 0;
+    }
+
+    public MockExchangeServer.Stats getStats() {
+        MockExchangeServer running = server;
+        return running != null ? running.getStats() : null;
+    }
+}
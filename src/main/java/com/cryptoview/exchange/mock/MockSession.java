@@ -0,0 +1,357 @@
+package com.cryptoview.exchange.mock;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One WebSocket client of the mock server (RFC 6455, server side): a reader that decodes masked client frames and
+ * hands text to the venue protocol, and a writer draining a bounded outbound queue. A client that falls a full
+ * queue behind is cut off, like a real venue drops slow consumers.
+ */
+@Slf4j
+final class MockSession {
+
+    private static final int OP_CONTINUATION = 0x0;
+    private static final int OP_TEXT = 0x1;
+    private static final int OP_CLOSE = 0x8;
+    private static final int OP_PING = 0x9;
+    private static final int OP_PONG = 0xA;
+    private static final int MAX_INCOMING_FRAME = 1 << 20;
+    private static final byte[] SHUTDOWN = new byte[0];
+
+    private final int id;
+    private final MockVenue venue;
+    private final Socket socket;
+    private final InputStream in;
+    private final OutputStream out;
+    private final MockExchangeServer server;
+    private final BlockingQueue<byte[]> outbound;
+    private final AtomicBoolean open = new AtomicBoolean(true);
+    // symbol → topics of this session on it
+    private final Map<String, List<Subscription>> subscriptions = new ConcurrentHashMap<>();
+
+    private long rateWindowStart;
+    private int rateWindowCount;
+
+    MockSession(int id, MockVenue venue, Socket socket, InputStream in, OutputStream out,
+                MockExchangeServer server, int queueSize) {
+        this.id = id;
+        this.venue = venue;
+        this.socket = socket;
+        this.in = in;
+        this.out = out;
+        this.server = server;
+        this.outbound = new ArrayBlockingQueue<>(Math.max(16, queueSize));
+    }
+
+    int id() {
+        return id;
+    }
+
+    MockVenue venue() {
+        return venue;
+    }
+
+    boolean isOpen() {
+        return open.get();
+    }
+
+    List<Subscription> subscriptions(String symbol) {
+        return subscriptions.getOrDefault(symbol, List.of());
+    }
+
+    Set<String> symbols() {
+        return subscriptions.keySet();
+    }
+
+    int subscriptionCount() {
+        return subscriptions.values().stream().mapToInt(List::size).sum();
+    }
+
+    /**
+     * Adds a topic; returns false if the session already had it.
+     */
+    boolean subscribe(Subscription subscription) {
+        List<Subscription> topics = subscriptions.computeIfAbsent(subscription.symbol(), k -> new CopyOnWriteArrayList<>());
+        for (Subscription existing : topics) {
+            if (existing.name().equals(subscription.name())) {
+                return false;
+            }
+        }
+        topics.add(subscription);
+        server.onSubscribed(this, subscription.symbol());
+        return true;
+    }
+
+    void unsubscribe(String symbol, String topic) {
+        List<Subscription> topics = subscriptions.get(symbol);
+        if (topics == null) return;
+        topics.removeIf(s -> s.name().equals(topic));
+        if (topics.isEmpty()) {
+            subscriptions.remove(symbol);
+            server.onUnsubscribed(this, symbol);
+        }
+    }
+
+    void sendText(String text) {
+        enqueue(encode(OP_TEXT, text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private void enqueue(byte[] frame) {
+        if (!open.get()) return;
+        if (!outbound.offer(frame)) {
+            log.warn("[MOCK] session#{} {} outbound queue full ({}), dropping slow consumer",
+                    id, venue, outbound.size());
+            server.countSlowConsumer();
+            abort();
+        }
+    }
+
+    /**
+     * Reads client frames until the connection ends. Runs on the connection's thread.
+     */
+    void runReader() {
+        StringBuilder fragments = null;
+        try {
+            while (open.get()) {
+                int b0 = readByte();
+                int b1 = readByte();
+                boolean fin = (b0 & 0x80) != 0;
+                int opcode = b0 & 0x0F;
+                long length = b1 & 0x7F;
+                if (length == 126) {
+                    length = (readByte() << 8) | readByte();
+                } else if (length == 127) {
+                    length = 0;
+                    for (int i = 0; i < 8; i++) {
+                        length = (length << 8) | readByte();
+                    }
+                }
+                if (length > MAX_INCOMING_FRAME) {
+                    close(1009, "frame too large");
+                    return;
+                }
+                byte[] mask = (b1 & 0x80) != 0 ? in.readNBytes(4) : null;
+                byte[] payload = in.readNBytes((int) length);
+                if (payload.length < length) {
+                    throw new EOFException();
+                }
+                if (mask != null) {
+                    for (int i = 0; i < payload.length; i++) {
+                        payload[i] ^= mask[i & 3];
+                    }
+                }
+
+                switch (opcode) {
+                    case OP_TEXT, OP_CONTINUATION -> {
+                        String text = new String(payload, StandardCharsets.UTF_8);
+                        if (!fin) {
+                            fragments = fragments == null ? new StringBuilder(text) : fragments.append(text);
+                            continue;
+                        }
+                        if (fragments != null) {
+                            text = fragments.append(text).toString();
+                            fragments = null;
+                        }
+                        if (!withinRateLimit()) {
+                            log.warn("[MOCK] session#{} {} exceeded {} messages/sec, closing",
+                                    id, venue, server.settings().wsMessagesPerSecond());
+                            server.countPolicyDisconnect();
+                            close(1008, "too many requests");
+                            return;
+                        }
+                        if ("ping".equals(text)) {
+                            sendText("pong"); // plain-text heartbeat (OKX, and our default client ping)
+                        } else {
+                            venue.onText(server, this, text);
+                        }
+                    }
+                    case OP_PING -> enqueue(encode(OP_PONG, payload));
+                    case OP_CLOSE -> {
+                        close(1000, "");
+                        return;
+                    }
+                    default -> {
+                        // pong and binary frames are ignored
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // connection gone: EOF, reset or aborted by us
+        } finally {
+            abort();
+        }
+    }
+
+    /**
+     * Writes queued frames until the session closes. Runs on its own thread.
+     */
+    void runWriter() {
+        try {
+            while (true) {
+                byte[] frame = outbound.poll(1, TimeUnit.SECONDS);
+                if (frame == null) {
+                    if (!open.get()) return;
+                    continue;
+                }
+                if (frame == SHUTDOWN) {
+                    out.flush();
+                    return;
+                }
+                out.write(frame);
+                server.countSent(frame.length);
+                if (outbound.isEmpty()) {
+                    out.flush();
+                }
+            }
+        } catch (IOException e) {
+            abort();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closeSocket();
+        }
+    }
+
+    /**
+     * Graceful close: close frame, then the socket once the queue is written.
+     */
+    void close(int code, String reason) {
+        byte[] reasonBytes = reason.getBytes(StandardCharsets.UTF_8);
+        byte[] payload = new byte[2 + reasonBytes.length];
+        payload[0] = (byte) (code >> 8);
+        payload[1] = (byte) code;
+        System.arraycopy(reasonBytes, 0, payload, 2, reasonBytes.length);
+        enqueue(encode(OP_CLOSE, payload));
+        if (open.compareAndSet(true, false)) {
+            outbound.offer(SHUTDOWN);
+            server.onClosed(this);
+        }
+    }
+
+    /**
+     * Abrupt drop without a close frame, as on a network failure.
+     */
+    void abort() {
+        if (open.compareAndSet(true, false)) {
+            outbound.clear();
+            outbound.offer(SHUTDOWN);
+            closeSocket();
+            server.onClosed(this);
+        }
+    }
+
+    private void closeSocket() {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private boolean withinRateLimit() {
+        int limit = server.settings().wsMessagesPerSecond();
+        if (limit <= 0) return true;
+        long now = System.nanoTime();
+        if (now - rateWindowStart >= TimeUnit.SECONDS.toNanos(1)) {
+            rateWindowStart = now;
+            rateWindowCount = 0;
+        }
+        return ++rateWindowCount <= limit;
+    }
+
+    private int readByte() throws IOException {
+        int b = in.read();
+        if (b < 0) throw new EOFException();
+        return b;
+    }
+
+    static byte[] encode(int opcode, byte[] payload) {
+        int length = payload.length;
+        int header = length < 126 ? 2 : length < 65536 ? 4 : 10;
+        byte[] frame = new byte[header + length];
+        frame[0] = (byte) (0x80 | opcode);
+        if (length < 126) {
+            frame[1] = (byte) length;
+        } else if (length < 65536) {
+            frame[1] = 126;
+            frame[2] = (byte) (length >> 8);
+            frame[3] = (byte) length;
+        } else {
+            frame[1] = 127;
+            for (int i = 0; i < 8; i++) {
+                frame[2 + i] = (byte) ((long) length >>> (56 - 8 * i));
+            }
+        }
+        System.arraycopy(payload, 0, frame, header, length);
+        return frame;
+    }
+
+    /**
+     * A topic as the client named it (echoed back in pushes), resolved to a mock symbol.
+     * {@code depth} is the book depth the topic asks for; BOOK topics start with a snapshot.
+     */
+    static final class Subscription {
+
+        enum Kind {DIFF, PARTIAL, BOOK, TRADES}
+
+        private final String name;
+        private final String symbol;
+        private final String instrument;
+        private final Kind kind;
+        private final int depth;
+        private volatile boolean snapshotPending;
+
+        Subscription(String name, String symbol, String instrument, Kind kind, int depth) {
+            this.name = name;
+            this.symbol = symbol;
+            this.instrument = instrument;
+            this.kind = kind;
+            this.depth = depth;
+            this.snapshotPending = kind == Kind.BOOK;
+        }
+
+        String name() {
+            return name;
+        }
+
+        String symbol() {
+            return symbol;
+        }
+
+        /**
+         * Venue-side instrument id (OKX instId, otherwise the symbol).
+         */
+        String instrument() {
+            return instrument;
+        }
+
+        Kind kind() {
+            return kind;
+        }
+
+        int depth() {
+            return depth;
+        }
+
+        boolean takeSnapshotPending() {
+            if (!snapshotPending) return false;
+            snapshotPending = false;
+            return true;
+        }
+    }
+}
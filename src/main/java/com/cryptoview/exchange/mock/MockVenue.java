@@ -0,0 +1,513 @@
+package com.cryptoview.exchange.mock;
+
+import com.cryptoview.exchange.mock.MockSession.Subscription;
+import com.cryptoview.exchange.mock.MockSession.Subscription.Kind;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Wire protocols the mock server speaks, close enough to the real venues for our connectors:
+ * subscribe/unsubscribe with acks, pings, book and trade pushes, and the REST endpoints the connectors call.
+ * Requests are picked apart with regexes — the mock must not depend on the JSON stack it is testing.
+ */
+enum MockVenue {
+
+    /**
+     * Combined streams on {@code /stream} ({@code <sym>@depth@500ms}, {@code <sym>@depth20@100ms},
+     * {@code <sym>@aggTrade}); {@code /exchangeInfo} and {@code /depth} on any prefix. Aster speaks the same.
+     */
+    BINANCE {
+        @Override
+        void onText(MockExchangeServer server, MockSession session, String text) {
+            String method = field(text, "method");
+            String id = field(text, "id");
+            if (method == null) {
+                session.sendText("{\"error\":{\"code\":2,\"msg\":\"Invalid request\"},\"id\":" + id + "}");
+                return;
+            }
+            List<String> streams = strings(arrayField(text, "params"));
+            switch (method) {
+                case "SUBSCRIBE" -> {
+                    List<Subscription> accepted = new ArrayList<>();
+                    for (String stream : streams) {
+                        Subscription subscription = parseStream(server, stream);
+                        if (subscription != null) {
+                            accepted.add(subscription);
+                        }
+                    }
+                    // Ack goes out before the first push, as on the real venues
+                    session.sendText("{\"result\":null,\"id\":" + id + "}");
+                    accepted.forEach(session::subscribe);
+                }
+                case "UNSUBSCRIBE" -> {
+                    for (String stream : streams) {
+                        int at = stream.indexOf('@');
+                        if (at > 0) {
+                            session.unsubscribe(stream.substring(0, at).toUpperCase(), stream);
+                        }
+                    }
+                    session.sendText("{\"result\":null,\"id\":" + id + "}");
+                }
+                default -> session.sendText("{\"error\":{\"code\":2,\"msg\":\"Invalid request: unknown method\"},\"id\":"
+                        + id + "}");
+            }
+        }
+
+        private Subscription parseStream(MockExchangeServer server, String stream) {
+            int at = stream.indexOf('@');
+            if (at <= 0) return null;
+            String symbol = stream.substring(0, at).toUpperCase();
+            if (server.book(symbol) == null) return null;
+            String channel = stream.substring(at + 1);
+            if (channel.startsWith("aggTrade")) {
+                return new Subscription(stream, symbol, symbol, Kind.TRADES, 0);
+            }
+            if (!channel.startsWith("depth")) return null;
+            int end = 5;
+            while (end < channel.length() && Character.isDigit(channel.charAt(end))) end++;
+            return end > 5
+                    ? new Subscription(stream, symbol, symbol, Kind.PARTIAL, Integer.parseInt(channel.substring(5, end)))
+                    : new Subscription(stream, symbol, symbol, Kind.DIFF, 0);
+        }
+
+        @Override
+        String diff(Subscription subscription, MockBook book, MockBook.Event event, long nowMs) {
+            StringBuilder sb = new StringBuilder(256);
+            sb.append("{\"stream\":\"").append(subscription.name()).append("\",\"data\":{\"e\":\"depthUpdate\",\"E\":")
+                    .append(nowMs).append(",\"T\":").append(nowMs)
+                    .append(",\"s\":\"").append(book.symbol())
+                    .append("\",\"U\":").append(event.firstId())
+                    .append(",\"u\":").append(event.lastId())
+                    .append(",\"pu\":").append(event.prevId())
+                    .append(",\"b\":");
+            appendChanges(sb, book, event, true, false);
+            sb.append(",\"a\":");
+            appendChanges(sb, book, event, false, false);
+            return sb.append("}}").toString();
+        }
+
+        @Override
+        String snapshot(Subscription subscription, MockBook book, long nowMs) {
+            StringBuilder sb = new StringBuilder(1024);
+            sb.append("{\"stream\":\"").append(subscription.name()).append("\",\"data\":{\"lastUpdateId\":")
+                    .append(book.updateId(false)).append(",\"bids\":");
+            appendLevels(sb, book, book.topLevels(true, subscription.depth(), false), false);
+            sb.append(",\"asks\":");
+            appendLevels(sb, book, book.topLevels(false, subscription.depth(), false), false);
+            return sb.append("}}").toString();
+        }
+
+        @Override
+        String trade(Subscription subscription, MockBook book, MockBook.Event event, long nowMs) {
+            return "{\"stream\":\"" + subscription.name() + "\",\"data\":{\"e\":\"aggTrade\",\"E\":" + nowMs
+                    + ",\"s\":\"" + book.symbol() + "\",\"a\":" + event.lastId()
+                    + ",\"p\":\"" + book.price(event.tradeIndex()) + "\",\"q\":\"" + MockBook.quantity(event.tradeLots())
+                    + "\",\"T\":" + nowMs + ",\"m\":" + event.buyerMaker() + "}}";
+        }
+
+        @Override
+        Reply rest(MockExchangeServer server, String path, Map<String, String> query) {
+            if (path.endsWith("/exchangeInfo")) {
+                StringBuilder sb = new StringBuilder("{\"timezone\":\"UTC\",\"symbols\":[");
+                appendAll(sb, server.books(), book -> "{\"symbol\":\"" + book.symbol()
+                        + "\",\"status\":\"TRADING\",\"baseAsset\":\"" + book.base()
+                        + "\",\"quoteAsset\":\"USDT\",\"contractType\":\"PERPETUAL\",\"isSpotTradingAllowed\":true}");
+                return Reply.ok(sb.append("]}").toString());
+            }
+            if (path.endsWith("/depth")) {
+                MockBook book = server.book(query.getOrDefault("symbol", ""));
+                if (book == null) {
+                    return new Reply(400, "{\"code\":-1121,\"msg\":\"Invalid symbol.\"}");
+                }
+                int limit = intParam(query, "limit", 100, 5000);
+                StringBuilder sb = new StringBuilder(limit * 40);
+                long now = System.currentTimeMillis();
+                synchronized (book) {
+                    // The state ahead of the stream: its id lies inside the next diff event (see MockBook)
+                    sb.append("{\"lastUpdateId\":").append(book.updateId(true))
+                            .append(",\"E\":").append(now).append(",\"T\":").append(now).append(",\"bids\":");
+                    appendLevels(sb, book, book.topLevels(true, limit, true), false);
+                    sb.append(",\"asks\":");
+                    appendLevels(sb, book, book.topLevels(false, limit, true), false);
+                }
+                return Reply.ok(sb.append('}').toString());
+            }
+            return null;
+        }
+    },
+
+    /**
+     * V5 public topics on {@code /v5/public/<category>} ({@code orderbook.<depth>.<sym>}, {@code publicTrade.<sym>}),
+     * snapshot then deltas; {@code /v5/market/instruments-info} in one page.
+     */
+    BYBIT {
+        @Override
+        void onText(MockExchangeServer server, MockSession session, String text) {
+            String op = field(text, "op");
+            String reqId = field(text, "req_id");
+            String connId = "\"conn_id\":\"mock-" + session.id() + "\"";
+            if ("ping".equals(op)) {
+                session.sendText("{\"success\":true,\"ret_msg\":\"pong\"," + connId + ",\"op\":\"ping\"}");
+                return;
+            }
+            List<String> topics = strings(arrayField(text, "args"));
+            if ("subscribe".equals(op)) {
+                List<Subscription> accepted = new ArrayList<>();
+                List<String> rejected = new ArrayList<>();
+                for (String topic : topics) {
+                    Subscription subscription = parseTopic(server, topic);
+                    if (subscription == null) {
+                        rejected.add(topic);
+                    } else {
+                        accepted.add(subscription);
+                    }
+                }
+                String retMsg = rejected.isEmpty() ? "" : "Invalid symbol :" + rejected;
+                session.sendText("{\"success\":" + rejected.isEmpty() + ",\"ret_msg\":\"" + retMsg + "\"," + connId
+                        + (reqId != null ? ",\"req_id\":\"" + reqId + "\"" : "") + ",\"op\":\"subscribe\"}");
+                accepted.forEach(session::subscribe);
+            } else if ("unsubscribe".equals(op)) {
+                for (String topic : topics) {
+                    session.unsubscribe(topic.substring(topic.lastIndexOf('.') + 1), topic);
+                }
+                session.sendText("{\"success\":true,\"ret_msg\":\"\"," + connId
+                        + (reqId != null ? ",\"req_id\":\"" + reqId + "\"" : "") + ",\"op\":\"unsubscribe\"}");
+            } else {
+                session.sendText("{\"success\":false,\"ret_msg\":\"Invalid op\"," + connId + "}");
+            }
+        }
+
+        private Subscription parseTopic(MockExchangeServer server, String topic) {
+            String symbol = topic.substring(topic.lastIndexOf('.') + 1);
+            if (server.book(symbol) == null) return null;
+            if (topic.startsWith("publicTrade.")) {
+                return new Subscription(topic, symbol, symbol, Kind.TRADES, 0);
+            }
+            if (topic.startsWith("orderbook.")) {
+                String[] parts = topic.split("\\.");
+                if (parts.length != 3) return null;
+                return new Subscription(topic, symbol, symbol, Kind.BOOK, Integer.parseInt(parts[1]));
+            }
+            return null;
+        }
+
+        @Override
+        String diff(Subscription subscription, MockBook book, MockBook.Event event, long nowMs) {
+            StringBuilder sb = new StringBuilder(256);
+            sb.append("{\"topic\":\"").append(subscription.name()).append("\",\"type\":\"delta\",\"ts\":").append(nowMs)
+                    .append(",\"data\":{\"s\":\"").append(book.symbol()).append("\",\"b\":");
+            appendChanges(sb, book, event, true, false);
+            sb.append(",\"a\":");
+            appendChanges(sb, book, event, false, false);
+            sb.append(",\"u\":").append(event.lastId()).append(",\"seq\":").append(event.lastId())
+                    .append("},\"cts\":").append(nowMs).append('}');
+            return sb.toString();
+        }
+
+        @Override
+        String snapshot(Subscription subscription, MockBook book, long nowMs) {
+            StringBuilder sb = new StringBuilder(1024);
+            sb.append("{\"topic\":\"").append(subscription.name()).append("\",\"type\":\"snapshot\",\"ts\":").append(nowMs)
+                    .append(",\"data\":{\"s\":\"").append(book.symbol()).append("\",\"b\":");
+            appendLevels(sb, book, book.topLevels(true, subscription.depth(), false), false);
+            sb.append(",\"a\":");
+            appendLevels(sb, book, book.topLevels(false, subscription.depth(), false), false);
+            sb.append(",\"u\":").append(book.updateId(false)).append(",\"seq\":").append(book.updateId(false))
+                    .append("},\"cts\":").append(nowMs).append('}');
+            return sb.toString();
+        }
+
+        @Override
+        String trade(Subscription subscription, MockBook book, MockBook.Event event, long nowMs) {
+            return "{\"topic\":\"" + subscription.name() + "\",\"type\":\"snapshot\",\"ts\":" + nowMs
+                    + ",\"data\":[{\"T\":" + nowMs + ",\"s\":\"" + book.symbol() + "\",\"S\":\""
+                    + (event.buyerMaker() ? "Sell" : "Buy") + "\",\"v\":\"" + MockBook.quantity(event.tradeLots())
+                    + "\",\"p\":\"" + book.price(event.tradeIndex()) + "\",\"i\":\"" + event.lastId() + "\"}]}";
+        }
+
+        @Override
+        Reply rest(MockExchangeServer server, String path, Map<String, String> query) {
+            if (!path.equals("/v5/market/instruments-info")) return null;
+            String category = query.getOrDefault("category", "linear");
+            StringBuilder sb = new StringBuilder("{\"retCode\":0,\"retMsg\":\"OK\",\"result\":{\"category\":\"")
+                    .append(category).append("\",\"list\":[");
+            appendAll(sb, server.books(), book -> "{\"symbol\":\"" + book.symbol() + "\",\"contractType\":\""
+                    + ("spot".equals(category) ? "" : "LinearPerpetual") + "\",\"status\":\"Trading\",\"baseCoin\":\""
+                    + book.base() + "\",\"quoteCoin\":\"USDT\",\"settleCoin\":\"USDT\"}");
+            return Reply.ok(sb.append("],\"nextPageCursor\":\"\"}}").toString());
+        }
+    },
+
+    /**
+     * V5 public channels on {@code /ws/v5/public} ({@code books} snapshot + updates with seqId/prevSeqId,
+     * {@code books5}, {@code trades}); instruments and {@code /api/v5/market/books}. Instruments are
+     * {@code <BASE>-USDT} for SPOT and {@code <BASE>-USDT-SWAP} for SWAP, one contract = one coin.
+     */
+    OKX {
+        @Override
+        void onText(MockExchangeServer server, MockSession session, String text) {
+            String op = field(text, "op");
+            String id = field(text, "id");
+            String connId = "\"connId\":\"mock-" + session.id() + "\"";
+            if (!"subscribe".equals(op) && !"unsubscribe".equals(op)) {
+                session.sendText("{\"event\":\"error\",\"code\":\"60012\",\"msg\":\"Invalid request\""
+                        + (id != null ? ",\"id\":\"" + id + "\"" : "") + "," + connId + "}");
+                return;
+            }
+            Matcher args = OBJECT.matcher(arrayField(text, "args"));
+            while (args.find()) {
+                String channel = field(args.group(), "channel");
+                String instId = field(args.group(), "instId");
+                String arg = "{\"channel\":\"" + channel + "\",\"instId\":\"" + instId + "\"}";
+                String symbol = instId != null ? instId.replace("-SWAP", "").replace("-", "") : null;
+                if ("unsubscribe".equals(op)) {
+                    if (symbol != null) {
+                        session.unsubscribe(symbol, channel + ":" + instId);
+                    }
+                    session.sendText("{\"event\":\"unsubscribe\",\"arg\":" + arg + "," + connId + "}");
+                    continue;
+                }
+                Subscription subscription = symbol != null && server.book(symbol) != null
+                        ? parseChannel(channel, instId, symbol) : null;
+                if (subscription == null) {
+                    session.sendText("{\"event\":\"error\",\"code\":\"60018\",\"msg\":\"Wrong URL or channel:"
+                            + channel + ",instId:" + instId + " doesn't exist\""
+                            + (id != null ? ",\"id\":\"" + id + "\"" : "") + "," + connId + "}");
+                    continue;
+                }
+                session.sendText("{\"event\":\"subscribe\",\"arg\":" + arg + "," + connId + "}");
+                session.subscribe(subscription);
+            }
+        }
+
+        private Subscription parseChannel(String channel, String instId, String symbol) {
+            String name = channel + ":" + instId;
+            return switch (channel) {
+                case "books" -> new Subscription(name, symbol, instId, Kind.BOOK, 400);
+                case "books5" -> new Subscription(name, symbol, instId, Kind.PARTIAL, 5);
+                case "trades" -> new Subscription(name, symbol, instId, Kind.TRADES, 0);
+                default -> null;
+            };
+        }
+
+        private String arg(Subscription subscription) {
+            String name = subscription.name();
+            return "{\"channel\":\"" + name.substring(0, name.indexOf(':')) + "\",\"instId\":\""
+                    + subscription.instrument() + "\"}";
+        }
+
+        @Override
+        String diff(Subscription subscription, MockBook book, MockBook.Event event, long nowMs) {
+            StringBuilder sb = new StringBuilder(256);
+            sb.append("{\"arg\":").append(arg(subscription)).append(",\"action\":\"update\",\"data\":[{\"asks\":");
+            appendChanges(sb, book, event, false, true);
+            sb.append(",\"bids\":");
+            appendChanges(sb, book, event, true, true);
+            sb.append(",\"ts\":\"").append(nowMs).append("\",\"checksum\":0,\"prevSeqId\":").append(event.prevId())
+                    .append(",\"seqId\":").append(event.lastId()).append("}]}");
+            return sb.toString();
+        }
+
+        @Override
+        String snapshot(Subscription subscription, MockBook book, long nowMs) {
+            boolean full = subscription.kind() == Kind.BOOK;
+            StringBuilder sb = new StringBuilder(1024);
+            sb.append("{\"arg\":").append(arg(subscription));
+            if (full) {
+                sb.append(",\"action\":\"snapshot\"");
+            }
+            sb.append(",\"data\":[{\"asks\":");
+            appendLevels(sb, book, book.topLevels(false, subscription.depth(), false), true);
+            sb.append(",\"bids\":");
+            appendLevels(sb, book, book.topLevels(true, subscription.depth(), false), true);
+            sb.append(",\"instId\":\"").append(subscription.instrument()).append("\",\"ts\":\"").append(nowMs)
+                    .append("\",\"checksum\":0,\"prevSeqId\":-1,\"seqId\":").append(book.updateId(false)).append("}]}");
+            return sb.toString();
+        }
+
+        @Override
+        String trade(Subscription subscription, MockBook book, MockBook.Event event, long nowMs) {
+            return "{\"arg\":" + arg(subscription) + ",\"data\":[{\"instId\":\"" + subscription.instrument()
+                    + "\",\"tradeId\":\"" + event.lastId() + "\",\"px\":\"" + book.price(event.tradeIndex())
+                    + "\",\"sz\":\"" + MockBook.quantity(event.tradeLots()) + "\",\"side\":\""
+                    + (event.buyerMaker() ? "sell" : "buy") + "\",\"ts\":\"" + nowMs + "\"}]}";
+        }
+
+        @Override
+        Reply rest(MockExchangeServer server, String path, Map<String, String> query) {
+            if (path.equals("/api/v5/public/instruments")) {
+                boolean swap = "SWAP".equals(query.get("instType"));
+                StringBuilder sb = new StringBuilder("{\"code\":\"0\",\"msg\":\"\",\"data\":[");
+                appendAll(sb, server.books(), book -> "{\"instType\":\"" + (swap ? "SWAP" : "SPOT")
+                        + "\",\"instId\":\"" + book.base() + "-USDT" + (swap ? "-SWAP" : "")
+                        + "\",\"baseCcy\":\"" + (swap ? "" : book.base()) + "\",\"quoteCcy\":\"" + (swap ? "" : "USDT")
+                        + "\",\"settleCcy\":\"" + (swap ? "USDT" : "") + "\",\"ctVal\":\"" + (swap ? "1" : "")
+                        + "\",\"state\":\"live\"}");
+                return Reply.ok(sb.append("]}").toString());
+            }
+            if (path.equals("/api/v5/market/books")) {
+                String instId = query.getOrDefault("instId", "");
+                MockBook book = server.book(instId.replace("-SWAP", "").replace("-", ""));
+                if (book == null) {
+                    return Reply.ok("{\"code\":\"51001\",\"msg\":\"Instrument ID does not exist\",\"data\":[]}");
+                }
+                int size = intParam(query, "sz", 1, 400);
+                StringBuilder sb = new StringBuilder(size * 50);
+                synchronized (book) {
+                    // Published state: seqId must match the prevSeqId of the next update
+                    sb.append("{\"code\":\"0\",\"msg\":\"\",\"data\":[{\"asks\":");
+                    appendLevels(sb, book, book.topLevels(false, size, false), true);
+                    sb.append(",\"bids\":");
+                    appendLevels(sb, book, book.topLevels(true, size, false), true);
+                    sb.append(",\"ts\":\"").append(System.currentTimeMillis()).append("\",\"seqId\":")
+                            .append(book.updateId(false)).append("}]}");
+                }
+                return Reply.ok(sb.toString());
+            }
+            return null;
+        }
+    };
+
+    private static final Pattern STRING = Pattern.compile("\"((?:[^\"\\\\]|\\\\.)*)\"");
+    private static final Pattern OBJECT = Pattern.compile("\\{[^{}]*}");
+
+    /**
+     * Handles one text frame from the client.
+     */
+    abstract void onText(MockExchangeServer server, MockSession session, String text);
+
+    /**
+     * Incremental push of one event (DIFF, and BOOK topics after their snapshot).
+     */
+    abstract String diff(Subscription subscription, MockBook book, MockBook.Event event, long nowMs);
+
+    /**
+     * Full book of the published state (first push of BOOK topics, every push of PARTIAL ones).
+     */
+    abstract String snapshot(Subscription subscription, MockBook book, long nowMs);
+
+    abstract String trade(Subscription subscription, MockBook book, MockBook.Event event, long nowMs);
+
+    /**
+     * REST reply, or null if the path is not one of this venue's.
+     */
+    abstract Reply rest(MockExchangeServer server, String path, Map<String, String> query);
+
+    /**
+     * Venue of a WebSocket upgrade path, null if none matches.
+     */
+    static MockVenue forPath(String path) {
+        if (path.startsWith("/ws/v5/public")) return OKX;
+        if (path.startsWith("/v5/public/")) return BYBIT;
+        if (path.equals("/stream") || path.startsWith("/stream?") || path.startsWith("/ws")) return BINANCE;
+        return null;
+    }
+
+    record Reply(int status, String body) {
+        static Reply ok(String body) {
+            return new Reply(200, body);
+        }
+    }
+
+    // ======================== Encoding helpers ========================
+
+    static void appendLevels(StringBuilder sb, MockBook book, long[] packed, boolean okx) {
+        sb.append('[');
+        for (int i = 0; i < packed.length; i += 2) {
+            if (i > 0) sb.append(',');
+            appendLevel(sb, book.price((int) packed[i]), packed[i + 1], okx);
+        }
+        sb.append(']');
+    }
+
+    static void appendChanges(StringBuilder sb, MockBook book, MockBook.Event event, boolean bids, boolean okx) {
+        sb.append('[');
+        boolean first = true;
+        for (int i = 0; i < event.size(); i++) {
+            if (event.bid(i) != bids) continue;
+            if (!first) sb.append(',');
+            appendLevel(sb, book.price(event.index(i)), event.lots(i), okx);
+            first = false;
+        }
+        sb.append(']');
+    }
+
+    private static void appendLevel(StringBuilder sb, String price, long lots, boolean okx) {
+        sb.append("[\"").append(price).append("\",\"").append(MockBook.quantity(lots)).append('"');
+        if (okx) {
+            sb.append(",\"0\",\"").append(lots > 0 ? 1 : 0).append('"');
+        }
+        sb.append(']');
+    }
+
+    private static void appendAll(StringBuilder sb, Collection<MockBook> books,
+                                  Function<MockBook, String> item) {
+        boolean first = true;
+        for (MockBook book : books) {
+            if (!first) sb.append(',');
+            sb.append(item.apply(book));
+            first = false;
+        }
+    }
+
+    // ======================== Request parsing ========================
+
+    /**
+     * Value of a top-level string or number field, without quotes; null if absent.
+     */
+    static String field(String json, String name) {
+        Matcher m = Pattern.compile("\"" + Pattern.quote(name) + "\"\\s*:\\s*(\"((?:[^\"\\\\]|\\\\.)*)\"|-?\\d+|null)")
+                .matcher(json);
+        if (!m.find()) return null;
+        return m.group(2) != null ? m.group(2) : m.group(1);
+    }
+
+    /**
+     * Body of an array field (between the brackets, nested objects kept), empty if absent.
+     */
+    static String arrayField(String json, String name) {
+        Matcher m = Pattern.compile("\"" + Pattern.quote(name) + "\"\\s*:\\s*\\[").matcher(json);
+        if (!m.find()) return "";
+        int depth = 1;
+        int start = m.end();
+        boolean inString = false;
+        for (int i = start; i < json.length(); i++) {
+            char c = json.charAt(i);
+            if (inString) {
+                if (c == '\\') i++;
+                else if (c == '"') inString = false;
+            } else if (c == '"') {
+                inString = true;
+            } else if (c == '[') {
+                depth++;
+            } else if (c == ']' && --depth == 0) {
+                return json.substring(start, i);
+            }
+        }
+        return "";
+    }
+
+    static List<String> strings(String arrayBody) {
+        List<String> result = new ArrayList<>();
+        Matcher m = STRING.matcher(arrayBody);
+        while (m.find()) {
+            result.add(m.group(1));
+        }
+        return result;
+    }
+
+    private static int intParam(Map<String, String> query, String name, int defaultValue, int max) {
+        try {
+            String value = query.get(name);
+            return value == null ? defaultValue : Math.max(1, Math.min(max, Integer.parseInt(value)));
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
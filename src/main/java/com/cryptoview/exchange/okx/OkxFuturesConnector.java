@@ -1,10 +1,14 @@
 package com.cryptoview.exchange.okx;
 
 import com.cryptoview.exchange.common.AbstractWebSocketConnector;
+import com.cryptoview.exchange.common.DepthTier;
 import com.cryptoview.exchange.common.LocalOrderBook;
+import com.cryptoview.exchange.common.SubscriptionManager;
+import com.cryptoview.exchange.common.TieredDepthConnector;
 import com.cryptoview.model.enums.Exchange;
 import com.cryptoview.model.enums.MarketType;
 import com.cryptoview.service.orderbook.OrderBookManager;
+import com.cryptoview.service.timer.HashedWheelTimer;
 import com.cryptoview.service.volume.VolumeTracker;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -19,15 +23,23 @@ import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 @Component
-public class OkxFuturesConnector extends AbstractWebSocketConnector {
+public class OkxFuturesConnector extends AbstractWebSocketConnector implements TieredDepthConnector {
 
     private static final String WS_URL = "wss://ws.okx.com:8443/ws/v5/public";
     private static final String REST_URL = "https://www.okx.com/api/v5/public/instruments?instType=SWAP";
     private static final String DEPTH_SNAPSHOT_URL = "https://www.okx.com/api/v5/market/books";
+    // books = 400 levels incremental, books5 = 5 levels full snapshot on every push
+    private static final Map<DepthTier, String> BOOK_CHANNELS = Map.of(
+            DepthTier.SHALLOW, "books5",
+            DepthTier.DEEP, "books"
+    );
+    // 3 requests/sec and 480 subscribe requests/hour per connection; channels of any kind can share a request
+    private static final SubscriptionManager.Limits SUBSCRIPTION_LIMITS = new SubscriptionManager.Limits(100, 3, 3, 5000);
 
     // OKX futures: sz = number of contracts, real quantity = sz * ctVal
     // Key: instId (e.g. "BTC-USDT-SWAP"), Value: ctVal (e.g. 0.01)
@@ -37,8 +49,9 @@ public class OkxFuturesConnector extends AbstractWebSocketConnector {
     public OkxFuturesConnector(OkHttpClient httpClient,
                                 ObjectMapper objectMapper,
                                 OrderBookManager orderBookManager,
-                                VolumeTracker volumeTracker) {
-        super(httpClient, objectMapper, orderBookManager, volumeTracker);
+                                VolumeTracker volumeTracker,
+                                HashedWheelTimer timer) {
+        super(httpClient, objectMapper, orderBookManager, volumeTracker, timer);
     }
 
     @Override
@@ -70,19 +83,7 @@ public class OkxFuturesConnector extends AbstractWebSocketConnector {
                 return;
             }
 
-            int batchSize = 50;
-            for (int i = 0; i < symbols.size(); i += batchSize) {
-                int end = Math.min(i + batchSize, symbols.size());
-                List<String> batch = symbols.subList(i, end);
-                subscribe(batch);
-
-                try {
-                    Thread.sleep(300);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    break;
-                }
-            }
+            subscribeAndAwait(symbols);
             log.info("[OKX:FUTURES] Subscribed to {} symbols", symbols.size());
         }
     }
@@ -123,35 +124,72 @@ public class OkxFuturesConnector extends AbstractWebSocketConnector {
     }
 
     @Override
-    public void subscribe(List<String> symbols) {
-        if (!connected.get()) {
-            log.warn("[OKX:FUTURES] Cannot subscribe - not connected");
-            return;
+    protected List<String> subscriptionTopics(String symbol) {
+        return List.of(BOOK_CHANNELS.get(getDepthTier(symbol)) + ":" + symbol, "trades:" + symbol);
+    }
+
+    @Override
+    protected String buildSubscribeRequest(long requestId, List<String> topics) {
+        List<String> args = new ArrayList<>(topics.size());
+        for (String topic : topics) {
+            int sep = topic.indexOf(':');
+            args.add(String.format("{\"channel\":\"%s\",\"instId\":\"%s\"}",
+                    topic.substring(0, sep), topic.substring(sep + 1)));
         }
+        return String.format("{\"id\":\"%d\",\"op\":\"subscribe\",\"args\":[%s]}", requestId, String.join(",", args));
+    }
 
-        String bookMsg = buildSubscribeForChannel(symbols, "books");
-        webSocket.send(bookMsg);
+    /**
+     * OKX acks every channel separately ({"event":"subscribe","arg":{...}});
+     * an error carries only the request id.
+     */
+    @Override
+    protected SubscriptionManager.Ack parseSubscriptionAck(JsonNode root) {
+        String event = root.path("event").asText();
+        if ("subscribe".equals(event) && root.has("arg")) {
+            JsonNode arg = root.get("arg");
+            return SubscriptionManager.Ack.ofTopic(
+                    arg.path("channel").asText() + ":" + arg.path("instId").asText(), true, null);
+        }
+        if ("error".equals(event)) {
+            Long id = SubscriptionManager.Ack.requestId(root.get("id"));
+            return id != null ? SubscriptionManager.Ack.ofRequest(id, false, root.path("msg").asText()) : null;
+        }
+        return null;
+    }
 
-        try { Thread.sleep(100); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+    @Override
+    protected SubscriptionManager.Limits getSubscriptionLimits() {
+        return SUBSCRIPTION_LIMITS;
+    }
 
-        String tradeMsg = buildSubscribeForChannel(symbols, "trades");
-        webSocket.send(tradeMsg);
+    @Override
+    public DepthTier getDefaultDepthTier() {
+        return DepthTier.DEEP;
+    }
 
-        subscribedSymbols.addAll(symbols);
-        log.debug("[OKX:FUTURES] Subscribed to {} symbols", symbols.size());
+    @Override
+    public Set<DepthTier> getSupportedDepthTiers() {
+        return BOOK_CHANNELS.keySet();
     }
 
     @Override
-    protected String buildSubscribeMessage(List<String> symbols) {
-        return buildSubscribeForChannel(symbols, "books");
+    protected String buildDepthUnsubscribe(String symbol, DepthTier tier) {
+        return String.format("{\"op\":\"unsubscribe\",\"args\":[{\"channel\":\"%s\",\"instId\":\"%s\"}]}",
+                BOOK_CHANNELS.get(tier), symbol);
     }
 
-    private String buildSubscribeForChannel(List<String> symbols, String channel) {
-        List<String> args = new ArrayList<>();
-        for (String symbol : symbols) {
-            args.add(String.format("{\"channel\":\"%s\",\"instId\":\"%s\"}", channel, symbol));
+    @Override
+    protected void onDepthTierChanged(String symbol, DepthTier from, DepthTier to) {
+        LocalOrderBook book = localBooks.get(toMarketSymbol(symbol));
+        if (book != null) {
+            book.reset();
         }
-        return String.format("{\"op\":\"subscribe\",\"args\":[%s]}", String.join(",", args));
+    }
+
+    @Override
+    public String toMarketSymbol(String instId) {
+        return instId.replace("-SWAP", "").replace("-", "");
     }
 
     @Override
@@ -159,7 +197,7 @@ public class OkxFuturesConnector extends AbstractWebSocketConnector {
         JsonNode root = parseJson(message);
         if (root == null) return;
 
-        if (root.has("event")) {
+        if (handleSubscriptionAck(root) || root.has("event")) {
             return;
         }
 
@@ -173,7 +211,10 @@ public class OkxFuturesConnector extends AbstractWebSocketConnector {
         String channel = arg.get("channel").asText();
         String instId = arg.get("instId").asText();
 
-        if ("books".equals(channel)) {
+        if (channel.startsWith("books")) {
+            if (!isReplaying() && !channel.equals(BOOK_CHANNELS.get(getDepthTier(instId)))) {
+                return; // in-flight message from the previous depth tier
+            }
             String action = root.has("action") ? root.get("action").asText() : "snapshot";
             handleOrderBook(data.get(0), instId, action);
         } else if ("trades".equals(channel)) {
@@ -182,7 +223,7 @@ public class OkxFuturesConnector extends AbstractWebSocketConnector {
     }
 
     private void handleOrderBook(JsonNode data, String instId, String action) {
-        String symbol = instId.replace("-SWAP", "").replace("-", "");
+        String symbol = toMarketSymbol(instId);
         LocalOrderBook book = localBooks.computeIfAbsent(symbol, LocalOrderBook::new);
 
         long seqId = data.has("seqId") ? data.get("seqId").asLong() : 0;
@@ -239,17 +280,7 @@ public class OkxFuturesConnector extends AbstractWebSocketConnector {
 
     private void publishOrderBook(String symbol, String instId, LocalOrderBook book) {
         BigDecimal ctVal = contractValues.getOrDefault(instId, BigDecimal.ONE);
-        LocalOrderBook.Snapshot snapshot = book.getSnapshot(ctVal);
-        if (!snapshot.bids().isEmpty() || !snapshot.asks().isEmpty()) {
-            orderBookManager.updateOrderBook(
-                    symbol,
-                    Exchange.OKX,
-                    MarketType.FUTURES,
-                    snapshot.bids(),
-                    snapshot.asks(),
-                    null
-            );
-        }
+        orderBookManager.markDirty(symbol, Exchange.OKX, MarketType.FUTURES, book.withQuantityMultiplier(ctVal));
     }
 
     private void handleTrades(JsonNode data) {
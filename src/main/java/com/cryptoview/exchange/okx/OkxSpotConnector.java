@@ -1,10 +1,14 @@
 package com.cryptoview.exchange.okx;
 
 import com.cryptoview.exchange.common.AbstractWebSocketConnector;
+import com.cryptoview.exchange.common.DepthTier;
 import com.cryptoview.exchange.common.LocalOrderBook;
+import com.cryptoview.exchange.common.SubscriptionManager;
+import com.cryptoview.exchange.common.TieredDepthConnector;
 import com.cryptoview.model.enums.Exchange;
 import com.cryptoview.model.enums.MarketType;
 import com.cryptoview.service.orderbook.OrderBookManager;
+import com.cryptoview.service.timer.HashedWheelTimer;
 import com.cryptoview.service.volume.VolumeTracker;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -19,23 +23,32 @@ import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 @Component
-public class OkxSpotConnector extends AbstractWebSocketConnector {
+public class OkxSpotConnector extends AbstractWebSocketConnector implements TieredDepthConnector {
 
     private static final String WS_URL = "wss://ws.okx.com:8443/ws/v5/public";
     private static final String REST_URL = "https://www.okx.com/api/v5/public/instruments?instType=SPOT";
     private static final String DEPTH_SNAPSHOT_URL = "https://www.okx.com/api/v5/market/books";
+    // books = 400 levels incremental, books5 = 5 levels full snapshot on every push
+    private static final Map<DepthTier, String> BOOK_CHANNELS = Map.of(
+            DepthTier.SHALLOW, "books5",
+            DepthTier.DEEP, "books"
+    );
+    // 3 requests/sec and 480 subscribe requests/hour per connection; channels of any kind can share a request
+    private static final SubscriptionManager.Limits SUBSCRIPTION_LIMITS = new SubscriptionManager.Limits(100, 3, 3, 5000);
 
     private final Map<String, LocalOrderBook> localBooks = new ConcurrentHashMap<>();
 
     public OkxSpotConnector(OkHttpClient httpClient,
                              ObjectMapper objectMapper,
                              OrderBookManager orderBookManager,
-                             VolumeTracker volumeTracker) {
-        super(httpClient, objectMapper, orderBookManager, volumeTracker);
+                             VolumeTracker volumeTracker,
+                             HashedWheelTimer timer) {
+        super(httpClient, objectMapper, orderBookManager, volumeTracker, timer);
     }
 
     @Override
@@ -67,19 +80,7 @@ public class OkxSpotConnector extends AbstractWebSocketConnector {
                 return;
             }
 
-            int batchSize = 50;
-            for (int i = 0; i < symbols.size(); i += batchSize) {
-                int end = Math.min(i + batchSize, symbols.size());
-                List<String> batch = symbols.subList(i, end);
-                subscribe(batch);
-
-                try {
-                    Thread.sleep(300);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    break;
-                }
-            }
+            subscribeAndAwait(symbols);
             log.info("[OKX:SPOT] Subscribed to {} symbols", symbols.size());
         }
     }
@@ -116,36 +117,72 @@ public class OkxSpotConnector extends AbstractWebSocketConnector {
     }
 
     @Override
-    public void subscribe(List<String> symbols) {
-        if (!connected.get()) {
-            log.warn("[OKX:SPOT] Cannot subscribe - not connected");
-            return;
+    protected List<String> subscriptionTopics(String symbol) {
+        return List.of(BOOK_CHANNELS.get(getDepthTier(symbol)) + ":" + symbol, "trades:" + symbol);
+    }
+
+    @Override
+    protected String buildSubscribeRequest(long requestId, List<String> topics) {
+        List<String> args = new ArrayList<>(topics.size());
+        for (String topic : topics) {
+            int sep = topic.indexOf(':');
+            args.add(String.format("{\"channel\":\"%s\",\"instId\":\"%s\"}",
+                    topic.substring(0, sep), topic.substring(sep + 1)));
         }
+        return String.format("{\"id\":\"%d\",\"op\":\"subscribe\",\"args\":[%s]}", requestId, String.join(",", args));
+    }
 
-        // Subscribe to books (400 levels, incremental) and trades separately
-        String bookMsg = buildSubscribeForChannel(symbols, "books");
-        webSocket.send(bookMsg);
+    /**
+     * OKX acks every channel separately ({"event":"subscribe","arg":{...}});
+     * an error carries only the request id.
+     */
+    @Override
+    protected SubscriptionManager.Ack parseSubscriptionAck(JsonNode root) {
+        String event = root.path("event").asText();
+        if ("subscribe".equals(event) && root.has("arg")) {
+            JsonNode arg = root.get("arg");
+            return SubscriptionManager.Ack.ofTopic(
+                    arg.path("channel").asText() + ":" + arg.path("instId").asText(), true, null);
+        }
+        if ("error".equals(event)) {
+            Long id = SubscriptionManager.Ack.requestId(root.get("id"));
+            return id != null ? SubscriptionManager.Ack.ofRequest(id, false, root.path("msg").asText()) : null;
+        }
+        return null;
+    }
 
-        try { Thread.sleep(100); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+    @Override
+    protected SubscriptionManager.Limits getSubscriptionLimits() {
+        return SUBSCRIPTION_LIMITS;
+    }
 
-        String tradeMsg = buildSubscribeForChannel(symbols, "trades");
-        webSocket.send(tradeMsg);
+    @Override
+    public DepthTier getDefaultDepthTier() {
+        return DepthTier.DEEP;
+    }
 
-        subscribedSymbols.addAll(symbols);
-        log.debug("[OKX:SPOT] Subscribed to {} symbols", symbols.size());
+    @Override
+    public Set<DepthTier> getSupportedDepthTiers() {
+        return BOOK_CHANNELS.keySet();
     }
 
     @Override
-    protected String buildSubscribeMessage(List<String> symbols) {
-        return buildSubscribeForChannel(symbols, "books");
+    protected String buildDepthUnsubscribe(String symbol, DepthTier tier) {
+        return String.format("{\"op\":\"unsubscribe\",\"args\":[{\"channel\":\"%s\",\"instId\":\"%s\"}]}",
+                BOOK_CHANNELS.get(tier), symbol);
     }
 
-    private String buildSubscribeForChannel(List<String> symbols, String channel) {
-        List<String> args = new ArrayList<>();
-        for (String symbol : symbols) {
-            args.add(String.format("{\"channel\":\"%s\",\"instId\":\"%s\"}", channel, symbol));
+    @Override
+    protected void onDepthTierChanged(String symbol, DepthTier from, DepthTier to) {
+        LocalOrderBook book = localBooks.get(toMarketSymbol(symbol));
+        if (book != null) {
+            book.reset();
         }
-        return String.format("{\"op\":\"subscribe\",\"args\":[%s]}", String.join(",", args));
+    }
+
+    @Override
+    public String toMarketSymbol(String instId) {
+        return instId.replace("-", "");
     }
 
     @Override
@@ -153,7 +190,7 @@ public class OkxSpotConnector extends AbstractWebSocketConnector {
         JsonNode root = parseJson(message);
         if (root == null) return;
 
-        if (root.has("event")) {
+        if (handleSubscriptionAck(root) || root.has("event")) {
             return;
         }
 
@@ -167,7 +204,10 @@ public class OkxSpotConnector extends AbstractWebSocketConnector {
         String channel = arg.get("channel").asText();
         String instId = arg.get("instId").asText();
 
-        if ("books".equals(channel)) {
+        if (channel.startsWith("books")) {
+            if (!isReplaying() && !channel.equals(BOOK_CHANNELS.get(getDepthTier(instId)))) {
+                return; // in-flight message from the previous depth tier
+            }
             String action = root.has("action") ? root.get("action").asText() : "snapshot";
             handleOrderBook(data.get(0), instId, action);
         } else if ("trades".equals(channel)) {
@@ -176,7 +216,7 @@ public class OkxSpotConnector extends AbstractWebSocketConnector {
     }
 
     private void handleOrderBook(JsonNode data, String instId, String action) {
-        String symbol = instId.replace("-", "");
+        String symbol = toMarketSymbol(instId);
         LocalOrderBook book = localBooks.computeIfAbsent(symbol, LocalOrderBook::new);
 
         long seqId = data.has("seqId") ? data.get("seqId").asLong() : 0;
@@ -233,17 +273,7 @@ public class OkxSpotConnector extends AbstractWebSocketConnector {
     }
 
     private void publishOrderBook(String symbol, LocalOrderBook book) {
-        LocalOrderBook.Snapshot snapshot = book.getSnapshot();
-        if (!snapshot.bids().isEmpty() || !snapshot.asks().isEmpty()) {
-            orderBookManager.updateOrderBook(
-                    symbol,
-                    Exchange.OKX,
-                    MarketType.SPOT,
-                    snapshot.bids(),
-                    snapshot.asks(),
-                    null
-            );
-        }
+        orderBookManager.markDirty(symbol, Exchange.OKX, MarketType.SPOT, book);
     }
 
     private void handleTrades(JsonNode data) {
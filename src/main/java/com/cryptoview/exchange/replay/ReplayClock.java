@@ -0,0 +1,74 @@
+package com.cryptoview.exchange.replay;
+
+import com.cryptoview.service.recorder.FrameLogReader;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Clock that shows the receive time of the frame being replayed, so every time-based rule
+ * (publish throttles, alert cooldowns, volume windows, density lifetimes) runs on recorded time.
+ * Never moves backwards.
+ */
+public class ReplayClock extends Clock {
+
+    private final AtomicLong epochMicros;
+    private final ZoneId zone;
+
+    public ReplayClock(Instant start) {
+        this(new AtomicLong(ChronoUnit.MICROS.between(Instant.EPOCH, start)), ZoneOffset.UTC);
+    }
+
+    private ReplayClock(AtomicLong epochMicros, ZoneId zone) {
+        this.epochMicros = epochMicros;
+        this.zone = zone;
+    }
+
+    /**
+     * Receive time of the first frame in the recording, or now if it is empty.
+     */
+    public static Instant recordingStart(Path path) throws IOException {
+        try (FrameLogReader reader = new FrameLogReader(path)) {
+            FrameLogReader.Frame first = reader.next();
+            return first != null ? toInstant(first.receivedAtMicros()) : Instant.now();
+        }
+    }
+
+    public void advanceTo(long micros) {
+        epochMicros.accumulateAndGet(micros, Math::max);
+    }
+
+    public long currentMicros() {
+        return epochMicros.get();
+    }
+
+    @Override
+    public Instant instant() {
+        return toInstant(epochMicros.get());
+    }
+
+    @Override
+    public long millis() {
+        return epochMicros.get() / 1000;
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return zone.equals(this.zone) ? this : new ReplayClock(epochMicros, zone);
+    }
+
+    static Instant toInstant(long micros) {
+        return Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), Math.floorMod(micros, 1_000_000L) * 1000);
+    }
+}
@@ -0,0 +1,113 @@
+package com.cryptoview.exchange.replay;
+
+import com.cryptoview.exchange.common.ExchangeConnector;
+import com.cryptoview.exchange.common.RecordableConnector;
+import com.cryptoview.model.enums.Exchange;
+import com.cryptoview.model.enums.MarketType;
+import com.cryptoview.service.recorder.FrameLogReader;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stands in for a live connector during replay: recorded frames of one source go through the real
+ * connector's decoder (handleMessage, MEXC protobuf) and on into OrderBookManager; nothing touches the network.
+ */
+public class ReplayConnector implements ExchangeConnector {
+
+    private final RecordableConnector delegate;
+    private final Clock clock;
+    private final AtomicBoolean active = new AtomicBoolean(false);
+
+    // Metrics (written by the replay thread only)
+    private final AtomicLong frames = new AtomicLong(0);
+    private final AtomicLong snapshots = new AtomicLong(0);
+    private final AtomicLong decodeNanos = new AtomicLong(0);
+
+    public ReplayConnector(RecordableConnector delegate, Clock clock) {
+        this.delegate = delegate;
+        this.clock = clock;
+    }
+
+    @Override
+    public Exchange getExchange() {
+        return delegate.getExchange();
+    }
+
+    @Override
+    public MarketType getMarketType() {
+        return delegate.getMarketType();
+    }
+
+    @Override
+    public void connect() {
+        if (active.compareAndSet(false, true)) {
+            delegate.beginReplay(clock);
+        }
+    }
+
+    @Override
+    public void disconnect() {
+        active.set(false);
+    }
+
+    @Override
+    public void subscribe(List<String> symbols) {
+        // The recording decides what is subscribed
+    }
+
+    @Override
+    public void subscribeAll() {
+        connect();
+    }
+
+    @Override
+    public boolean isConnected() {
+        return active.get();
+    }
+
+    @Override
+    public int getSubscribedSymbolsCount() {
+        return delegate.getSubscribedSymbolsCount();
+    }
+
+    @Override
+    public Set<String> getSubscribedSymbols() {
+        return delegate.getSubscribedSymbols();
+    }
+
+    /**
+     * Decodes one recorded frame on the calling (replay) thread.
+     */
+    public void deliver(FrameLogReader.Frame frame) {
+        if (!active.get()) return;
+        long start = System.nanoTime();
+        if (frame.snapshot()) {
+            String payload = frame.text();
+            int split = payload.indexOf('\n');
+            if (split > 0) {
+                delegate.replaySnapshot(payload.substring(0, split), payload.substring(split + 1));
+                snapshots.incrementAndGet();
+            }
+        } else {
+            delegate.replayFrame(frame.connectionId(), frame.binary(), frame.payload());
+        }
+        decodeNanos.addAndGet(System.nanoTime() - start);
+        frames.incrementAndGet();
+    }
+
+    public long getFrames() {
+        return frames.get();
+    }
+
+    @Override
+    public String getStatusSummary() {
+        long count = frames.get();
+        return String.format("replay: frames=%d, snapshots=%d, avgDecode=%.1fµs | %s",
+                count, snapshots.get(), count > 0 ? decodeNanos.get() / 1000.0 / count : 0,
+                delegate.getStatusSummary());
+    }
+}
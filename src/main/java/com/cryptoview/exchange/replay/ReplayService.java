@@ -0,0 +1,228 @@
+package com.cryptoview.exchange.replay;
+
+import com.cryptoview.config.CryptoViewProperties;
+import com.cryptoview.exchange.common.ExchangeConnector;
+import com.cryptoview.exchange.common.RecordableConnector;
+import com.cryptoview.model.config.ExchangeMarketKey;
+import com.cryptoview.service.orderbook.OrderBookManager;
+import com.cryptoview.service.recorder.FrameLogReader;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives the pipeline from a recorded frame log instead of live sockets (cryptoview.replay.*).
+ *
+ * One thread reads frames in recorded order and hands them to the {@link ReplayConnector} of their source,
+ * paced at the recorded rate times {@code speed} (0 = as fast as possible). The {@link ReplayClock} follows the
+ * frames and orderbook publication is flushed on ticks of recorded time, so runs are deterministic regardless
+ * of speed — which also makes max speed a throughput benchmark of decoders, LocalOrderBook, OrderBookManager
+ * and the detectors.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReplayService {
+
+    private static final long PROGRESS_LOG_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final List<ExchangeConnector> connectors;
+    private final CryptoViewProperties properties;
+    private final Clock clock;
+    private final OrderBookManager orderBookManager;
+
+    private final Map<String, ReplayConnector> replayConnectors = new LinkedHashMap<>();
+    private volatile Thread driver;
+    private volatile State state = State.IDLE;
+
+    // Metrics
+    private final AtomicLong framesReplayed = new AtomicLong(0);
+    private final AtomicLong framesSkipped = new AtomicLong(0);
+    private final AtomicLong bytesReplayed = new AtomicLong(0);
+    private final AtomicLong maxLagMicros = new AtomicLong(0);
+    private volatile long firstFrameMicros;
+    private volatile long lastFrameMicros;
+    private volatile long startedNanos;
+    private volatile long finishedNanos;
+
+    public enum State {IDLE, RUNNING, FINISHED, FAILED}
+
+    @PostConstruct
+    public void init() {
+        CryptoViewProperties.ReplayConfig config = properties.getReplay();
+        if (!config.isEnabled()) {
+            return;
+        }
+        if (!(clock instanceof ReplayClock replayClock)) {
+            throw new IllegalStateException("Replay needs a ReplayClock, got " + clock);
+        }
+
+        for (ExchangeConnector connector : connectors) {
+            if (!(connector instanceof RecordableConnector recordable)) continue;
+            String key = new ExchangeMarketKey(connector.getExchange(), connector.getMarketType()).toStorageKey();
+            if (!config.getConnectors().isEmpty() && !config.getConnectors().contains(key)) continue;
+            replayConnectors.put(key, new ReplayConnector(recordable, replayClock));
+        }
+        log.info("[REPLAY] {} at {}, {} connectors, starting at {}", config.getPath(),
+                config.getSpeed() > 0 ? config.getSpeed() + "x" : "max speed",
+                replayConnectors.size(), replayClock.instant());
+    }
+
+    public boolean isEnabled() {
+        return properties.getReplay().isEnabled();
+    }
+
+    /**
+     * Replay stand-ins for the live connectors (empty unless replay is enabled).
+     */
+    public List<ExchangeConnector> getConnectors() {
+        return new ArrayList<>(replayConnectors.values());
+    }
+
+    public synchronized void start() {
+        if (!isEnabled() || driver != null) return;
+        replayConnectors.values().forEach(ReplayConnector::connect);
+        state = State.RUNNING;
+        driver = Thread.ofPlatform().name("frame-replay").daemon(true).start(this::run);
+    }
+
+    @PreDestroy
+    public void stop() {
+        Thread thread = driver;
+        if (thread != null) {
+            thread.interrupt();
+        }
+        replayConnectors.values().forEach(ReplayConnector::disconnect);
+    }
+
+    private void run() {
+        CryptoViewProperties.ReplayConfig config = properties.getReplay();
+        ReplayClock replayClock = (ReplayClock) clock;
+        double speed = config.getSpeed();
+        long flushTickMicros = Math.max(10, properties.getPublish().getFlushTickMs()) * 1000;
+        long nextFlushMicros = 0;
+        startedNanos = System.nanoTime();
+        long nextProgressLog = startedNanos + PROGRESS_LOG_INTERVAL_NANOS;
+
+        try (FrameLogReader reader = new FrameLogReader(Path.of(config.getPath()))) {
+            FrameLogReader.Frame frame;
+            while ((frame = reader.next()) != null && !Thread.currentThread().isInterrupted()) {
+                ReplayConnector target = replayConnectors.get(frame.source());
+                if (target == null) {
+                    framesSkipped.incrementAndGet();
+                    continue;
+                }
+                if (framesReplayed.get() == 0) {
+                    firstFrameMicros = frame.receivedAtMicros();
+                    nextFlushMicros = firstFrameMicros + flushTickMicros;
+                }
+                if (speed > 0) {
+                    pace(frame.receivedAtMicros(), speed);
+                }
+
+                // Флаш на границе тика, как его сделал бы таймер вживую — до кадра, который её пересёк
+                if (frame.receivedAtMicros() >= nextFlushMicros) {
+                    replayClock.advanceTo(nextFlushMicros);
+                    orderBookManager.flushPublishes();
+                    nextFlushMicros += flushTickMicros * ((frame.receivedAtMicros() - nextFlushMicros) / flushTickMicros + 1);
+                }
+
+                replayClock.advanceTo(frame.receivedAtMicros());
+                lastFrameMicros = frame.receivedAtMicros();
+                target.deliver(frame);
+                framesReplayed.incrementAndGet();
+                bytesReplayed.addAndGet(frame.payload().length);
+
+                if (System.nanoTime() >= nextProgressLog) {
+                    log.info("[REPLAY] {} frames, at {}", framesReplayed.get(), replayClock.instant());
+                    nextProgressLog = System.nanoTime() + PROGRESS_LOG_INTERVAL_NANOS;
+                }
+            }
+            if (framesReplayed.get() > 0 && !Thread.currentThread().isInterrupted()) {
+                drainPublishes(replayClock, nextFlushMicros, flushTickMicros);
+            }
+            state = State.FINISHED;
+        } catch (Exception e) {
+            state = State.FAILED;
+            log.error("[REPLAY] Failed reading {}", config.getPath(), e);
+        } finally {
+            finishedNanos = System.nanoTime();
+        }
+
+        Status status = getStatus();
+        log.info("[REPLAY] {}: {} frames ({} skipped), {}s recorded in {}s, {} frames/s",
+                status.state(), status.framesReplayed(), status.framesSkipped(),
+                status.recordedSeconds(), status.elapsedSeconds(), status.framesPerSecond());
+        for (Map.Entry<String, ReplayConnector> entry : replayConnectors.entrySet()) {
+            log.info("[REPLAY]   {} | {}", entry.getKey(), entry.getValue().getStatusSummary());
+        }
+    }
+
+    /**
+     * Keeps flushing past the last frame until the longest publish interval has passed,
+     * so the final state of every book is published.
+     */
+    private void drainPublishes(ReplayClock replayClock, long fromMicros, long flushTickMicros) {
+        long untilMicros = fromMicros + properties.getPublish().getMaxIntervalMs() * 1000;
+        for (long micros = fromMicros; micros <= untilMicros; micros += flushTickMicros) {
+            replayClock.advanceTo(micros);
+            orderBookManager.flushPublishes();
+        }
+    }
+
+    /**
+     * Waits until the frame is due at the requested speed; late frames are delivered at once and counted as lag.
+     */
+    private void pace(long frameMicros, double speed) {
+        long dueNanos = startedNanos + (long) ((frameMicros - firstFrameMicros) * 1000 / speed);
+        long waitNanos = dueNanos - System.nanoTime();
+        if (waitNanos > 0) {
+            LockSupport.parkNanos(this, waitNanos);
+        } else {
+            maxLagMicros.accumulateAndGet(-waitNanos / 1000, Math::max);
+        }
+    }
+
+    public Status getStatus() {
+        long frames = framesReplayed.get();
+        long endNanos = state == State.RUNNING ? System.nanoTime() : finishedNanos;
+        double elapsed = startedNanos > 0 ? (endNanos - startedNanos) / 1e9 : 0;
+        return new Status(
+                isEnabled(),
+                state,
+                frames,
+                framesSkipped.get(),
+                bytesReplayed.get(),
+                frames > 0 ? (lastFrameMicros - firstFrameMicros) / 1e6 : 0,
+                elapsed,
+                elapsed > 0 ? (long) (frames / elapsed) : 0,
+                maxLagMicros.get() / 1000.0,
+                clock.instant().toString()
+        );
+    }
+
+    public record Status(
+            boolean enabled,
+            State state,
+            long framesReplayed,
+            long framesSkipped,
+            long bytesReplayed,
+            double recordedSeconds,
+            double elapsedSeconds,
+            long framesPerSecond,
+            double maxLagMs,
+            String clock
+    ) {}
+}
@@ -2,12 +2,16 @@ package com.cryptoview.model.config;
 
 import com.cryptoview.model.enums.AlertType;
 import lombok.Builder;
-import lombok.Data;
+import lombok.Value;
 
 import java.math.BigDecimal;
 import java.util.Set;
 
-@Data
+/**
+ * Config resolved down the global → exchange → market → symbol chain. Immutable: {@code ConfigService}
+ * hands the same instance to every caller.
+ */
+@Value
 @Builder
 public class EffectiveConfig {
     private BigDecimal minDensityUsd;
@@ -15,5 +19,7 @@ public class EffectiveConfig {
     private BigDecimal maxDistancePercent;
     private Set<AlertType> alertTypes;
     private boolean enabled;
+    private BigDecimal minDepthShare;
+    private BigDecimal depthShareWindowPercent;
     private String comment;
 }
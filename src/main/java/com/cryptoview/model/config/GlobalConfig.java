@@ -13,4 +13,10 @@ public class GlobalConfig {
     private BigDecimal maxDistancePercent = new BigDecimal("10.0");
     private Set<AlertType> alertTypes = Set.of(AlertType.VOLUME_BASED, AlertType.STATISTICAL);
     private boolean enabled = true;
+    /**
+     * Relative size gate: a density must hold at least this share of its side's USD depth
+     * within depthShareWindowPercent of mid (0.2 = 20%). Null = off.
+     */
+    private BigDecimal minDepthShare;
+    private BigDecimal depthShareWindowPercent = new BigDecimal("2.0");
 }
@@ -15,8 +15,18 @@ public record OrderBook(
         List<OrderBookLevel> bids,
         List<OrderBookLevel> asks,
         BigDecimal lastPrice,
-        Instant timestamp
+        Instant timestamp,
+        int symbolId
 ) {
+    /**
+     * Книга без id из реестра символов (тесты, внешние источники); потребители найдут id сами.
+     */
+    public OrderBook(String symbol, Exchange exchange, MarketType marketType,
+                     List<OrderBookLevel> bids, List<OrderBookLevel> asks,
+                     BigDecimal lastPrice, Instant timestamp) {
+        this(symbol, exchange, marketType, bids, asks, lastPrice, timestamp, -1);
+    }
+
     public BigDecimal getBestBid() {
         return bids.isEmpty() ? BigDecimal.ZERO : bids.getFirst().price();
     }
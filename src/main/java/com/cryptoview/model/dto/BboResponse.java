@@ -0,0 +1,24 @@
+package com.cryptoview.model.dto;
+
+import com.cryptoview.model.enums.Exchange;
+import com.cryptoview.model.enums.MarketType;
+
+/**
+ * Top of book; a missing side is null.
+ */
+public record BboResponse(
+        String symbol,
+        Exchange exchange,
+        MarketType marketType,
+        Double bid,
+        Double bidQty,
+        Double ask,
+        Double askQty,
+        Double mid,
+        Double spreadBps,
+        long ageMs
+) {
+    public static Double orNull(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+}
@@ -0,0 +1,26 @@
+package com.cryptoview.model.dto;
+
+import com.cryptoview.model.enums.Exchange;
+import com.cryptoview.model.enums.MarketType;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Frame of the live book channel. A snapshot carries the whole top-{@code depth} view; a diff carries
+ * changed [price, quantity] pairs (quantity 0 = level gone) and has seq one higher than the frame before it.
+ */
+public record LiveBookFrame(
+        String type,
+        String symbol,
+        Exchange exchange,
+        MarketType marketType,
+        int depth,
+        long seq,
+        long timestamp,
+        List<BigDecimal[]> bids,
+        List<BigDecimal[]> asks
+) {
+    public static final String SNAPSHOT = "snapshot";
+    public static final String DIFF = "diff";
+}
@@ -0,0 +1,27 @@
+package com.cryptoview.model.dto;
+
+import com.cryptoview.model.enums.Exchange;
+import com.cryptoview.model.enums.MarketType;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Book snapshot for REST polling. With {@code buckets > 0} each side is folded into that many equal price
+ * ranges, and a level's price is the range edge nearest to the touch.
+ */
+public record OrderBookResponse(
+        String symbol,
+        Exchange exchange,
+        MarketType marketType,
+        long version,
+        Instant timestamp,
+        BigDecimal lastPrice,
+        BigDecimal midPrice,
+        int buckets,
+        List<Level> bids,
+        List<Level> asks
+) {
+    public record Level(BigDecimal price, BigDecimal quantity, BigDecimal volumeUsd) {}
+}
@@ -2,7 +2,8 @@ package com.cryptoview.model.enums;
 
 public enum AlertType {
     VOLUME_BASED("По объёму 15м"),
-    STATISTICAL("Статистический");
+    STATISTICAL("Статистический"),
+    HISTORICAL("Исторический");
 
     private final String displayName;
 
@@ -12,6 +12,7 @@ import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
+import java.time.Clock;
 import java.time.Instant;
 
 @Slf4j
@@ -21,6 +22,7 @@ public class AlertService {
 
     private final ConfigService configService;
     private final ApplicationEventPublisher eventPublisher;
+    private final Clock clock;
 
     @EventListener
     public void onDensityDetected(DensityDetectedEvent event) {
@@ -43,7 +45,7 @@ public class AlertService {
                 density.distancePercent(),
                 event.getVolume15min(),
                 config.getComment(),
-                Instant.now()
+                Instant.now(clock)
         );
 
         log.info("New alert: {} {} {} {} @ {} - ${} ({})",
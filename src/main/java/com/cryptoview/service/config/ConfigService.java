@@ -5,10 +5,11 @@ import com.cryptoview.model.config.*;
 import com.cryptoview.model.enums.AlertType;
 import com.cryptoview.model.enums.Exchange;
 import com.cryptoview.model.enums.MarketType;
+import com.cryptoview.service.symbol.SymbolRegistry;
+import com.cryptoview.service.symbol.SymbolTable;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.annotation.PostConstruct;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
@@ -18,16 +19,27 @@ import java.math.BigDecimal;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class ConfigService {
 
     private final CryptoViewProperties properties;
     private final ObjectMapper objectMapper;
+    private final SymbolRegistry symbolRegistry;
 
     private final Map<String, SymbolConfig> symbolConfigs = new ConcurrentHashMap<>();
+    // Скомпилированные конфиги по symbol id. Изменение конфигов не правит таблицу на месте, а подменяет её
+    private volatile SymbolTable<EffectiveConfig> compiled = new SymbolTable<>();
+    private final File configFile;
+
+    public ConfigService(CryptoViewProperties properties, ObjectMapper objectMapper, SymbolRegistry symbolRegistry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.symbolRegistry = symbolRegistry;
+        this.configFile = new File(properties.getSymbolsConfigFile());
+    }
 
     @PostConstruct
     public void init() {
@@ -35,7 +47,6 @@ public class ConfigService {
     }
 
     private void loadSymbolConfigs() {
-        File configFile = new File("symbols-config.json");
         if (configFile.exists()) {
             try {
                 Map<String, Map<String, SymbolConfig>> config = objectMapper.readValue(
@@ -51,12 +62,32 @@ public class ConfigService {
                     log.info("Loaded {} symbol configs", symbolConfigs.size());
                 }
             } catch (IOException e) {
-                log.warn("Failed to load symbols-config.json: {}", e.getMessage());
+                log.warn("Failed to load {}: {}", configFile, e.getMessage());
             }
         }
     }
 
+    /**
+     * Effective config of a registered symbol; once compiled, a single table read. Entries compile on first
+     * use and recompile only when a config change touches their symbol.
+     */
+    public EffectiveConfig getEffectiveConfig(int symbolId) {
+        SymbolTable<EffectiveConfig> table = compiled;
+        EffectiveConfig config = table.get(symbolId);
+        if (config == null) {
+            SymbolRegistry.SymbolKey key = symbolRegistry.key(symbolId);
+            config = resolve(key.exchange(), key.marketType(), key.symbol());
+            table.put(symbolId, config);
+        }
+        return config;
+    }
+
     public EffectiveConfig getEffectiveConfig(Exchange exchange, MarketType marketType, String symbol) {
+        int id = symbolRegistry.find(exchange, marketType, symbol);
+        return id != SymbolRegistry.UNKNOWN ? getEffectiveConfig(id) : resolve(exchange, marketType, symbol);
+    }
+
+    private EffectiveConfig resolve(Exchange exchange, MarketType marketType, String symbol) {
         GlobalConfig global = properties.getGlobal();
         ExchangeConfig exchangeConfig = properties.getExchanges().get(exchange);
         MarketTypeConfig marketTypeConfig = getMarketTypeConfig(exchangeConfig, marketType);
@@ -69,6 +100,8 @@ public class ConfigService {
                 .alertTypes(resolveAlertTypes(global, exchangeConfig, marketTypeConfig, symbolConfig))
                 .enabled(resolveEnabled(global, exchangeConfig, marketTypeConfig, symbolConfig))
                 .comment(symbolConfig != null ? symbolConfig.getComment() : null)
+                .minDepthShare(global.getMinDepthShare())
+                .depthShareWindowPercent(global.getDepthShareWindowPercent())
                 .build();
     }
 
@@ -124,6 +157,8 @@ public class ConfigService {
     public void updateSymbolConfig(String symbol, SymbolConfig config) {
         config.setSymbol(symbol.toUpperCase());
         symbolConfigs.put(symbol.toUpperCase(), config);
+        String key = symbol.toUpperCase();
+        recompile(k -> k.symbol().equalsIgnoreCase(key), key);
         saveSymbolConfigs();
     }
 
@@ -149,15 +184,39 @@ public class ConfigService {
                 cfg.setSymbol(symbol);
                 symbolConfigs.put(symbol.toUpperCase(), cfg);
             });
+            recompile(key -> true, "import");
             saveSymbolConfigs();
             log.info("Imported {} symbol configs", symbolConfigs.size());
         }
     }
 
+    /**
+     * Builds the next table off the hot path and swaps it in: entries whose key matches {@code affected} are
+     * recompiled, the rest carried over. Readers see the old table or the new one, never a half-updated mix.
+     * Only symbol overrides change at runtime; exchange and global settings are fixed application config.
+     */
+    private synchronized void recompile(Predicate<SymbolRegistry.SymbolKey> affected, String scope) {
+        SymbolTable<EffectiveConfig> previous = compiled;
+        SymbolTable<EffectiveConfig> next = new SymbolTable<>();
+        int recompiled = 0;
+        for (int id = 0; id < symbolRegistry.size(); id++) {
+            SymbolRegistry.SymbolKey key = symbolRegistry.key(id);
+            if (key == null) continue;
+            EffectiveConfig config = affected.test(key) ? null : previous.get(id);
+            if (config == null) {
+                config = resolve(key.exchange(), key.marketType(), key.symbol());
+                recompiled++;
+            }
+            next.put(id, config);
+        }
+        compiled = next;
+        log.debug("Recompiled {} effective configs ({})", recompiled, scope);
+    }
+
     private void saveSymbolConfigs() {
         try {
             objectMapper.writerWithDefaultPrettyPrinter()
-                    .writeValue(new File("symbols-config.json"), Map.of("symbols", symbolConfigs));
+                    .writeValue(configFile, Map.of("symbols", symbolConfigs));
         } catch (IOException e) {
             log.error("Failed to save symbol configs", e);
         }
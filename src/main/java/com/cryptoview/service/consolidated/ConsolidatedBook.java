@@ -0,0 +1,300 @@
+package com.cryptoview.service.consolidated;
+
+import com.cryptoview.model.domain.OrderBookLevel;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntPredicate;
+
+/**
+ * All venues' books of one base ticker merged into a single price ladder with per-venue attribution.
+ *
+ * Prices are normalized into the reference quote before merging. Each venue's previous levels are kept as
+ * sorted arrays, so a new snapshot is diffed against them by a single merge walk and only levels whose
+ * quantity actually changed touch the ladder (O(log n) each).
+ */
+public final class ConsolidatedBook {
+
+    private static final MathContext PRICE_PRECISION = new MathContext(12);
+
+    private final String baseTicker;
+    private final TreeMap<BigDecimal, Level> bids = new TreeMap<>(Comparator.reverseOrder());
+    private final TreeMap<BigDecimal, Level> asks = new TreeMap<>();
+    private final Map<Integer, Venue> venues = new HashMap<>();
+    private long version;
+    private long changedLevels;
+    private Instant updatedAt = Instant.EPOCH;
+
+    public ConsolidatedBook(String baseTicker) {
+        this.baseTicker = baseTicker;
+    }
+
+    public String getBaseTicker() {
+        return baseTicker;
+    }
+
+    /**
+     * Replaces one venue's contribution with the given book (levels best first, native quote);
+     * returns how many ladder levels changed.
+     */
+    public synchronized int apply(int venueId, List<OrderBookLevel> bidLevels, List<OrderBookLevel> askLevels,
+                                  BigDecimal rate, Instant timestamp) {
+        Venue venue = venues.computeIfAbsent(venueId, id -> new Venue());
+        Side newBids = normalize(bidLevels, rate, true);
+        Side newAsks = normalize(askLevels, rate, false);
+        int changed = merge(venueId, bids, venue.bids, newBids, true)
+                + merge(venueId, asks, venue.asks, newAsks, false);
+        venue.bids = newBids;
+        venue.asks = newAsks;
+        venue.updatedAt = timestamp;
+        if (changed > 0) {
+            version++;
+            changedLevels += changed;
+        }
+        if (timestamp.isAfter(updatedAt)) {
+            updatedAt = timestamp;
+        }
+        return changed;
+    }
+
+    /**
+     * Drops a venue's levels (disconnected or stale connector).
+     */
+    public synchronized boolean removeVenue(int venueId) {
+        Venue venue = venues.remove(venueId);
+        if (venue == null) return false;
+        int changed = merge(venueId, bids, venue.bids, Side.EMPTY, true)
+                + merge(venueId, asks, venue.asks, Side.EMPTY, false);
+        if (changed > 0) {
+            version++;
+            changedLevels += changed;
+        }
+        return true;
+    }
+
+    /**
+     * Venues whose last book is older than the cutoff.
+     */
+    public synchronized List<Integer> staleVenues(Instant cutoff) {
+        List<Integer> stale = new ArrayList<>();
+        venues.forEach((id, venue) -> {
+            if (venue.updatedAt.isBefore(cutoff)) stale.add(id);
+        });
+        return stale;
+    }
+
+    public synchronized int venueCount() {
+        return venues.size();
+    }
+
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    public synchronized long getChangedLevels() {
+        return changedLevels;
+    }
+
+    /**
+     * Top {@code depth} levels per side; {@code venueFilter} (null = all) restricts totals to matching venues.
+     */
+    public synchronized Snapshot snapshot(int depth, IntPredicate venueFilter) {
+        List<Integer> venueIds = new ArrayList<>();
+        for (Integer id : venues.keySet()) {
+            if (venueFilter == null || venueFilter.test(id)) venueIds.add(id);
+        }
+        venueIds.sort(null);
+        return new Snapshot(baseTicker, version, updatedAt, venueIds,
+                top(bids, depth, venueFilter), top(asks, depth, venueFilter));
+    }
+
+    private static List<LadderLevel> top(TreeMap<BigDecimal, Level> ladder, int depth, IntPredicate venueFilter) {
+        List<LadderLevel> result = new ArrayList<>(Math.min(depth, ladder.size()));
+        for (Iterator<Map.Entry<BigDecimal, Level>> it = ladder.entrySet().iterator();
+             it.hasNext() && result.size() < depth; ) {
+            Map.Entry<BigDecimal, Level> e = it.next();
+            Level level = e.getValue();
+            BigDecimal total = BigDecimal.ZERO;
+            List<VenueQuantity> parts = new ArrayList<>(level.n);
+            for (int i = 0; i < level.n; i++) {
+                if (venueFilter != null && !venueFilter.test(level.venues[i])) continue;
+                parts.add(new VenueQuantity(level.venues[i], level.quantities[i]));
+                total = total.add(level.quantities[i]);
+            }
+            if (!parts.isEmpty()) {
+                result.add(new LadderLevel(e.getKey(), total, parts));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Merge walk of a venue's previous side against its new one (both sorted best first).
+     */
+    private static int merge(int venueId, TreeMap<BigDecimal, Level> ladder, Side old, Side fresh, boolean bid) {
+        int changed = 0;
+        int i = 0;
+        int j = 0;
+        while (i < old.size || j < fresh.size) {
+            int c;
+            if (i == old.size) c = 1;
+            else if (j == fresh.size) c = -1;
+            else c = bid ? fresh.prices[j].compareTo(old.prices[i]) : old.prices[i].compareTo(fresh.prices[j]);
+
+            if (c < 0) {
+                changed += set(ladder, old.prices[i], venueId, null);
+                i++;
+            } else if (c > 0) {
+                changed += set(ladder, fresh.prices[j], venueId, fresh.quantities[j]);
+                j++;
+            } else {
+                if (old.quantities[i].compareTo(fresh.quantities[j]) != 0) {
+                    changed += set(ladder, fresh.prices[j], venueId, fresh.quantities[j]);
+                }
+                i++;
+                j++;
+            }
+        }
+        return changed;
+    }
+
+    private static int set(TreeMap<BigDecimal, Level> ladder, BigDecimal price, int venueId, BigDecimal quantity) {
+        Level level = ladder.get(price);
+        if (quantity == null) {
+            if (level == null) return 0;
+            level.remove(venueId);
+            if (level.n == 0) ladder.remove(price);
+        } else {
+            if (level == null) {
+                level = new Level();
+                ladder.put(price, level);
+            }
+            level.set(venueId, quantity);
+        }
+        return 1;
+    }
+
+    /**
+     * Converts to the reference quote; levels that collapse onto one price after rounding are summed,
+     * and input that is not best-first is sorted rather than trusted.
+     */
+    static Side normalize(List<OrderBookLevel> levels, BigDecimal rate, boolean bid) {
+        if (levels == null || levels.isEmpty()) return Side.EMPTY;
+        int n = levels.size();
+        BigDecimal[] prices = new BigDecimal[n];
+        BigDecimal[] quantities = new BigDecimal[n];
+        boolean identity = rate.compareTo(BigDecimal.ONE) == 0;
+        int size = 0;
+        boolean sorted = true;
+        for (OrderBookLevel level : levels) {
+            if (level.quantity().signum() <= 0) continue;
+            BigDecimal price = identity ? level.price() : level.price().multiply(rate, PRICE_PRECISION);
+            if (size > 0) {
+                int c = price.compareTo(prices[size - 1]);
+                if (c == 0) {
+                    quantities[size - 1] = quantities[size - 1].add(level.quantity());
+                    continue;
+                }
+                if (bid ? c > 0 : c < 0) sorted = false;
+            }
+            prices[size] = price;
+            quantities[size] = level.quantity();
+            size++;
+        }
+        Side side = new Side(prices, quantities, size);
+        return sorted ? side : side.sorted(bid);
+    }
+
+    static final class Side {
+        static final Side EMPTY = new Side(new BigDecimal[0], new BigDecimal[0], 0);
+
+        final BigDecimal[] prices;
+        final BigDecimal[] quantities;
+        final int size;
+
+        Side(BigDecimal[] prices, BigDecimal[] quantities, int size) {
+            this.prices = prices;
+            this.quantities = quantities;
+            this.size = size;
+        }
+
+        Side sorted(boolean bid) {
+            Integer[] order = new Integer[size];
+            for (int k = 0; k < size; k++) order[k] = k;
+            Comparator<Integer> byPrice = Comparator.comparing(k -> prices[k]);
+            Arrays.sort(order, bid ? byPrice.reversed() : byPrice);
+            BigDecimal[] p = new BigDecimal[size];
+            BigDecimal[] q = new BigDecimal[size];
+            int m = 0;
+            for (int k : order) {
+                if (m > 0 && p[m - 1].compareTo(prices[k]) == 0) {
+                    q[m - 1] = q[m - 1].add(quantities[k]);
+                } else {
+                    p[m] = prices[k];
+                    q[m] = quantities[k];
+                    m++;
+                }
+            }
+            return new Side(p, q, m);
+        }
+    }
+
+    private static final class Venue {
+        Side bids = Side.EMPTY;
+        Side asks = Side.EMPTY;
+        Instant updatedAt = Instant.EPOCH;
+    }
+
+    /**
+     * Quantities of one ladder price by venue; a handful of venues at most, so plain arrays.
+     */
+    private static final class Level {
+        int[] venues = new int[2];
+        BigDecimal[] quantities = new BigDecimal[2];
+        int n;
+
+        void set(int venueId, BigDecimal quantity) {
+            for (int i = 0; i < n; i++) {
+                if (venues[i] == venueId) {
+                    quantities[i] = quantity;
+                    return;
+                }
+            }
+            if (n == venues.length) {
+                venues = Arrays.copyOf(venues, n * 2);
+                quantities = Arrays.copyOf(quantities, n * 2);
+            }
+            venues[n] = venueId;
+            quantities[n] = quantity;
+            n++;
+        }
+
+        void remove(int venueId) {
+            for (int i = 0; i < n; i++) {
+                if (venues[i] == venueId) {
+                    n--;
+                    venues[i] = venues[n];
+                    quantities[i] = quantities[n];
+                    quantities[n] = null;
+                    return;
+                }
+            }
+        }
+    }
+
+    public record VenueQuantity(int venueId, BigDecimal quantity) {}
+
+    public record LadderLevel(BigDecimal price, BigDecimal quantity, List<VenueQuantity> venues) {}
+
+    public record Snapshot(String baseTicker, long version, Instant updatedAt, List<Integer> venueIds,
+                           List<LadderLevel> bids, List<LadderLevel> asks) {}
+}
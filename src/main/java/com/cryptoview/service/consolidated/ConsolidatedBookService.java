@@ -0,0 +1,212 @@
+package com.cryptoview.service.consolidated;
+
+import com.cryptoview.config.CryptoViewProperties;
+import com.cryptoview.model.domain.OrderBook;
+import com.cryptoview.model.enums.Exchange;
+import com.cryptoview.model.enums.MarketType;
+import com.cryptoview.service.pipeline.OrderBookListener;
+import com.cryptoview.service.symbol.SymbolRegistry;
+import com.cryptoview.service.symbol.SymbolTable;
+import com.cryptoview.service.timer.HashedWheelTimer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntPredicate;
+
+/**
+ * Maintains one {@link ConsolidatedBook} per base ticker (BTCUSDT on Binance, BTC-USDT-SWAP on OKX and BTC on
+ * Hyperliquid all feed "BTC"). Prices are converted to USDT; the USDC rate follows any USDCUSDT book we see
+ * and falls back to the configured one. The rate moves in steps of {@code rateStepBps}, not on every tick:
+ * a new rate re-prices every level of a USDC venue, while a fixed one leaves its updates a diff of changed levels.
+ */
+@Slf4j
+@Service
+public class ConsolidatedBookService implements OrderBookListener {
+
+    public static final String REFERENCE_QUOTE = "USDT";
+    private static final String RATE_SYMBOL = "USDCUSDT";
+    private static final List<String> QUOTES = List.of("USDT", "USDC", "USD");
+
+    private final SymbolRegistry symbolRegistry;
+    private final HashedWheelTimer timer;
+    private final Clock clock;
+    private final CryptoViewProperties.ConsolidatedConfig config;
+    private final BigDecimal rateStep;
+
+    private final SymbolTable<Source> sources = new SymbolTable<>();
+    private final Map<String, ConsolidatedBook> books = new ConcurrentHashMap<>();
+    private final Map<String, BigDecimal> quoteRates = new ConcurrentHashMap<>();
+    private final AtomicLong applied = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+    private HashedWheelTimer.Timeout evictTimeout;
+
+    public ConsolidatedBookService(SymbolRegistry symbolRegistry, HashedWheelTimer timer, Clock clock,
+                                   CryptoViewProperties properties) {
+        this.symbolRegistry = symbolRegistry;
+        this.timer = timer;
+        this.clock = clock;
+        this.config = properties.getConsolidated();
+        this.rateStep = BigDecimal.valueOf(Math.max(0, config.getRateStepBps())).movePointLeft(4);
+        quoteRates.put(REFERENCE_QUOTE, BigDecimal.ONE);
+        config.getQuoteRates().forEach((quote, rate) -> quoteRates.put(quote.toUpperCase(), rate));
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!config.isEnabled()) return;
+        long period = Math.max(1000, config.getStaleAfterMs() / 2);
+        evictTimeout = timer.scheduleAtFixedRate("consolidated-evict", this::evictStale, period, period,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (evictTimeout != null) {
+            evictTimeout.cancel();
+        }
+    }
+
+    @Override
+    public void onOrderBook(OrderBook orderBook) {
+        if (!config.isEnabled()) return;
+        int id = orderBook.symbolId() >= 0 ? orderBook.symbolId()
+                : symbolRegistry.idOf(orderBook.exchange(), orderBook.marketType(), orderBook.symbol());
+
+        Source source = sources.get(id);
+        if (source == null) {
+            source = sources.computeIfAbsent(id, k -> resolve(orderBook.symbol()));
+        }
+        if (RATE_SYMBOL.equals(source.symbol)) {
+            updateUsdcRate(orderBook);
+        }
+
+        ConsolidatedBook book = books.computeIfAbsent(source.baseTicker, ConsolidatedBook::new);
+        book.apply(id, orderBook.bids(), orderBook.asks(), quoteRates.getOrDefault(source.quote, BigDecimal.ONE),
+                orderBook.timestamp());
+        applied.incrementAndGet();
+    }
+
+    /**
+     * {@code depth} ≤ 0 = configured default; {@code marketTypes} empty = all venues.
+     */
+    public Optional<View> getBook(String baseTicker, int depth, Set<MarketType> marketTypes) {
+        ConsolidatedBook book = books.get(baseTicker.toUpperCase());
+        if (book == null) return Optional.empty();
+
+        IntPredicate filter = marketTypes == null || marketTypes.isEmpty() ? null
+                : id -> marketTypes.contains(symbolRegistry.key(id).marketType());
+        ConsolidatedBook.Snapshot snapshot = book.snapshot(depth > 0 ? depth : config.getDefaultDepth(), filter);
+
+        List<VenueInfo> venues = new ArrayList<>(snapshot.venueIds().size());
+        for (int id : snapshot.venueIds()) {
+            SymbolRegistry.SymbolKey key = symbolRegistry.key(id);
+            Source source = sources.get(id);
+            venues.add(new VenueInfo(id, key.exchange(), key.marketType(), key.symbol(),
+                    source != null ? source.quote : REFERENCE_QUOTE));
+        }
+        return Optional.of(new View(snapshot.baseTicker(), REFERENCE_QUOTE, snapshot.version(),
+                snapshot.updatedAt(), venues, toLevels(snapshot.bids()), toLevels(snapshot.asks())));
+    }
+
+    public long getVersion(String baseTicker) {
+        ConsolidatedBook book = books.get(baseTicker.toUpperCase());
+        return book != null ? book.getVersion() : -1;
+    }
+
+    public List<String> getTickers() {
+        return books.keySet().stream().sorted().toList();
+    }
+
+    public Stats getStats() {
+        int venues = 0;
+        long changed = 0;
+        for (ConsolidatedBook book : books.values()) {
+            venues += book.venueCount();
+            changed += book.getChangedLevels();
+        }
+        return new Stats(books.size(), venues, applied.get(), changed, evicted.get(), Map.copyOf(quoteRates));
+    }
+
+    private void evictStale() {
+        Instant cutoff = clock.instant().minusMillis(config.getStaleAfterMs());
+        for (ConsolidatedBook book : books.values()) {
+            for (int id : book.staleVenues(cutoff)) {
+                if (book.removeVenue(id)) {
+                    evicted.incrementAndGet();
+                    SymbolRegistry.SymbolKey key = symbolRegistry.key(id);
+                    log.debug("[{}:{}] Dropped stale {} from consolidated {}",
+                            key.exchange(), key.marketType(), key.symbol(), book.getBaseTicker());
+                }
+            }
+        }
+    }
+
+    private void updateUsdcRate(OrderBook orderBook) {
+        if (orderBook.bids().isEmpty() || orderBook.asks().isEmpty()) return;
+        BigDecimal mid = orderBook.getBestBid().add(orderBook.getBestAsk())
+                .divide(BigDecimal.valueOf(2), 6, RoundingMode.HALF_UP);
+        // Защита от кривого стакана: депег дальше 5% скорее ошибка данных, чем реальность
+        if (mid.subtract(BigDecimal.ONE).abs().compareTo(new BigDecimal("0.05")) > 0) return;
+        BigDecimal current = quoteRates.get("USDC");
+        if (current == null || mid.subtract(current).abs().compareTo(current.multiply(rateStep)) >= 0) {
+            quoteRates.put("USDC", mid);
+        }
+    }
+
+    /**
+     * "BTCUSDT" → BTC/USDT; bare coins (Hyperliquid, Lighter) are USDC-margined.
+     */
+    static Source resolve(String symbol) {
+        String upper = symbol.toUpperCase().replace("-SWAP", "").replace("-", "").replace("_", "");
+        for (String quote : QUOTES) {
+            if (upper.endsWith(quote) && upper.length() > quote.length()) {
+                return new Source(upper, upper.substring(0, upper.length() - quote.length()), quote);
+            }
+        }
+        return new Source(upper, upper, "USDC");
+    }
+
+    private List<Level> toLevels(List<ConsolidatedBook.LadderLevel> ladder) {
+        List<Level> levels = new ArrayList<>(ladder.size());
+        for (ConsolidatedBook.LadderLevel level : ladder) {
+            List<VenueQuantity> venues = new ArrayList<>(level.venues().size());
+            for (ConsolidatedBook.VenueQuantity vq : level.venues()) {
+                SymbolRegistry.SymbolKey key = symbolRegistry.key(vq.venueId());
+                venues.add(new VenueQuantity(key.exchange(), key.marketType(), vq.quantity()));
+            }
+            venues.sort(Comparator.comparing(VenueQuantity::quantity).reversed());
+            levels.add(new Level(level.price(), level.quantity(),
+                    level.price().multiply(level.quantity()).setScale(2, RoundingMode.HALF_UP), venues));
+        }
+        return levels;
+    }
+
+    record Source(String symbol, String baseTicker, String quote) {}
+
+    public record VenueInfo(int venueId, Exchange exchange, MarketType marketType, String symbol, String quote) {}
+
+    public record VenueQuantity(Exchange exchange, MarketType marketType, BigDecimal quantity) {}
+
+    public record Level(BigDecimal price, BigDecimal quantity, BigDecimal volumeUsd, List<VenueQuantity> venues) {}
+
+    public record View(String baseTicker, String quote, long version, Instant updatedAt, List<VenueInfo> venues,
+                       List<Level> bids, List<Level> asks) {}
+
+    public record Stats(int tickers, int venues, long applied, long changedLevels, long evictedVenues,
+                        Map<String, BigDecimal> quoteRates) {}
+}
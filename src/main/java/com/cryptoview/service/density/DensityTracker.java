@@ -1,103 +1,178 @@
 package com.cryptoview.service.density;
 
-import com.cryptoview.event.OrderBookUpdateEvent;
+import com.cryptoview.config.CryptoViewProperties;
 import com.cryptoview.model.domain.OrderBook;
 import com.cryptoview.model.domain.OrderBookLevel;
 import com.cryptoview.model.domain.TrackedDensity;
-import com.cryptoview.model.enums.Exchange;
-import com.cryptoview.model.enums.MarketType;
 import com.cryptoview.model.enums.Side;
+import com.cryptoview.service.orderbook.BookArrays;
+import com.cryptoview.service.orderbook.BookArraysCache;
+import com.cryptoview.service.orderbook.LevelArrays;
+import com.cryptoview.service.pipeline.OrderBookListener;
+import com.cryptoview.service.pipeline.PartitionLocal;
+import com.cryptoview.service.symbol.SymbolRegistry;
+import com.cryptoview.service.symbol.SymbolTable;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Registry of big levels (≥ $50K) across all books, for the UI pipeline. State is split per pipeline
+ * partition: a partition's worker is the only one writing its table, and readers get the per-partition
+ * snapshot republished every {@value #SNAPSHOT_INTERVAL_MS} ms instead of walking the live tables.
+ */
 @Slf4j
 @Service
-public class DensityTracker {
+public class DensityTracker implements OrderBookListener {
 
-    private static final BigDecimal TRACKING_FLOOR = new BigDecimal("50000");
+    private static final double TRACKING_FLOOR_USD = 50_000;
+    private static final BigDecimal HUNDRED = new BigDecimal("100");
     private static final Duration STALE_THRESHOLD = Duration.ofMinutes(2);
+    static final long SNAPSHOT_INTERVAL_MS = 250;
+
+    private final Clock clock;
+    private final SymbolRegistry symbolRegistry;
+    private final BookArraysCache bookArraysCache;
+
+    // symbol id → крупные уровни текущего стакана (side + price), заменяется целиком на каждом апдейте
+    private final PartitionLocal<Shard> shards;
+    // Без воркеров листенеры крутятся на потоках коннекторов: общий буфер индексов партиции был бы гонкой
+    private final boolean workerPartitions;
+
+    public DensityTracker(Clock clock, SymbolRegistry symbolRegistry, BookArraysCache bookArraysCache,
+                          CryptoViewProperties properties) {
+        this.clock = clock;
+        this.symbolRegistry = symbolRegistry;
+        this.bookArraysCache = bookArraysCache;
+        this.shards = PartitionLocal.forPipeline(properties, Shard::new);
+        this.workerPartitions = properties.getPipeline().getWorkers() > 0;
+    }
 
-    private final ConcurrentHashMap<String, TrackedDensity> activeDensities = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<String, Set<String>> densitiesByOrderBookKey = new ConcurrentHashMap<>();
-
-    @EventListener
-    public void onOrderBookUpdate(OrderBookUpdateEvent event) {
-        OrderBook ob = event.getOrderBook();
-        String obKey = buildOrderBookKey(ob.exchange(), ob.marketType(), ob.symbol());
-        BigDecimal lastPrice = ob.lastPrice();
-
-        Set<String> currentKeys = ConcurrentHashMap.newKeySet();
-
-        processLevels(ob.bids(), Side.BID, ob.symbol(), ob.exchange(), ob.marketType(), lastPrice, currentKeys);
-        processLevels(ob.asks(), Side.ASK, ob.symbol(), ob.exchange(), ob.marketType(), lastPrice, currentKeys);
+    @Override
+    public void onOrderBook(OrderBook ob) {
+        int id = ob.symbolId() >= 0 ? ob.symbolId()
+                : symbolRegistry.idOf(ob.exchange(), ob.marketType(), ob.symbol());
+        BookArrays arrays = bookArraysCache.arraysFor(ob);
+        Instant now = Instant.now(clock);
+
+        Shard shard = shards.forSymbol(id);
+        SymbolDensities previous = shard.densities.get(id);
+        SymbolDensities current = new SymbolDensities(id, now,
+                processLevels(ob.bids(), arrays.bids(), indexBuffer(shard, arrays.bids().size()), Side.BID, ob, now,
+                        previous == null ? null : previous.bids()),
+                processLevels(ob.asks(), arrays.asks(), indexBuffer(shard, arrays.asks().size()), Side.ASK, ob, now,
+                        previous == null ? null : previous.asks()));
+
+        // Уровни, которых нет в новом стакане, уходят вместе со старым снимком
+        if (current.isEmpty()) {
+            if (previous == null) return;
+            shard.densities.remove(id);
+        } else {
+            shard.densities.put(id, current);
+        }
+        shard.version.incrementAndGet();
+    }
 
-        Set<String> previousKeys = densitiesByOrderBookKey.put(obKey, currentKeys);
-        if (previousKeys != null) {
-            for (String prevKey : previousKeys) {
-                if (!currentKeys.contains(prevKey)) {
-                    activeDensities.remove(prevKey);
-                }
-            }
+    /**
+     * Index buffer for one side: the partition's own, grown to the deepest book it has seen; per call under
+     * inline dispatch.
+     */
+    private int[] indexBuffer(Shard shard, int size) {
+        if (!workerPartitions) return new int[size];
+        if (shard.indices.length < size) {
+            shard.indices = new int[Math.max(size, shard.indices.length * 2)];
         }
+        return shard.indices;
     }
 
-    private void processLevels(List<OrderBookLevel> levels, Side side, String symbol,
-                                Exchange exchange, MarketType marketType,
-                                BigDecimal lastPrice, Set<String> currentKeys) {
+    private Map<BigDecimal, TrackedDensity> processLevels(List<OrderBookLevel> levels, LevelArrays arrays, int[] indices,
+                                                           Side side, OrderBook ob, Instant now,
+                                                           Map<BigDecimal, TrackedDensity> previous) {
+        BigDecimal lastPrice = ob.lastPrice();
         if (levels == null || lastPrice == null || lastPrice.compareTo(BigDecimal.ZERO) == 0) {
-            return;
+            return Map.of();
         }
 
-        Instant now = Instant.now();
-
-        for (OrderBookLevel level : levels) {
-            BigDecimal volumeUsd = level.getVolumeUsd();
-            if (volumeUsd.compareTo(TRACKING_FLOOR) < 0) {
-                continue;
+        Map<BigDecimal, TrackedDensity> tracked = null;
+
+        // Отсев по double одним (векторным) проходом; BigDecimal — только для тех немногих уровней, что попадут в трекинг
+        int count = arrays.atLeast(TRACKING_FLOOR_USD, indices);
+        for (int k = 0; k < count; k++) {
+            OrderBookLevel level = levels.get(indices[k]);
+            TrackedDensity existing = previous == null ? null : previous.get(level.price());
+
+            BigDecimal volumeUsd = existing != null && existing.quantity().compareTo(level.quantity()) == 0
+                    ? existing.volumeUsd() : level.getVolumeUsd();
+            BigDecimal distancePercent = existing != null && existing.lastPrice().compareTo(lastPrice) == 0
+                    ? existing.distancePercent()
+                    : level.price().subtract(lastPrice)
+                            .divide(lastPrice, 4, RoundingMode.HALF_UP)
+                            .multiply(HUNDRED)
+                            .abs();
+
+            TrackedDensity density = existing != null
+                    ? existing.withUpdated(level.quantity(), volumeUsd, distancePercent, lastPrice, now)
+                    : new TrackedDensity(
+                            ob.symbol(), ob.exchange(), ob.marketType(), side,
+                            level.price(), level.quantity(), volumeUsd,
+                            distancePercent, lastPrice,
+                            now, now
+                    );
+            if (tracked == null) {
+                tracked = new HashMap<>(); // после публикации не меняется
             }
+            tracked.put(level.price(), density);
+        }
+        return tracked == null ? Map.of() : tracked;
+    }
 
-            BigDecimal distancePercent = level.price().subtract(lastPrice)
-                    .divide(lastPrice, 4, RoundingMode.HALF_UP)
-                    .multiply(new BigDecimal("100"))
-                    .abs();
-
-            String trackingKey = buildTrackingKey(exchange, marketType, symbol, side, level.price());
-            currentKeys.add(trackingKey);
-
-            activeDensities.compute(trackingKey, (key, existing) -> {
-                if (existing != null) {
-                    return existing.withUpdated(level.quantity(), volumeUsd, distancePercent, lastPrice, now);
-                }
-                return new TrackedDensity(
-                        symbol, exchange, marketType, side,
-                        level.price(), level.quantity(), volumeUsd,
-                        distancePercent, lastPrice,
-                        now, now
-                );
+    /**
+     * Republishes the snapshot of every partition that changed since its last one. Only reads the tables:
+     * symbol snapshots are immutable once put.
+     */
+    @Scheduled(fixedRate = SNAPSHOT_INTERVAL_MS)
+    public void publishSnapshots() {
+        for (Shard shard : shards) {
+            // Версию читаем до обхода: апдейт во время обхода попадёт в следующий снимок
+            long version = shard.version.get();
+            if (version == shard.published.version()) continue;
+            List<TrackedDensity> densities = new ArrayList<>(shard.published.densities().size() + 16);
+            shard.densities.forEach(symbol -> {
+                densities.addAll(symbol.bids().values());
+                densities.addAll(symbol.asks().values());
             });
+            shard.published = new Snapshot(version, Collections.unmodifiableList(densities));
         }
     }
 
+    /**
+     * Drops symbols whose book stopped updating. Every update rewrites all of a symbol's levels with the
+     * same lastSeenAt, so staleness is per symbol.
+     */
     @Scheduled(fixedRate = 10000)
     public void cleanupStale() {
-        Instant cutoff = Instant.now().minus(STALE_THRESHOLD);
+        Instant cutoff = Instant.now(clock).minus(STALE_THRESHOLD);
         int removed = 0;
 
-        Iterator<Map.Entry<String, TrackedDensity>> it = activeDensities.entrySet().iterator();
-        while (it.hasNext()) {
-            Map.Entry<String, TrackedDensity> entry = it.next();
-            if (entry.getValue().lastSeenAt().isBefore(cutoff)) {
-                it.remove();
-                removed++;
+        for (Shard shard : shards) {
+            List<SymbolDensities> stale = new ArrayList<>();
+            shard.densities.forEach(symbol -> {
+                if (symbol.updatedAt().isBefore(cutoff)) stale.add(symbol);
+            });
+            for (SymbolDensities symbol : stale) {
+                // Воркер мог как раз обновить символ — тогда запись уже другая и остаётся
+                if (shard.densities.remove(symbol.id(), symbol)) {
+                    removed += symbol.size();
+                    shard.version.incrementAndGet();
+                }
             }
         }
 
@@ -106,21 +181,51 @@ public class DensityTracker {
         }
     }
 
+    /**
+     * All tracked densities as of the latest partition snapshots, at most {@value #SNAPSHOT_INTERVAL_MS} ms old.
+     */
     public Collection<TrackedDensity> getAllActiveDensities() {
-        return Collections.unmodifiableCollection(activeDensities.values());
+        if (shards.size() == 1) {
+            return shards.get(0).published.densities();
+        }
+        List<TrackedDensity> all = new ArrayList<>(getTrackedCount());
+        for (Shard shard : shards) {
+            all.addAll(shard.published.densities());
+        }
+        return Collections.unmodifiableList(all);
     }
 
     public int getTrackedCount() {
-        return activeDensities.size();
+        int count = 0;
+        for (Shard shard : shards) {
+            count += shard.published.densities().size();
+        }
+        return count;
+    }
+
+    /**
+     * One pipeline partition's symbols. Written by that partition's worker (and cleanup); {@code version}
+     * counts changes so the snapshot is rebuilt only for partitions that moved.
+     */
+    private static final class Shard {
+        final SymbolTable<SymbolDensities> densities = new SymbolTable<>();
+        final AtomicLong version = new AtomicLong();
+        volatile Snapshot published = Snapshot.EMPTY;
+        int[] indices = new int[256]; // только воркер партиции; стороны разбираются по очереди
     }
 
-    private String buildTrackingKey(Exchange exchange, MarketType marketType,
-                                     String symbol, Side side, BigDecimal price) {
-        return String.format("%s_%s_%s_%s_%s",
-                exchange, marketType, symbol, side, price.toPlainString());
+    private record Snapshot(long version, List<TrackedDensity> densities) {
+        static final Snapshot EMPTY = new Snapshot(0, List.of());
     }
 
-    private String buildOrderBookKey(Exchange exchange, MarketType marketType, String symbol) {
-        return String.format("%s_%s_%s", exchange, marketType, symbol);
+    private record SymbolDensities(int id, Instant updatedAt,
+                                   Map<BigDecimal, TrackedDensity> bids, Map<BigDecimal, TrackedDensity> asks) {
+        boolean isEmpty() {
+            return bids.isEmpty() && asks.isEmpty();
+        }
+
+        int size() {
+            return bids.size() + asks.size();
+        }
     }
 }
@@ -0,0 +1,161 @@
+package com.cryptoview.service.depth;
+
+import com.cryptoview.model.enums.Side;
+import com.cryptoview.service.orderbook.LevelArrays;
+
+/**
+ * USD notional of one symbol's book bucketed by price, with a Fenwick tree per side, so "how much sits
+ * within x% of mid" is two prefix sums instead of a pass over every level.
+ *
+ * Buckets are {@value #BUCKET_BPS} bp of an anchor price wide and cover ±12% around it; the anchor
+ * follows mid once it drifts more than 2%. A new book is diffed against the previous one level by level,
+ * so only changed levels touch the trees. Answers are exact to one bucket at each edge of the window.
+ * Levels come as the shared {@link LevelArrays} of the published book, the index keeps no copy of its own.
+ */
+public final class DepthIndex {
+
+    static final int BUCKET_BPS = 5;
+    private static final double BUCKET = BUCKET_BPS / 10_000.0;
+    private static final double RANGE = 0.12;
+    private static final double REANCHOR = 0.02;
+    static final int BUCKETS = (int) Math.round(2 * RANGE / BUCKET);
+    // Накопленная ошибка double от инкрементальных +/-: раз в N апдейтов пересобираем с нуля
+    private static final int REBUILD_EVERY = 1000;
+
+    private final FenwickTree bidTree = new FenwickTree(BUCKETS);
+    private final FenwickTree askTree = new FenwickTree(BUCKETS);
+    private LevelArrays bids = LevelArrays.EMPTY;
+    private LevelArrays asks = LevelArrays.EMPTY;
+    private double anchor;
+    private double lower;
+    private double width;
+    private double mid = Double.NaN;
+    private int sinceRebuild;
+    private Object lastSource;
+
+    /**
+     * Indexes the book unless {@code source} (the published book instance) was already applied;
+     * returns whether anything was done.
+     */
+    public synchronized boolean apply(Object source, LevelArrays newBids, LevelArrays newAsks) {
+        if (source != null && source == lastSource) return false;
+        lastSource = source;
+
+        double bestBid = newBids.size() > 0 ? newBids.price(0) : Double.NaN;
+        double bestAsk = newAsks.size() > 0 ? newAsks.price(0) : Double.NaN;
+        double newMid = !Double.isNaN(bestBid) && !Double.isNaN(bestAsk) ? (bestBid + bestAsk) / 2
+                : !Double.isNaN(bestBid) ? bestBid : bestAsk;
+
+        if (Double.isNaN(newMid) || newMid <= 0) {
+            bidTree.clear();
+            askTree.clear();
+            bids = LevelArrays.EMPTY;
+            asks = LevelArrays.EMPTY;
+            mid = Double.NaN;
+            anchor = 0;
+            return true;
+        }
+
+        boolean rebuild = anchor == 0 || Math.abs(newMid / anchor - 1) > REANCHOR
+                || !newBids.isSorted() || !newAsks.isSorted() || !bids.isSorted() || !asks.isSorted()
+                || ++sinceRebuild >= REBUILD_EVERY;
+        if (rebuild) {
+            anchor = newMid;
+            lower = anchor * (1 - RANGE);
+            width = anchor * BUCKET;
+            sinceRebuild = 0;
+            bidTree.clear();
+            askTree.clear();
+            addAll(bidTree, newBids);
+            addAll(askTree, newAsks);
+        } else {
+            merge(bidTree, bids, newBids, true);
+            merge(askTree, asks, newAsks, false);
+        }
+        bids = newBids;
+        asks = newAsks;
+        mid = newMid;
+        return true;
+    }
+
+    public synchronized double getMid() {
+        return mid;
+    }
+
+    /**
+     * Notional on {@code side} between the mid and {@code percent}% away from it.
+     */
+    public double depth(Side side, double percent) {
+        return depthBetween(side, 0, percent);
+    }
+
+    /**
+     * Notional on {@code side} between {@code fromPercent}% and {@code toPercent}% away from mid.
+     */
+    public synchronized double depthBetween(Side side, double fromPercent, double toPercent) {
+        if (Double.isNaN(mid) || toPercent < fromPercent) return 0;
+        double near = fromPercent / 100;
+        double far = toPercent / 100;
+        double sum = side == Side.BID
+                ? bidTree.range(clamp(bucket(mid * (1 - far))), clamp(bucket(mid * (1 - near))))
+                : askTree.range(clamp(bucket(mid * (1 + near))), clamp(bucket(mid * (1 + far))));
+        return Math.max(0, sum);
+    }
+
+    /**
+     * (bids - asks) / (bids + asks) within {@code percent}% of mid: +1 all bids, -1 all asks.
+     */
+    public synchronized double imbalance(double percent) {
+        double bid = depth(Side.BID, percent);
+        double ask = depth(Side.ASK, percent);
+        double total = bid + ask;
+        return total > 0 ? (bid - ask) / total : 0;
+    }
+
+    private void addAll(FenwickTree tree, LevelArrays levels) {
+        for (int i = 0; i < levels.size(); i++) {
+            add(tree, levels.price(i), levels.notional(i));
+        }
+    }
+
+    private void merge(FenwickTree tree, LevelArrays old, LevelArrays fresh, boolean bid) {
+        int i = 0;
+        int j = 0;
+        while (i < old.size() || j < fresh.size()) {
+            int c;
+            if (i == old.size()) c = 1;
+            else if (j == fresh.size()) c = -1;
+            else c = bid ? Double.compare(fresh.price(j), old.price(i)) : Double.compare(old.price(i), fresh.price(j));
+
+            if (c < 0) {
+                add(tree, old.price(i), -old.notional(i));
+                i++;
+            } else if (c > 0) {
+                add(tree, fresh.price(j), fresh.notional(j));
+                j++;
+            } else {
+                double delta = fresh.notional(j) - old.notional(i);
+                if (delta != 0) {
+                    add(tree, fresh.price(j), delta);
+                }
+                i++;
+                j++;
+            }
+        }
+    }
+
+    private void add(FenwickTree tree, double price, double notional) {
+        int bucket = bucket(price);
+        if (bucket >= 0 && bucket < BUCKETS) {
+            tree.add(bucket, notional);
+        }
+    }
+
+    private int bucket(double price) {
+        return (int) Math.floor((price - lower) / width);
+    }
+
+    private static int clamp(int bucket) {
+        return Math.max(-1, Math.min(BUCKETS - 1, bucket));
+    }
+}
@@ -0,0 +1,86 @@
+package com.cryptoview.service.depth;
+
+import com.cryptoview.model.domain.OrderBook;
+import com.cryptoview.model.enums.Exchange;
+import com.cryptoview.model.enums.MarketType;
+import com.cryptoview.model.enums.Side;
+import com.cryptoview.service.orderbook.BookArrays;
+import com.cryptoview.service.orderbook.BookArraysCache;
+import com.cryptoview.service.pipeline.OrderBookListener;
+import com.cryptoview.service.symbol.SymbolRegistry;
+import com.cryptoview.service.symbol.SymbolTable;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Keeps a {@link DepthIndex} per symbol in step with published books. Listeners that need depth for the
+ * book they are looking at call {@link #indexFor}: whichever runs first indexes it, the rest reuse it.
+ * The index reads the book's {@link BookArrays} from {@link BookArraysCache}, shared with the other listeners.
+ */
+@Service
+public class DepthIndexService implements OrderBookListener {
+
+    private final SymbolRegistry symbolRegistry;
+    private final BookArraysCache bookArraysCache;
+    private final SymbolTable<DepthIndex> indexes = new SymbolTable<>();
+
+    public DepthIndexService(SymbolRegistry symbolRegistry, BookArraysCache bookArraysCache) {
+        this.symbolRegistry = symbolRegistry;
+        this.bookArraysCache = bookArraysCache;
+    }
+
+    @Override
+    public void onOrderBook(OrderBook orderBook) {
+        indexFor(orderBook);
+    }
+
+    /**
+     * Index of the book's symbol, brought up to date with this very book.
+     */
+    public DepthIndex indexFor(OrderBook orderBook) {
+        return indexFor(bookArraysCache.arraysFor(orderBook));
+    }
+
+    /**
+     * Same as {@link #indexFor(OrderBook)} for a caller that already holds the book's arrays.
+     */
+    public DepthIndex indexFor(BookArrays arrays) {
+        OrderBook orderBook = arrays.book();
+        int id = orderBook.symbolId() >= 0 ? orderBook.symbolId()
+                : symbolRegistry.idOf(orderBook.exchange(), orderBook.marketType(), orderBook.symbol());
+        DepthIndex index = indexes.get(id);
+        if (index == null) {
+            index = indexes.computeIfAbsent(id, k -> new DepthIndex());
+        }
+        index.apply(orderBook, arrays.bids(), arrays.asks());
+        return index;
+    }
+
+    public Optional<DepthProfile> getProfile(Exchange exchange, MarketType marketType, String symbol,
+                                             List<Double> percents) {
+        int id = symbolRegistry.find(exchange, marketType, symbol);
+        DepthIndex index = id == SymbolRegistry.UNKNOWN ? null : indexes.get(id);
+        if (index == null) return Optional.empty();
+
+        List<Band> bands = new ArrayList<>(percents.size());
+        for (double percent : percents) {
+            double bid = index.depth(Side.BID, percent);
+            double ask = index.depth(Side.ASK, percent);
+            double total = bid + ask;
+            bands.add(new Band(percent, Math.round(bid), Math.round(ask), total > 0 ? (bid - ask) / total : 0));
+        }
+        return Optional.of(new DepthProfile(symbolRegistry.key(id).symbol(), exchange, marketType,
+                index.getMid(), DepthIndex.BUCKET_BPS, bands));
+    }
+
+    /**
+     * USD notional within {@code percent}% of mid on each side; {@code imbalance} in [-1, 1], positive = bid-heavy.
+     */
+    public record Band(double percent, long bidUsd, long askUsd, double imbalance) {}
+
+    public record DepthProfile(String symbol, Exchange exchange, MarketType marketType, double mid,
+                               int resolutionBps, List<Band> bands) {}
+}
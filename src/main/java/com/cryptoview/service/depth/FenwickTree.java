@@ -0,0 +1,48 @@
+package com.cryptoview.service.depth;
+
+import java.util.Arrays;
+
+/**
+ * Binary indexed tree over doubles: point add and prefix sum in O(log n). Not thread-safe.
+ */
+final class FenwickTree {
+
+    private final double[] tree;
+
+    FenwickTree(int size) {
+        this.tree = new double[size + 1];
+    }
+
+    int size() {
+        return tree.length - 1;
+    }
+
+    void add(int index, double delta) {
+        for (int i = index + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    /**
+     * Sum of [0, index]; index below 0 gives 0, beyond the end is clamped.
+     */
+    double prefix(int index) {
+        double sum = 0;
+        for (int i = Math.min(index + 1, tree.length - 1); i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Sum of [from, to], both inclusive.
+     */
+    double range(int from, int to) {
+        if (to < from) return 0;
+        return prefix(to) - prefix(from - 1);
+    }
+
+    void clear() {
+        Arrays.fill(tree, 0);
+    }
+}
@@ -1,7 +1,6 @@
 package com.cryptoview.service.detector;
 
 import com.cryptoview.event.DensityDetectedEvent;
-import com.cryptoview.event.OrderBookUpdateEvent;
 import com.cryptoview.model.config.EffectiveConfig;
 import com.cryptoview.model.domain.Density;
 import com.cryptoview.model.domain.OrderBook;
@@ -9,49 +8,65 @@ import com.cryptoview.model.domain.OrderBookLevel;
 import com.cryptoview.model.enums.AlertType;
 import com.cryptoview.model.enums.Side;
 import com.cryptoview.service.config.ConfigService;
+import com.cryptoview.service.depth.DepthIndex;
+import com.cryptoview.service.depth.DepthIndexService;
+import com.cryptoview.service.orderbook.BookArrays;
+import com.cryptoview.service.orderbook.BookArraysCache;
+import com.cryptoview.service.pipeline.OrderBookListener;
+import com.cryptoview.service.symbol.SymbolRegistry;
+import com.cryptoview.service.symbol.SymbolTable;
 import com.cryptoview.service.volume.VolumeTracker;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
 import org.springframework.context.ApplicationEventPublisher;
-import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Clock;
 import java.time.Instant;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.EnumSet;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class AnomalyDetector {
+public class AnomalyDetector implements OrderBookListener {
 
     private final ConfigService configService;
     private final VolumeTracker volumeTracker;
     private final ApplicationEventPublisher eventPublisher;
+    private final Clock clock;
+    private final SymbolRegistry symbolRegistry;
+    private final DepthIndexService depthIndexService;
+    private final BookArraysCache bookArraysCache;
 
     private static final double Z_SCORE_THRESHOLD = 3.0;
     private static final double IQR_MULTIPLIER = 3.0;
     private static final long MIN_VOLUME_TRACKING_SEC = 300; // 5 минут минимум для VOLUME_BASED
-
-    // Дедупликация: ключ -> время последнего алерта
-    private final Map<String, Instant> recentAlerts = new ConcurrentHashMap<>();
-
-    @EventListener
-    public void onOrderBookUpdate(OrderBookUpdateEvent event) {
-        OrderBook orderBook = event.getOrderBook();
+    // HISTORICAL: уровень крупнее, чем 99.95% уровне-времени символа за последние часы
+    private static final double HISTORICAL_PERCENTILE = 0.9995;
+    private static final long MIN_HISTORY_MILLIS = 3600_000; // час истории минимум для HISTORICAL
+
+    private static final AlertType[] ALERT_TYPES = AlertType.values();
+    private static final Side[] SIDES = Side.values();
+    // Слот side+alertType: один кандидат и одна запись дедупликации на слот
+    private static final int SLOTS = SIDES.length * ALERT_TYPES.length;
+
+    // Дедупликация: дедлайн кулдауна по symbol id и слоту side+alertType, истечение — через колесо таймеров
+    private final CooldownStore cooldowns = new CooldownStore(SLOTS);
+    // Статистика и уровни по объёму на символ, обновляются только изменившимися уровнями
+    private final SymbolTable<DetectionState> detectionStates = new SymbolTable<>();
+
+    @Override
+    public void onOrderBook(OrderBook orderBook) {
         analyzeOrderBook(orderBook);
     }
 
     public void analyzeOrderBook(OrderBook orderBook) {
-        EffectiveConfig config = configService.getEffectiveConfig(
-                orderBook.exchange(),
-                orderBook.marketType(),
-                orderBook.symbol()
-        );
+        int symbolId = orderBook.symbolId() >= 0 ? orderBook.symbolId()
+                : symbolRegistry.idOf(orderBook.exchange(), orderBook.marketType(), orderBook.symbol());
+        EffectiveConfig config = configService.getEffectiveConfig(symbolId);
 
         if (!config.isEnabled()) {
             return;
@@ -63,15 +78,10 @@ public class AnomalyDetector {
 
         Set<AlertType> alertTypes = config.getAlertTypes();
         BigDecimal minDensityUsd = config.getMinDensityUsd();
-        BigDecimal volume15min = volumeTracker.getVolume15Min(
-                orderBook.symbol(),
-                orderBook.exchange(),
-                orderBook.marketType()
-        );
+        BigDecimal volume15min = volumeTracker.getVolume15Min(symbolId);
 
         // VOLUME_BASED доступен только если собрано >= 5 минут данных
-        long trackingAge = volumeTracker.getTrackingAgeSec(
-                orderBook.symbol(), orderBook.exchange(), orderBook.marketType());
+        long trackingAge = volumeTracker.getTrackingAgeSec(symbolId);
         boolean volumeBasedReady = trackingAge >= MIN_VOLUME_TRACKING_SEC;
 
         Set<AlertType> activeAlertTypes = EnumSet.noneOf(AlertType.class);
@@ -81,114 +91,114 @@ public class AnomalyDetector {
         if (alertTypes.contains(AlertType.VOLUME_BASED) && volumeBasedReady) {
             activeAlertTypes.add(AlertType.VOLUME_BASED);
         }
+        // Без порога готовности: история копится в DetectionState, пока тип включён
+        if (alertTypes.contains(AlertType.HISTORICAL)) {
+            activeAlertTypes.add(AlertType.HISTORICAL);
+        }
 
         if (activeAlertTypes.isEmpty()) {
             return;
         }
 
-        // Собираем все уровни для статистического анализа
-        List<BigDecimal> allVolumes = new ArrayList<>();
-        for (OrderBookLevel level : orderBook.bids()) {
-            allVolumes.add(level.getVolumeUsd());
-        }
-        for (OrderBookLevel level : orderBook.asks()) {
-            allVolumes.add(level.getVolumeUsd());
-        }
-
-        StatisticalThresholds thresholds = calculateThresholds(allVolumes);
-
-        // Собираем лучших кандидатов для каждой комбинации side+alertType
-        Map<String, Density> bestCandidates = new HashMap<>();
-
-        // Анализируем bids
-        for (OrderBookLevel level : orderBook.bids()) {
-            collectCandidates(orderBook, level, Side.BID, activeAlertTypes, minDensityUsd, volume15min, thresholds, bestCandidates);
-        }
-
-        // Анализируем asks
-        for (OrderBookLevel level : orderBook.asks()) {
-            collectCandidates(orderBook, level, Side.ASK, activeAlertTypes, minDensityUsd, volume15min, thresholds, bestCandidates);
+        BookArrays arrays = bookArraysCache.arraysFor(orderBook);
+        DetectionState state = detectionStates.get(symbolId);
+        if (state == null) {
+            state = detectionStates.computeIfAbsent(symbolId, id -> new DetectionState());
+        }
+        // Состояние символа догоняет книгу только изменившимися уровнями
+        long now = clock.millis();
+        state.apply(orderBook, arrays.bids(), arrays.asks(), now);
+
+        boolean volumeBased = activeAlertTypes.contains(AlertType.VOLUME_BASED);
+        boolean statistical = activeAlertTypes.contains(AlertType.STATISTICAL);
+        StatisticalThresholds thresholds = statistical ? calculateThresholds(state.summary()) : StatisticalThresholds.NONE;
+        boolean historical = activeAlertTypes.contains(AlertType.HISTORICAL)
+                && state.historyMillis(now) >= MIN_HISTORY_MILLIS;
+        double historicalThreshold = historical ? state.historyQuantile(HISTORICAL_PERCENTILE) : Double.NaN;
+
+        // Относительный порог: плотность должна быть заметной долей глубины своей стороны у mid
+        double bidDepthFloor = 0;
+        double askDepthFloor = 0;
+        BigDecimal minDepthShare = config.getMinDepthShare();
+        if (minDepthShare != null && minDepthShare.signum() > 0) {
+            DepthIndex depth = depthIndexService.indexFor(arrays);
+            double window = config.getDepthShareWindowPercent() != null
+                    ? config.getDepthShareWindowPercent().doubleValue() : 2.0;
+            bidDepthFloor = minDepthShare.doubleValue() * depth.depth(Side.BID, window);
+            askDepthFloor = minDepthShare.doubleValue() * depth.depth(Side.ASK, window);
+        }
+
+        // Лучший кандидат любого типа — крупнейший уровень стороны, если он проходит порог этого типа
+        double minDensity = minDensityUsd.doubleValue();
+        double volume = volume15min != null ? volume15min.doubleValue() : 0;
+        DetectionState.Level[] bestCandidates = new DetectionState.Level[SLOTS];
+        for (Side side : SIDES) {
+            DetectionState.Level top = state.top(side);
+            // Минимальный порог и доля глубины — один общий нижний предел
+            double floor = Math.max(minDensity, side == Side.BID ? bidDepthFloor : askDepthFloor);
+            if (top == null || top.notional() < floor) {
+                continue;
+            }
+            if (volumeBased && volume > 0 && top.notional() > volume) {
+                bestCandidates[slot(side, AlertType.VOLUME_BASED)] = top;
+            }
+            if (statistical && top.notional() > thresholds.threshold()) {
+                bestCandidates[slot(side, AlertType.STATISTICAL)] = top;
+            }
+            if (historical && top.notional() > historicalThreshold) {
+                bestCandidates[slot(side, AlertType.HISTORICAL)] = top;
+            }
         }
 
         // Публикуем только лучших кандидатов (1 алерт на side+alertType)
-        int cooldownMinutes = config.getCooldownMinutes();
-        for (Map.Entry<String, Density> entry : bestCandidates.entrySet()) {
-            String candidateKey = entry.getKey(); // "BID_VOLUME_BASED"
-            Density density = entry.getValue();
-            AlertType alertType = candidateKey.endsWith("_VOLUME_BASED") ? AlertType.VOLUME_BASED : AlertType.STATISTICAL;
-
-            if (!isDuplicate(density, alertType, cooldownMinutes)) {
+        long cooldownMillis = config.getCooldownMinutes() * 60_000L;
+        for (int slot = 0; slot < SLOTS; slot++) {
+            if (bestCandidates[slot] == null) {
+                continue;
+            }
+            AlertType alertType = ALERT_TYPES[slot % ALERT_TYPES.length];
+
+            if (!cooldowns.isCoolingDown(symbolId, slot, now)) {
+                // BigDecimal — только для того, что реально уходит наружу
+                Side side = SIDES[slot / ALERT_TYPES.length];
+                int index = arrays.side(side).indexOf(bestCandidates[slot].price());
+                if (index < 0) {
+                    continue;
+                }
+                Density density = toDensity(orderBook, side, index);
                 log.info("[{}:{}] {} density: {} {} @ {} | vol=${}",
                         orderBook.exchange(), orderBook.marketType(),
                         alertType, orderBook.symbol(), density.side(), density.price(), density.volumeUsd());
                 eventPublisher.publishEvent(new DensityDetectedEvent(this, density, alertType, volume15min));
-                markAsAlerted(density, alertType);
+                cooldowns.start(symbolId, slot, now, cooldownMillis);
             }
         }
     }
 
-    private void collectCandidates(OrderBook orderBook, OrderBookLevel level, Side side,
-                                    Set<AlertType> alertTypes, BigDecimal minDensityUsd,
-                                    BigDecimal volume15min, StatisticalThresholds thresholds,
-                                    Map<String, Density> bestCandidates) {
-        BigDecimal volumeUsd = level.getVolumeUsd();
-
-        // Проверяем минимальный порог
-        if (volumeUsd.compareTo(minDensityUsd) < 0) {
-            return;
-        }
-
-        BigDecimal distancePercent = calculateDistancePercent(level.price(), orderBook.lastPrice());
-
-        Density density = new Density(
+    private Density toDensity(OrderBook orderBook, Side side, int index) {
+        OrderBookLevel level = (side == Side.BID ? orderBook.bids() : orderBook.asks()).get(index);
+        return new Density(
                 orderBook.symbol(),
                 orderBook.exchange(),
                 orderBook.marketType(),
                 side,
                 level.price(),
                 level.quantity(),
-                volumeUsd,
-                distancePercent,
-                Instant.now()
+                level.getVolumeUsd(),
+                calculateDistancePercent(level.price(), orderBook.lastPrice()),
+                Instant.now(clock)
         );
-
-        // Проверяем VOLUME_BASED
-        if (alertTypes.contains(AlertType.VOLUME_BASED)) {
-            if (volume15min.compareTo(BigDecimal.ZERO) > 0 && volumeUsd.compareTo(volume15min) > 0) {
-                String key = side + "_VOLUME_BASED";
-                Density current = bestCandidates.get(key);
-                if (current == null || volumeUsd.compareTo(current.volumeUsd()) > 0) {
-                    bestCandidates.put(key, density);
-                }
-            }
-        }
-
-        // Проверяем STATISTICAL
-        if (alertTypes.contains(AlertType.STATISTICAL)) {
-            if (isStatisticalAnomaly(volumeUsd, thresholds)) {
-                String key = side + "_STATISTICAL";
-                Density current = bestCandidates.get(key);
-                if (current == null || volumeUsd.compareTo(current.volumeUsd()) > 0) {
-                    bestCandidates.put(key, density);
-                }
-            }
-        }
     }
 
-    private StatisticalThresholds calculateThresholds(List<BigDecimal> volumes) {
-        if (volumes.size() < 10) {
-            return new StatisticalThresholds(BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.valueOf(Double.MAX_VALUE));
-        }
-
-        DescriptiveStatistics stats = new DescriptiveStatistics();
-        for (BigDecimal vol : volumes) {
-            stats.addValue(vol.doubleValue());
+    private StatisticalThresholds calculateThresholds(LevelStatistics.Summary summary) {
+        if (summary.count() < 10) {
+            return StatisticalThresholds.NONE;
         }
 
-        double mean = stats.getMean();
-        double stdDev = stats.getStandardDeviation();
-        double q1 = stats.getPercentile(25);
-        double q3 = stats.getPercentile(75);
+        double mean = summary.mean();
+        double stdDev = summary.stdDev();
+        double q1 = summary.q1();
+        double q3 = summary.q3();
         double iqr = q3 - q1;
 
         // Z-score threshold
@@ -200,15 +210,7 @@ public class AnomalyDetector {
         // Берём минимум из двух методов для более строгой фильтрации
         double threshold = Math.min(zScoreThreshold, iqrThreshold);
 
-        return new StatisticalThresholds(
-                BigDecimal.valueOf(mean),
-                BigDecimal.valueOf(stdDev),
-                BigDecimal.valueOf(threshold)
-        );
-    }
-
-    private boolean isStatisticalAnomaly(BigDecimal volumeUsd, StatisticalThresholds thresholds) {
-        return volumeUsd.compareTo(thresholds.threshold()) > 0;
+        return new StatisticalThresholds(mean, stdDev, threshold);
     }
 
     private BigDecimal calculateDistancePercent(BigDecimal price, BigDecimal currentPrice) {
@@ -220,34 +222,18 @@ public class AnomalyDetector {
                 .multiply(new BigDecimal("100"));
     }
 
-    private String deduplicationKey(Density density, AlertType alertType) {
-        // Группируем по символу+бирже+рынку+стороне (без price), чтобы не спамить на каждый уровень
-        return String.format("%s_%s_%s_%s_%s",
-                density.exchange(), density.marketType(), density.symbol(), density.side(), alertType);
+    // Группируем по символу+бирже+рынку+стороне (без price), чтобы не спамить на каждый уровень
+    private static int slot(Side side, AlertType alertType) {
+        return side.ordinal() * ALERT_TYPES.length + alertType.ordinal();
     }
 
-    private boolean isDuplicate(Density density, AlertType alertType, int cooldownMinutes) {
-        String key = deduplicationKey(density, alertType);
-        Instant lastAlert = recentAlerts.get(key);
-
-        if (lastAlert == null) {
-            return false;
-        }
-
-        return Instant.now().isBefore(lastAlert.plusSeconds(cooldownMinutes * 60L));
+    // Истёкшие кулдауны снимает колесо: работа пропорциональна числу истёкших, а не всех записей
+    @org.springframework.scheduling.annotation.Scheduled(fixedRate = 1000)
+    public void expireCooldowns() {
+        cooldowns.expire(clock.millis());
     }
 
-    private void markAsAlerted(Density density, AlertType alertType) {
-        String key = deduplicationKey(density, alertType);
-        recentAlerts.put(key, Instant.now());
+    private record StatisticalThresholds(double mean, double stdDev, double threshold) {
+        static final StatisticalThresholds NONE = new StatisticalThresholds(0, 0, Double.MAX_VALUE);
     }
-
-    // Периодическая очистка старых записей
-    @org.springframework.scheduling.annotation.Scheduled(fixedRate = 300000) // каждые 5 минут
-    public void cleanupOldAlerts() {
-        Instant cutoff = Instant.now().minusSeconds(30 * 60); // 30 минут
-        recentAlerts.entrySet().removeIf(entry -> entry.getValue().isBefore(cutoff));
-    }
-
-    private record StatisticalThresholds(BigDecimal mean, BigDecimal stdDev, BigDecimal threshold) {}
 }
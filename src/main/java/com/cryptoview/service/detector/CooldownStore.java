@@ -0,0 +1,72 @@
+package com.cryptoview.service.detector;
+
+import com.cryptoview.service.symbol.SymbolTable;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Alert cooldowns per (symbol id, slot). The deadline lives in a per-symbol long array, so a check is one
+ * read and a mark one write plus a wheel insert, both allocation-free once the symbol has its array. The
+ * wheel, keyed by the packed (symbol id, slot) long, clears deadlines as they pass — no periodic scans.
+ */
+final class CooldownStore {
+
+    private static final long TICK_MILLIS = 1000;
+
+    private final int slots;
+    private final SymbolTable<AtomicLongArray> deadlines = new SymbolTable<>();
+    private final TimingWheel wheel;
+    // Один экземпляр на всё время жизни — advance не аллоцирует лямбду
+    private final TimingWheel.Expiry clearExpired = this::clear;
+
+    CooldownStore(int slots) {
+        this.slots = slots;
+        this.wheel = new TimingWheel(TICK_MILLIS);
+    }
+
+    boolean isCoolingDown(int symbolId, int slot, long nowMillis) {
+        AtomicLongArray symbolDeadlines = deadlines.get(symbolId);
+        return symbolDeadlines != null && nowMillis < symbolDeadlines.get(slot);
+    }
+
+    void start(int symbolId, int slot, long nowMillis, long cooldownMillis) {
+        AtomicLongArray symbolDeadlines = deadlines.get(symbolId);
+        if (symbolDeadlines == null) {
+            symbolDeadlines = deadlines.computeIfAbsent(symbolId, id -> new AtomicLongArray(slots));
+        }
+        long deadline = nowMillis + cooldownMillis;
+        symbolDeadlines.set(slot, deadline);
+        wheel.schedule(pack(symbolId, slot), deadline, nowMillis);
+    }
+
+    /**
+     * Clears cooldowns whose deadline has passed; returns how many wheel entries expired.
+     */
+    int expire(long nowMillis) {
+        return wheel.advance(nowMillis, clearExpired);
+    }
+
+    int pending() {
+        return wheel.size();
+    }
+
+    private void clear(long key, long deadline) {
+        AtomicLongArray symbolDeadlines = deadlines.get(symbolOf(key));
+        if (symbolDeadlines != null) {
+            // Повторный алерт мог продлить кулдаун — тогда в слоте уже другой дедлайн
+            symbolDeadlines.compareAndSet(slotOf(key), deadline, 0);
+        }
+    }
+
+    static long pack(int symbolId, int slot) {
+        return (long) symbolId << 32 | slot;
+    }
+
+    static int symbolOf(long key) {
+        return (int) (key >>> 32);
+    }
+
+    static int slotOf(long key) {
+        return (int) key;
+    }
+}
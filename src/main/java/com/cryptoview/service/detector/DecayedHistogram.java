@@ -0,0 +1,87 @@
+package com.cryptoview.service.detector;
+
+/**
+ * Exponentially decayed distribution of level notionals: how much level-time recent books spent at each
+ * size, older time weighing less with the given half-life. Buckets are log-spaced {@value #RELATIVE_ACCURACY}
+ * apart, so memory is a fixed ~300 doubles however long the history. Decay is forward (landmark) decay —
+ * new weight is scaled up by e^((t - landmark) / τ) instead of scaling all old weight down, so an add stays
+ * one Fenwick update; the counts are rescaled in one pass only when that factor grows large.
+ * Not thread-safe.
+ */
+final class DecayedHistogram {
+
+    static final double RELATIVE_ACCURACY = 0.05;
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    private static final double MIN_VALUE = 1.0;
+    private static final double MAX_VALUE = 1e13;
+    static final int BUCKETS = (int) Math.ceil(Math.log(MAX_VALUE) / LOG_GAMMA) + 1;
+    // e^50 ~ 5e21: до переполнения double далеко, точность сумм не страдает
+    private static final double MAX_EXPONENT = 50;
+
+    private final double tau;
+    private final double[] tree = new double[BUCKETS + 1];
+    private double total;
+    private long landmark = Long.MIN_VALUE;
+
+    DecayedHistogram(long halfLifeMillis) {
+        this.tau = halfLifeMillis / Math.log(2);
+    }
+
+    /**
+     * Adds {@code weight} (level-milliseconds) at {@code value}, observed at {@code nowMillis}.
+     */
+    void add(double value, double weight, long nowMillis) {
+        if (!(weight > 0)) return;
+        if (landmark == Long.MIN_VALUE) {
+            landmark = nowMillis;
+        }
+        double exponent = (nowMillis - landmark) / tau;
+        if (exponent > MAX_EXPONENT) {
+            rescale(nowMillis);
+            exponent = 0;
+        }
+        double scaled = weight * Math.exp(exponent);
+        for (int i = index(value) + 1; i < tree.length; i += i & -i) {
+            tree[i] += scaled;
+        }
+        total += scaled;
+    }
+
+    /**
+     * Upper bound of the bucket holding quantile {@code q}: a value above it is beyond {@code q} of the
+     * decayed history. NaN when empty. The decay factor is common to all weights, so it cancels out here.
+     */
+    double quantile(double q) {
+        if (!(total > 0)) return Double.NaN;
+        double remaining = Math.max(0, Math.min(1, q)) * total;
+        // Спуск по дереву: первый бакет, на котором накопленный вес превышает q * total
+        int pos = 0;
+        for (int step = Integer.highestOneBit(BUCKETS); step > 0; step >>= 1) {
+            int next = pos + step;
+            if (next <= BUCKETS && tree[next] <= remaining) {
+                pos = next;
+                remaining -= tree[next];
+            }
+        }
+        return upperBound(Math.min(pos, BUCKETS - 1));
+    }
+
+    private void rescale(long nowMillis) {
+        double factor = Math.exp(-(nowMillis - landmark) / tau);
+        for (int i = 1; i < tree.length; i++) {
+            tree[i] *= factor;
+        }
+        total *= factor;
+        landmark = nowMillis;
+    }
+
+    static int index(double value) {
+        if (!(value > MIN_VALUE)) return 0;
+        return Math.min(BUCKETS - 1, (int) Math.ceil(Math.log(value) / LOG_GAMMA));
+    }
+
+    static double upperBound(int bucket) {
+        return Math.pow(GAMMA, bucket);
+    }
+}
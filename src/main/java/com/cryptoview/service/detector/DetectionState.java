@@ -0,0 +1,182 @@
+package com.cryptoview.service.detector;
+
+import com.cryptoview.model.enums.Side;
+import com.cryptoview.service.orderbook.LevelArrays;
+
+import java.util.Comparator;
+import java.util.TreeSet;
+
+/**
+ * What the detector keeps per symbol between books: level statistics and, per side, the levels ordered by
+ * notional. Every alert type picks the biggest level on a side that clears its bar, and that is the side's
+ * biggest level whenever any level clears it, so a check needs the top of each side and nothing else.
+ *
+ * A new book is diffed against the previous one level by level; only levels that appeared, vanished or
+ * changed notional touch the state. Thresholds moving costs nothing: they are applied to the top at query time.
+ *
+ * The same diff feeds the symbol's size history: a level is credited with the time it stood at its notional
+ * when it changes or goes, and standing levels are credited every {@value #CREDIT_INTERVAL_MILLIS} ms, so a
+ * wall that never moves still counts as what the book usually looks like.
+ */
+final class DetectionState {
+
+    // Накопленная ошибка double в суммах статистики: раз в N апдейтов пересобираем с нуля
+    private static final int REBUILD_EVERY = 1000;
+    private static final long HISTORY_HALF_LIFE_MILLIS = 4 * 3600_000L;
+    static final long CREDIT_INTERVAL_MILLIS = 60_000;
+
+    private final LevelStatistics statistics = new LevelStatistics();
+    private final DecayedHistogram history = new DecayedHistogram(HISTORY_HALF_LIFE_MILLIS);
+    // Крупнейший уровень первым; при равенстве — ближайший к спреду, как при линейном проходе
+    private final TreeSet<Level> bidsByNotional = new TreeSet<>(Comparator.comparingDouble(Level::notional).reversed()
+            .thenComparing(Comparator.comparingDouble(Level::price).reversed()));
+    private final TreeSet<Level> asksByNotional = new TreeSet<>(Comparator.comparingDouble(Level::notional).reversed()
+            .thenComparingDouble(Level::price));
+    private LevelArrays bids = LevelArrays.EMPTY;
+    private LevelArrays asks = LevelArrays.EMPTY;
+    private int sinceRebuild;
+    private Object lastSource;
+    // Время стоящих уровней до этого момента уже в истории
+    private long creditedUntil;
+    private long firstApplied = -1;
+
+    /**
+     * Brings the state up to date with the book unless {@code source} (the published book instance) was
+     * already applied; returns how many levels changed.
+     */
+    synchronized int apply(Object source, LevelArrays newBids, LevelArrays newAsks, long nowMillis) {
+        if (source != null && source == lastSource) return 0;
+        lastSource = source;
+        if (firstApplied < 0) {
+            firstApplied = nowMillis;
+            creditedUntil = nowMillis;
+        }
+
+        int changed;
+        if (!newBids.isSorted() || !newAsks.isSorted() || !bids.isSorted() || !asks.isSorted()) {
+            // Без порядка не сдиффать: засчитываем стоявшее и собираем всё заново
+            creditAll(nowMillis);
+            statistics.clear();
+            bidsByNotional.clear();
+            asksByNotional.clear();
+            sinceRebuild = 0;
+            changed = addAll(newBids, bidsByNotional, nowMillis) + addAll(newAsks, asksByNotional, nowMillis);
+        } else {
+            changed = merge(bids, newBids, true, bidsByNotional, nowMillis)
+                    + merge(asks, newAsks, false, asksByNotional, nowMillis);
+            if (++sinceRebuild >= REBUILD_EVERY) {
+                rebuildStatistics();
+            }
+        }
+        if (nowMillis - creditedUntil >= CREDIT_INTERVAL_MILLIS) {
+            creditAll(nowMillis);
+        }
+        bids = newBids;
+        asks = newAsks;
+        return changed;
+    }
+
+    synchronized LevelStatistics.Summary summary() {
+        return statistics.summary();
+    }
+
+    /**
+     * Notional beyond quantile {@code q} of the decayed size history; NaN while there is none.
+     */
+    synchronized double historyQuantile(double q) {
+        return history.quantile(q);
+    }
+
+    /**
+     * How long the history has been collected; 0 before the first book.
+     */
+    synchronized long historyMillis(long nowMillis) {
+        return firstApplied < 0 ? 0 : Math.max(0, nowMillis - firstApplied);
+    }
+
+    /**
+     * Biggest level on the side, or null for an empty side.
+     */
+    synchronized Level top(Side side) {
+        TreeSet<Level> levels = side == Side.BID ? bidsByNotional : asksByNotional;
+        return levels.isEmpty() ? null : levels.first();
+    }
+
+    private int addAll(LevelArrays levels, TreeSet<Level> byNotional, long now) {
+        for (int i = 0; i < levels.size(); i++) {
+            add(levels.price(i), levels.notional(i), byNotional, now);
+        }
+        return levels.size();
+    }
+
+    private int merge(LevelArrays old, LevelArrays fresh, boolean bid, TreeSet<Level> byNotional, long now) {
+        int changed = 0;
+        int i = 0;
+        int j = 0;
+        while (i < old.size() || j < fresh.size()) {
+            int c;
+            if (i == old.size()) c = 1;
+            else if (j == fresh.size()) c = -1;
+            else c = bid ? Double.compare(fresh.price(j), old.price(i)) : Double.compare(old.price(i), fresh.price(j));
+
+            if (c < 0) {
+                remove(old.price(i), old.notional(i), byNotional, now);
+                i++;
+                changed++;
+            } else if (c > 0) {
+                add(fresh.price(j), fresh.notional(j), byNotional, now);
+                j++;
+                changed++;
+            } else {
+                if (fresh.notional(j) != old.notional(i)) {
+                    remove(old.price(i), old.notional(i), byNotional, now);
+                    add(fresh.price(j), fresh.notional(j), byNotional, now);
+                    changed++;
+                }
+                i++;
+                j++;
+            }
+        }
+        return changed;
+    }
+
+    private void add(double price, double notional, TreeSet<Level> byNotional, long now) {
+        statistics.add(notional);
+        byNotional.add(new Level(price, notional, now));
+    }
+
+    private void remove(double price, double notional, TreeSet<Level> byNotional, long now) {
+        statistics.remove(notional);
+        // Сравнение не смотрит на since — floor находит ровно этот уровень
+        Level level = byNotional.floor(new Level(price, notional, 0));
+        if (level != null && level.price() == price && level.notional() == notional) {
+            credit(level, now);
+            byNotional.remove(level);
+        }
+    }
+
+    private void rebuildStatistics() {
+        statistics.clear();
+        for (Level level : bidsByNotional) statistics.add(level.notional());
+        for (Level level : asksByNotional) statistics.add(level.notional());
+        sinceRebuild = 0;
+    }
+
+    private void creditAll(long now) {
+        for (Level level : bidsByNotional) credit(level, now);
+        for (Level level : asksByNotional) credit(level, now);
+        creditedUntil = now;
+    }
+
+    private void credit(Level level, long now) {
+        long from = Math.max(level.since(), creditedUntil);
+        if (now > from) {
+            history.add(level.notional(), now - from, now);
+        }
+    }
+
+    /**
+     * A standing level; {@code since} is when it took this notional and takes no part in ordering.
+     */
+    record Level(double price, double notional, long since) {}
+}
@@ -0,0 +1,45 @@
+package com.cryptoview.service.detector;
+
+/**
+ * Distribution of level notionals over one symbol's book: count, mean, variance and quartiles. Fed value by
+ * value as levels appear, vanish or change (see {@link DetectionState}), never rebuilt from a full list.
+ * Not thread-safe.
+ */
+final class LevelStatistics {
+
+    private final QuantileSketch sketch = new QuantileSketch();
+    private double sum;
+    private double sumSquares;
+
+    void add(double notional) {
+        sketch.add(notional);
+        sum += notional;
+        sumSquares += notional * notional;
+    }
+
+    void remove(double notional) {
+        sketch.remove(notional);
+        sum -= notional;
+        sumSquares -= notional * notional;
+    }
+
+    void clear() {
+        sketch.clear();
+        sum = 0;
+        sumSquares = 0;
+    }
+
+    Summary summary() {
+        long n = sketch.count();
+        if (n == 0) return new Summary(0, 0, 0, 0, 0);
+        double mean = sum / n;
+        // Выборочная дисперсия (n - 1), как у DescriptiveStatistics
+        double variance = n > 1 ? Math.max(0, (sumSquares - sum * mean) / (n - 1)) : 0;
+        return new Summary(n, mean, Math.sqrt(variance), sketch.quantile(0.25), sketch.quantile(0.75));
+    }
+
+    /**
+     * Quartiles are within {@link QuantileSketch#RELATIVE_ACCURACY} of the exact ones.
+     */
+    record Summary(long count, double mean, double stdDev, double q1, double q3) {}
+}
@@ -0,0 +1,93 @@
+package com.cryptoview.service.detector;
+
+import java.util.Arrays;
+
+/**
+ * Quantile sketch over positive values with log-spaced buckets (the DDSketch layout): bucket bounds grow by
+ * γ = (1 + α) / (1 - α), so any quantile comes back within α = {@value #RELATIVE_ACCURACY} relative error.
+ * Unlike sampling sketches it takes removals, so a book's level distribution can follow changed levels only;
+ * two sketches merge by adding their counts. Counts sit in a Fenwick tree, a quantile is one descent.
+ * Not thread-safe.
+ */
+final class QuantileSketch {
+
+    static final double RELATIVE_ACCURACY = 0.01;
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    // Всё, что не больше доллара, идёт в нулевой бакет; сверху — всё, что больше 10 трлн
+    private static final double MIN_VALUE = 1.0;
+    private static final double MAX_VALUE = 1e13;
+    static final int BUCKETS = (int) Math.ceil(Math.log(MAX_VALUE) / LOG_GAMMA) + 1;
+
+    private final long[] tree = new long[BUCKETS + 1];
+    private long count;
+
+    void add(double value) {
+        update(index(value), 1);
+    }
+
+    /**
+     * Removes a value that was added before; removing one that was not corrupts the counts.
+     */
+    void remove(double value) {
+        update(index(value), -1);
+    }
+
+    /**
+     * Adds all of {@code other}'s values. Fenwick trees are linear, so the trees are summed cell by cell.
+     */
+    void merge(QuantileSketch other) {
+        for (int i = 1; i < tree.length; i++) {
+            tree[i] += other.tree[i];
+        }
+        count += other.count;
+    }
+
+    void clear() {
+        Arrays.fill(tree, 0);
+        count = 0;
+    }
+
+    long count() {
+        return count;
+    }
+
+    /**
+     * Value at rank {@code q * (count - 1)}, {@code q} in [0, 1]; NaN when empty.
+     */
+    double quantile(double q) {
+        if (count == 0) return Double.NaN;
+        long rank = (long) Math.floor(Math.max(0, Math.min(1, q)) * (count - 1));
+        // Спуск по дереву: наименьший бакет, где накопленная частота больше rank
+        int pos = 0;
+        long remaining = rank + 1;
+        for (int step = Integer.highestOneBit(BUCKETS); step > 0; step >>= 1) {
+            int next = pos + step;
+            if (next <= BUCKETS && tree[next] < remaining) {
+                pos = next;
+                remaining -= tree[next];
+            }
+        }
+        return value(Math.min(pos, BUCKETS - 1));
+    }
+
+    private void update(int bucket, long delta) {
+        for (int i = bucket + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+        count += delta;
+    }
+
+    static int index(double value) {
+        if (!(value > MIN_VALUE)) return 0;
+        return Math.min(BUCKETS - 1, (int) Math.ceil(Math.log(value) / LOG_GAMMA));
+    }
+
+    /**
+     * Representative of a bucket (γ^(i-1), γ^i]: the point equally far in relative terms from both bounds.
+     */
+    static double value(int bucket) {
+        if (bucket == 0) return 0;
+        return 2 * Math.pow(GAMMA, bucket) / (GAMMA + 1);
+    }
+}
@@ -0,0 +1,133 @@
+package com.cryptoview.service.detector;
+
+import java.util.Arrays;
+
+/**
+ * Hierarchical timing wheel of (key, deadline) long pairs: {@value #LEVELS} levels of {@value #SLOTS} slots,
+ * each level's slot spanning a whole turn of the level below, so one-second ticks reach ~3 days. An entry
+ * sits in the coarsest level it fits and cascades down as its slot comes up; expiry touches only the entries
+ * that are due, never the whole population. Buckets are growable long arrays — scheduling allocates only
+ * when a bucket outgrows its capacity. Thread-safe.
+ */
+final class TimingWheel {
+
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int LEVELS = 3;
+    private static final long MAX_SPAN = 1L << (BITS * LEVELS);
+
+    @FunctionalInterface
+    interface Expiry {
+        void expired(long key, long deadlineMillis);
+    }
+
+    private final long tickMillis;
+    private final Bucket[][] levels = new Bucket[LEVELS][SLOTS];
+    private Bucket scratch = new Bucket();
+    private long currentTick;
+    private int size;
+
+    TimingWheel(long tickMillis) {
+        this.tickMillis = tickMillis;
+        for (Bucket[] level : levels) {
+            for (int i = 0; i < SLOTS; i++) {
+                level[i] = new Bucket();
+            }
+        }
+    }
+
+    /**
+     * Adds an entry; {@code nowMillis} lets an empty wheel jump to the present instead of ticking through
+     * the idle gap on the next {@link #advance}.
+     */
+    synchronized void schedule(long key, long deadlineMillis, long nowMillis) {
+        if (size == 0) {
+            currentTick = Math.max(currentTick, nowMillis / tickMillis);
+        }
+        place(key, deadlineMillis);
+        size++;
+    }
+
+    /**
+     * Moves the wheel to {@code nowMillis} and hands every entry whose deadline has passed to {@code expiry};
+     * returns how many expired. Precision is one tick: an entry goes at most one tick after its deadline.
+     */
+    synchronized int advance(long nowMillis, Expiry expiry) {
+        long nowTick = nowMillis / tickMillis;
+        if (size == 0) {
+            currentTick = Math.max(currentTick, nowTick);
+            return 0;
+        }
+        int expired = 0;
+        while (currentTick < nowTick) {
+            long tick = ++currentTick;
+            // Сначала спускаем старшие уровни, чьи слоты начинаются на этом тике
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((tick & ((1L << (BITS * level)) - 1)) == 0) {
+                    Bucket bucket = swap(levels[level], (int) ((tick >>> (BITS * level)) & (SLOTS - 1)));
+                    for (int i = 0; i < bucket.size; i += 2) {
+                        place(bucket.entries[i], bucket.entries[i + 1]);
+                    }
+                    bucket.size = 0;
+                    scratch = bucket;
+                }
+            }
+            Bucket due = swap(levels[0], (int) (tick & (SLOTS - 1)));
+            for (int i = 0; i < due.size; i += 2) {
+                long key = due.entries[i];
+                long deadline = due.entries[i + 1];
+                if (deadline <= nowMillis) {
+                    size--;
+                    expired++;
+                    expiry.expired(key, deadline);
+                } else {
+                    place(key, deadline); // за горизонтом колеса или позже now внутри тика
+                }
+            }
+            due.size = 0;
+            scratch = due;
+        }
+        return expired;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    private void place(long key, long deadlineMillis) {
+        long tick = Math.max(Math.floorDiv(deadlineMillis, tickMillis), currentTick + 1);
+        long delta = tick - currentTick;
+        if (delta >= MAX_SPAN) {
+            tick = currentTick + MAX_SPAN - 1;
+            delta = MAX_SPAN - 1;
+        }
+        int level = 0;
+        while (delta >= 1L << (BITS * (level + 1))) {
+            level++;
+        }
+        levels[level][(int) ((tick >>> (BITS * level)) & (SLOTS - 1))].add(key, deadlineMillis);
+    }
+
+    /**
+     * Takes the bucket out of the wheel, leaving the empty scratch one in its place, so entries re-placed
+     * while draining never land in the bucket being drained.
+     */
+    private Bucket swap(Bucket[] level, int index) {
+        Bucket taken = level[index];
+        level[index] = scratch;
+        return taken;
+    }
+
+    private static final class Bucket {
+        long[] entries = new long[8];
+        int size;
+
+        void add(long key, long deadline) {
+            if (size + 2 > entries.length) {
+                entries = Arrays.copyOf(entries, entries.length * 2);
+            }
+            entries[size++] = key;
+            entries[size++] = deadline;
+        }
+    }
+}
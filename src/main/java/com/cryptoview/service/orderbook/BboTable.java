@@ -0,0 +1,288 @@
+package com.cryptoview.service.orderbook;
+
+import com.cryptoview.model.domain.OrderBookLevel;
+import com.cryptoview.service.symbol.SymbolTable;
+
+import java.lang.invoke.VarHandle;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntConsumer;
+
+/**
+ * Best bid/ask of every symbol in flat primitive arrays indexed by symbol id. Connectors write it on every
+ * book change; readers get a consistent quote through a per-slot sequence lock (odd = write in progress,
+ * readers retry), so reads never block and never allocate. A missing side reads as NaN.
+ */
+public final class BboTable {
+
+    private static final int CHUNK_BITS = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int MAX_CHUNKS = SymbolTable.CAPACITY >>> CHUNK_BITS;
+
+    private static final int BID_PRICE = 0;
+    private static final int BID_QTY = 1;
+    private static final int ASK_PRICE = 2;
+    private static final int ASK_QTY = 3;
+    private static final int FIELDS = 4;
+
+    private final AtomicReferenceArray<Chunk> chunks = new AtomicReferenceArray<>(MAX_CHUNKS);
+    private final AtomicLong changes = new AtomicLong();
+    private final AtomicInteger maxId = new AtomicInteger(-1);
+
+    /**
+     * Records the touch of a symbol; returns true if price or size at the touch changed.
+     * The update time is refreshed either way, so staleness reflects the book, not the touch.
+     */
+    public boolean update(int id, double bidPrice, double bidQty, double askPrice, double askQty, long millis) {
+        Chunk chunk = chunkFor(id, true);
+        int slot = id & (CHUNK_SIZE - 1);
+        AtomicLongArray seq = chunk.seq;
+        long s;
+        while (true) {
+            s = seq.get(slot);
+            if ((s & 1) == 0 && seq.compareAndSet(slot, s, s + 1)) break;
+            Thread.onSpinWait();
+        }
+
+        double[] v = chunk.values;
+        int base = slot * FIELDS;
+        boolean changed = s == 0
+                || Double.compare(v[base + BID_PRICE], bidPrice) != 0 || Double.compare(v[base + BID_QTY], bidQty) != 0
+                || Double.compare(v[base + ASK_PRICE], askPrice) != 0 || Double.compare(v[base + ASK_QTY], askQty) != 0;
+        if (changed) {
+            v[base + BID_PRICE] = bidPrice;
+            v[base + BID_QTY] = bidQty;
+            v[base + ASK_PRICE] = askPrice;
+            v[base + ASK_QTY] = askQty;
+            chunk.changeStamps.set(slot, changes.incrementAndGet());
+        }
+        chunk.updatedAt[slot] = millis;
+        seq.set(slot, s + 2);
+
+        if (s == 0) {
+            maxId.accumulateAndGet(id, Math::max);
+        }
+        return changed;
+    }
+
+    public boolean update(int id, List<OrderBookLevel> bids, List<OrderBookLevel> asks, long millis) {
+        OrderBookLevel bid = bids.isEmpty() ? null : bids.getFirst();
+        OrderBookLevel ask = asks.isEmpty() ? null : asks.getFirst();
+        return update(id,
+                bid != null ? bid.price().doubleValue() : Double.NaN,
+                bid != null ? bid.quantity().doubleValue() : Double.NaN,
+                ask != null ? ask.price().doubleValue() : Double.NaN,
+                ask != null ? ask.quantity().doubleValue() : Double.NaN,
+                millis);
+    }
+
+    /**
+     * Copies a consistent quote into {@code into}; false if the symbol has never been written.
+     */
+    public boolean read(int id, Quote into) {
+        Chunk chunk = chunkFor(id, false);
+        if (chunk == null) return false;
+        int slot = id & (CHUNK_SIZE - 1);
+        int base = slot * FIELDS;
+        while (true) {
+            long s = chunk.seq.get(slot);
+            if (s == 0) return false;
+            if ((s & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            double[] v = chunk.values;
+            into.symbolId = id;
+            into.bidPrice = v[base + BID_PRICE];
+            into.bidQty = v[base + BID_QTY];
+            into.askPrice = v[base + ASK_PRICE];
+            into.askQty = v[base + ASK_QTY];
+            into.updatedAt = chunk.updatedAt[slot];
+            into.changeStamp = chunk.changeStamps.get(slot);
+            VarHandle.acquireFence();
+            if (chunk.seq.get(slot) == s) return true;
+        }
+    }
+
+    public double bestBid(int id) {
+        return field(id, BID_PRICE);
+    }
+
+    public double bestAsk(int id) {
+        return field(id, ASK_PRICE);
+    }
+
+    public double mid(int id) {
+        return touch(id, false);
+    }
+
+    /**
+     * (ask - bid) / mid in basis points; NaN while either side is missing.
+     */
+    public double spreadBps(int id) {
+        return touch(id, true);
+    }
+
+    /**
+     * Milliseconds since the symbol's book last changed; -1 if never seen.
+     */
+    public long ageMillis(int id, long nowMillis) {
+        Chunk chunk = chunkFor(id, false);
+        if (chunk == null) return -1;
+        int slot = id & (CHUNK_SIZE - 1);
+        while (true) {
+            long s = chunk.seq.get(slot);
+            if (s == 0) return -1;
+            if ((s & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            long updatedAt = chunk.updatedAt[slot];
+            VarHandle.acquireFence();
+            if (chunk.seq.get(slot) == s) return Math.max(0, nowMillis - updatedAt);
+        }
+    }
+
+    /**
+     * Calls {@code action} with every symbol id whose touch changed after {@code stamp}
+     * and returns the stamp to pass next time. An id may occasionally be reported twice, never missed.
+     */
+    public long changedSince(long stamp, IntConsumer action) {
+        long current = changes.get();
+        if (current == stamp) return current;
+        int last = maxId.get();
+        for (int c = 0; c <= last >>> CHUNK_BITS; c++) {
+            Chunk chunk = chunks.get(c);
+            if (chunk == null) continue;
+            for (int i = 0; i < CHUNK_SIZE; i++) {
+                // Слот в процессе записи тоже отдаём: его штамп может оказаться ≤ current и иначе потеряется
+                if ((chunk.seq.get(i) & 1) != 0 || chunk.changeStamps.get(i) > stamp) {
+                    action.accept((c << CHUNK_BITS) | i);
+                }
+            }
+        }
+        return current;
+    }
+
+    public void forEach(IntConsumer action) {
+        changedSince(-1, action);
+    }
+
+    public long changeCount() {
+        return changes.get();
+    }
+
+    private double field(int id, int field) {
+        Chunk chunk = chunkFor(id, false);
+        if (chunk == null) return Double.NaN;
+        int slot = id & (CHUNK_SIZE - 1);
+        while (true) {
+            long s = chunk.seq.get(slot);
+            if (s == 0) return Double.NaN;
+            if ((s & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            double value = chunk.values[slot * FIELDS + field];
+            VarHandle.acquireFence();
+            if (chunk.seq.get(slot) == s) return value;
+        }
+    }
+
+    private double touch(int id, boolean spread) {
+        Chunk chunk = chunkFor(id, false);
+        if (chunk == null) return Double.NaN;
+        int slot = id & (CHUNK_SIZE - 1);
+        int base = slot * FIELDS;
+        while (true) {
+            long s = chunk.seq.get(slot);
+            if (s == 0) return Double.NaN;
+            if ((s & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            double bid = chunk.values[base + BID_PRICE];
+            double ask = chunk.values[base + ASK_PRICE];
+            VarHandle.acquireFence();
+            if (chunk.seq.get(slot) == s) {
+                return spread ? spreadBps(bid, ask) : (bid + ask) / 2;
+            }
+        }
+    }
+
+    private static double spreadBps(double bid, double ask) {
+        double mid = (bid + ask) / 2;
+        return mid > 0 ? (ask - bid) / mid * 10_000 : Double.NaN;
+    }
+
+    private Chunk chunkFor(int id, boolean create) {
+        if (id < 0 || id >= SymbolTable.CAPACITY) {
+            if (create) {
+                throw new IndexOutOfBoundsException("Symbol id out of range: " + id);
+            }
+            return null;
+        }
+        int index = id >>> CHUNK_BITS;
+        Chunk chunk = chunks.get(index);
+        if (chunk == null && create) {
+            chunks.compareAndSet(index, null, new Chunk());
+            chunk = chunks.get(index);
+        }
+        return chunk;
+    }
+
+    private static final class Chunk {
+        final AtomicLongArray seq = new AtomicLongArray(CHUNK_SIZE);
+        final AtomicLongArray changeStamps = new AtomicLongArray(CHUNK_SIZE);
+        final double[] values = new double[CHUNK_SIZE * FIELDS];
+        final long[] updatedAt = new long[CHUNK_SIZE];
+    }
+
+    /**
+     * Reusable holder for {@link #read}; keep one per reader thread to stay allocation-free.
+     */
+    public static final class Quote {
+        int symbolId;
+        double bidPrice;
+        double bidQty;
+        double askPrice;
+        double askQty;
+        long updatedAt;
+        long changeStamp;
+
+        public int symbolId() {
+            return symbolId;
+        }
+
+        public double bidPrice() {
+            return bidPrice;
+        }
+
+        public double bidQty() {
+            return bidQty;
+        }
+
+        public double askPrice() {
+            return askPrice;
+        }
+
+        public double askQty() {
+            return askQty;
+        }
+
+        public long updatedAt() {
+            return updatedAt;
+        }
+
+        public double mid() {
+            return (bidPrice + askPrice) / 2;
+        }
+
+        public double spreadBps() {
+            return BboTable.spreadBps(bidPrice, askPrice);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.cryptoview.service.orderbook;
+
+import com.cryptoview.model.domain.OrderBook;
+import com.cryptoview.model.enums.Side;
+
+/**
+ * Primitive view of a published book; {@code lastPrice} is NaN when the book has none.
+ * The level at index i of a side is {@code book.bids()/asks().get(i)}.
+ */
+public record BookArrays(OrderBook book, LevelArrays bids, LevelArrays asks, double lastPrice) {
+
+    public LevelArrays side(Side side) {
+        return side == Side.BID ? bids : asks;
+    }
+}
@@ -0,0 +1,42 @@
+package com.cryptoview.service.orderbook;
+
+import com.cryptoview.config.CryptoViewProperties;
+import com.cryptoview.model.domain.OrderBook;
+import com.cryptoview.service.pipeline.PartitionLocal;
+import com.cryptoview.service.symbol.SymbolRegistry;
+import com.cryptoview.service.symbol.SymbolTable;
+import org.springframework.stereotype.Service;
+
+/**
+ * {@link BookArrays} of the latest book per symbol. Listeners looking at the same published book share
+ * one conversion: whichever asks first builds it, the rest get the same instance. Written on every update,
+ * so the table is split per pipeline partition.
+ */
+@Service
+public class BookArraysCache {
+
+    private final SymbolRegistry symbolRegistry;
+    private final PartitionLocal<SymbolTable<BookArrays>> latest;
+
+    public BookArraysCache(SymbolRegistry symbolRegistry, CryptoViewProperties properties) {
+        this.symbolRegistry = symbolRegistry;
+        this.latest = PartitionLocal.forPipeline(properties, SymbolTable::new);
+    }
+
+    public BookArrays arraysFor(OrderBook orderBook) {
+        int id = orderBook.symbolId() >= 0 ? orderBook.symbolId()
+                : symbolRegistry.idOf(orderBook.exchange(), orderBook.marketType(), orderBook.symbol());
+        SymbolTable<BookArrays> table = latest.forSymbol(id);
+        BookArrays arrays = table.get(id);
+        if (arrays != null && arrays.book() == orderBook) {
+            return arrays;
+        }
+        // Гонка двух листенеров на одной книге безвредна: оба построят одно и то же
+        arrays = new BookArrays(orderBook,
+                LevelArrays.of(orderBook.bids(), true),
+                LevelArrays.of(orderBook.asks(), false),
+                orderBook.lastPrice() != null ? orderBook.lastPrice().doubleValue() : Double.NaN);
+        table.put(id, arrays);
+        return arrays;
+    }
+}
@@ -0,0 +1,105 @@
+package com.cryptoview.service.orderbook;
+
+import com.cryptoview.model.domain.OrderBookLevel;
+
+import java.util.List;
+
+/**
+ * One side of a book as parallel primitive arrays: price, quantity and USD notional per level, best first.
+ * Built once per published book (see {@link BookArraysCache}), so hot loops compare doubles instead of
+ * multiplying BigDecimals on every pass. Read-only after construction.
+ */
+public final class LevelArrays {
+
+    public static final LevelArrays EMPTY = new LevelArrays(new double[0], new double[0], new double[0], 0, true);
+
+    private final double[] prices;
+    private final double[] quantities;
+    private final double[] notional;
+    private final int size;
+    private final boolean sorted;
+
+    private LevelArrays(double[] prices, double[] quantities, double[] notional, int size, boolean sorted) {
+        this.prices = prices;
+        this.quantities = quantities;
+        this.notional = notional;
+        this.size = size;
+        this.sorted = sorted;
+    }
+
+    public static LevelArrays of(List<OrderBookLevel> levels, boolean bid) {
+        if (levels == null || levels.isEmpty()) return EMPTY;
+        int n = levels.size();
+        double[] prices = new double[n];
+        double[] quantities = new double[n];
+        double[] notional = new double[n];
+        boolean sorted = true;
+        for (int i = 0; i < n; i++) {
+            OrderBookLevel level = levels.get(i);
+            double price = level.price().doubleValue();
+            double quantity = level.quantity().doubleValue();
+            if (i > 0) {
+                int c = Double.compare(price, prices[i - 1]);
+                if (bid ? c >= 0 : c <= 0) sorted = false; // строго монотонно, иначе merge-проходы невалидны
+            }
+            prices[i] = price;
+            quantities[i] = quantity;
+            notional[i] = price * quantity;
+        }
+        return new LevelArrays(prices, quantities, notional, n, sorted);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double price(int i) {
+        return prices[i];
+    }
+
+    public double quantity(int i) {
+        return quantities[i];
+    }
+
+    public double notional(int i) {
+        return notional[i];
+    }
+
+    /**
+     * Writes indices of levels with notional of at least {@code floor} into {@code out}, best first, and returns
+     * how many; {@code out} must hold {@link #size()} indices. SIMD where the JVM allows (see {@link LevelScan}).
+     */
+    public int atLeast(double floor, int[] out) {
+        return LevelScan.atLeast(notional, size, floor, out);
+    }
+
+    /**
+     * Index of the level at exactly {@code price}, or -1; binary search on a sorted side.
+     */
+    public int indexOf(double price) {
+        if (!sorted) {
+            for (int i = 0; i < size; i++) {
+                if (prices[i] == price) return i;
+            }
+            return -1;
+        }
+        boolean descending = size > 1 && prices[0] > prices[1];
+        int lo = 0;
+        int hi = size - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int c = Double.compare(prices[mid], price);
+            if (c == 0) return mid;
+            if (descending ? c > 0 : c < 0) lo = mid + 1;
+            else hi = mid - 1;
+        }
+        return -1;
+    }
+
+    /**
+     * Whether prices strictly move away from the touch; diffing two sides level by level needs it.
+     */
+    public boolean isSorted() {
+        return sorted;
+    }
+}
@@ -0,0 +1,70 @@
+package com.cryptoview.service.orderbook;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Threshold scans over a side's notional array. With {@code --add-modules jdk.incubator.vector} on the JVM
+ * the scan runs on SIMD lanes ({@link VectorLevelScan}); without it, or with {@code -Dcryptoview.simd=false},
+ * it is a plain loop. Both kernels return the same indices in the same order.
+ */
+@Slf4j
+final class LevelScan {
+
+    interface Kernel {
+        /**
+         * Writes indices of levels with notional ≥ {@code floor} into {@code out}, ascending; returns how many.
+         */
+        int select(double[] notional, int size, double floor, int[] out);
+    }
+
+    static final Kernel SCALAR = new Kernel() {
+        @Override
+        public int select(double[] notional, int size, double floor, int[] out) {
+            int n = 0;
+            for (int i = 0; i < size; i++) {
+                if (notional[i] >= floor) out[n++] = i;
+            }
+            return n;
+        }
+
+        @Override
+        public String toString() {
+            return "scalar";
+        }
+    };
+
+    static final Kernel KERNEL = pick();
+
+    private LevelScan() {
+    }
+
+    /**
+     * Indices of levels with notional ≥ {@code floor} into the caller's {@code out} (at least {@code size} long);
+     * returns how many. One pass, no allocation: the caller keeps the buffer between books.
+     */
+    static int atLeast(double[] notional, int size, double floor, int[] out) {
+        if (out.length < size) {
+            throw new IllegalArgumentException("index buffer of " + out.length + " for " + size + " levels");
+        }
+        return KERNEL.select(notional, size, floor, out);
+    }
+
+    static Kernel vectorKernel() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) return null;
+        try {
+            // Класс грузится только здесь: без модуля на JVM его ссылки на jdk.incubator.vector не резолвятся
+            return (Kernel) Class.forName(LevelScan.class.getPackageName() + ".VectorLevelScan")
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            log.warn("Vector level scan unavailable: {}", e.toString());
+            return null;
+        }
+    }
+
+    private static Kernel pick() {
+        Kernel vector = Boolean.parseBoolean(System.getProperty("cryptoview.simd", "true")) ? vectorKernel() : null;
+        Kernel kernel = vector != null ? vector : SCALAR;
+        log.info("Level scan kernel: {}", kernel);
+        return kernel;
+    }
+}
@@ -0,0 +1,182 @@
+package com.cryptoview.service.orderbook;
+
+import com.cryptoview.model.domain.OrderBook;
+import com.cryptoview.model.domain.OrderBookLevel;
+import com.cryptoview.model.dto.LiveBookFrame;
+import com.cryptoview.service.symbol.SymbolRegistry;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * One symbol at one (depth, interval) tier. Holds the top-{@code depth} view its subscribers have
+ * reconstructed, and turns each newly published book into a single diff frame against that view; the
+ * encoded frame goes to every subscriber as is.
+ */
+final class LiveBookChannel {
+
+    final SymbolRegistry.SymbolKey key;
+    final int depth;
+    final long intervalMs;
+
+    private final Function<LiveBookFrame, String> encoder;
+    private final List<Consumer<String>> sinks = new CopyOnWriteArrayList<>();
+    private OrderBook lastBook;
+    private List<OrderBookLevel> bids = List.of();
+    private List<OrderBookLevel> asks = List.of();
+    private long timestamp;
+    private long seq;
+    private long nextDueAt;
+    private String snapshot; // кодируется лениво, один раз на seq
+    private boolean retired;
+    private long frames;
+
+    LiveBookChannel(SymbolRegistry.SymbolKey key, int depth, long intervalMs, Function<LiveBookFrame, String> encoder) {
+        this.key = key;
+        this.depth = depth;
+        this.intervalMs = intervalMs;
+        this.encoder = encoder;
+    }
+
+    /**
+     * Sends the sink a snapshot at the current seq and attaches it; false if the channel was already retired.
+     */
+    synchronized boolean add(Consumer<String> sink, OrderBook current) {
+        if (retired) return false;
+        if (sinks.isEmpty() && current != null && current != lastBook) {
+            // Никто не держит цепочку диффов — начинаем с актуальной книги
+            lastBook = current;
+            bids = top(current.bids());
+            asks = top(current.asks());
+            timestamp = millis(current);
+            seq++;
+            snapshot = null;
+        }
+        sink.accept(snapshot());
+        sinks.add(sink);
+        return true;
+    }
+
+    /**
+     * Detaches the sink; when it was the last one the channel retires and returns true.
+     */
+    synchronized boolean remove(Consumer<String> sink) {
+        sinks.remove(sink);
+        if (sinks.isEmpty()) {
+            retired = true;
+        }
+        return retired;
+    }
+
+    synchronized void resync(Consumer<String> sink) {
+        if (!retired) {
+            sink.accept(snapshot());
+        }
+    }
+
+    /**
+     * Emits a diff if a new book was published and the interval has passed; a book that changed only beyond
+     * the depth band moves nothing and costs no seq.
+     */
+    synchronized void tick(long now, OrderBook book) {
+        if (retired || book == null || book == lastBook || now < nextDueAt) return;
+        lastBook = book;
+        nextDueAt = now + intervalMs;
+
+        List<OrderBookLevel> newBids = top(book.bids());
+        List<OrderBookLevel> newAsks = top(book.asks());
+        List<BigDecimal[]> bidChanges = diff(bids, newBids, true);
+        List<BigDecimal[]> askChanges = diff(asks, newAsks, false);
+        bids = newBids;
+        asks = newAsks;
+        timestamp = millis(book);
+        if (bidChanges.isEmpty() && askChanges.isEmpty()) return;
+
+        seq++;
+        snapshot = null;
+        frames++;
+        String json = encoder.apply(frame(LiveBookFrame.DIFF, bidChanges, askChanges));
+        for (Consumer<String> sink : sinks) {
+            sink.accept(json);
+        }
+    }
+
+    synchronized long seq() {
+        return seq;
+    }
+
+    synchronized long frames() {
+        return frames;
+    }
+
+    int subscribers() {
+        return sinks.size();
+    }
+
+    private String snapshot() {
+        if (snapshot == null) {
+            frames++;
+            snapshot = encoder.apply(frame(LiveBookFrame.SNAPSHOT, pairs(bids), pairs(asks)));
+        }
+        return snapshot;
+    }
+
+    private LiveBookFrame frame(String type, List<BigDecimal[]> bidLevels, List<BigDecimal[]> askLevels) {
+        return new LiveBookFrame(type, key.symbol(), key.exchange(), key.marketType(), depth, seq, timestamp,
+                bidLevels, askLevels);
+    }
+
+    private List<OrderBookLevel> top(List<OrderBookLevel> side) {
+        return side.size() > depth ? List.copyOf(side.subList(0, depth)) : side;
+    }
+
+    /**
+     * Changed levels between two best-first sides as [price, quantity]; quantity 0 removes the level.
+     * A level pushed out of the band by better prices is removed too, so the client view stays top-{@code depth}.
+     */
+    static List<BigDecimal[]> diff(List<OrderBookLevel> previous, List<OrderBookLevel> current, boolean bid) {
+        List<BigDecimal[]> changes = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+        while (i < previous.size() || j < current.size()) {
+            int c;
+            if (i == previous.size()) c = 1;
+            else if (j == current.size()) c = -1;
+            else {
+                c = previous.get(i).price().compareTo(current.get(j).price());
+                if (bid) c = -c;
+            }
+
+            if (c < 0) {
+                changes.add(new BigDecimal[]{previous.get(i).price(), BigDecimal.ZERO});
+                i++;
+            } else if (c > 0) {
+                changes.add(new BigDecimal[]{current.get(j).price(), current.get(j).quantity()});
+                j++;
+            } else {
+                if (previous.get(i).quantity().compareTo(current.get(j).quantity()) != 0) {
+                    changes.add(new BigDecimal[]{current.get(j).price(), current.get(j).quantity()});
+                }
+                i++;
+                j++;
+            }
+        }
+        return changes;
+    }
+
+    private static List<BigDecimal[]> pairs(List<OrderBookLevel> side) {
+        List<BigDecimal[]> result = new ArrayList<>(side.size());
+        for (OrderBookLevel level : side) {
+            result.add(new BigDecimal[]{level.price(), level.quantity()});
+        }
+        return result;
+    }
+
+    private static long millis(OrderBook book) {
+        return book.timestamp() != null ? book.timestamp().toEpochMilli() : 0;
+    }
+}
@@ -0,0 +1,164 @@
+package com.cryptoview.service.orderbook;
+
+import com.cryptoview.model.domain.OrderBook;
+import com.cryptoview.model.dto.LiveBookFrame;
+import com.cryptoview.model.enums.Exchange;
+import com.cryptoview.model.enums.MarketType;
+import com.cryptoview.service.symbol.SymbolRegistry;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.LongSupplier;
+
+/**
+ * Live per-symbol book for UI clients: a snapshot on subscribe, then seq-numbered diffs of the top levels.
+ * Requested depth and rate are rounded to fixed tiers, and subscribers on the same (symbol, depth, rate)
+ * share one channel, so a hot symbol is diffed and encoded once per tick however many people watch it.
+ */
+@Slf4j
+@Service
+public class LiveBookFeed {
+
+    static final int[] DEPTHS = {10, 20, 50, 100, 200, 500};
+    static final long[] INTERVALS_MS = {100, 250, 500, 1000, 2000, 5000};
+
+    private final SymbolRegistry symbolRegistry;
+    private final IntFunction<OrderBook> books;
+    private final Function<LiveBookFrame, String> encoder;
+    private final LongSupplier millis;
+    private final Map<ChannelKey, LiveBookChannel> channels = new ConcurrentHashMap<>();
+
+    @Autowired
+    public LiveBookFeed(OrderBookManager orderBookManager, SymbolRegistry symbolRegistry,
+                        ObjectMapper objectMapper, Clock clock) {
+        this(symbolRegistry, id -> orderBookManager.getOrderBook(id).orElse(null), frame -> {
+            try {
+                return objectMapper.writeValueAsString(frame);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Failed to encode live book frame for " + frame.symbol(), e);
+            }
+        }, clock::millis);
+    }
+
+    LiveBookFeed(SymbolRegistry symbolRegistry, IntFunction<OrderBook> books,
+                 Function<LiveBookFrame, String> encoder, LongSupplier millis) {
+        this.symbolRegistry = symbolRegistry;
+        this.books = books;
+        this.encoder = encoder;
+        this.millis = millis;
+    }
+
+    /**
+     * Attaches {@code sink} to the symbol's channel; it receives the snapshot right away. Empty for a symbol
+     * the registry has never seen. {@code maxRate} is frames per second, the effective tier is on the result.
+     */
+    public Optional<Subscription> subscribe(Exchange exchange, MarketType marketType, String symbol,
+                                            int depth, double maxRate, Consumer<String> sink) {
+        int id = symbolRegistry.find(exchange, marketType, symbol);
+        if (id == SymbolRegistry.UNKNOWN) return Optional.empty();
+
+        ChannelKey key = new ChannelKey(id, depthTier(depth), intervalTier(maxRate));
+        while (true) {
+            LiveBookChannel channel = channels.computeIfAbsent(key,
+                    k -> new LiveBookChannel(symbolRegistry.key(k.symbolId), k.depth, k.intervalMs, encoder));
+            if (channel.add(sink, books.apply(id))) {
+                return Optional.of(new Subscription(key, channel, sink));
+            }
+            channels.remove(key, channel); // канал как раз закрылся последним отписавшимся — берём новый
+        }
+    }
+
+    @Scheduled(fixedRate = 50)
+    public void tick() {
+        if (channels.isEmpty()) return;
+        long now = millis.getAsLong();
+        for (LiveBookChannel channel : channels.values()) {
+            try {
+                channel.tick(now, books.apply(channel.key.id()));
+            } catch (Exception e) {
+                log.warn("[{}:{}] Live book tick failed for {}: {}", channel.key.exchange(), channel.key.marketType(),
+                        channel.key.symbol(), e.getMessage());
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        int subscribers = 0;
+        long frames = 0;
+        for (LiveBookChannel channel : channels.values()) {
+            subscribers += channel.subscribers();
+            frames += channel.frames();
+        }
+        return Map.of(
+                "channels", channels.size(),
+                "subscribers", subscribers,
+                "framesEncoded", frames);
+    }
+
+    static int depthTier(int depth) {
+        for (int tier : DEPTHS) {
+            if (depth <= tier) return tier;
+        }
+        return DEPTHS[DEPTHS.length - 1];
+    }
+
+    /**
+     * Shortest tier interval that stays within {@code maxRate}; non-positive means the fastest tier.
+     */
+    static long intervalTier(double maxRate) {
+        if (maxRate <= 0) return INTERVALS_MS[0];
+        double interval = 1000 / maxRate;
+        for (long tier : INTERVALS_MS) {
+            if (tier >= interval) return tier;
+        }
+        return INTERVALS_MS[INTERVALS_MS.length - 1];
+    }
+
+    /**
+     * A sink's place in a channel. {@link #resync} re-sends the snapshot at the current seq, for a client
+     * that noticed a gap.
+     */
+    public final class Subscription implements AutoCloseable {
+        private final ChannelKey key;
+        private final LiveBookChannel channel;
+        private final Consumer<String> sink;
+
+        private Subscription(ChannelKey key, LiveBookChannel channel, Consumer<String> sink) {
+            this.key = key;
+            this.channel = channel;
+            this.sink = sink;
+        }
+
+        public int depth() {
+            return key.depth;
+        }
+
+        public long intervalMs() {
+            return key.intervalMs;
+        }
+
+        public void resync() {
+            channel.resync(sink);
+        }
+
+        @Override
+        public void close() {
+            if (channel.remove(sink)) {
+                channels.remove(key, channel);
+            }
+        }
+    }
+
+    private record ChannelKey(int symbolId, int depth, long intervalMs) {}
+}
@@ -1,54 +1,140 @@
 package com.cryptoview.service.orderbook;
 
-import com.cryptoview.event.OrderBookUpdateEvent;
+import com.cryptoview.config.CryptoViewProperties;
 import com.cryptoview.model.domain.OrderBook;
 import com.cryptoview.model.domain.OrderBookLevel;
 import com.cryptoview.model.enums.Exchange;
 import com.cryptoview.model.enums.MarketType;
-import lombok.RequiredArgsConstructor;
+import com.cryptoview.service.pipeline.OrderBookPipeline;
+import com.cryptoview.service.symbol.SymbolRegistry;
+import com.cryptoview.service.symbol.SymbolTable;
+import com.cryptoview.service.timer.HashedWheelTimer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Clock;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.RandomAccess;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class OrderBookManager {
 
-    private final ApplicationEventPublisher eventPublisher;
+    private final OrderBookPipeline pipeline;
+    private final Clock clock;
+    private final SymbolRegistry symbolRegistry;
+    private final HashedWheelTimer timer;
+    private final CryptoViewProperties.PublishConfig publishConfig;
+    private final PublishCoalescer coalescer;
+    private final OrderBookStreams streams;
+    private final boolean replaying;
+    private HashedWheelTimer.Timeout flushTimeout;
+
+    private final SymbolTable<OrderBook> orderBooks = new SymbolTable<>();
+    private final SymbolTable<BigDecimal> lastPrices = new SymbolTable<>();
+    private final BboTable bbo = new BboTable();
+
+    // Уровень проходит, если |price - current| / current, округлённое HALF_UP до 4 знаков, не больше 10%,
+    // т.е. отклонение строго меньше 10.005%: полоса считается один раз на апдейт, без деления на каждый уровень
+    private static final BigDecimal BAND_HALF_WIDTH = new BigDecimal("0.10005");
+    static final BigDecimal BAND_LOWER_FACTOR = BigDecimal.ONE.subtract(BAND_HALF_WIDTH);
+    static final BigDecimal BAND_UPPER_FACTOR = BigDecimal.ONE.add(BAND_HALF_WIDTH);
+
+    public OrderBookManager(OrderBookPipeline pipeline, Clock clock, SymbolRegistry symbolRegistry,
+                            HashedWheelTimer timer, OrderBookStreams streams, CryptoViewProperties properties) {
+        this.pipeline = pipeline;
+        this.streams = streams;
+        this.clock = clock;
+        this.symbolRegistry = symbolRegistry;
+        this.timer = timer;
+        this.publishConfig = properties.getPublish();
+        this.replaying = properties.getReplay().isEnabled();
+        this.coalescer = new PublishCoalescer(publishConfig.getIntervalMs(), publishConfig.getMaxIntervalMs(),
+                pipeline::load, clock::millis,
+                (id, symbol, exchange, marketType, snapshot) ->
+                        update(id, symbol, exchange, marketType, snapshot.bids(), snapshot.asks(), null));
+    }
+
+    @PostConstruct
+    public void init() {
+        if (replaying) {
+            log.info("[PUBLISH] Coalescing orderbooks every {}..{}ms of recorded time, flushed by replay",
+                    publishConfig.getIntervalMs(), publishConfig.getMaxIntervalMs());
+            return;
+        }
+        long tick = Math.max(10, publishConfig.getFlushTickMs());
+        flushTimeout = timer.scheduleAtFixedRate("orderbook-publish", coalescer::flush, tick, tick,
+                TimeUnit.MILLISECONDS);
+        log.info("[PUBLISH] Coalescing orderbooks: every {}..{}ms per symbol, flush tick {}ms",
+                publishConfig.getIntervalMs(), publishConfig.getMaxIntervalMs(), tick);
+    }
 
-    private final Map<String, OrderBook> orderBooks = new ConcurrentHashMap<>();
-    private final Map<String, BigDecimal> lastPrices = new ConcurrentHashMap<>();
-    private final java.util.Set<String> firstSeenLogged = ConcurrentHashMap.newKeySet();
+    @PreDestroy
+    public void shutdown() {
+        if (flushTimeout != null) {
+            flushTimeout.cancel();
+        }
+    }
 
-    private static final BigDecimal MAX_DISTANCE_PERCENT = new BigDecimal("10");
+    /**
+     * Отмечает, что книга символа изменилась. Снапшот берётся из source позже, при публикации:
+     * сколько бы дельт ни пришло за интервал, анализ увидит одно последнее состояние.
+     * Лучшие bid/ask при этом пишутся в {@link BboTable} сразу, на каждое изменение.
+     */
+    public void markDirty(String symbol, Exchange exchange, MarketType marketType, OrderBookSource source) {
+        int id = symbolRegistry.idOf(exchange, marketType, symbol);
+        source.writeTop(bbo, id, clock.millis());
+        coalescer.mark(id, symbol, exchange, marketType, source);
+    }
 
+    /**
+     * Publishes every dirty book whose interval has passed; returns how many were published.
+     * Replay calls this on flush ticks of recorded time instead of the timer, so the same recording
+     * publishes the same books with the same timestamps at any replay speed.
+     */
+    public int flushPublishes() {
+        return coalescer.flush();
+    }
+
+    /**
+     * Publishes the book right away, bypassing the coalescer.
+     */
     public void updateOrderBook(String symbol, Exchange exchange, MarketType marketType,
                                  List<OrderBookLevel> bids, List<OrderBookLevel> asks,
                                  BigDecimal lastPrice) {
-        String key = buildKey(symbol, exchange, marketType);
-
-        if (firstSeenLogged.add(key)) {
-            log.info("[{}:{}] First orderbook received for {}", exchange, marketType, symbol);
-        }
+        int id = symbolRegistry.idOf(exchange, marketType, symbol);
+        bbo.update(id, bids, asks, clock.millis());
+        update(id, symbol, exchange, marketType, bids, asks, lastPrice);
+    }
 
+    private boolean update(int id, String symbol, Exchange exchange, MarketType marketType,
+                        List<OrderBookLevel> bids, List<OrderBookLevel> asks, BigDecimal lastPrice) {
         if (lastPrice != null) {
-            lastPrices.put(key, lastPrice);
+            lastPrices.put(id, lastPrice);
         }
 
-        BigDecimal currentPrice = lastPrices.getOrDefault(key, getMidPrice(bids, asks));
+        BigDecimal currentPrice = lastPrices.get(id);
+        if (currentPrice == null) {
+            currentPrice = getMidPrice(bids, asks);
+        }
 
-        List<OrderBookLevel> filteredBids = filterByDistance(bids, currentPrice, true);
-        List<OrderBookLevel> filteredAsks = filterByDistance(asks, currentPrice, false);
+        List<OrderBookLevel> filteredBids = bids;
+        List<OrderBookLevel> filteredAsks = asks;
+        if (currentPrice != null && currentPrice.signum() != 0) {
+            BigDecimal lower = currentPrice.multiply(BAND_LOWER_FACTOR);
+            BigDecimal upper = currentPrice.multiply(BAND_UPPER_FACTOR);
+            filteredBids = filterByDistance(bids, lower, upper, true);
+            filteredAsks = filterByDistance(asks, lower, upper, false);
+        }
 
         OrderBook orderBook = new OrderBook(
                 symbol,
@@ -57,50 +143,70 @@ public class OrderBookManager {
                 filteredBids,
                 filteredAsks,
                 currentPrice,
-                Instant.now()
+                Instant.now(clock),
+                id
         );
 
-        orderBooks.put(key, orderBook);
-        eventPublisher.publishEvent(new OrderBookUpdateEvent(this, orderBook));
+        if (orderBooks.put(id, orderBook) == null) {
+            log.info("[{}:{}] First orderbook received for {}", exchange, marketType, symbol);
+        }
+        return pipeline.publish(orderBook);
     }
 
     public void updateLastPrice(String symbol, Exchange exchange, MarketType marketType, BigDecimal price) {
-        String key = buildKey(symbol, exchange, marketType);
-        lastPrices.put(key, price);
+        lastPrices.put(symbolRegistry.idOf(exchange, marketType, symbol), price);
     }
 
     public Optional<OrderBook> getOrderBook(String symbol, Exchange exchange, MarketType marketType) {
-        String key = buildKey(symbol, exchange, marketType);
-        return Optional.ofNullable(orderBooks.get(key));
+        return Optional.ofNullable(orderBooks.get(symbolRegistry.find(exchange, marketType, symbol)));
     }
 
     public BigDecimal getLastPrice(String symbol, Exchange exchange, MarketType marketType) {
-        String key = buildKey(symbol, exchange, marketType);
-        return lastPrices.get(key);
+        return lastPrices.get(symbolRegistry.find(exchange, marketType, symbol));
     }
 
-    private List<OrderBookLevel> filterByDistance(List<OrderBookLevel> levels, BigDecimal currentPrice, boolean isBid) {
-        if (currentPrice == null || currentPrice.compareTo(BigDecimal.ZERO) == 0) {
-            return levels;
-        }
+    public Optional<OrderBook> getOrderBook(int symbolId) {
+        return Optional.ofNullable(orderBooks.get(symbolId));
+    }
 
-        List<OrderBookLevel> filtered = new ArrayList<>();
-        for (OrderBookLevel level : levels) {
-            BigDecimal distance = calculateDistancePercent(level.price(), currentPrice);
-            if (distance.abs().compareTo(MAX_DISTANCE_PERCENT) <= 0) {
-                filtered.add(level);
-            }
+    /**
+     * Levels strictly inside (lower, upper), as a view over the input. Sources hand levels over best-first
+     * (bids by descending, asks by ascending price — see {@link OrderBookSource#snapshot()}), so the band is one
+     * contiguous range found by binary search.
+     */
+    static List<OrderBookLevel> filterByDistance(List<OrderBookLevel> levels, BigDecimal lower, BigDecimal upper,
+                                                  boolean isBid) {
+        if (!(levels instanceof RandomAccess)) {
+            levels = new ArrayList<>(levels);
+        }
+        int from = isBid ? boundary(levels, upper, true, false) : boundary(levels, lower, false, false);
+        int to = isBid ? boundary(levels, lower, true, true) : boundary(levels, upper, false, true);
+        if (from == 0 && to == levels.size()) {
+            return levels;
         }
-        return filtered;
+        return from < to ? levels.subList(from, to) : List.of();
     }
 
-    private BigDecimal calculateDistancePercent(BigDecimal price, BigDecimal currentPrice) {
-        if (currentPrice.compareTo(BigDecimal.ZERO) == 0) {
-            return BigDecimal.ZERO;
+    /**
+     * Первый индекс, где цена уже прошла bound по ходу списка (ниже для bids, выше для asks);
+     * inclusive — равная bound цена тоже считается прошедшей.
+     */
+    private static int boundary(List<OrderBookLevel> levels, BigDecimal bound, boolean descending, boolean inclusive) {
+        int lo = 0;
+        int hi = levels.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = levels.get(mid).price().compareTo(bound);
+            if (descending) {
+                cmp = -cmp;
+            }
+            if (cmp > 0 || (inclusive && cmp == 0)) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
         }
-        return price.subtract(currentPrice)
-                .divide(currentPrice, 4, RoundingMode.HALF_UP)
-                .multiply(new BigDecimal("100"));
+        return lo;
     }
 
     private BigDecimal getMidPrice(List<OrderBookLevel> bids, List<OrderBookLevel> asks) {
@@ -111,8 +217,22 @@ public class OrderBookManager {
                 .divide(BigDecimal.valueOf(2), RoundingMode.HALF_UP);
     }
 
-    private String buildKey(String symbol, Exchange exchange, MarketType marketType) {
-        return String.format("%s_%s_%s", exchange, marketType, symbol.toUpperCase());
+    /**
+     * Поток опубликованных книг с собственным backpressure подписчика — см. {@link OrderBookStreamSpec}.
+     */
+    public Flow.Publisher<OrderBook> stream(OrderBookStreamSpec spec) {
+        return streams.publisher(spec);
+    }
+
+    /**
+     * Top of book for every symbol, current to the last delta (unlike published books).
+     */
+    public BboTable getBbo() {
+        return bbo;
+    }
+
+    public PublishCoalescer.Stats getPublishStats() {
+        return coalescer.stats();
     }
 
     public int getOrderBookCount() {
@@ -0,0 +1,182 @@
+package com.cryptoview.service.orderbook;
+
+import com.cryptoview.model.domain.OrderBook;
+import com.cryptoview.model.domain.OrderBookLevel;
+import com.cryptoview.model.dto.OrderBookResponse;
+import com.cryptoview.model.enums.Exchange;
+import com.cryptoview.model.enums.MarketType;
+import com.cryptoview.service.symbol.SymbolRegistry;
+import com.cryptoview.service.symbol.SymbolTable;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * Serialized JSON of the latest published book per symbol, so polling clients cost a byte copy rather than
+ * a walk over the levels and a Jackson pass each. The payload lives until the manager publishes a new
+ * book instance for the symbol; every new instance bumps the symbol's version, which doubles as an ETag.
+ */
+@Service
+public class OrderBookSnapshotCache {
+
+    public static final int MAX_BUCKETS = 500;
+    // Комбинаций depth/buckets на символ: популярные держим, экзотика вытесняет старейшую
+    private static final int MAX_VARIANTS = 8;
+
+    private final SymbolRegistry symbolRegistry;
+    private final ObjectMapper objectMapper;
+    private final IntFunction<OrderBook> books;
+    private final SymbolTable<Entry> entries = new SymbolTable<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    @Autowired
+    public OrderBookSnapshotCache(OrderBookManager orderBookManager, SymbolRegistry symbolRegistry,
+                                  ObjectMapper objectMapper) {
+        this(symbolRegistry, objectMapper, id -> orderBookManager.getOrderBook(id).orElse(null));
+    }
+
+    OrderBookSnapshotCache(SymbolRegistry symbolRegistry, ObjectMapper objectMapper, IntFunction<OrderBook> books) {
+        this.symbolRegistry = symbolRegistry;
+        this.objectMapper = objectMapper;
+        this.books = books;
+    }
+
+    /**
+     * JSON of the current book: {@code depth} levels per side (0 = all), folded into {@code buckets}
+     * price ranges when positive.
+     */
+    public Optional<Payload> get(Exchange exchange, MarketType marketType, String symbol, int depth, int buckets) {
+        int id = symbolRegistry.find(exchange, marketType, symbol);
+        if (id == SymbolRegistry.UNKNOWN) return Optional.empty();
+        OrderBook book = books.apply(id);
+        if (book == null) return Optional.empty();
+
+        Entry entry = entries.get(id);
+        if (entry == null) {
+            entry = entries.computeIfAbsent(id, Entry::new);
+        }
+        return Optional.of(entry.payload(book, new Variant(Math.max(0, depth),
+                Math.max(0, Math.min(MAX_BUCKETS, buckets)))));
+    }
+
+    public Map<String, Object> getStats() {
+        long h = hits.get();
+        long m = misses.get();
+        return Map.of(
+                "hits", h,
+                "misses", m,
+                "hitRate", h + m > 0 ? (double) h / (h + m) : 0.0);
+    }
+
+    private byte[] serialize(OrderBook book, Variant variant, long version) {
+        OrderBookResponse response = new OrderBookResponse(
+                book.symbol(), book.exchange(), book.marketType(), version, book.timestamp(),
+                book.lastPrice(), book.getMidPrice(), variant.buckets,
+                levels(book.bids(), variant.depth, variant.buckets, true),
+                levels(book.asks(), variant.depth, variant.buckets, false));
+        try {
+            return objectMapper.writeValueAsBytes(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize order book " + book.symbol(), e);
+        }
+    }
+
+    /**
+     * Best-first levels of one side, cut to {@code depth} and, with {@code buckets > 0}, folded into equal
+     * price ranges between the touch and the deepest kept level. Empty ranges are left out.
+     */
+    static List<OrderBookResponse.Level> levels(List<OrderBookLevel> side, int depth, int buckets, boolean bid) {
+        int size = depth > 0 ? Math.min(depth, side.size()) : side.size();
+        if (size == 0) return List.of();
+        List<OrderBookLevel> kept = side.subList(0, size);
+
+        BigDecimal best = kept.getFirst().price();
+        BigDecimal range = kept.get(size - 1).price().subtract(best).abs();
+        if (buckets <= 0 || size <= buckets || range.signum() == 0) {
+            List<OrderBookResponse.Level> result = new ArrayList<>(size);
+            for (OrderBookLevel level : kept) {
+                result.add(new OrderBookResponse.Level(level.price(), level.quantity(), level.getVolumeUsd()));
+            }
+            return result;
+        }
+
+        BigDecimal width = range.divide(BigDecimal.valueOf(buckets), MathContext.DECIMAL64);
+        BigDecimal[] quantity = new BigDecimal[buckets];
+        BigDecimal[] volume = new BigDecimal[buckets];
+        for (OrderBookLevel level : kept) {
+            BigDecimal distance = level.price().subtract(best).abs();
+            int bucket = Math.min(buckets - 1, distance.divide(width, 0, RoundingMode.FLOOR).intValue());
+            quantity[bucket] = quantity[bucket] == null ? level.quantity() : quantity[bucket].add(level.quantity());
+            volume[bucket] = volume[bucket] == null ? level.getVolumeUsd() : volume[bucket].add(level.getVolumeUsd());
+        }
+
+        List<OrderBookResponse.Level> result = new ArrayList<>();
+        for (int i = 0; i < buckets; i++) {
+            if (quantity[i] == null) continue;
+            BigDecimal offset = width.multiply(BigDecimal.valueOf(i));
+            BigDecimal price = (bid ? best.subtract(offset) : best.add(offset)).round(MathContext.DECIMAL64);
+            result.add(new OrderBookResponse.Level(price.stripTrailingZeros(), quantity[i], volume[i]));
+        }
+        return result;
+    }
+
+    /**
+     * Serialized book plus the version it was built from; {@code eTag} is stable for that version.
+     */
+    public record Payload(long version, byte[] json, String eTag) {}
+
+    private record Variant(int depth, int buckets) {}
+
+    private final class Entry {
+        private final int id;
+        private OrderBook book;
+        private long version;
+        private final Map<Variant, Payload> variants = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Variant, Payload> eldest) {
+                return size() > MAX_VARIANTS;
+            }
+        };
+
+        Entry(int id) {
+            this.id = id;
+        }
+
+        /**
+         * Сериализация под локом записи: двадцать клиентов на один символ ждут одну сборку, а не делают двадцать.
+         */
+        synchronized Payload payload(OrderBook current, Variant variant) {
+            if (current != book) {
+                // Поллер мог прочитать книгу до публикации следующей — тогда отдаём уже закешированную, более новую
+                if (book == null || !current.timestamp().isBefore(book.timestamp())) {
+                    book = current;
+                    version++;
+                    variants.clear();
+                }
+            }
+            Payload payload = variants.get(variant);
+            if (payload != null) {
+                hits.incrementAndGet();
+                return payload;
+            }
+            misses.incrementAndGet();
+            String eTag = "\"" + id + "-" + version + "-" + variant.depth + "-" + variant.buckets + "\"";
+            payload = new Payload(version, serialize(book, variant, version), eTag);
+            variants.put(variant, payload);
+            return payload;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.cryptoview.service.orderbook;
+
+import com.cryptoview.exchange.common.LocalOrderBook;
+
+/**
+ * Current state of a connector's book, read only when the coalescer actually publishes it
+ * (e.g. a {@link LocalOrderBook}). An empty snapshot is not published.
+ */
+@FunctionalInterface
+public interface OrderBookSource {
+
+    /**
+     * Levels best first: bids by descending, asks by ascending price. Publication binary-searches the
+     * distance band, so an unordered side loses levels — wrap venue lists in
+     * {@link LocalOrderBook.Snapshot#bestFirst} rather than trusting the venue's order.
+     */
+    LocalOrderBook.Snapshot snapshot();
+
+    /**
+     * Writes the current best bid/ask, called on every change. The default takes a full snapshot,
+     * so live books should override it and read just the top.
+     */
+    default void writeTop(BboTable table, int symbolId, long millis) {
+        LocalOrderBook.Snapshot snapshot = snapshot();
+        if (snapshot != null) {
+            table.update(symbolId, snapshot.bids(), snapshot.asks(), millis);
+        }
+    }
+}
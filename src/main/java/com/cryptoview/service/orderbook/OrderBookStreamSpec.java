@@ -0,0 +1,65 @@
+package com.cryptoview.service.orderbook;
+
+import com.cryptoview.model.enums.Exchange;
+import com.cryptoview.model.enums.MarketType;
+
+import java.util.List;
+
+/**
+ * What a stream subscriber wants: which symbols (empty = all), what to do when it falls behind,
+ * and at most how many updates per second per symbol (0 = as published).
+ */
+public record OrderBookStreamSpec(
+        String name,
+        List<Symbol> symbols,
+        Overflow overflow,
+        int bufferSize,
+        double maxRatePerSymbol
+) {
+
+    public enum Overflow {
+        /**
+         * Keep only the newest book per symbol until the subscriber asks for more; never fails, never grows.
+         */
+        LATEST,
+        /**
+         * Deliver every update in order; the subscription fails once bufferSize updates are pending.
+         */
+        BUFFER,
+        /**
+         * Deliver in order up to bufferSize pending; updates arriving beyond that are dropped and counted.
+         */
+        DROP
+    }
+
+    public record Symbol(Exchange exchange, MarketType marketType, String symbol) {}
+
+    public OrderBookStreamSpec {
+        symbols = symbols == null ? List.of() : List.copyOf(symbols);
+        if (overflow == null) {
+            overflow = Overflow.LATEST;
+        }
+        if (overflow != Overflow.LATEST && bufferSize <= 0) {
+            throw new IllegalArgumentException("bufferSize must be positive for " + overflow);
+        }
+        if (maxRatePerSymbol < 0) {
+            throw new IllegalArgumentException("maxRatePerSymbol must not be negative: " + maxRatePerSymbol);
+        }
+    }
+
+    public static OrderBookStreamSpec latest(String name) {
+        return new OrderBookStreamSpec(name, List.of(), Overflow.LATEST, 0, 0);
+    }
+
+    public OrderBookStreamSpec withSymbols(List<Symbol> symbols) {
+        return new OrderBookStreamSpec(name, symbols, overflow, bufferSize, maxRatePerSymbol);
+    }
+
+    public OrderBookStreamSpec withOverflow(Overflow overflow, int bufferSize) {
+        return new OrderBookStreamSpec(name, symbols, overflow, bufferSize, maxRatePerSymbol);
+    }
+
+    public OrderBookStreamSpec withMaxRate(double maxRatePerSymbol) {
+        return new OrderBookStreamSpec(name, symbols, overflow, bufferSize, maxRatePerSymbol);
+    }
+}
@@ -0,0 +1,120 @@
+package com.cryptoview.service.orderbook;
+
+import com.cryptoview.model.domain.OrderBook;
+import com.cryptoview.service.pipeline.OrderBookListener;
+import com.cryptoview.service.symbol.SymbolRegistry;
+import com.cryptoview.service.timer.HashedWheelTimer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Reactive-streams view of published orderbooks for in-process consumers. Each subscriber gets its own
+ * buffer, overflow policy and rate limit (see {@link OrderBookStreamSpec}); the pipeline worker only hands
+ * the book over, so a slow subscriber can never stall analysis or other subscribers.
+ */
+@Slf4j
+@Service
+public class OrderBookStreams implements OrderBookListener {
+
+    private final SymbolRegistry symbolRegistry;
+    private final Executor executor;
+    private final StreamSubscription.Scheduler scheduler;
+    private final LongSupplier millis;
+    private final List<StreamSubscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    public OrderBookStreams(SymbolRegistry symbolRegistry, HashedWheelTimer timer, Clock clock) {
+        this(symbolRegistry, Executors.newVirtualThreadPerTaskExecutor(),
+                (task, delayMs) -> timer.schedule("orderbook-stream", task, delayMs, TimeUnit.MILLISECONDS),
+                clock::millis);
+    }
+
+    OrderBookStreams(SymbolRegistry symbolRegistry, Executor executor, StreamSubscription.Scheduler scheduler,
+                     LongSupplier millis) {
+        this.symbolRegistry = symbolRegistry;
+        this.executor = executor;
+        this.scheduler = scheduler;
+        this.millis = millis;
+    }
+
+    /**
+     * Cold publisher: every {@code subscribe} gets an independent subscription with the given spec,
+     * starting from the next published book.
+     */
+    public Flow.Publisher<OrderBook> publisher(OrderBookStreamSpec spec) {
+        return subscriber -> subscribe(spec, subscriber);
+    }
+
+    private void subscribe(OrderBookStreamSpec spec, Flow.Subscriber<? super OrderBook> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("subscriber"); // §1.9
+        }
+        BitSet ids = null;
+        if (!spec.symbols().isEmpty()) {
+            ids = new BitSet();
+            for (OrderBookStreamSpec.Symbol s : spec.symbols()) {
+                ids.set(symbolRegistry.idOf(s.exchange(), s.marketType(), s.symbol()));
+            }
+        }
+        StreamSubscription subscription = new StreamSubscription(spec, ids, subscriber, executor, scheduler,
+                millis, subscriptions::remove);
+        subscriber.onSubscribe(subscription);
+        // Книги начинают поступать только после onSubscribe (§1.3)
+        if (!subscription.isTerminated()) {
+            subscriptions.add(subscription);
+        }
+        log.info("[STREAM] Subscriber '{}' attached: {} symbols, {}, maxRate={}/s",
+                spec.name(), spec.symbols().isEmpty() ? "all" : spec.symbols().size(), spec.overflow(),
+                spec.maxRatePerSymbol());
+    }
+
+    @Override
+    public void onOrderBook(OrderBook orderBook) {
+        for (StreamSubscription subscription : subscriptions) {
+            subscription.offer(orderBook);
+        }
+    }
+
+    public List<SubscriberStats> getStats() {
+        return subscriptions.stream().map(StreamSubscription::stats).toList();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscriptions.forEach(StreamSubscription::complete);
+        if (executor instanceof ExecutorService service) {
+            service.shutdown();
+        }
+    }
+
+    /**
+     * {@code symbols} -1 = all; {@code requested} -1 = unbounded; lag is publish time to delivery.
+     */
+    public record SubscriberStats(
+            String name,
+            OrderBookStreamSpec.Overflow overflow,
+            int symbols,
+            int pending,
+            long requested,
+            long delivered,
+            long conflated,
+            long dropped,
+            long throttled,
+            double avgLagMs,
+            long maxLagMs,
+            String state
+    ) {}
+}
@@ -0,0 +1,151 @@
+package com.cryptoview.service.orderbook;
+
+import com.cryptoview.exchange.common.LocalOrderBook;
+import com.cryptoview.model.enums.Exchange;
+import com.cryptoview.model.enums.MarketType;
+import com.cryptoview.service.symbol.SymbolTable;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Latest-wins publication: connectors only mark a symbol dirty, {@link #flush} takes one snapshot of each due
+ * symbol and publishes it. Snapshot and analysis cost is thus bounded per symbol per interval, whatever the
+ * venue's push rate.
+ *
+ * The interval adapts: it is {@code baseIntervalMs} while the pipeline keeps up and stretches towards
+ * {@code maxIntervalMs} as its queues fill. Quiet symbols (a few changes since the last publish) are never
+ * stretched — they cost little, and a rare change is worth seeing quickly; only busy books are slowed down.
+ *
+ * A snapshot the pipeline drops (queue full) is not lost: the symbol stays dirty and goes out again on the next
+ * flush past its interval, so a book that stopped changing still reaches analysis in its final state.
+ */
+@Slf4j
+public final class PublishCoalescer {
+
+    static final int QUIET_MARKS = 3;
+
+    interface Publisher {
+        /**
+         * @return {@code false} if the book was dropped and has to be published again
+         */
+        boolean publish(int symbolId, String symbol, Exchange exchange, MarketType marketType,
+                        LocalOrderBook.Snapshot snapshot);
+    }
+
+    private final long baseIntervalMs;
+    private final long maxIntervalMs;
+    private final DoubleSupplier load;
+    private final LongSupplier millis;
+    private final Publisher publisher;
+    private final SymbolTable<Pending> pending = new SymbolTable<>();
+
+    private final AtomicLong marked = new AtomicLong();
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong deferred = new AtomicLong();
+    private volatile long currentIntervalMs;
+
+    PublishCoalescer(long baseIntervalMs, long maxIntervalMs, DoubleSupplier load, LongSupplier millis,
+                     Publisher publisher) {
+        this.baseIntervalMs = Math.max(0, baseIntervalMs);
+        this.maxIntervalMs = Math.max(this.baseIntervalMs, maxIntervalMs);
+        this.load = load;
+        this.millis = millis;
+        this.publisher = publisher;
+        this.currentIntervalMs = this.baseIntervalMs;
+    }
+
+    void mark(int symbolId, String symbol, Exchange exchange, MarketType marketType, OrderBookSource source) {
+        Pending p = pending.get(symbolId);
+        if (p == null) {
+            p = pending.computeIfAbsent(symbolId, id -> new Pending(id, symbol, exchange, marketType));
+        }
+        p.source = source; // книга могла быть пересоздана коннектором — публикуем всегда последнюю
+        p.marks.incrementAndGet();
+        p.dirty.set(true);
+        marked.incrementAndGet();
+    }
+
+    /**
+     * Publishes every dirty symbol whose interval has passed; returns how many were published.
+     */
+    int flush() {
+        long now = millis.getAsLong();
+        double fill = Math.min(1.0, Math.max(0.0, load.getAsDouble()));
+        long interval = baseIntervalMs + Math.round((maxIntervalMs - baseIntervalMs) * fill);
+        currentIntervalMs = interval;
+
+        int[] count = {0};
+        pending.forEach(p -> {
+            if (!p.dirty.get()) return;
+
+            long due = p.marks.get() <= QUIET_MARKS ? baseIntervalMs : interval;
+            if (now - p.lastPublishMillis < due) return;
+
+            // Флаг снимаем до снапшота: изменение во время публикации снова пометит книгу
+            p.dirty.set(false);
+            int marks = p.marks.getAndSet(0);
+            p.lastPublishMillis = now;
+            try {
+                LocalOrderBook.Snapshot snapshot = p.source.snapshot();
+                if (snapshot != null && (!snapshot.bids().isEmpty() || !snapshot.asks().isEmpty())) {
+                    if (publisher.publish(p.id, p.symbol, p.exchange, p.marketType, snapshot)) {
+                        count[0]++;
+                    } else {
+                        // Очередь полна: книга остаётся грязной и уйдёт следующим флашем после интервала
+                        p.marks.addAndGet(marks);
+                        p.dirty.set(true);
+                        deferred.incrementAndGet();
+                    }
+                }
+            } catch (RuntimeException e) {
+                failed.incrementAndGet();
+                log.warn("[{}:{}] Failed to publish orderbook for {}: {}",
+                        p.exchange, p.marketType, p.symbol, e.getMessage(), e);
+            }
+        });
+        published.addAndGet(count[0]);
+        return count[0];
+    }
+
+    Stats stats() {
+        int[] dirty = {0};
+        pending.forEach(p -> {
+            if (p.dirty.get()) dirty[0]++;
+        });
+        long marks = marked.get();
+        long publishes = published.get();
+        return new Stats(pending.size(), dirty[0], marks, publishes, failed.get(), deferred.get(),
+                publishes > 0 ? (double) marks / publishes : 0, currentIntervalMs);
+    }
+
+    private static final class Pending {
+        final int id;
+        final String symbol;
+        final Exchange exchange;
+        final MarketType marketType;
+        final AtomicBoolean dirty = new AtomicBoolean();
+        final AtomicInteger marks = new AtomicInteger();
+        volatile OrderBookSource source;
+        long lastPublishMillis = Long.MIN_VALUE / 2; // flush only
+
+        Pending(int id, String symbol, Exchange exchange, MarketType marketType) {
+            this.id = id;
+            this.symbol = symbol;
+            this.exchange = exchange;
+            this.marketType = marketType;
+        }
+    }
+
+    /**
+     * {@code coalescingRatio} — marks per publish: how many venue updates one published snapshot stands for;
+     * {@code deferred} — snapshots the pipeline dropped and that were kept dirty for the next flush.
+     */
+    public record Stats(int symbols, int dirty, long marked, long published, long failed, long deferred,
+                        double coalescingRatio, long intervalMs) {}
+}
@@ -0,0 +1,283 @@
+package com.cryptoview.service.orderbook;
+
+import com.cryptoview.model.domain.OrderBook;
+import com.cryptoview.service.symbol.SymbolTable;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * One subscriber of {@link OrderBookStreams}. Pipeline workers only {@link #offer} books into the subscriber's own
+ * buffer; delivery runs serially on the executor and never faster than the subscriber's demand, so a slow consumer
+ * only ever hurts itself. See {@link OrderBookStreamSpec.Overflow} for what happens when it falls behind.
+ */
+@Slf4j
+final class StreamSubscription implements Flow.Subscription {
+
+    interface Scheduler {
+        void schedule(Runnable task, long delayMs);
+    }
+
+    private final OrderBookStreamSpec spec;
+    private final BitSet symbolIds; // null = все символы; не меняется после создания
+    private final Flow.Subscriber<? super OrderBook> subscriber;
+    private final Executor executor;
+    private final Scheduler scheduler;
+    private final LongSupplier millis;
+    private final Consumer<StreamSubscription> onTerminate;
+    private final long minGapMs;
+
+    // LATEST: последняя книга по символу + очередь символов, ждущих доставки
+    private final SymbolTable<OrderBook> latest;
+    private final Queue<Integer> ready;
+    // BUFFER / DROP
+    private final BlockingQueue<OrderBook> buffer;
+
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicInteger wip = new AtomicInteger();
+    private final AtomicBoolean timerArmed = new AtomicBoolean();
+    private volatile boolean cancelled;
+    private volatile boolean completing;
+    private volatile Throwable error;
+    private volatile boolean terminated;
+
+    private final SymbolTable<long[]> lastDelivered = new SymbolTable<>(); // drain only
+
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong conflated = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private volatile double avgLagMs;
+    private volatile long maxLagMs;
+
+    StreamSubscription(OrderBookStreamSpec spec, BitSet symbolIds, Flow.Subscriber<? super OrderBook> subscriber,
+                       Executor executor, Scheduler scheduler, LongSupplier millis,
+                       Consumer<StreamSubscription> onTerminate) {
+        this.spec = spec;
+        this.symbolIds = symbolIds;
+        this.subscriber = subscriber;
+        this.executor = executor;
+        this.scheduler = scheduler;
+        this.millis = millis;
+        this.onTerminate = onTerminate;
+        this.minGapMs = spec.maxRatePerSymbol() > 0 ? Math.round(1000 / spec.maxRatePerSymbol()) : 0;
+        if (spec.overflow() == OrderBookStreamSpec.Overflow.LATEST) {
+            this.latest = new SymbolTable<>();
+            this.ready = new ConcurrentLinkedQueue<>();
+            this.buffer = null;
+        } else {
+            this.latest = null;
+            this.ready = null;
+            this.buffer = new ArrayBlockingQueue<>(spec.bufferSize());
+        }
+    }
+
+    /**
+     * Called from pipeline workers; never blocks.
+     */
+    void offer(OrderBook book) {
+        int id = book.symbolId();
+        if (terminated || cancelled || error != null || id < 0) return;
+        if (symbolIds != null && !symbolIds.get(id)) return;
+
+        if (latest != null) {
+            if (latest.put(id, book) == null) {
+                ready.add(id);
+            } else {
+                conflated.incrementAndGet();
+            }
+        } else if (!buffer.offer(book)) {
+            if (spec.overflow() == OrderBookStreamSpec.Overflow.BUFFER) {
+                error = new IllegalStateException("Stream '" + spec.name() + "' fell " + spec.bufferSize()
+                        + " updates behind");
+            } else {
+                dropped.incrementAndGet();
+            }
+        }
+        signal();
+    }
+
+    @Override
+    public void request(long n) {
+        if (n <= 0) {
+            error = new IllegalArgumentException("Non-positive request " + n + " (Reactive Streams §3.9)");
+        } else {
+            requested.accumulateAndGet(n, (current, add) -> current + add < 0 ? Long.MAX_VALUE : current + add);
+        }
+        signal();
+    }
+
+    @Override
+    public void cancel() {
+        cancelled = true;
+        signal();
+    }
+
+    /**
+     * Completes the subscriber once what is already buffered has been delivered.
+     */
+    void complete() {
+        completing = true;
+        signal();
+    }
+
+    boolean isTerminated() {
+        return terminated;
+    }
+
+    OrderBookStreams.SubscriberStats stats() {
+        int pending = latest != null ? latest.size() : buffer.size();
+        return new OrderBookStreams.SubscriberStats(
+                spec.name(),
+                spec.overflow(),
+                spec.symbols().isEmpty() ? -1 : spec.symbols().size(),
+                pending,
+                requested.get() == Long.MAX_VALUE ? -1 : requested.get(),
+                delivered.get(),
+                conflated.get(),
+                dropped.get(),
+                throttled.get(),
+                Math.round(avgLagMs * 10) / 10.0,
+                maxLagMs,
+                terminated ? "TERMINATED" : cancelled ? "CANCELLED" : "ACTIVE"
+        );
+    }
+
+    private void signal() {
+        if (wip.getAndIncrement() == 0) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        int missed = 1;
+        do {
+            if (!terminated) {
+                drainOnce();
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void drainOnce() {
+        if (cancelled) {
+            terminate();
+            return;
+        }
+        Throwable failure = error;
+        if (failure != null) {
+            terminate();
+            subscriber.onError(failure);
+            return;
+        }
+
+        long now = millis.getAsLong();
+        long demand = requested.get();
+        long emitted = 0;
+        long nextDue = Long.MAX_VALUE;
+
+        if (latest != null) {
+            // Один проход по текущей очереди: отложенные по лимиту частоты символы вернутся в её конец
+            List<Integer> deferred = null;
+            for (int n = ready.size(); n > 0 && emitted < demand && !cancelled; n--) {
+                Integer id = ready.poll();
+                if (id == null) break;
+                long due = dueAt(id);
+                if (now < due) {
+                    if (deferred == null) deferred = new ArrayList<>();
+                    deferred.add(id);
+                    nextDue = Math.min(nextDue, due);
+                    continue;
+                }
+                OrderBook book = latest.remove(id);
+                if (book != null && emit(id, book, now)) {
+                    emitted++;
+                }
+            }
+            if (deferred != null) {
+                ready.addAll(deferred);
+            }
+        } else {
+            while (emitted < demand && !cancelled) {
+                OrderBook book = buffer.poll();
+                if (book == null) break;
+                if (now < dueAt(book.symbolId())) {
+                    throttled.incrementAndGet(); // порядок важнее полноты: слишком частые апдейты пропускаем
+                    continue;
+                }
+                if (emit(book.symbolId(), book, now)) {
+                    emitted++;
+                }
+            }
+        }
+
+        if (emitted > 0 && demand != Long.MAX_VALUE) {
+            requested.addAndGet(-emitted);
+        }
+        if (nextDue != Long.MAX_VALUE && timerArmed.compareAndSet(false, true)) {
+            scheduler.schedule(() -> {
+                timerArmed.set(false);
+                signal();
+            }, nextDue - now);
+        }
+        if (completing && !cancelled && isDrained()) {
+            terminate();
+            subscriber.onComplete();
+        }
+    }
+
+    private boolean emit(int id, OrderBook book, long now) {
+        try {
+            subscriber.onNext(book);
+        } catch (RuntimeException e) {
+            // §2.13: подписчик не должен бросать — считаем это отменой
+            log.warn("[STREAM] Subscriber '{}' threw on onNext, cancelling: {}", spec.name(), e.getMessage(), e);
+            cancelled = true;
+            return false;
+        }
+        delivered.incrementAndGet();
+        if (minGapMs > 0) {
+            lastDelivered.computeIfAbsent(id, k -> new long[1])[0] = now;
+        }
+        long lag = Math.max(0, now - book.timestamp().toEpochMilli());
+        avgLagMs = avgLagMs == 0 ? lag : avgLagMs * 0.95 + lag * 0.05;
+        if (lag > maxLagMs) {
+            maxLagMs = lag;
+        }
+        return true;
+    }
+
+    private long dueAt(int id) {
+        if (minGapMs == 0) return Long.MIN_VALUE;
+        long[] last = lastDelivered.get(id);
+        return last == null ? Long.MIN_VALUE : last[0] + minGapMs;
+    }
+
+    private boolean isDrained() {
+        return latest != null ? ready.isEmpty() : buffer.isEmpty();
+    }
+
+    private void terminate() {
+        if (terminated) return;
+        terminated = true;
+        if (latest != null) {
+            ready.clear();
+        } else {
+            buffer.clear();
+        }
+        onTerminate.accept(this);
+    }
+}
@@ -0,0 +1,38 @@
+package com.cryptoview.service.orderbook;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link LevelScan.Kernel} on the widest double vectors the CPU has. A lane block is compared against the
+ * floor at once; blocks with no level above it — nearly all of a book — cost one compare and one test.
+ * Loaded only through {@link LevelScan#vectorKernel()}.
+ */
+final class VectorLevelScan implements LevelScan.Kernel {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public int select(double[] notional, int size, double floor, int[] out) {
+        int n = 0;
+        int i = 0;
+        for (int bound = SPECIES.loopBound(size); i < bound; i += SPECIES.length()) {
+            VectorMask<Double> mask = DoubleVector.fromArray(SPECIES, notional, i).compare(VectorOperators.GE, floor);
+            if (!mask.anyTrue()) continue;
+            for (long bits = mask.toLong(); bits != 0; bits &= bits - 1) {
+                out[n++] = i + Long.numberOfTrailingZeros(bits);
+            }
+        }
+        for (; i < size; i++) {
+            if (notional[i] >= floor) out[n++] = i;
+        }
+        return n;
+    }
+
+    @Override
+    public String toString() {
+        return "vector " + SPECIES.vectorBitSize() + "-bit";
+    }
+}
@@ -0,0 +1,13 @@
+package com.cryptoview.service.pipeline;
+
+import com.cryptoview.model.domain.OrderBook;
+
+/**
+ * Consumer of published orderbooks. Called on a pipeline worker; updates of one symbol always arrive
+ * in order and on the same thread, different symbols may be processed in parallel. Per-symbol state that
+ * changes on every update belongs in a {@link PartitionLocal}.
+ */
+public interface OrderBookListener {
+
+    void onOrderBook(OrderBook orderBook);
+}
@@ -0,0 +1,203 @@
+package com.cryptoview.service.pipeline;
+
+import com.cryptoview.config.CryptoViewProperties;
+import com.cryptoview.model.domain.OrderBook;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands published orderbooks from connector threads to analysis workers.
+ *
+ * Books are partitioned by symbol id over N single-threaded workers with bounded queues: per-symbol order is
+ * kept, symbols spread over cores, and a socket reader never waits for detection. When a partition is full the
+ * update is dropped, counted and {@link #publish} returns {@code false}; the caller decides whether the book has
+ * to go out again (the publish coalescer keeps the symbol dirty, so a book that stops changing is not lost with
+ * the dropped update). On replay the publisher blocks instead, so no recorded update is lost. Listeners are plain
+ * interface calls, no event resolution.
+ */
+@Slf4j
+@Service
+public class OrderBookPipeline {
+
+    private final OrderBookListener[] listeners;
+    private final Partition[] partitions;
+    private final boolean blockWhenFull;
+    private volatile boolean running = true;
+
+    @Autowired
+    public OrderBookPipeline(List<OrderBookListener> listeners, CryptoViewProperties properties) {
+        this(listeners, properties.getPipeline().getWorkers(), properties.getPipeline().getQueueCapacity(),
+                properties.getReplay().isEnabled());
+    }
+
+    OrderBookPipeline(List<OrderBookListener> listeners, int workers, int queueCapacity, boolean blockWhenFull) {
+        this.listeners = listeners.toArray(new OrderBookListener[0]);
+        this.blockWhenFull = blockWhenFull;
+        this.partitions = new Partition[Math.max(0, workers)];
+        for (int i = 0; i < partitions.length; i++) {
+            partitions[i] = new Partition(i, Math.max(1, queueCapacity));
+        }
+        log.info("[PIPELINE] {} workers × {} queue, {} listeners{}", partitions.length, queueCapacity,
+                this.listeners.length, partitions.length == 0 ? " (inline dispatch)" : "");
+    }
+
+    /**
+     * Queues the book for its symbol's partition; with zero workers dispatches inline on the caller's thread.
+     *
+     * @return {@code false} if the partition was full and the book was dropped
+     */
+    public boolean publish(OrderBook orderBook) {
+        if (partitions.length == 0) {
+            dispatch(orderBook);
+            return true;
+        }
+        Partition partition = partitions[partitionOf(orderBook.symbolId(), partitions.length)];
+        partition.published.incrementAndGet();
+        Entry entry = new Entry(orderBook, System.nanoTime());
+        if (partition.queue.offer(entry)) {
+            return true;
+        }
+        if (blockWhenFull && running) {
+            try {
+                partition.queue.put(entry);
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (partition.dropped.getAndIncrement() % 10_000 == 0) {
+            log.warn("[PIPELINE] Partition {} full ({}), dropping updates ({} so far)",
+                    partition.index, partition.queue.size(), partition.dropped.get());
+        }
+        return false;
+    }
+
+    /**
+     * Partition (and so worker) that handles a symbol; {@link PartitionLocal} splits listener state the same way.
+     */
+    public static int partitionOf(int symbolId, int partitions) {
+        return Math.floorMod(symbolId, partitions);
+    }
+
+    /**
+     * Fill of the fullest partition, 0..1 — how far analysis lags behind publication.
+     */
+    public double load() {
+        double max = 0;
+        for (Partition p : partitions) {
+            max = Math.max(max, p.queue.size() / (double) p.capacity);
+        }
+        return max;
+    }
+
+    public Stats getStats() {
+        List<PartitionStats> stats = new ArrayList<>(partitions.length);
+        for (Partition p : partitions) {
+            long processed = p.processed.get();
+            stats.add(new PartitionStats(
+                    p.index,
+                    p.queue.size(),
+                    p.capacity,
+                    p.published.get(),
+                    processed,
+                    p.dropped.get(),
+                    p.failed.get(),
+                    processed > 0 ? p.latencyTotalMicros.get() / (double) processed / 1000.0 : 0,
+                    p.latencyMaxMicros.get() / 1000.0
+            ));
+        }
+        return new Stats(partitions.length, listeners.length, stats);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        for (Partition partition : partitions) {
+            partition.worker.interrupt();
+        }
+    }
+
+    /**
+     * Calls every listener; one failing listener does not keep the book from the others.
+     */
+    private boolean dispatch(OrderBook orderBook) {
+        boolean ok = true;
+        for (OrderBookListener listener : listeners) {
+            try {
+                listener.onOrderBook(orderBook);
+            } catch (RuntimeException e) {
+                ok = false;
+                log.warn("[{}:{}] {} failed on {}: {}", orderBook.exchange(), orderBook.marketType(),
+                        listener.getClass().getSimpleName(), orderBook.symbol(), e.getMessage(), e);
+            }
+        }
+        return ok;
+    }
+
+    private record Entry(OrderBook orderBook, long enqueuedNanos) {}
+
+    private final class Partition {
+        final int index;
+        final int capacity;
+        final BlockingQueue<Entry> queue;
+        final Thread worker;
+
+        final AtomicLong published = new AtomicLong();
+        final AtomicLong processed = new AtomicLong();
+        final AtomicLong dropped = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        final AtomicLong latencyTotalMicros = new AtomicLong();
+        final AtomicLong latencyMaxMicros = new AtomicLong();
+
+        Partition(int index, int capacity) {
+            this.index = index;
+            this.capacity = capacity;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.worker = Thread.ofPlatform().name("orderbook-pipeline-" + index).daemon(true).start(this::run);
+        }
+
+        private void run() {
+            while (running) {
+                Entry entry;
+                try {
+                    entry = queue.poll(1, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (entry == null) continue;
+
+                if (!dispatch(entry.orderBook())) {
+                    failed.incrementAndGet();
+                }
+                // Latency = ожидание в очереди + работа всех слушателей
+                long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - entry.enqueuedNanos());
+                processed.incrementAndGet();
+                latencyTotalMicros.addAndGet(micros);
+                latencyMaxMicros.accumulateAndGet(micros, Math::max);
+            }
+        }
+    }
+
+    public record Stats(int workers, int listeners, List<PartitionStats> partitions) {}
+
+    public record PartitionStats(
+            int partition,
+            int queued,
+            int capacity,
+            long published,
+            long processed,
+            long dropped,
+            long failed,
+            double avgLatencyMs,
+            double maxLatencyMs
+    ) {}
+}
@@ -0,0 +1,50 @@
+package com.cryptoview.service.pipeline;
+
+import com.cryptoview.config.CryptoViewProperties;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.function.Supplier;
+
+/**
+ * Listener state split over symbols exactly the way {@link OrderBookPipeline} splits them over workers, so
+ * each part is written by one worker only. With one shared per-symbol table, neighbouring ids belong to
+ * different workers but share cache lines, and every update bounces those lines between cores. Threads
+ * outside the pipeline (snapshots, cleanup, REST) visit the parts one by one.
+ */
+public final class PartitionLocal<S> implements Iterable<S> {
+
+    private final S[] parts;
+
+    @SuppressWarnings("unchecked")
+    public PartitionLocal(int partitions, Supplier<? extends S> factory) {
+        this.parts = (S[]) new Object[Math.max(1, partitions)];
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = factory.get();
+        }
+    }
+
+    /**
+     * One part per pipeline worker; a single part under inline dispatch.
+     */
+    public static <S> PartitionLocal<S> forPipeline(CryptoViewProperties properties, Supplier<? extends S> factory) {
+        return new PartitionLocal<>(properties.getPipeline().getWorkers(), factory);
+    }
+
+    public S forSymbol(int symbolId) {
+        return parts[OrderBookPipeline.partitionOf(symbolId, parts.length)];
+    }
+
+    public S get(int partition) {
+        return parts[partition];
+    }
+
+    public int size() {
+        return parts.length;
+    }
+
+    @Override
+    public Iterator<S> iterator() {
+        return Arrays.asList(parts).iterator();
+    }
+}
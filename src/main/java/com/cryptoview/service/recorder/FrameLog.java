@@ -0,0 +1,363 @@
+package com.cryptoview.service.recorder;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Append-only log of raw WebSocket frames in fixed-size memory-mapped segments.
+ *
+ * Writers never lock and never touch the file system: a record is claimed with one atomic add on the
+ * segment position, copied into the mapping and published by a release-store of its length.
+ * The next segment is always pre-allocated in the background, so rotation is a pointer swap;
+ * if the standby segment is not ready yet the frame is dropped and counted instead of blocking the caller.
+ *
+ * Segment layout (little-endian): 32-byte header (magic, version, created millis, sequence),
+ * then 8-byte aligned records:
+ * <pre>
+ *   int   size      header + payload bytes, written last (0 = not committed / end of data, -1 = end of segment)
+ *   short source    source (connector) id
+ *   short flags     FLAG_TEXT, FLAG_BINARY, FLAG_SNAPSHOT or FLAG_SOURCE
+ *   long  micros    receive time, epoch microseconds
+ *   int   conn      connection id within the source
+ *   byte[size - 20] payload
+ * </pre>
+ * Every segment starts with FLAG_SOURCE records naming the source ids, so a segment can be read on its own.
+ */
+@Slf4j
+public class FrameLog implements AutoCloseable {
+
+    public static final int MAGIC = 0x43564652; // "CVFR"
+    public static final int VERSION = 1;
+    public static final int SEGMENT_HEADER_SIZE = 32;
+    public static final int RECORD_HEADER_SIZE = 20;
+    public static final int END_OF_SEGMENT = -1;
+
+    public static final short FLAG_TEXT = 0;
+    public static final short FLAG_BINARY = 1;
+    public static final short FLAG_SOURCE = 2;
+    public static final short FLAG_SNAPSHOT = 4; // REST depth snapshot: "SYMBOL\n" + response body
+
+    static final String SEGMENT_SUFFIX = ".seg";
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final VarHandle INT_RELEASE =
+            MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final int SPIN_LIMIT = 1000;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+
+    private final AtomicReference<Segment> active = new AtomicReference<>();
+    private final AtomicReference<Segment> standby = new AtomicReference<>();
+    private final AtomicBoolean preparing = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final AtomicLong segmentSequence = new AtomicLong();
+    private final Deque<Path> retained = new ArrayDeque<>(); // guarded by itself
+    private final ExecutorService background = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Map<String, Integer> sourceIds = new ConcurrentHashMap<>();
+    private final Map<Integer, String> sourceNames = new ConcurrentHashMap<>();
+    private final AtomicInteger nextSourceId = new AtomicInteger(1);
+
+    // Metrics
+    private final AtomicLong framesWritten = new AtomicLong();
+    private final AtomicLong bytesWritten = new AtomicLong();
+    private final AtomicLong framesDropped = new AtomicLong();
+    private final AtomicLong oversizedFrames = new AtomicLong();
+    private final AtomicLong rotations = new AtomicLong();
+
+    public FrameLog(Path directory, int segmentSize, int maxSegments) throws IOException {
+        if (segmentSize < 64 * 1024) {
+            throw new IllegalArgumentException("segment size too small: " + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize & ~7;
+        this.maxSegments = Math.max(2, maxSegments);
+        Files.createDirectories(directory);
+        try (var existing = Files.list(directory)) {
+            existing.filter(p -> p.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .forEach(retained::add);
+        }
+        install(null, createSegment());
+        prepareStandby();
+    }
+
+    /**
+     * Registers a source (connector) and returns its id; idempotent by name.
+     */
+    public int registerSource(String name) {
+        Integer existing = sourceIds.get(name);
+        if (existing != null) return existing;
+        synchronized (sourceIds) {
+            existing = sourceIds.get(name);
+            if (existing != null) return existing;
+            int id = nextSourceId.getAndIncrement();
+            sourceNames.put(id, name);
+            sourceIds.put(name, id);
+            Segment segment = active.get();
+            writeSourceRecord(segment, id, name);
+            if (active.get() != segment) {
+                writeSourceRecord(active.get(), id, name); // rotated meanwhile, the new segment may have missed it
+            }
+            return id;
+        }
+    }
+
+    /**
+     * Appends one frame. Never blocks; returns false if the frame was dropped.
+     */
+    public boolean append(int sourceId, int connectionId, long receivedAtMicros, short flags, ByteBuffer payload) {
+        if (closed.get()) return false;
+        int length = payload.remaining();
+        int recordSize = align(RECORD_HEADER_SIZE + length);
+        if (recordSize > segmentSize - SEGMENT_HEADER_SIZE) {
+            oversizedFrames.incrementAndGet();
+            framesDropped.incrementAndGet();
+            return false;
+        }
+
+        for (int spins = 0; spins < SPIN_LIMIT; spins++) {
+            Segment segment = active.get();
+            long start = segment.position.getAndAdd(recordSize);
+            if (start + recordSize <= segmentSize) {
+                segment.write((int) start, sourceId, flags, receivedAtMicros, connectionId, payload);
+                framesWritten.incrementAndGet();
+                bytesWritten.addAndGet(recordSize);
+                return true;
+            }
+            if (start < segmentSize) {
+                // This claim crossed the end: mark it so readers move on to the next segment
+                segment.markEnd((int) start);
+            }
+            if (!rotate(segment)) {
+                Thread.onSpinWait(); // standby segment is still being allocated
+            }
+        }
+        framesDropped.incrementAndGet();
+        prepareStandby();
+        return false;
+    }
+
+    public Stats getStats() {
+        Segment segment = active.get();
+        int segments;
+        synchronized (retained) {
+            segments = retained.size();
+        }
+        return new Stats(
+                directory.toAbsolutePath().toString(),
+                segment != null ? segment.path.getFileName().toString() : null,
+                segment != null ? Math.min(segment.position.get(), segmentSize) : 0,
+                segmentSize,
+                segments,
+                framesWritten.get(),
+                bytesWritten.get(),
+                framesDropped.get(),
+                oversizedFrames.get(),
+                rotations.get(),
+                sourceIds.size()
+        );
+    }
+
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) return;
+        background.shutdown();
+        Segment segment = active.get();
+        if (segment != null) {
+            segment.buffer.force();
+        }
+        Segment spare = standby.getAndSet(null);
+        if (spare != null) {
+            deleteQuietly(spare.path); // never written to
+            synchronized (retained) {
+                retained.remove(spare.path);
+            }
+        }
+        log.info("[RECORDER] Closed: {} frames, {} MB, {} dropped", framesWritten.get(),
+                bytesWritten.get() / (1024 * 1024), framesDropped.get());
+    }
+
+    // ======================== Rotation ========================
+
+    /**
+     * Swaps in the standby segment if {@code full} is still active. False if there was nothing to swap in.
+     */
+    private boolean rotate(Segment full) {
+        if (active.get() != full) return true;
+        Segment next = standby.getAndSet(null);
+        if (next == null) {
+            prepareStandby();
+            return false;
+        }
+        if (!install(full, next)) {
+            // Lost the race to another writer — keep the segment for the next rotation
+            if (!standby.compareAndSet(null, next)) {
+                discard(next);
+            }
+            return true;
+        }
+        prepareStandby();
+        return true;
+    }
+
+    private boolean install(Segment previous, Segment next) {
+        for (Map.Entry<Integer, String> source : sourceNames.entrySet()) {
+            writeSourceRecord(next, source.getKey(), source.getValue());
+        }
+        if (!active.compareAndSet(previous, next)) {
+            return false;
+        }
+        if (previous != null) {
+            rotations.incrementAndGet();
+            background.execute(() -> previous.buffer.force());
+        }
+        return true;
+    }
+
+    private void prepareStandby() {
+        if (closed.get() || standby.get() != null || !preparing.compareAndSet(false, true)) return;
+        try {
+            background.execute(() -> {
+                boolean installed = false;
+                try {
+                    Segment next = createSegment();
+                    Segment current = active.get();
+                    // Writers may have been dropping frames while waiting for this segment
+                    installed = !closed.get() && current.position.get() >= segmentSize && install(current, next);
+                    if (!installed && (closed.get() || !standby.compareAndSet(null, next))) {
+                        discard(next);
+                    }
+                } catch (Exception e) {
+                    log.error("[RECORDER] Failed to allocate segment in {}", directory, e);
+                } finally {
+                    preparing.set(false);
+                }
+                if (installed) {
+                    prepareStandby();
+                }
+            });
+        } catch (Exception e) {
+            preparing.set(false); // executor shut down
+        }
+    }
+
+    private Segment createSegment() throws IOException {
+        long sequence = segmentSequence.incrementAndGet();
+        String name = String.format("frames-%s-%04d%s", LocalDateTime.now().format(FILE_TIME), sequence, SEGMENT_SUFFIX);
+        Path path = directory.resolve(name);
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize); // sparse until written
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putLong(8, System.currentTimeMillis());
+        buffer.putLong(16, sequence);
+        enforceRetention(path);
+        return new Segment(path, buffer);
+    }
+
+    private void enforceRetention(Path added) {
+        synchronized (retained) {
+            retained.addLast(added);
+            // +2: the active and the standby segment are never deleted
+            while (retained.size() > maxSegments + 2) {
+                deleteQuietly(retained.pollFirst());
+            }
+        }
+    }
+
+    private void discard(Segment segment) {
+        synchronized (retained) {
+            retained.remove(segment.path);
+        }
+        deleteQuietly(segment.path);
+    }
+
+    private void writeSourceRecord(Segment segment, int id, String name) {
+        ByteBuffer payload = ByteBuffer.wrap(name.getBytes(StandardCharsets.UTF_8));
+        int recordSize = align(RECORD_HEADER_SIZE + payload.remaining());
+        long start = segment.position.getAndAdd(recordSize);
+        if (start + recordSize <= segmentSize) {
+            segment.write((int) start, id, FLAG_SOURCE, System.currentTimeMillis() * 1000, 0, payload);
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("[RECORDER] Failed to delete {}: {}", path, e.getMessage());
+        }
+    }
+
+    static int align(int size) {
+        return (size + 7) & ~7;
+    }
+
+    private static final class Segment {
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private final AtomicLong position = new AtomicLong(SEGMENT_HEADER_SIZE);
+
+        Segment(Path path, MappedByteBuffer buffer) {
+            this.path = path;
+            this.buffer = buffer;
+        }
+
+        void write(int offset, int source, short flags, long micros, int connection, ByteBuffer payload) {
+            int length = payload.remaining();
+            buffer.putShort(offset + 4, (short) source);
+            buffer.putShort(offset + 6, flags);
+            buffer.putLong(offset + 8, micros);
+            buffer.putInt(offset + 16, connection);
+            buffer.put(offset + RECORD_HEADER_SIZE, payload, payload.position(), length);
+            INT_RELEASE.setRelease(buffer, offset, RECORD_HEADER_SIZE + length); // publish
+        }
+
+        void markEnd(int offset) {
+            INT_RELEASE.setRelease(buffer, offset, END_OF_SEGMENT);
+        }
+    }
+
+    public record Stats(
+            String directory,
+            String activeSegment,
+            long activeSegmentBytes,
+            int segmentSize,
+            int segments,
+            long framesWritten,
+            long bytesWritten,
+            long framesDropped,
+            long oversizedFrames,
+            long rotations,
+            int sources
+    ) {}
+}
@@ -0,0 +1,124 @@
+package com.cryptoview.service.recorder;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sequential reader over the segments of a {@link FrameLog} directory (or a single segment file), oldest first.
+ * Not thread-safe.
+ */
+public class FrameLogReader implements AutoCloseable {
+
+    private final Deque<Path> segments;
+    private final Map<Integer, String> sourceNames = new HashMap<>();
+
+    private MappedByteBuffer buffer;
+    private int offset;
+    private long skippedSegments;
+
+    public FrameLogReader(Path path) throws IOException {
+        this(listSegments(path));
+    }
+
+    public FrameLogReader(List<Path> segments) {
+        this.segments = new ArrayDeque<>(segments);
+    }
+
+    public static List<Path> listSegments(Path path) throws IOException {
+        if (Files.isRegularFile(path)) {
+            return List.of(path);
+        }
+        try (var files = Files.list(path)) {
+            return files.filter(p -> p.getFileName().toString().endsWith(FrameLog.SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Next recorded frame, or null when all segments are exhausted.
+     */
+    public Frame next() throws IOException {
+        while (true) {
+            if (buffer == null && !openNext()) {
+                return null;
+            }
+            int size = offset + 4 <= buffer.capacity() ? buffer.getInt(offset) : 0;
+            if (size <= 0) {
+                buffer = null; // end of segment (or of written data)
+                continue;
+            }
+            int source = buffer.getShort(offset + 4);
+            short flags = buffer.getShort(offset + 6);
+            long micros = buffer.getLong(offset + 8);
+            int connection = buffer.getInt(offset + 16);
+            byte[] payload = new byte[size - FrameLog.RECORD_HEADER_SIZE];
+            buffer.get(offset + FrameLog.RECORD_HEADER_SIZE, payload);
+            offset += FrameLog.align(size);
+
+            if ((flags & FrameLog.FLAG_SOURCE) != 0) {
+                sourceNames.put(source, new String(payload, StandardCharsets.UTF_8));
+                continue;
+            }
+            return new Frame(sourceNames.getOrDefault(source, "#" + source), connection, micros, flags, payload);
+        }
+    }
+
+    /**
+     * Segments that did not look like frame logs (bad magic or version).
+     */
+    public long getSkippedSegments() {
+        return skippedSegments;
+    }
+
+    @Override
+    public void close() {
+        buffer = null;
+        segments.clear();
+    }
+
+    private boolean openNext() throws IOException {
+        while (!segments.isEmpty()) {
+            Path path = segments.pollFirst();
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                mapped.order(ByteOrder.LITTLE_ENDIAN);
+                if (mapped.capacity() < FrameLog.SEGMENT_HEADER_SIZE
+                        || mapped.getInt(0) != FrameLog.MAGIC || mapped.getInt(4) != FrameLog.VERSION) {
+                    skippedSegments++;
+                    continue;
+                }
+                buffer = mapped;
+                offset = FrameLog.SEGMENT_HEADER_SIZE;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public record Frame(String source, int connectionId, long receivedAtMicros, short flags, byte[] payload) {
+
+        public boolean binary() {
+            return (flags & FrameLog.FLAG_BINARY) != 0;
+        }
+
+        public boolean snapshot() {
+            return (flags & FrameLog.FLAG_SNAPSHOT) != 0;
+        }
+
+        public String text() {
+            return new String(payload, StandardCharsets.UTF_8);
+        }
+    }
+}
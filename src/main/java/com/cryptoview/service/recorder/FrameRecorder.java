@@ -0,0 +1,118 @@
+package com.cryptoview.service.recorder;
+
+import com.cryptoview.config.CryptoViewProperties;
+import com.cryptoview.exchange.common.ExchangeConnector;
+import com.cryptoview.exchange.common.FrameSink;
+import com.cryptoview.exchange.common.RecordableConnector;
+import com.cryptoview.model.config.ExchangeMarketKey;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Captures raw frames of all (or selected) connectors into a {@link FrameLog}.
+ * Off by default; when enabled the per-frame cost is one copy into the mapped segment.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FrameRecorder {
+
+    private final List<ExchangeConnector> connectors;
+    private final CryptoViewProperties properties;
+
+    private final List<RecordableConnector> attached = new ArrayList<>();
+    private volatile FrameLog frameLog;
+
+    @PostConstruct
+    public void init() {
+        CryptoViewProperties.RecorderConfig config = properties.getRecorder();
+        if (!config.isEnabled()) {
+            log.info("[RECORDER] Disabled");
+            return;
+        }
+        if (properties.getReplay().isEnabled()) {
+            log.info("[RECORDER] Disabled while replaying");
+            return;
+        }
+
+        Path directory = Path.of(config.getDirectory());
+        try {
+            frameLog = new FrameLog(directory, config.getSegmentSizeMb() * 1024 * 1024, config.getMaxSegments());
+        } catch (IOException | IllegalArgumentException e) {
+            log.error("[RECORDER] Cannot open frame log in {}, recording disabled", directory, e);
+            return;
+        }
+
+        for (ExchangeConnector connector : connectors) {
+            if (!(connector instanceof RecordableConnector recordable)) continue;
+            String key = new ExchangeMarketKey(connector.getExchange(), connector.getMarketType()).toStorageKey();
+            if (!config.getConnectors().isEmpty() && !config.getConnectors().contains(key)) continue;
+
+            recordable.setFrameSink(new LogSink(frameLog.registerSource(key)));
+            attached.add(recordable);
+        }
+        log.info("[RECORDER] Recording {} connectors to {} ({}MB segments, keep {})",
+                attached.size(), directory.toAbsolutePath(), config.getSegmentSizeMb(), config.getMaxSegments());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (RecordableConnector connector : attached) {
+            connector.setFrameSink(FrameSink.NONE);
+        }
+        attached.clear();
+        if (frameLog != null) {
+            frameLog.close();
+        }
+    }
+
+    public Status getStatus() {
+        FrameLog current = frameLog;
+        return new Status(current != null, current != null ? current.getStats() : null);
+    }
+
+    static long toMicros(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000L + instant.getNano() / 1_000;
+    }
+
+    /**
+     * Text frames are stored as UTF-8 (a plain array copy for the ASCII JSON venues send).
+     */
+    private final class LogSink implements FrameSink {
+        private final int sourceId;
+
+        LogSink(int sourceId) {
+            this.sourceId = sourceId;
+        }
+
+        @Override
+        public void onText(int connectionId, Instant receivedAt, String text) {
+            frameLog.append(sourceId, connectionId, toMicros(receivedAt), FrameLog.FLAG_TEXT,
+                    ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)));
+        }
+
+        @Override
+        public void onBinary(int connectionId, Instant receivedAt, ByteBuffer bytes) {
+            frameLog.append(sourceId, connectionId, toMicros(receivedAt), FrameLog.FLAG_BINARY, bytes);
+        }
+
+        @Override
+        public void onSnapshot(String symbol, Instant receivedAt, String body) {
+            frameLog.append(sourceId, 0, toMicros(receivedAt), FrameLog.FLAG_SNAPSHOT,
+                    ByteBuffer.wrap((symbol + "\n" + body).getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
+    public record Status(boolean enabled, FrameLog.Stats log) {}
+}
@@ -0,0 +1,98 @@
+package com.cryptoview.service.symbol;
+
+import com.cryptoview.model.enums.Exchange;
+import com.cryptoview.model.enums.MarketType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns a dense int id to every (exchange, marketType, symbol) the first time the symbol shows up.
+ * Hot-path state lives in {@link SymbolTable}s indexed by that id instead of maps keyed by formatted strings.
+ *
+ * Symbols are case-insensitive ("btcusdt" from a stream name and "BTCUSDT" from REST share an id); the spelling
+ * as received is remembered as an alias, so repeat lookups are a single hash probe on a String whose hash is
+ * already cached — no formatting, no upper-casing, no garbage.
+ */
+@Slf4j
+@Service
+public class SymbolRegistry {
+
+    public static final int UNKNOWN = -1;
+
+    private static final int MARKET_TYPES = MarketType.values().length;
+
+    // (exchange, marketType) slot → symbol as received or canonical → id
+    @SuppressWarnings("unchecked")
+    private final Map<String, Integer>[] idsByMarket =
+            new Map[Exchange.values().length * MARKET_TYPES];
+    private final SymbolTable<SymbolKey> keys = new SymbolTable<>();
+    private int nextId;
+
+    public SymbolRegistry() {
+        for (int i = 0; i < idsByMarket.length; i++) {
+            idsByMarket[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    /**
+     * Id of the symbol, registering it on first sight.
+     */
+    public int idOf(Exchange exchange, MarketType marketType, String symbol) {
+        Integer id = idsByMarket[slot(exchange, marketType)].get(symbol);
+        return id != null ? id : register(exchange, marketType, symbol);
+    }
+
+    /**
+     * Id of an already known symbol or {@link #UNKNOWN}; never registers (for lookups driven by user input).
+     */
+    public int find(Exchange exchange, MarketType marketType, String symbol) {
+        Map<String, Integer> ids = idsByMarket[slot(exchange, marketType)];
+        Integer id = ids.get(symbol);
+        if (id == null) {
+            id = ids.get(symbol.toUpperCase(Locale.ROOT));
+        }
+        return id != null ? id : UNKNOWN;
+    }
+
+    public SymbolKey key(int id) {
+        return keys.get(id);
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    private synchronized int register(Exchange exchange, MarketType marketType, String symbol) {
+        Map<String, Integer> ids = idsByMarket[slot(exchange, marketType)];
+        Integer existing = ids.get(symbol);
+        if (existing != null) {
+            return existing;
+        }
+        String canonical = symbol.toUpperCase(Locale.ROOT);
+        Integer id = ids.get(canonical);
+        if (id == null) {
+            if (nextId >= SymbolTable.CAPACITY) {
+                throw new IllegalStateException("Symbol registry is full (" + nextId + " ids)");
+            }
+            id = nextId++;
+            keys.put(id, new SymbolKey(id, exchange, marketType, canonical));
+            ids.put(canonical, id);
+            log.debug("[{}:{}] Registered symbol {} as #{}", exchange, marketType, canonical, id);
+        }
+        ids.put(symbol, id);
+        return id;
+    }
+
+    private static int slot(Exchange exchange, MarketType marketType) {
+        return exchange.ordinal() * MARKET_TYPES + marketType.ordinal();
+    }
+
+    /**
+     * What an id stands for; {@code symbol} is the canonical (upper-case) spelling.
+     */
+    public record SymbolKey(int id, Exchange exchange, MarketType marketType, String symbol) {}
+}
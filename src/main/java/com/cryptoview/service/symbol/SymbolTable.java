@@ -0,0 +1,116 @@
+package com.cryptoview.service.symbol;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * Map from a dense symbol id ({@link SymbolRegistry}) to a value, backed by lazily allocated array chunks:
+ * lookups are two array reads, no hashing and no boxing. Chunks are never copied or resized, so readers
+ * and writers need no locks. Thread-safe.
+ */
+public final class SymbolTable<V> {
+
+    static final int CHUNK_BITS = 10;
+    static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    static final int MAX_CHUNKS = 1024;
+    /** Верхняя граница id: 1M символов — на порядки больше, чем торгуется на всех биржах вместе. */
+    public static final int CAPACITY = CHUNK_SIZE * MAX_CHUNKS;
+
+    private final AtomicReferenceArray<AtomicReferenceArray<V>> chunks = new AtomicReferenceArray<>(MAX_CHUNKS);
+    private final AtomicInteger size = new AtomicInteger();
+
+    public V get(int id) {
+        AtomicReferenceArray<V> chunk = chunkFor(id, false);
+        return chunk == null ? null : chunk.get(id & (CHUNK_SIZE - 1));
+    }
+
+    /**
+     * Sets the value for {@code id}, returning the previous one (null if absent).
+     */
+    public V put(int id, V value) {
+        if (value == null) {
+            return remove(id);
+        }
+        V previous = chunkFor(id, true).getAndSet(id & (CHUNK_SIZE - 1), value);
+        if (previous == null) {
+            size.incrementAndGet();
+        }
+        return previous;
+    }
+
+    public V computeIfAbsent(int id, IntFunction<? extends V> factory) {
+        AtomicReferenceArray<V> chunk = chunkFor(id, true);
+        int slot = id & (CHUNK_SIZE - 1);
+        V existing = chunk.get(slot);
+        if (existing != null) {
+            return existing;
+        }
+        V created = factory.apply(id);
+        if (chunk.compareAndSet(slot, null, created)) {
+            size.incrementAndGet();
+            return created;
+        }
+        return chunk.get(slot);
+    }
+
+    public V remove(int id) {
+        AtomicReferenceArray<V> chunk = chunkFor(id, false);
+        if (chunk == null) return null;
+        V previous = chunk.getAndSet(id & (CHUNK_SIZE - 1), null);
+        if (previous != null) {
+            size.decrementAndGet();
+        }
+        return previous;
+    }
+
+    /**
+     * Removes the entry only if it still maps to {@code expected}.
+     */
+    public boolean remove(int id, V expected) {
+        AtomicReferenceArray<V> chunk = chunkFor(id, false);
+        if (chunk == null || expected == null) return false;
+        if (chunk.compareAndSet(id & (CHUNK_SIZE - 1), expected, null)) {
+            size.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Visits present values in id order; weakly consistent with concurrent updates.
+     */
+    public void forEach(Consumer<? super V> action) {
+        for (int c = 0; c < MAX_CHUNKS; c++) {
+            AtomicReferenceArray<V> chunk = chunks.get(c);
+            if (chunk == null) continue;
+            for (int i = 0; i < CHUNK_SIZE; i++) {
+                V value = chunk.get(i);
+                if (value != null) {
+                    action.accept(value);
+                }
+            }
+        }
+    }
+
+    private AtomicReferenceArray<V> chunkFor(int id, boolean create) {
+        if (id < 0 || id >= CAPACITY) {
+            if (create) {
+                throw new IndexOutOfBoundsException("Symbol id out of range: " + id);
+            }
+            return null;
+        }
+        int index = id >>> CHUNK_BITS;
+        AtomicReferenceArray<V> chunk = chunks.get(index);
+        if (chunk == null && create) {
+            chunks.compareAndSet(index, null, new AtomicReferenceArray<>(CHUNK_SIZE));
+            chunk = chunks.get(index);
+        }
+        return chunk;
+    }
+}
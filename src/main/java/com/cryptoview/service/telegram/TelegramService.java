@@ -72,8 +72,8 @@ public class TelegramService {
     @EventListener
     @Async
     public void onAlert(AlertEvent event) {
-        if (!properties.getTelegram().isEnabled()) {
-            return;
+        if (!properties.getTelegram().isEnabled() || properties.getReplay().isEnabled()) {
+            return; // replayed alerts are historical, never send them
         }
 
         Alert alert = event.getAlert();
@@ -161,6 +161,7 @@ public class TelegramService {
         return switch (type) {
             case VOLUME_BASED -> "По объёму 15м";
             case STATISTICAL -> "Статистический";
+            case HISTORICAL -> "Исторический";
         };
     }
 
@@ -0,0 +1,306 @@
+package com.cryptoview.service.timer;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Shared timing wheel for connector housekeeping (ping, stale detection, lifetime rollover,
+ * reconnect backoff, periodic refresh).
+ *
+ * One platform thread advances the wheel; expired tasks run on virtual threads, so a task that
+ * blocks (reconnect, resubscribe) never delays other timers. Precision is one tick — fine for
+ * timers measured in seconds. Timer lag (actual start − deadline) is tracked for monitoring.
+ */
+@Slf4j
+@Component
+public class HashedWheelTimer {
+
+    private static final long DEFAULT_TICK_MS = 50;
+    private static final int DEFAULT_WHEEL_SIZE = 512; // 25.6s per round at 50ms
+
+    private static final int ST_PENDING = 0;
+    private static final int ST_CANCELLED = 1;
+    private static final int ST_EXPIRED = 2;
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final long startNanos;
+    private final Queue<Task> newTasks = new ConcurrentLinkedQueue<>();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicBoolean running = new AtomicBoolean(true);
+    private final Thread worker;
+
+    // Metrics
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicLong fired = new AtomicLong();
+    private final AtomicLong cancelled = new AtomicLong();
+    private final AtomicLong skippedOverlaps = new AtomicLong();
+    private final AtomicLong lagTotalMicros = new AtomicLong();
+    private final AtomicLong lagMaxMicros = new AtomicLong();
+
+    private long tick; // worker thread only
+
+    public HashedWheelTimer() {
+        this(DEFAULT_TICK_MS, DEFAULT_WHEEL_SIZE);
+    }
+
+    HashedWheelTimer(long tickMs, int wheelSize) {
+        int size = Integer.highestOneBit(Math.max(wheelSize, 2) - 1) << 1; // round up to power of two
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMs);
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.startNanos = System.nanoTime();
+        this.worker = Thread.ofPlatform().name("connector-timer").daemon(true).start(this::run);
+        log.info("Connector timer started: tick={}ms, wheel={} slots", tickMs, size);
+    }
+
+    /**
+     * Runs the task once after the delay.
+     */
+    public Timeout schedule(String name, Runnable task, long delay, TimeUnit unit) {
+        return enqueue(new Task(name, task, deadlineAfter(delay, unit), 0));
+    }
+
+    /**
+     * Runs the task at a fixed rate. Deadlines do not drift with task duration;
+     * a run is skipped (and counted) if the previous one is still in progress.
+     */
+    public Timeout scheduleAtFixedRate(String name, Runnable task, long initialDelay, long period, TimeUnit unit) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("period must be positive: " + period);
+        }
+        return enqueue(new Task(name, task, deadlineAfter(initialDelay, unit), unit.toNanos(period)));
+    }
+
+    public Stats getStats() {
+        long count = fired.get();
+        return new Stats(
+                pending.get(),
+                count,
+                cancelled.get(),
+                skippedOverlaps.get(),
+                count > 0 ? lagTotalMicros.get() / count / 1000.0 : 0,
+                lagMaxMicros.get() / 1000.0,
+                TimeUnit.NANOSECONDS.toMillis(tickNanos)
+        );
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (running.compareAndSet(true, false)) {
+            LockSupport.unpark(worker);
+            executor.shutdownNow();
+        }
+    }
+
+    private long deadlineAfter(long delay, TimeUnit unit) {
+        return System.nanoTime() - startNanos + Math.max(0, unit.toNanos(delay));
+    }
+
+    private Task enqueue(Task task) {
+        if (!running.get()) {
+            throw new RejectedExecutionException("Timer is stopped");
+        }
+        pending.incrementAndGet();
+        newTasks.add(task);
+        return task;
+    }
+
+    // ======================== Worker ========================
+
+    private void run() {
+        while (running.get()) {
+            long deadline = waitForNextTick();
+            if (!running.get()) break;
+
+            transferNewTasks();
+            wheel[(int) (tick & mask)].expire(deadline);
+            tick++;
+        }
+    }
+
+    private long waitForNextTick() {
+        long deadline = tickNanos * (tick + 1);
+        while (running.get()) {
+            long sleepNanos = deadline - (System.nanoTime() - startNanos);
+            if (sleepNanos <= 0) {
+                return deadline;
+            }
+            LockSupport.parkNanos(this, sleepNanos);
+        }
+        return deadline;
+    }
+
+    private void transferNewTasks() {
+        Task task;
+        while ((task = newTasks.poll()) != null) {
+            if (task.state.get() == ST_CANCELLED) continue;
+            place(task);
+        }
+    }
+
+    private void place(Task task) {
+        long targetTick = task.deadline / tickNanos;
+        task.remainingRounds = (targetTick - tick) / wheel.length;
+        long slotTick = Math.max(targetTick, tick); // overdue tasks go to the current slot
+        wheel[(int) (slotTick & mask)].add(task);
+    }
+
+    private void fire(Task task) {
+        fired.incrementAndGet();
+        if (!task.running.compareAndSet(false, true)) {
+            skippedOverlaps.incrementAndGet();
+            return;
+        }
+        long due = task.deadline;
+        try {
+            executor.execute(() -> {
+                long lagMicros = Math.max(0, (System.nanoTime() - startNanos - due) / 1000);
+                lagTotalMicros.addAndGet(lagMicros);
+                lagMaxMicros.accumulateAndGet(lagMicros, Math::max);
+                try {
+                    task.action.run();
+                } catch (Exception e) {
+                    log.error("Timer task '{}' failed", task.name, e);
+                } finally {
+                    task.running.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            task.running.set(false);
+        }
+    }
+
+    /**
+     * Doubly-linked list of tasks for one wheel slot; touched only by the worker thread.
+     */
+    private final class Bucket {
+        private Task head;
+        private Task tail;
+
+        void add(Task task) {
+            if (head == null) {
+                head = tail = task;
+            } else {
+                tail.next = task;
+                task.prev = tail;
+                tail = task;
+            }
+        }
+
+        void expire(long deadline) {
+            Task task = head;
+            while (task != null) {
+                Task next = task.next;
+                if (task.state.get() == ST_CANCELLED) {
+                    remove(task);
+                } else if (task.remainingRounds <= 0) {
+                    remove(task);
+                    if (task.period > 0) {
+                        fire(task);
+                        // Next run on the next period boundary; never catch up in a burst after a stall
+                        task.deadline = Math.max(task.deadline + task.period, deadline);
+                        place(task);
+                    } else if (task.state.compareAndSet(ST_PENDING, ST_EXPIRED)) {
+                        pending.decrementAndGet();
+                        fire(task);
+                    }
+                } else {
+                    task.remainingRounds--;
+                }
+                task = next;
+            }
+        }
+
+        private void remove(Task task) {
+            if (task.prev != null) task.prev.next = task.next;
+            if (task.next != null) task.next.prev = task.prev;
+            if (task == head) head = task.next;
+            if (task == tail) tail = task.prev;
+            task.prev = null;
+            task.next = null;
+        }
+    }
+
+    private final class Task implements Timeout {
+        private final String name;
+        private final Runnable action;
+        private final long period;
+        private final AtomicInteger state = new AtomicInteger(ST_PENDING);
+        private final AtomicBoolean running = new AtomicBoolean();
+
+        // Worker thread only
+        private long deadline;
+        private long remainingRounds;
+        private Task prev;
+        private Task next;
+
+        Task(String name, Runnable action, long deadline, long period) {
+            this.name = name;
+            this.action = action;
+            this.deadline = deadline;
+            this.period = period;
+        }
+
+        @Override
+        public boolean cancel() {
+            if (state.compareAndSet(ST_PENDING, ST_CANCELLED)) {
+                pending.decrementAndGet();
+                cancelled.incrementAndGet();
+                return true; // unlinked lazily when the worker reaches its slot
+            }
+            return false;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return state.get() == ST_CANCELLED;
+        }
+
+        @Override
+        public boolean isDone() {
+            return state.get() != ST_PENDING;
+        }
+    }
+
+    /**
+     * Handle of a scheduled task.
+     */
+    public interface Timeout {
+
+        /**
+         * Cancels the task (and all future runs of a periodic one). Returns false if it already fired or was cancelled.
+         */
+        boolean cancel();
+
+        boolean isCancelled();
+
+        boolean isDone();
+    }
+
+    public record Stats(
+            int pending,
+            long fired,
+            long cancelled,
+            long skippedOverlaps,
+            double avgLagMs,
+            double maxLagMs,
+            long tickMs
+    ) {}
+}
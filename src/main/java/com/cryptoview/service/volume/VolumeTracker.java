@@ -4,20 +4,22 @@ import com.cryptoview.event.TradeEvent;
 import com.cryptoview.model.domain.Trade;
 import com.cryptoview.model.enums.Exchange;
 import com.cryptoview.model.enums.MarketType;
+import com.cryptoview.service.symbol.SymbolRegistry;
+import com.cryptoview.service.symbol.SymbolTable;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Iterator;
-import java.util.Map;
 import java.util.Queue;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Slf4j
 @Service
@@ -25,11 +27,19 @@ public class VolumeTracker {
 
     private static final int WINDOW_MINUTES = 15;
 
-    private final Instant startedAt = Instant.now();
-    private final Map<String, Queue<VolumeEntry>> volumeHistory = new ConcurrentHashMap<>();
+    private final Clock clock;
+    private final SymbolRegistry symbolRegistry;
+    private final Instant startedAt;
+    private final SymbolTable<Queue<VolumeEntry>> volumeHistory = new SymbolTable<>();
 
     private record VolumeEntry(BigDecimal volumeUsd, Instant timestamp) {}
 
+    public VolumeTracker(Clock clock, SymbolRegistry symbolRegistry) {
+        this.clock = clock;
+        this.symbolRegistry = symbolRegistry;
+        this.startedAt = Instant.now(clock);
+    }
+
     @EventListener
     public void onTrade(TradeEvent event) {
         Trade trade = event.getTrade();
@@ -42,9 +52,12 @@ public class VolumeTracker {
     }
 
     public void addVolume(String symbol, Exchange exchange, MarketType marketType, BigDecimal volumeUsd) {
-        String key = buildKey(symbol, exchange, marketType);
-        volumeHistory.computeIfAbsent(key, k -> new ConcurrentLinkedQueue<>())
-                .add(new VolumeEntry(volumeUsd, Instant.now()));
+        addVolume(symbolRegistry.idOf(exchange, marketType, symbol), volumeUsd);
+    }
+
+    public void addVolume(int symbolId, BigDecimal volumeUsd) {
+        volumeHistory.computeIfAbsent(symbolId, id -> new ConcurrentLinkedQueue<>())
+                .add(new VolumeEntry(volumeUsd, Instant.now(clock)));
     }
 
     /**
@@ -52,8 +65,11 @@ public class VolumeTracker {
      * 0 — если данных нет.
      */
     public long getTrackingAgeSec(String symbol, Exchange exchange, MarketType marketType) {
-        String key = buildKey(symbol, exchange, marketType);
-        Queue<VolumeEntry> history = volumeHistory.get(key);
+        return getTrackingAgeSec(symbolRegistry.find(exchange, marketType, symbol));
+    }
+
+    public long getTrackingAgeSec(int symbolId) {
+        Queue<VolumeEntry> history = volumeHistory.get(symbolId);
         if (history == null || history.isEmpty()) {
             return 0;
         }
@@ -61,18 +77,21 @@ public class VolumeTracker {
         if (oldest == null) {
             return 0;
         }
-        return java.time.Duration.between(oldest.timestamp(), Instant.now()).toSeconds();
+        return java.time.Duration.between(oldest.timestamp(), Instant.now(clock)).toSeconds();
     }
 
     public BigDecimal getVolume15Min(String symbol, Exchange exchange, MarketType marketType) {
-        String key = buildKey(symbol, exchange, marketType);
-        Queue<VolumeEntry> history = volumeHistory.get(key);
+        return getVolume15Min(symbolRegistry.find(exchange, marketType, symbol));
+    }
+
+    public BigDecimal getVolume15Min(int symbolId) {
+        Queue<VolumeEntry> history = volumeHistory.get(symbolId);
 
         if (history == null || history.isEmpty()) {
             return BigDecimal.ZERO;
         }
 
-        Instant cutoff = Instant.now().minus(WINDOW_MINUTES, ChronoUnit.MINUTES);
+        Instant cutoff = Instant.now(clock).minus(WINDOW_MINUTES, ChronoUnit.MINUTES);
         BigDecimal total = BigDecimal.ZERO;
 
         for (VolumeEntry entry : history) {
@@ -86,28 +105,24 @@ public class VolumeTracker {
 
     @Scheduled(fixedRate = 60000) // каждую минуту
     public void cleanupOldEntries() {
-        Instant cutoff = Instant.now().minus(WINDOW_MINUTES + 1, ChronoUnit.MINUTES);
-        int removed = 0;
+        Instant cutoff = Instant.now(clock).minus(WINDOW_MINUTES + 1, ChronoUnit.MINUTES);
+        AtomicInteger removed = new AtomicInteger();
 
-        for (Queue<VolumeEntry> history : volumeHistory.values()) {
+        volumeHistory.forEach(history -> {
             Iterator<VolumeEntry> iterator = history.iterator();
             while (iterator.hasNext()) {
                 VolumeEntry entry = iterator.next();
                 if (entry.timestamp().isBefore(cutoff)) {
                     iterator.remove();
-                    removed++;
+                    removed.incrementAndGet();
                 } else {
                     break; // очередь упорядочена по времени
                 }
             }
-        }
+        });
 
         log.debug("VolumeTracker cleanup: removed {} old entries, tracking {} symbols",
-                removed, volumeHistory.size());
-    }
-
-    private String buildKey(String symbol, Exchange exchange, MarketType marketType) {
-        return String.format("%s_%s_%s", exchange, marketType, symbol.toUpperCase());
+                removed.get(), volumeHistory.size());
     }
 
     public int getTrackedSymbolsCount() {
@@ -115,10 +130,10 @@ public class VolumeTracker {
     }
 
     public boolean isVolumeDataReady() {
-        return Duration.between(startedAt, Instant.now()).toMinutes() >= WINDOW_MINUTES;
+        return Duration.between(startedAt, Instant.now(clock)).toMinutes() >= WINDOW_MINUTES;
     }
 
     public long getUptimeSeconds() {
-        return Duration.between(startedAt, Instant.now()).getSeconds();
+        return Duration.between(startedAt, Instant.now(clock)).getSeconds();
     }
 }
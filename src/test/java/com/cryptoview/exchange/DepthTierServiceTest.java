@@ -0,0 +1,171 @@
+package com.cryptoview.exchange;
+
+import com.cryptoview.config.CryptoViewProperties;
+import com.cryptoview.exchange.common.DepthTier;
+import com.cryptoview.exchange.common.DepthTierPolicy;
+import com.cryptoview.exchange.common.TieredDepthConnector;
+import com.cryptoview.model.domain.OrderBook;
+import com.cryptoview.model.domain.OrderBookLevel;
+import com.cryptoview.model.enums.Exchange;
+import com.cryptoview.model.enums.MarketType;
+import com.cryptoview.service.orderbook.OrderBookManager;
+import com.cryptoview.service.symbol.SymbolRegistry;
+import com.cryptoview.service.volume.VolumeTracker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class DepthTierServiceTest {
+
+    private static final Instant START = Instant.parse("2026-01-01T00:00:00Z");
+
+    @Mock
+    private TieredDepthConnector connector;
+
+    @Mock
+    private VolumeTracker volumeTracker;
+
+    @Mock
+    private OrderBookManager orderBookManager;
+
+    @Mock
+    private Clock clock;
+
+    private final SymbolRegistry symbolRegistry = new SymbolRegistry();
+    private final CryptoViewProperties properties = new CryptoViewProperties();
+    private final Map<String, DepthTier> tiers = new HashMap<>();
+    private final Map<String, BigDecimal> volumes = new HashMap<>();
+    private final Map<Integer, OrderBook> books = new HashMap<>();
+    private final AtomicReference<DepthTierPolicy> policy = new AtomicReference<>();
+    private DepthTierService service;
+
+    @BeforeEach
+    void setUp() {
+        when(clock.instant()).thenReturn(START);
+        when(connector.getExchange()).thenReturn(Exchange.BYBIT);
+        when(connector.getMarketType()).thenReturn(MarketType.SPOT);
+        when(connector.isConnected()).thenReturn(true);
+        when(connector.getSupportedDepthTiers()).thenReturn(EnumSet.allOf(DepthTier.class));
+        when(connector.getSubscribedSymbols()).thenAnswer(i -> new TreeSet<>(tiers.keySet()));
+        when(connector.getDepthTier(anyString())).thenAnswer(i -> tiers.get(i.<String>getArgument(0)));
+        when(connector.toMarketSymbol(anyString())).thenAnswer(i -> i.getArgument(0));
+        when(connector.changeDepthTier(anyString(), any())).thenAnswer(i -> {
+            DepthTier previous = tiers.put(i.getArgument(0), i.getArgument(1));
+            return previous != i.getArgument(1);
+        });
+        doAnswer(i -> {
+            policy.set(i.getArgument(0));
+            return null;
+        }).when(connector).setDepthTierPolicy(any());
+        when(connector.getDepthTierPolicy()).thenAnswer(i -> policy.get());
+
+        when(volumeTracker.isVolumeDataReady()).thenReturn(true);
+        when(volumeTracker.getVolume15Min(anyString(), any(), any()))
+                .thenAnswer(i -> volumes.getOrDefault(i.<String>getArgument(0), BigDecimal.ZERO));
+        when(orderBookManager.getOrderBook(anyInt())).thenAnswer(i -> Optional.ofNullable(books.get(i.<Integer>getArgument(0))));
+
+        service = new DepthTierService(List.of(connector), properties, volumeTracker, orderBookManager,
+                symbolRegistry, clock);
+        service.init();
+    }
+
+    @Test
+    void shouldJudgeShallowSymbolByTopOfBookNotByWhatItsFeedShows() {
+        // На SHALLOW, объём мизерный, но топ-5 толстый (~$4M) — уходит в DEEP
+        symbol("ALTUSDT", DepthTier.SHALLOW, 10_000, 4_000);
+        // Мелкий объём и тонкий топ (~$10K) — остаётся SHALLOW
+        symbol("DUSTUSDT", DepthTier.SHALLOW, 10_000, 10);
+        // Десятый уровень огромный, но в топ-5 не входит — не влияет
+        symbol("FARUSDT", DepthTier.STANDARD, 10_000, 10);
+        books.put(id("FARUSDT"), book("FARUSDT", 10, 10, 10_000_000));
+
+        service.evaluateTiers();
+
+        assertEquals(DepthTier.DEEP, tiers.get("ALTUSDT"));
+        assertEquals(DepthTier.SHALLOW, tiers.get("DUSTUSDT"));
+        assertEquals(DepthTier.SHALLOW, tiers.get("FARUSDT"));
+    }
+
+    @Test
+    void shouldHoldNewTierForMinHoldOnInjectedClock() {
+        symbol("BTCUSDT", DepthTier.STANDARD, 10_000_000, 10);
+        service.evaluateTiers();
+        assertEquals(DepthTier.DEEP, tiers.get("BTCUSDT"));
+
+        // Объём провалился, но 29 минут по часам сервиса — рано
+        volumes.put("BTCUSDT", BigDecimal.valueOf(10_000));
+        when(clock.instant()).thenReturn(START.plus(Duration.ofMinutes(29)));
+        service.evaluateTiers();
+        assertEquals(DepthTier.DEEP, tiers.get("BTCUSDT"));
+
+        when(clock.instant()).thenReturn(START.plus(Duration.ofMinutes(properties.getDepthTiers().getMinHoldMinutes())));
+        service.evaluateTiers();
+        assertEquals(DepthTier.SHALLOW, tiers.get("BTCUSDT"));
+    }
+
+    @Test
+    void shouldLimitChangesPerRun() {
+        properties.getDepthTiers().setMaxChangesPerRun(2);
+        for (int i = 0; i < 5; i++) {
+            symbol("S" + i + "USDT", DepthTier.STANDARD, 10_000_000, 10);
+        }
+
+        service.evaluateTiers();
+        assertEquals(2, tiers.values().stream().filter(t -> t == DepthTier.DEEP).count());
+        service.evaluateTiers();
+        assertEquals(4, tiers.values().stream().filter(t -> t == DepthTier.DEEP).count());
+    }
+
+    @Test
+    void shouldWaitForVolumeData() {
+        when(volumeTracker.isVolumeDataReady()).thenReturn(false);
+        symbol("BTCUSDT", DepthTier.STANDARD, 10_000_000, 10);
+
+        service.evaluateTiers();
+
+        assertEquals(DepthTier.STANDARD, tiers.get("BTCUSDT"));
+        verify(connector, never()).changeDepthTier(anyString(), any());
+    }
+
+    private void symbol(String symbol, DepthTier tier, long volume, long quantityPerLevel) {
+        tiers.put(symbol, tier);
+        volumes.put(symbol, BigDecimal.valueOf(volume));
+        books.put(id(symbol), book(symbol, 5, quantityPerLevel, quantityPerLevel));
+    }
+
+    private int id(String symbol) {
+        return symbolRegistry.idOf(Exchange.BYBIT, MarketType.SPOT, symbol);
+    }
+
+    /**
+     * {@code levels} per side around 100.5; the deepest level on each side holds {@code lastQuantity}.
+     */
+    private OrderBook book(String symbol, int levels, long quantity, long lastQuantity) {
+        List<OrderBookLevel> bids = new ArrayList<>();
+        List<OrderBookLevel> asks = new ArrayList<>();
+        for (int i = 0; i < levels; i++) {
+            long q = i == levels - 1 ? lastQuantity : quantity;
+            bids.add(new OrderBookLevel(BigDecimal.valueOf(100 - i), BigDecimal.valueOf(q)));
+            asks.add(new OrderBookLevel(BigDecimal.valueOf(101 + i), BigDecimal.valueOf(q)));
+        }
+        return new OrderBook(symbol, Exchange.BYBIT, MarketType.SPOT, bids, asks, new BigDecimal("100.5"), START,
+                id(symbol));
+    }
+}
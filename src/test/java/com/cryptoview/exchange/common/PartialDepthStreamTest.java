@@ -0,0 +1,94 @@
+package com.cryptoview.exchange.common;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartialDepthStreamTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final PartialDepthStream stream = new PartialDepthStream("[TEST]", 5, List.of("BTCUSDT"));
+
+    @Test
+    void shouldGiveNoMismatchesForIdenticalTop() {
+        LocalOrderBook book = book(100, List.of(level("100", "1"), level("99", "2"), level("98", "3")),
+                List.of(level("101", "1"), level("102", "2")));
+
+        assertEquals(0, book.countTopMismatches(
+                List.of(level("100", "1.0"), level("99", "2")), List.of(level("101", "1"), level("102", "2.00"))));
+        assertFalse(stream.onShadowMessage("BTCUSDT", book,
+                json("{\"lastUpdateId\":100,\"bids\":[[\"100\",\"1\"],[\"99\",\"2\"]],\"asks\":[[\"101\",\"1\"]]}")));
+        assertTrue(stream.getStatusSummary().contains("compared=1, diverged=0"));
+    }
+
+    @Test
+    void shouldCountReferenceLevelsPastTheLocalBook() {
+        LocalOrderBook book = book(100, List.of(level("100", "1")), List.of(level("101", "1"), level("102", "2")));
+
+        // Два лишних бида и один лишний аск в эталоне — три расхождения, совпавший верх не в счёт
+        assertEquals(3, book.countTopMismatches(
+                List.of(level("100", "1"), level("99", "2"), level("98", "3")),
+                List.of(level("101", "1"), level("102", "2"), level("103", "3"))));
+    }
+
+    @Test
+    void shouldAskForResyncWhenDiffBookDiverges() {
+        LocalOrderBook book = book(100, List.of(level("100", "1"), level("99", "2")), List.of(level("101", "1")));
+
+        // Тот же updateId, другой объём на втором биде
+        assertTrue(stream.onShadowMessage("BTCUSDT", book,
+                json("{\"lastUpdateId\":100,\"bids\":[[\"100\",\"1\"],[\"99\",\"5\"]],\"asks\":[[\"101\",\"1\"]]}")));
+
+        // Partial впереди diff-книги: ждёт, сравнивается после применения дельты до того же id
+        assertFalse(stream.onShadowMessage("BTCUSDT", book,
+                json("{\"u\":101,\"b\":[[\"100\",\"1\"]],\"a\":[[\"101\",\"4\"]]}")));
+        book.applyDelta(List.of(), List.of(level("101", "3")), 101);
+        assertTrue(stream.onDiffApplied(book));
+        assertFalse(stream.onDiffApplied(book));
+        assertTrue(stream.getStatusSummary().contains("compared=2, diverged=2"));
+    }
+
+    @Test
+    void shouldSkipComparisonWhenUpdateIdsNeverAlign() {
+        LocalOrderBook book = book(100, List.of(level("100", "1")), List.of(level("101", "1")));
+
+        assertFalse(stream.onShadowMessage("BTCUSDT", book,
+                json("{\"lastUpdateId\":101,\"bids\":[[\"100\",\"9\"]],\"asks\":[]}")));
+        book.applyDelta(List.of(level("100", "2")), List.of(), 102);
+
+        assertFalse(stream.onDiffApplied(book));
+        assertTrue(stream.getStatusSummary().contains("compared=0"));
+    }
+
+    @Test
+    void shouldBudgetStreamsWithComparedSymbolsFirst() {
+        List<String> symbols = List.of("AUSDT", "BUSDT", "CUSDT", "BTCUSDT");
+
+        // BTCUSDT (сравниваемый) берёт 3 стрима из 8, остаётся на два обычных символа по 2
+        assertEquals(List.of("AUSDT", "BUSDT", "BTCUSDT"), stream.withinStreamBudget(symbols, 8, 2));
+        assertEquals(List.of("AUSDT", "BUSDT", "CUSDT", "BTCUSDT"), stream.withinStreamBudget(symbols, 9, 2));
+        assertEquals(List.of(), stream.withinStreamBudget(symbols, 1, 2));
+    }
+
+    private static LocalOrderBook book(long updateId, List<List<String>> bids, List<List<String>> asks) {
+        LocalOrderBook book = new LocalOrderBook("BTCUSDT");
+        book.applySnapshot(bids, asks, updateId);
+        return book;
+    }
+
+    private static List<String> level(String price, String quantity) {
+        return List.of(price, quantity);
+    }
+
+    private JsonNode json(String text) {
+        try {
+            return mapper.readTree(text);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
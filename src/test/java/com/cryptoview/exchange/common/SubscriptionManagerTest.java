@@ -0,0 +1,257 @@
+package com.cryptoview.exchange.common;
+
+import com.cryptoview.exchange.replay.ReplayClock;
+import com.cryptoview.service.timer.HashedWheelTimer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SubscriptionManagerTest {
+
+    private final ReplayClock clock = new ReplayClock(Instant.parse("2026-01-01T00:00:00Z"));
+    private final FakeTimer timer = new FakeTimer();
+    private final FakeProtocol protocol = new FakeProtocol();
+    private final SubscriptionManager manager = new SubscriptionManager(protocol, timer, clock);
+
+    @AfterEach
+    void tearDown() {
+        timer.shutdown();
+    }
+
+    @Test
+    void shouldBatchTopicsByMaxTopicsPerRequest() {
+        protocol.limits = new SubscriptionManager.Limits(3, 1000, 10, 5000);
+
+        manager.subscribe(List.of("A", "B", "C", "D"));
+
+        assertEquals(List.of(
+                List.of("depth.A", "trade.A", "depth.B"),
+                List.of("trade.B", "depth.C", "trade.C"),
+                List.of("depth.D", "trade.D")), protocol.sentTopics());
+        for (long id = 1; id <= 3; id++) {
+            manager.onAck(SubscriptionManager.Ack.ofRequest(id, true, null));
+        }
+        assertEquals(4, manager.getStats().subscribed());
+        assertEquals(0, manager.getStats().inFlightRequests());
+        assertTrue(manager.awaitSettled(0));
+    }
+
+    @Test
+    void shouldPaceRequestsToMessageRate() {
+        // 20 msg/s → один запрос на тик
+        protocol.limits = new SubscriptionManager.Limits(1, 20, 10, 5000);
+
+        manager.subscribe(List.of("A"));
+        assertEquals(1, protocol.sent.size());
+
+        advance(SubscriptionManager.TICK_MS - 10);
+        assertEquals(1, protocol.sent.size());
+        advance(20);
+        assertEquals(2, protocol.sent.size());
+    }
+
+    @Test
+    void shouldRetryOnlyRejectedTopicsOfPartiallyRejectedRequest() {
+        protocol.limits = new SubscriptionManager.Limits(10, 1000, 10, 5000);
+        manager.subscribe(List.of("BTC", "ETH"));
+        assertEquals(1, protocol.sent.size());
+
+        manager.onAck(SubscriptionManager.Ack.ofRequest(1, false, "invalid topic: depth.ETH"));
+        assertEquals(SubscriptionManager.State.SUBSCRIBED, manager.getState("BTC"));
+        assertEquals(SubscriptionManager.State.PENDING, manager.getState("ETH"));
+
+        advance(SubscriptionManager.RETRY_BASE_DELAY_MS - 1);
+        assertEquals(1, protocol.sent.size());
+        advance(1);
+        assertEquals(List.of("depth.ETH"), protocol.sentTopics().get(1));
+
+        manager.onAck(SubscriptionManager.Ack.ofRequest(2, true, null));
+        assertEquals(SubscriptionManager.State.SUBSCRIBED, manager.getState("ETH"));
+        assertEquals(1, manager.getStats().topicsRetried());
+    }
+
+    @Test
+    void shouldFailTopicsAfterMaxAttemptsOfAckTimeouts() {
+        protocol.limits = new SubscriptionManager.Limits(10, 1000, 10, 5000);
+        manager.subscribe(List.of("BTC"));
+
+        for (int attempt = 1; attempt <= SubscriptionManager.MAX_ATTEMPTS; attempt++) {
+            assertEquals(attempt, protocol.sent.size());
+            advance(5001);
+            if (attempt < SubscriptionManager.MAX_ATTEMPTS) {
+                assertEquals(SubscriptionManager.State.PENDING, manager.getState("BTC"));
+                advance(SubscriptionManager.RETRY_BASE_DELAY_MS << (attempt - 1));
+            }
+        }
+
+        assertEquals(SubscriptionManager.State.FAILED, manager.getState("BTC"));
+        assertEquals(SubscriptionManager.MAX_ATTEMPTS, manager.getStats().ackTimeouts());
+        assertEquals(List.of("BTC"), manager.getStats().failedSymbols());
+        assertFalse(timer.isTicking());
+
+        // Явная переподписка даёт новый бюджет попыток
+        manager.subscribe(List.of("BTC"));
+        assertEquals(SubscriptionManager.MAX_ATTEMPTS + 1, protocol.sent.size());
+        assertEquals(SubscriptionManager.State.PENDING, manager.getState("BTC"));
+    }
+
+    @Test
+    void shouldResolveTopicAcksLikeLighter() {
+        protocol.limits = new SubscriptionManager.Limits(1, 1000, 10, 5000);
+        protocol.perSymbol = symbol -> List.of("order_book/" + symbol);
+
+        manager.subscribe(List.of("1", "2"));
+        assertEquals(2, protocol.sent.size());
+
+        clock.advanceTo(clock.currentMicros() + 30_000);
+        manager.onAck(SubscriptionManager.Ack.ofTopic("order_book/1", true, null));
+        manager.onAck(SubscriptionManager.Ack.ofTopic("order_book/99", true, null)); // unknown — ignored
+        assertEquals(SubscriptionManager.State.SUBSCRIBED, manager.getState("1"));
+        assertEquals(SubscriptionManager.State.PENDING, manager.getState("2"));
+        assertEquals(1, manager.getStats().inFlightRequests());
+
+        manager.onAck(SubscriptionManager.Ack.ofTopic("order_book/2", true, null));
+        assertEquals(2, manager.getStats().subscribed());
+        assertEquals(30, manager.getStats().lastSettleMs());
+        assertEquals(30, manager.getStats().avgAckLatencyMs());
+    }
+
+    @Test
+    void shouldDropInFlightStateOnDisconnect() {
+        protocol.limits = new SubscriptionManager.Limits(10, 1000, 10, 5000);
+        manager.subscribe(List.of("BTC"));
+        assertEquals(1, manager.getStats().inFlightRequests());
+        assertTrue(timer.isTicking());
+
+        protocol.connected = false;
+        manager.onDisconnected();
+        assertEquals(0, manager.getStats().inFlightRequests());
+        assertEquals(SubscriptionManager.State.PENDING, manager.getState("BTC"));
+        assertFalse(timer.isTicking());
+
+        // Ack from the dead connection changes nothing
+        manager.onAck(SubscriptionManager.Ack.ofRequest(1, true, null));
+        assertEquals(SubscriptionManager.State.PENDING, manager.getState("BTC"));
+
+        protocol.connected = true;
+        manager.subscribe(List.of("BTC"));
+        assertEquals(List.of("depth.BTC", "trade.BTC"), protocol.sentTopics().get(1));
+        manager.onAck(SubscriptionManager.Ack.ofRequest(2, true, null));
+        assertEquals(SubscriptionManager.State.SUBSCRIBED, manager.getState("BTC"));
+    }
+
+    @Test
+    void shouldSendUnsubscribesFirstWithinTheSameRate() {
+        protocol.limits = new SubscriptionManager.Limits(10, 20, 10, 5000);
+
+        manager.unsubscribe("unsubscribe depth.A");
+        manager.subscribe(List.of("B"));
+        assertEquals(List.of("unsubscribe depth.A"), protocol.sent);
+
+        advance(SubscriptionManager.TICK_MS * 2);
+        assertEquals(List.of(List.of("depth.B", "trade.B")), protocol.sentTopics());
+    }
+
+    private void advance(long millis) {
+        clock.advanceTo(clock.currentMicros() + millis * 1000);
+        timer.tick();
+    }
+
+    private static class FakeProtocol implements SubscriptionManager.Protocol {
+        final List<String> sent = new ArrayList<>();
+        SubscriptionManager.Limits limits;
+        Function<String, List<String>> perSymbol = symbol -> List.of("depth." + symbol, "trade." + symbol);
+        boolean connected = true;
+
+        @Override
+        public String name() {
+            return "[TEST]";
+        }
+
+        @Override
+        public List<String> topics(String symbol) {
+            return perSymbol.apply(symbol);
+        }
+
+        @Override
+        public String buildRequest(long requestId, List<String> topics) {
+            return requestId + ":" + String.join(",", topics);
+        }
+
+        @Override
+        public boolean send(String message) {
+            return connected && sent.add(message);
+        }
+
+        @Override
+        public boolean isConnected() {
+            return connected;
+        }
+
+        @Override
+        public SubscriptionManager.Limits limits() {
+            return limits;
+        }
+
+        List<List<String>> sentTopics() {
+            return sent.stream()
+                    .filter(message -> message.contains(":"))
+                    .map(message -> Arrays.asList(message.substring(message.indexOf(':') + 1).split(",")))
+                    .toList();
+        }
+    }
+
+    /**
+     * Runs the periodic task only when the test says so.
+     */
+    private static class FakeTimer extends HashedWheelTimer {
+        private Runnable task;
+        private FakeTimeout timeout;
+
+        @Override
+        public Timeout scheduleAtFixedRate(String name, Runnable task, long initialDelay, long period, TimeUnit unit) {
+            this.task = task;
+            this.timeout = new FakeTimeout();
+            return timeout;
+        }
+
+        void tick() {
+            if (isTicking()) {
+                task.run();
+            }
+        }
+
+        boolean isTicking() {
+            return timeout != null && !timeout.cancelled;
+        }
+    }
+
+    private static class FakeTimeout implements HashedWheelTimer.Timeout {
+        private boolean cancelled;
+
+        @Override
+        public boolean cancel() {
+            boolean first = !cancelled;
+            cancelled = true;
+            return first;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public boolean isDone() {
+            return cancelled;
+        }
+    }
+}
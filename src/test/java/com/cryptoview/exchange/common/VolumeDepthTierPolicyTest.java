@@ -0,0 +1,60 @@
+package com.cryptoview.exchange.common;
+
+import com.cryptoview.model.enums.Exchange;
+import com.cryptoview.model.enums.MarketType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VolumeDepthTierPolicyTest {
+
+    // deep: объём ≥ 5M или топ ≥ 1M; shallow: объём < 200K и топ < 50K
+    private final VolumeDepthTierPolicy policy = new VolumeDepthTierPolicy(
+            new BigDecimal("5000000"), new BigDecimal("200000"),
+            new BigDecimal("1000000"), new BigDecimal("50000"));
+
+    @Test
+    void shouldPickTierByVolumeAndTopDepth() {
+        assertEquals(DepthTier.DEEP, resolve(6_000_000, 10_000, DepthTier.STANDARD));
+        assertEquals(DepthTier.DEEP, resolve(100_000, 2_000_000, DepthTier.STANDARD));
+        assertEquals(DepthTier.SHALLOW, resolve(100_000, 10_000, DepthTier.STANDARD));
+        assertEquals(DepthTier.SHALLOW, resolve(100_000, null, DepthTier.STANDARD));
+        // Тонкий объём, но толстый топ — не SHALLOW
+        assertEquals(DepthTier.STANDARD, resolve(100_000, 300_000, DepthTier.STANDARD));
+        assertEquals(DepthTier.STANDARD, resolve(1_000_000, 10_000, DepthTier.STANDARD));
+    }
+
+    @Test
+    void shouldNotDependOnCurrentTierOutsideHysteresisBand() {
+        for (DepthTier current : DepthTier.values()) {
+            assertEquals(DepthTier.DEEP, resolve(10_000_000, 10_000, current));
+            assertEquals(DepthTier.SHALLOW, resolve(10_000, 1_000, current));
+            assertEquals(DepthTier.STANDARD, resolve(1_000_000, 300_000, current));
+        }
+    }
+
+    @Test
+    void shouldHoldTierWithinHysteresisMargin() {
+        // 4.5M < 5M: в DEEP не войти, но из DEEP не выйти (запас 20% → 4M)
+        assertEquals(DepthTier.STANDARD, resolve(4_500_000, 10_000, DepthTier.STANDARD));
+        assertEquals(DepthTier.DEEP, resolve(4_500_000, 10_000, DepthTier.DEEP));
+        assertEquals(DepthTier.STANDARD, resolve(3_900_000, 10_000, DepthTier.DEEP));
+
+        // 220K ≥ 200K: в SHALLOW не войти, но SHALLOW остаётся до 240K
+        assertEquals(DepthTier.STANDARD, resolve(220_000, 10_000, DepthTier.STANDARD));
+        assertEquals(DepthTier.SHALLOW, resolve(220_000, 10_000, DepthTier.SHALLOW));
+        assertEquals(DepthTier.STANDARD, resolve(250_000, 10_000, DepthTier.SHALLOW));
+
+        // То же по глубине топа
+        assertEquals(DepthTier.DEEP, resolve(100_000, 900_000, DepthTier.DEEP));
+        assertEquals(DepthTier.SHALLOW, resolve(100_000, 55_000, DepthTier.SHALLOW));
+        assertEquals(DepthTier.STANDARD, resolve(100_000, 55_000, DepthTier.STANDARD));
+    }
+
+    private DepthTier resolve(long volume, Integer topDepth, DepthTier current) {
+        return policy.resolve(new SymbolActivity("BTCUSDT", Exchange.BYBIT, MarketType.SPOT,
+                BigDecimal.valueOf(volume), topDepth == null ? null : BigDecimal.valueOf(topDepth), current));
+    }
+}
@@ -0,0 +1,207 @@
+package com.cryptoview.exchange.mock;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MockExchangeServerTest {
+
+    private final HttpClient http = HttpClient.newHttpClient();
+    private MockExchangeServer server;
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    void shouldServeInstrumentsAndDepthSnapshots() throws Exception {
+        start(settings(5, 0.0, 0.0));
+
+        HttpResponse<String> info = get("/fapi/v1/exchangeInfo");
+        assertEquals(200, info.statusCode());
+        assertTrue(info.body().contains("\"symbol\":\"MOCK5USDT\""));
+
+        HttpResponse<String> depth = get("/fapi/v1/depth?symbol=MOCK1USDT&limit=5");
+        assertEquals(200, depth.statusCode());
+        assertNotNull(MockVenue.field(depth.body(), "lastUpdateId"));
+        assertEquals(5, MockVenue.strings(MockVenue.arrayField(depth.body(), "bids")).size() / 2);
+
+        assertTrue(get("/v5/market/instruments-info?category=linear").body().contains("\"symbol\":\"MOCK3USDT\""));
+        assertTrue(get("/api/v5/public/instruments?instType=SWAP").body().contains("\"instId\":\"MOCK2-USDT-SWAP\""));
+        assertEquals(400, get("/api/v3/depth?symbol=NOPE").statusCode());
+        assertEquals(404, get("/unknown").statusCode());
+    }
+
+    @Test
+    void shouldAnswerTooManyRequestsWhenRateLimited() throws Exception {
+        start(settings(1, 0.0, 1.0));
+
+        HttpResponse<String> response = get("/api/v3/exchangeInfo");
+        assertEquals(429, response.statusCode());
+        assertEquals("1", response.headers().firstValue("Retry-After").orElse(null));
+        assertEquals(1, server.getStats().restRateLimited());
+    }
+
+    @Test
+    void shouldBridgeBinanceSnapshotIntoDiffStream() throws Exception {
+        start(settings(3, 0.0, 0.0));
+        Client client = connect("/stream");
+
+        client.send("{\"method\":\"SUBSCRIBE\",\"params\":[\"mock2usdt@depth@500ms\"],\"id\":7}");
+        assertEquals("{\"result\":null,\"id\":7}", client.next());
+        long snapshotId = Long.parseLong(MockVenue.field(get("/fapi/v1/depth?symbol=MOCK2USDT&limit=50").body(),
+                "lastUpdateId"));
+
+        // Futures rule: the first event to apply spans the snapshot id, after that pu chains onto u
+        long previous = -1;
+        int chained = 0;
+        while (chained < 5) {
+            String event = client.next();
+            assertTrue(event.startsWith("{\"stream\":\"mock2usdt@depth@500ms\""), event);
+            long first = Long.parseLong(MockVenue.field(event, "U"));
+            long last = Long.parseLong(MockVenue.field(event, "u"));
+            long prev = Long.parseLong(MockVenue.field(event, "pu"));
+            if (previous < 0) {
+                if (last < snapshotId) continue;
+                assertTrue(first <= snapshotId && last >= snapshotId, "bridging event " + event);
+            } else {
+                assertEquals(previous, prev);
+                chained++;
+            }
+            previous = last;
+        }
+    }
+
+    @Test
+    void shouldStartOkxBooksWithSnapshotAndChainSeqIds() throws Exception {
+        start(settings(2, 0.0, 0.0));
+        Client client = connect("/ws/v5/public");
+
+        client.send("{\"id\":\"1\",\"op\":\"subscribe\",\"args\":[{\"channel\":\"books\",\"instId\":\"MOCK1-USDT-SWAP\"}]}");
+        assertTrue(client.next().startsWith("{\"event\":\"subscribe\""));
+
+        String snapshot = client.next();
+        assertEquals("snapshot", MockVenue.field(snapshot, "action"));
+        long seqId = Long.parseLong(MockVenue.field(snapshot, "seqId"));
+        for (int i = 0; i < 5; i++) {
+            String update = client.next();
+            assertEquals("update", MockVenue.field(update, "action"));
+            assertEquals(seqId, Long.parseLong(MockVenue.field(update, "prevSeqId")));
+            seqId = Long.parseLong(MockVenue.field(update, "seqId"));
+        }
+
+        client.send("ping");
+        String reply;
+        do {
+            reply = client.next();
+        } while (!reply.equals("pong"));
+    }
+
+    @Test
+    void shouldLeaveGapsWhenEventsAreDropped() throws Exception {
+        start(settings(1, 0.5, 0.0));
+        Client client = connect("/v5/public/linear");
+
+        client.send("{\"req_id\":\"3\",\"op\":\"subscribe\",\"args\":[\"orderbook.50.MOCK1USDT\"]}");
+        assertTrue(client.next().contains("\"success\":true"));
+        String snapshot = client.next();
+        assertEquals("snapshot", MockVenue.field(snapshot, "type"));
+
+        for (int i = 0; i < 20 && server.getStats().gapsInjected() == 0; i++) {
+            client.next();
+        }
+        assertTrue(server.getStats().gapsInjected() > 0);
+    }
+
+    @Test
+    void shouldDropSessionsOnForcedDisconnect() throws Exception {
+        start(settings(1, 0.0, 0.0));
+        Client client = connect("/stream");
+        client.send("{\"method\":\"SUBSCRIBE\",\"params\":[\"mock1usdt@aggTrade\"],\"id\":1}");
+        client.next();
+
+        assertEquals(1, server.disconnect(1.0));
+        assertTrue(client.closed.await(5, TimeUnit.SECONDS));
+        assertEquals(0, server.getStats().sessions());
+    }
+
+    // ======================== Helpers ========================
+
+    private static MockExchangeServer.Settings settings(int symbols, double gapProbability, double rateLimitProbability) {
+        MockExchangeServer.Settings d = MockExchangeServer.Settings.defaults();
+        return new MockExchangeServer.Settings("127.0.0.1", 0, symbols, 200, 50, 4, gapProbability, 0.5,
+                rateLimitProbability, 0, 0, 0, 1.0, d.sessionQueueSize(), 7);
+    }
+
+    private void start(MockExchangeServer.Settings settings) throws Exception {
+        server = new MockExchangeServer(settings);
+        server.start();
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + path)).build();
+        return http.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private Client connect(String path) throws Exception {
+        Client client = new Client();
+        client.socket = http.newWebSocketBuilder()
+                .buildAsync(URI.create("ws://127.0.0.1:" + server.getPort() + path), client)
+                .get(5, TimeUnit.SECONDS);
+        return client;
+    }
+
+    private static class Client implements WebSocket.Listener {
+        final BlockingQueue<String> messages = new LinkedBlockingQueue<>();
+        final CountDownLatch closed = new CountDownLatch(1);
+        final StringBuilder partial = new StringBuilder();
+        WebSocket socket;
+
+        void send(String text) {
+            socket.sendText(text, true).join();
+        }
+
+        String next() throws InterruptedException {
+            String message = messages.poll(5, TimeUnit.SECONDS);
+            assertNotNull(message, "no message within 5s");
+            return message;
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            partial.append(data);
+            if (last) {
+                messages.add(partial.toString());
+                partial.setLength(0);
+            }
+            webSocket.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+            closed.countDown();
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket webSocket, Throwable error) {
+            closed.countDown();
+        }
+    }
+}
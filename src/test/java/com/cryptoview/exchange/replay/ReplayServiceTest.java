@@ -0,0 +1,200 @@
+package com.cryptoview.exchange.replay;
+
+import com.cryptoview.config.CryptoViewProperties;
+import com.cryptoview.exchange.bybit.BybitFuturesConnector;
+import com.cryptoview.exchange.mock.MockExchangeServer;
+import com.cryptoview.model.domain.OrderBook;
+import com.cryptoview.model.enums.Exchange;
+import com.cryptoview.model.enums.MarketType;
+import com.cryptoview.service.orderbook.BboTable;
+import com.cryptoview.service.orderbook.OrderBookManager;
+import com.cryptoview.service.orderbook.OrderBookStreams;
+import com.cryptoview.service.pipeline.OrderBookPipeline;
+import com.cryptoview.service.recorder.FrameLog;
+import com.cryptoview.service.symbol.SymbolRegistry;
+import com.cryptoview.service.timer.HashedWheelTimer;
+import com.cryptoview.service.volume.VolumeTracker;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Frames of the mock venue are recorded to a frame log and replayed through the real Bybit decoder.
+ */
+class ReplayServiceTest {
+
+    private static final Instant RECORDED_AT = Instant.parse("2026-01-01T00:00:00Z");
+    private static final long FRAME_SPACING_MICROS = 70_000;
+    private static final int FRAMES = 40;
+
+    @TempDir
+    Path dir;
+
+    private final HashedWheelTimer timer = new HashedWheelTimer();
+    private MockExchangeServer server;
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.close();
+        }
+        timer.shutdown();
+    }
+
+    @Test
+    void shouldPublishRecordedBooksOnRecordedTime() throws Exception {
+        record(FRAMES);
+
+        Replay replay = replay();
+
+        assertEquals(ReplayService.State.FINISHED, replay.status().state());
+        assertEquals(FRAMES, replay.status().framesReplayed());
+        assertEquals((FRAMES - 1) * FRAME_SPACING_MICROS / 1e6, replay.status().recordedSeconds(), 1e-9);
+
+        CryptoViewProperties.PublishConfig publish = new CryptoViewProperties().getPublish();
+        long firstFrameMicros = micros(RECORDED_AT);
+        long lastFrameMicros = firstFrameMicros + (FRAMES - 1) * FRAME_SPACING_MICROS;
+        List<OrderBook> books = replay.books();
+        assertTrue(books.size() > 1, "published " + books.size());
+        for (int i = 0; i < books.size(); i++) {
+            OrderBook book = books.get(i);
+            assertEquals("MOCK1USDT", book.symbol());
+            assertEquals(Exchange.BYBIT, book.exchange());
+            assertEquals(MarketType.FUTURES, book.marketType());
+            // Штамп — граница тика флаша на записанном времени, а не стенные часы
+            long at = micros(book.timestamp());
+            assertEquals(0, (at - firstFrameMicros) % (publish.getFlushTickMs() * 1000), book.timestamp().toString());
+            assertTrue(at > firstFrameMicros && at <= lastFrameMicros + publish.getMaxIntervalMs() * 1000);
+            if (i > 0) {
+                long gap = at - micros(books.get(i - 1).timestamp());
+                assertTrue(gap >= publish.getIntervalMs() * 1000, "publish gap " + gap + "µs");
+            }
+        }
+
+        // Последняя публикация — итоговое состояние книги
+        OrderBook last = books.getLast();
+        BboTable.Quote quote = new BboTable.Quote();
+        assertTrue(replay.manager().getBbo().read(last.symbolId(), quote));
+        assertEquals(quote.bidPrice(), last.bids().getFirst().price().doubleValue(), 0);
+        assertEquals(quote.askPrice(), last.asks().getFirst().price().doubleValue(), 0);
+    }
+
+    @Test
+    void shouldPublishTheSameBooksOnEveryReplay() throws Exception {
+        record(FRAMES);
+
+        List<String> first = fingerprint(replay().books());
+        List<String> second = fingerprint(replay().books());
+
+        assertFalse(first.isEmpty());
+        assertEquals(first, second);
+    }
+
+    // ======================== Helpers ========================
+
+    /**
+     * Subscribes to one Bybit book on the mock venue and writes the frames to a frame log,
+     * {@link #FRAME_SPACING_MICROS} apart starting at {@link #RECORDED_AT}.
+     */
+    private void record(int frames) throws Exception {
+        MockExchangeServer.Settings d = MockExchangeServer.Settings.defaults();
+        server = new MockExchangeServer(new MockExchangeServer.Settings("127.0.0.1", 0, 1, 200, 50, 4, 0.0, 0.0,
+                0.0, 0, 0, 0, 1.0, d.sessionQueueSize(), 7));
+        server.start();
+
+        Client client = new Client();
+        WebSocket socket = HttpClient.newHttpClient().newWebSocketBuilder()
+                .buildAsync(URI.create("ws://127.0.0.1:" + server.getPort() + "/v5/public/linear"), client)
+                .get(5, TimeUnit.SECONDS);
+        socket.sendText("{\"req_id\":\"1\",\"op\":\"subscribe\",\"args\":[\"orderbook.50.MOCK1USDT\"]}", true).join();
+
+        try (FrameLog frameLog = new FrameLog(dir, 1024 * 1024, 4)) {
+            int source = frameLog.registerSource("BYBIT_FUTURES");
+            long at = micros(RECORDED_AT);
+            for (int i = 0; i < frames; i++) {
+                String text = client.messages.poll(5, TimeUnit.SECONDS);
+                assertNotNull(text, "no frame within 5s");
+                assertTrue(frameLog.append(source, 1, at, FrameLog.FLAG_TEXT,
+                        ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8))));
+                at += FRAME_SPACING_MICROS;
+            }
+        }
+        socket.abort();
+    }
+
+    private Replay replay() throws Exception {
+        CryptoViewProperties properties = new CryptoViewProperties();
+        properties.getReplay().setEnabled(true);
+        properties.getReplay().setPath(dir.toString());
+        properties.getReplay().setSpeed(0);
+        properties.getPipeline().setWorkers(0); // listeners inline, on the replay thread
+
+        ReplayClock clock = new ReplayClock(ReplayClock.recordingStart(dir));
+        SymbolRegistry symbolRegistry = new SymbolRegistry();
+        List<OrderBook> books = new CopyOnWriteArrayList<>();
+        OrderBookPipeline pipeline = new OrderBookPipeline(List.of(books::add), properties);
+        OrderBookManager manager = new OrderBookManager(pipeline, clock, symbolRegistry, timer,
+                new OrderBookStreams(symbolRegistry, timer, clock), properties);
+        manager.init();
+        BybitFuturesConnector connector = new BybitFuturesConnector(new OkHttpClient(), new ObjectMapper(), manager,
+                new VolumeTracker(clock, symbolRegistry), timer);
+
+        ReplayService service = new ReplayService(List.of(connector), properties, clock, manager);
+        service.init();
+        service.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (service.getStatus().state() == ReplayService.State.RUNNING && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        service.stop();
+        return new Replay(service.getStatus(), manager, new ArrayList<>(books));
+    }
+
+    private static List<String> fingerprint(List<OrderBook> books) {
+        return books.stream()
+                .map(book -> book.timestamp() + " " + book.bids().getFirst() + " " + book.asks().getFirst()
+                        + " " + book.bids().size() + "/" + book.asks().size())
+                .toList();
+    }
+
+    private static long micros(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000L + instant.getNano() / 1_000;
+    }
+
+    private record Replay(ReplayService.Status status, OrderBookManager manager, List<OrderBook> books) {}
+
+    private static class Client implements WebSocket.Listener {
+        final BlockingQueue<String> messages = new LinkedBlockingQueue<>();
+        final StringBuilder partial = new StringBuilder();
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            partial.append(data);
+            if (last) {
+                messages.add(partial.toString());
+                partial.setLength(0);
+            }
+            webSocket.request(1);
+            return null;
+        }
+    }
+}
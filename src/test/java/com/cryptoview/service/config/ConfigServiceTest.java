@@ -0,0 +1,136 @@
+package com.cryptoview.service.config;
+
+import com.cryptoview.config.CryptoViewProperties;
+import com.cryptoview.model.config.EffectiveConfig;
+import com.cryptoview.model.config.ExchangeConfig;
+import com.cryptoview.model.config.SymbolConfig;
+import com.cryptoview.model.enums.Exchange;
+import com.cryptoview.model.enums.MarketType;
+import com.cryptoview.service.symbol.SymbolRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConfigServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private final CryptoViewProperties properties = new CryptoViewProperties();
+    private final SymbolRegistry symbolRegistry = new SymbolRegistry();
+    private ConfigService configService;
+
+    private int btcBinance;
+    private int btcBybit;
+    private int ethBinance;
+    private int ethBybit;
+
+    @BeforeEach
+    void setUp() {
+        ExchangeConfig bybit = new ExchangeConfig();
+        bybit.setMinDensityUsd(new BigDecimal("250000"));
+        bybit.setCooldownMinutes(30);
+        properties.getExchanges().put(Exchange.BYBIT, bybit);
+        properties.setSymbolsConfigFile(dir.resolve("symbols-config.json").toString());
+        configService = new ConfigService(properties, new ObjectMapper(), symbolRegistry);
+        configService.init();
+        btcBinance = symbolRegistry.idOf(Exchange.BINANCE, MarketType.FUTURES, "BTCUSDT");
+        btcBybit = symbolRegistry.idOf(Exchange.BYBIT, MarketType.FUTURES, "BTCUSDT");
+        ethBinance = symbolRegistry.idOf(Exchange.BINANCE, MarketType.SPOT, "ETHUSDT");
+        ethBybit = symbolRegistry.idOf(Exchange.BYBIT, MarketType.SPOT, "ETHUSDT");
+    }
+
+    @Test
+    void shouldRecompileOnlyTheOverriddenSymbolOnEveryVenue() {
+        Map<Integer, EffectiveConfig> before = compileAll();
+
+        configService.updateSymbolConfig("btcusdt", symbolConfig(new BigDecimal("500000")));
+
+        assertRecompiled(before, btcBinance, btcBybit);
+        assertCarriedOver(before, ethBinance, ethBybit);
+        assertEquals(new BigDecimal("500000"), configService.getEffectiveConfig(btcBinance).getMinDensityUsd());
+        assertEquals(new BigDecimal("500000"), configService.getEffectiveConfig(btcBybit).getMinDensityUsd());
+        assertTrue(dir.resolve("symbols-config.json").toFile().exists());
+    }
+
+    @Test
+    void shouldKeepSymbolOverridesAboveExchangeConfig() {
+        compileAll();
+
+        configService.updateSymbolConfig("BTCUSDT", symbolConfig(new BigDecimal("500000")));
+
+        // Символьный оверрайд сильнее биржевого, остальное наследуется от биржи
+        assertEquals(new BigDecimal("500000"), configService.getEffectiveConfig(btcBybit).getMinDensityUsd());
+        assertEquals(30, configService.getEffectiveConfig(btcBybit).getCooldownMinutes());
+        assertEquals(new BigDecimal("250000"), configService.getEffectiveConfig(ethBybit).getMinDensityUsd());
+        assertEquals(5, configService.getEffectiveConfig(btcBinance).getCooldownMinutes());
+    }
+
+    @Test
+    void shouldRecompileEverythingOnImport() throws Exception {
+        Map<Integer, EffectiveConfig> before = compileAll();
+
+        configService.importSymbolConfigs("{\"symbols\":{\"ETHUSDT\":{\"cooldownMinutes\":15}}}");
+
+        assertRecompiled(before, btcBinance, btcBybit, ethBinance, ethBybit);
+        assertEquals(15, configService.getEffectiveConfig(ethBinance).getCooldownMinutes());
+        assertEquals(15, configService.getEffectiveConfig(ethBybit).getCooldownMinutes());
+        assertEquals(5, configService.getEffectiveConfig(btcBinance).getCooldownMinutes());
+        assertNull(configService.getSymbolConfig("BTCUSDT"));
+    }
+
+    @Test
+    void shouldCompileSymbolRegisteredAfterTheTableOnFirstUse() {
+        compileAll();
+        configService.updateSymbolConfig("SOLUSDT", symbolConfig(new BigDecimal("300000")));
+
+        int sol = symbolRegistry.idOf(Exchange.BYBIT, MarketType.FUTURES, "SOLUSDT");
+        EffectiveConfig config = configService.getEffectiveConfig(sol);
+
+        assertEquals(new BigDecimal("300000"), config.getMinDensityUsd());
+        assertEquals(30, config.getCooldownMinutes());
+        assertSame(config, configService.getEffectiveConfig(sol));
+        configService.updateSymbolConfig("BTCUSDT", symbolConfig(new BigDecimal("500000")));
+        assertSame(config, configService.getEffectiveConfig(sol));
+
+        // По имени незарегистрированный символ резолвится, но не регистрируется
+        assertEquals(new BigDecimal("250000"),
+                configService.getEffectiveConfig(Exchange.BYBIT, MarketType.SPOT, "XRPUSDT").getMinDensityUsd());
+        assertEquals(SymbolRegistry.UNKNOWN, symbolRegistry.find(Exchange.BYBIT, MarketType.SPOT, "XRPUSDT"));
+    }
+
+    private Map<Integer, EffectiveConfig> compileAll() {
+        Map<Integer, EffectiveConfig> compiled = new HashMap<>();
+        for (int id : List.of(btcBinance, btcBybit, ethBinance, ethBybit)) {
+            compiled.put(id, configService.getEffectiveConfig(id));
+        }
+        return compiled;
+    }
+
+    private void assertRecompiled(Map<Integer, EffectiveConfig> before, int... ids) {
+        for (int id : ids) {
+            assertNotSame(before.get(id), configService.getEffectiveConfig(id), symbolRegistry.key(id).toString());
+        }
+    }
+
+    private void assertCarriedOver(Map<Integer, EffectiveConfig> before, int... ids) {
+        for (int id : ids) {
+            assertSame(before.get(id), configService.getEffectiveConfig(id), symbolRegistry.key(id).toString());
+        }
+    }
+
+    private static SymbolConfig symbolConfig(BigDecimal minDensityUsd) {
+        SymbolConfig config = new SymbolConfig();
+        config.setMinDensityUsd(minDensityUsd);
+        return config;
+    }
+}
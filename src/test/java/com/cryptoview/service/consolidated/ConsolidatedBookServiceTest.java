@@ -0,0 +1,77 @@
+package com.cryptoview.service.consolidated;
+
+import com.cryptoview.config.CryptoViewProperties;
+import com.cryptoview.model.domain.OrderBook;
+import com.cryptoview.model.domain.OrderBookLevel;
+import com.cryptoview.model.enums.Exchange;
+import com.cryptoview.model.enums.MarketType;
+import com.cryptoview.service.symbol.SymbolRegistry;
+import com.cryptoview.service.timer.HashedWheelTimer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsolidatedBookServiceTest {
+
+    private static final Instant T0 = Instant.parse("2026-01-01T00:00:00Z");
+
+    private final HashedWheelTimer timer = new HashedWheelTimer();
+    private final ConsolidatedBookService service = new ConsolidatedBookService(new SymbolRegistry(), timer,
+            Clock.fixed(T0, ZoneOffset.UTC), new CryptoViewProperties());
+
+    @AfterEach
+    void tearDown() {
+        timer.shutdown();
+    }
+
+    @Test
+    void shouldRepriceUsdcVenuesOnlyWhenTheRateMovesAStep() {
+        List<OrderBookLevel> bids = new ArrayList<>();
+        List<OrderBookLevel> asks = new ArrayList<>();
+        for (int i = 1; i <= 20; i++) {
+            bids.add(level(100 - i, 1));
+            asks.add(level(100 + i, 1));
+        }
+        service.onOrderBook(book("BTC", Exchange.HYPERLIQUID, bids, asks)); // USDC-маржинальный
+        assertEquals(40, service.getStats().changedLevels());
+
+        // Тик курса в пределах шага: тот же стакан не меняет ни одного уровня
+        service.onOrderBook(rate("0.9999", "1.0003"));
+        long changed = service.getStats().changedLevels();
+        service.onOrderBook(book("BTC", Exchange.HYPERLIQUID, bids, asks));
+        assertEquals(BigDecimal.ONE, service.getStats().quoteRates().get("USDC"));
+        assertEquals(changed, service.getStats().changedLevels());
+
+        // Шаг пройден: курс принят, уровни перецениваются один раз
+        service.onOrderBook(rate("1.0009", "1.0011"));
+        changed = service.getStats().changedLevels();
+        service.onOrderBook(book("BTC", Exchange.HYPERLIQUID, bids, asks));
+        assertEquals(0, new BigDecimal("1.001").compareTo(service.getStats().quoteRates().get("USDC")));
+        assertEquals(changed + 80, service.getStats().changedLevels());
+        assertEquals(0, new BigDecimal("99.099").compareTo(
+                service.getBook("BTC", 1, null).orElseThrow().bids().getFirst().price()));
+    }
+
+    private static OrderBook rate(String bid, String ask) {
+        return book("USDCUSDT", Exchange.BINANCE,
+                List.of(new OrderBookLevel(new BigDecimal(bid), BigDecimal.ONE)),
+                List.of(new OrderBookLevel(new BigDecimal(ask), BigDecimal.ONE)));
+    }
+
+    private static OrderBook book(String symbol, Exchange exchange, List<OrderBookLevel> bids,
+                                  List<OrderBookLevel> asks) {
+        return new OrderBook(symbol, exchange, MarketType.SPOT, bids, asks, null, T0);
+    }
+
+    private static OrderBookLevel level(double price, double quantity) {
+        return new OrderBookLevel(BigDecimal.valueOf(price), BigDecimal.valueOf(quantity));
+    }
+}
@@ -0,0 +1,114 @@
+package com.cryptoview.service.consolidated;
+
+import com.cryptoview.model.domain.OrderBookLevel;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsolidatedBookTest {
+
+    private static final Instant T0 = Instant.parse("2026-01-01T00:00:00Z");
+
+    private final ConsolidatedBook book = new ConsolidatedBook("BTC");
+
+    @Test
+    void shouldMergeVenuesWithAttribution() {
+        book.apply(1, levels(100, 2, 99, 1), levels(101, 1), BigDecimal.ONE, T0);
+        book.apply(2, levels(100, 3, 98, 5), levels(101, 4, 102, 1), BigDecimal.ONE, T0);
+
+        ConsolidatedBook.Snapshot snapshot = book.snapshot(10, null);
+        assertEquals(List.of("100:5", "99:1", "98:5"), describe(snapshot.bids()));
+        assertEquals(List.of("101:5", "102:1"), describe(snapshot.asks()));
+        assertEquals(2, snapshot.bids().getFirst().venues().size());
+        assertEquals(List.of(1, 2), snapshot.venueIds());
+    }
+
+    @Test
+    void shouldTouchOnlyChangedLevels() {
+        book.apply(1, levels(100, 2, 99, 1, 98, 1), levels(101, 1, 102, 1), BigDecimal.ONE, T0);
+        long version = book.getVersion();
+
+        // 99 changed, 98 gone, 97 new; the rest identical
+        int changed = book.apply(1, levels(100, 2, 99, 4, 97, 1), levels(101, 1, 102, 1), BigDecimal.ONE, T0);
+        assertEquals(3, changed);
+        assertEquals(version + 1, book.getVersion());
+
+        assertEquals(0, book.apply(1, levels(100, 2, 99, 4, 97, 1), levels(101, 1, 102, 1), BigDecimal.ONE, T0));
+        assertEquals(version + 1, book.getVersion());
+        assertEquals(List.of("100:2", "99:4", "97:1"), describe(book.snapshot(10, null).bids()));
+    }
+
+    @Test
+    void shouldNormalizeQuoteAndFilterVenues() {
+        book.apply(1, levels(100, 1), levels(), BigDecimal.ONE, T0);
+        book.apply(2, levels(100, 1), levels(), new BigDecimal("1.001"), T0); // USDC at 1.001 USDT
+
+        assertEquals(List.of("100.1:1", "100:1"), describe(book.snapshot(10, null).bids()));
+        assertEquals(List.of("100:1"), describe(book.snapshot(10, id -> id == 1).bids()));
+    }
+
+    @Test
+    void shouldRemoveVenueAndStaleVenues() {
+        book.apply(1, levels(100, 1), levels(101, 1), BigDecimal.ONE, T0);
+        book.apply(2, levels(100, 2), levels(), BigDecimal.ONE, T0.plusSeconds(60));
+
+        assertEquals(List.of(1), book.staleVenues(T0.plusSeconds(30)));
+        assertTrue(book.removeVenue(1));
+        assertFalse(book.removeVenue(1));
+
+        ConsolidatedBook.Snapshot snapshot = book.snapshot(10, null);
+        assertEquals(List.of("100:2"), describe(snapshot.bids()));
+        assertTrue(snapshot.asks().isEmpty());
+    }
+
+    @Test
+    void shouldSortUnorderedInputAndSumDuplicates() {
+        book.apply(1, levels(98, 1, 100, 1, 98, 2), levels(), BigDecimal.ONE, T0);
+
+        assertEquals(List.of("100:1", "98:3"), describe(book.snapshot(10, null).bids()));
+    }
+
+    @Test
+    void shouldMatchFullRebuildOnRandomUpdates() {
+        Random random = new Random(7);
+        List<List<OrderBookLevel>> latest = new ArrayList<>(List.of(List.of(), List.of(), List.of()));
+        for (int round = 0; round < 500; round++) {
+            int venue = random.nextInt(3);
+            List<OrderBookLevel> bids = new ArrayList<>();
+            for (int p = 120; p > 80; p--) {
+                if (random.nextInt(3) == 0) bids.add(level(p, 1 + random.nextInt(3)));
+            }
+            latest.set(venue, bids);
+            book.apply(venue, bids, List.of(), BigDecimal.ONE, T0);
+
+            ConsolidatedBook rebuilt = new ConsolidatedBook("BTC");
+            for (int v = 0; v < 3; v++) {
+                rebuilt.apply(v, latest.get(v), List.of(), BigDecimal.ONE, T0);
+            }
+            assertEquals(describe(rebuilt.snapshot(100, null).bids()), describe(book.snapshot(100, null).bids()));
+        }
+    }
+
+    private static List<String> describe(List<ConsolidatedBook.LadderLevel> levels) {
+        return levels.stream().map(l -> l.price().stripTrailingZeros().toPlainString() + ":"
+                + l.quantity().stripTrailingZeros().toPlainString()).toList();
+    }
+
+    private static List<OrderBookLevel> levels(long... priceQty) {
+        List<OrderBookLevel> result = new ArrayList<>();
+        for (int i = 0; i < priceQty.length; i += 2) {
+            result.add(level(priceQty[i], priceQty[i + 1]));
+        }
+        return result;
+    }
+
+    private static OrderBookLevel level(long price, long qty) {
+        return new OrderBookLevel(BigDecimal.valueOf(price), BigDecimal.valueOf(qty));
+    }
+}
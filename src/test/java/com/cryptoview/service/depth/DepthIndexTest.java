@@ -0,0 +1,107 @@
+package com.cryptoview.service.depth;
+
+import com.cryptoview.model.domain.OrderBookLevel;
+import com.cryptoview.model.enums.Side;
+import com.cryptoview.service.orderbook.LevelArrays;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DepthIndexTest {
+
+    private final DepthIndex index = new DepthIndex();
+
+    @Test
+    void shouldSumNotionalWithinDistance() {
+        apply(null,
+                List.of(level(99.9, 10), level(99, 10), level(97, 10)),    // 999 + 990 + 970
+                List.of(level(100.1, 10), level(104, 10)));                 // 1001 + 1040
+
+        assertEquals(100.0, index.getMid(), 1e-9);
+        assertEquals(1989, index.depth(Side.BID, 1.5), 1e-6);
+        assertEquals(2959, index.depth(Side.BID, 5), 1e-6);
+        assertEquals(1001, index.depth(Side.ASK, 1.5), 1e-6);
+        assertEquals(1040, index.depthBetween(Side.ASK, 2, 5), 1e-6);
+        assertEquals((1989.0 - 1001) / (1989 + 1001), index.imbalance(1.5), 1e-9);
+    }
+
+    @Test
+    void shouldSkipRepeatedSourceAndApplyDiffs() {
+        Object book = new Object();
+        assertTrue(apply(book, List.of(level(99, 10)), List.of(level(101, 10))));
+        assertFalse(apply(book, List.of(level(99, 20)), List.of(level(101, 10))));
+        assertEquals(990, index.depth(Side.BID, 2), 1e-6);
+
+        apply(new Object(), List.of(level(99.5, 2), level(99, 20)), List.of(level(101, 10)));
+        assertEquals(199 + 1980, index.depth(Side.BID, 2), 1e-6);
+    }
+
+    @Test
+    void shouldMatchBruteForceAcrossDriftingBooks() {
+        Random random = new Random(11);
+        double mid = 100;
+        for (int round = 0; round < 2000; round++) {
+            mid *= 1 + (random.nextDouble() - 0.5) * 0.004; // дрейф заставит перепривязать якорь
+            List<OrderBookLevel> bids = new ArrayList<>();
+            List<OrderBookLevel> asks = new ArrayList<>();
+            for (int i = 1; i <= 150; i++) {
+                if (random.nextInt(4) != 0) bids.add(level(round(mid * (1 - i * 0.0006)), 1 + random.nextInt(5)));
+                if (random.nextInt(4) != 0) asks.add(level(round(mid * (1 + i * 0.0006)), 1 + random.nextInt(5)));
+            }
+            apply(new Object(), bids, asks);
+
+            double actualMid = index.getMid();
+            for (double pct : new double[]{0.5, 1, 2, 5, 9}) {
+                assertNear(brute(bids, actualMid, pct, true), index.depth(Side.BID, pct), actualMid, bids);
+                assertNear(brute(asks, actualMid, pct, false), index.depth(Side.ASK, pct), actualMid, asks);
+            }
+        }
+    }
+
+    @Test
+    void shouldResetOnEmptyBook() {
+        apply(null, List.of(level(99, 10)), List.of(level(101, 10)));
+        apply(null, List.of(), List.of());
+
+        assertTrue(Double.isNaN(index.getMid()));
+        assertEquals(0, index.depth(Side.BID, 5), 0);
+    }
+
+    private boolean apply(Object source, List<OrderBookLevel> bids, List<OrderBookLevel> asks) {
+        return index.apply(source, LevelArrays.of(bids, true), LevelArrays.of(asks, false));
+    }
+
+    /**
+     * The index rounds the window to whole buckets, so allow the notional of one bucket at each edge.
+     */
+    private static void assertNear(double expected, double actual, double mid, List<OrderBookLevel> side) {
+        double maxLevel = side.stream().mapToDouble(l -> l.price().doubleValue() * l.quantity().doubleValue())
+                .max().orElse(0);
+        double bucket = mid * DepthIndex.BUCKET_BPS / 10_000;
+        double levelsPerBucket = Math.ceil(bucket / (mid * 0.0006)) + 1;
+        assertEquals(expected, actual, 2 * levelsPerBucket * maxLevel + 1e-6);
+    }
+
+    private static double brute(List<OrderBookLevel> levels, double mid, double pct, boolean bid) {
+        double bound = bid ? mid * (1 - pct / 100) : mid * (1 + pct / 100);
+        double sum = 0;
+        for (OrderBookLevel level : levels) {
+            double price = level.price().doubleValue();
+            if (bid ? price >= bound : price <= bound) sum += price * level.quantity().doubleValue();
+        }
+        return sum;
+    }
+
+    private static double round(double price) {
+        return Math.round(price * 1000) / 1000.0;
+    }
+
+    private static OrderBookLevel level(double price, long qty) {
+        return new OrderBookLevel(BigDecimal.valueOf(price), BigDecimal.valueOf(qty));
+    }
+}
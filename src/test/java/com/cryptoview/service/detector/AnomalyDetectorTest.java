@@ -10,6 +10,9 @@ import com.cryptoview.model.enums.AlertType;
 import com.cryptoview.model.enums.Exchange;
 import com.cryptoview.model.enums.MarketType;
 import com.cryptoview.service.config.ConfigService;
+import com.cryptoview.service.depth.DepthIndexService;
+import com.cryptoview.service.orderbook.BookArraysCache;
+import com.cryptoview.service.symbol.SymbolRegistry;
 import com.cryptoview.service.volume.VolumeTracker;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -20,6 +23,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
+import java.time.Clock;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
@@ -27,6 +31,7 @@ import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -45,7 +50,10 @@ class AnomalyDetectorTest {
 
     @BeforeEach
     void setUp() {
-        anomalyDetector = new AnomalyDetector(configService, volumeTracker, eventPublisher);
+        SymbolRegistry symbolRegistry = new SymbolRegistry();
+        BookArraysCache bookArraysCache = new BookArraysCache(symbolRegistry, new CryptoViewProperties());
+        anomalyDetector = new AnomalyDetector(configService, volumeTracker, eventPublisher, Clock.systemUTC(),
+                symbolRegistry, new DepthIndexService(symbolRegistry, bookArraysCache), bookArraysCache);
     }
 
     @Test
@@ -59,9 +67,9 @@ class AnomalyDetectorTest {
                 .enabled(true)
                 .build();
 
-        when(configService.getEffectiveConfig(any(), any(), any())).thenReturn(config);
-        when(volumeTracker.getVolume15Min(any(), any(), any())).thenReturn(new BigDecimal("500000"));
-        when(volumeTracker.getTrackingAgeSec(any(), any(), any())).thenReturn(600L);
+        when(configService.getEffectiveConfig(anyInt())).thenReturn(config);
+        when(volumeTracker.getVolume15Min(anyInt())).thenReturn(new BigDecimal("500000"));
+        when(volumeTracker.getTrackingAgeSec(anyInt())).thenReturn(600L);
 
         // Create orderbook with anomalous density
         List<OrderBookLevel> bids = new ArrayList<>();
@@ -103,7 +111,7 @@ class AnomalyDetectorTest {
                 .enabled(true)
                 .build();
 
-        when(configService.getEffectiveConfig(any(), any(), any())).thenReturn(config);
+        when(configService.getEffectiveConfig(anyInt())).thenReturn(config);
 
         // Small density
         List<OrderBookLevel> bids = new ArrayList<>();
@@ -137,7 +145,7 @@ class AnomalyDetectorTest {
                 .enabled(false) // Disabled
                 .build();
 
-        when(configService.getEffectiveConfig(any(), any(), any())).thenReturn(config);
+        when(configService.getEffectiveConfig(anyInt())).thenReturn(config);
 
         List<OrderBookLevel> bids = new ArrayList<>();
         bids.add(new OrderBookLevel(new BigDecimal("50000"), new BigDecimal("100")));
@@ -158,4 +166,45 @@ class AnomalyDetectorTest {
         // Then
         verify(eventPublisher, never()).publishEvent(any(DensityDetectedEvent.class));
     }
+
+    @Test
+    void shouldSkipDensityThatIsSmallShareOfNearbyDepth() {
+        // Given
+        EffectiveConfig config = EffectiveConfig.builder()
+                .minDensityUsd(new BigDecimal("100000"))
+                .cooldownMinutes(5)
+                .maxDistancePercent(new BigDecimal("10"))
+                .alertTypes(Set.of(AlertType.VOLUME_BASED))
+                .enabled(true)
+                .minDepthShare(new BigDecimal("0.2"))
+                .depthShareWindowPercent(new BigDecimal("2"))
+                .build();
+
+        when(configService.getEffectiveConfig(anyInt())).thenReturn(config);
+        when(volumeTracker.getVolume15Min(anyInt())).thenReturn(new BigDecimal("500000"));
+        when(volumeTracker.getTrackingAgeSec(anyInt())).thenReturn(600L);
+
+        // $1M level inside ~$5.4M of small bids within 2% of mid: under 20% of its side
+        List<OrderBookLevel> bids = new ArrayList<>();
+        bids.add(new OrderBookLevel(new BigDecimal("50000"), new BigDecimal("20")));
+        for (int i = 1; i <= 60; i++) {
+            bids.add(new OrderBookLevel(BigDecimal.valueOf(50000 - 10L * i), new BigDecimal("1.8")));
+        }
+
+        OrderBook orderBook = new OrderBook(
+                "BTCUSDT",
+                Exchange.BINANCE,
+                MarketType.FUTURES,
+                bids,
+                List.of(new OrderBookLevel(new BigDecimal("50100"), new BigDecimal("1"))),
+                new BigDecimal("50050"),
+                Instant.now()
+        );
+
+        // When
+        anomalyDetector.analyzeOrderBook(orderBook);
+
+        // Then
+        verify(eventPublisher, never()).publishEvent(any(DensityDetectedEvent.class));
+    }
 }
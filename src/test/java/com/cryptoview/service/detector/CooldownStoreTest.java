@@ -0,0 +1,82 @@
+package com.cryptoview.service.detector;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CooldownStoreTest {
+
+    @Test
+    void wheelExpiresEveryEntryWithinOneTickOfItsDeadline() {
+        Random random = new Random(47);
+        long tick = 1000;
+        long now = 1_700_000_000_000L;
+        TimingWheel wheel = new TimingWheel(tick);
+        Map<Long, Long> pending = new HashMap<>();
+        List<long[]> expired = new ArrayList<>();
+
+        for (int step = 0; step < 20_000; step++) {
+            if (random.nextInt(3) == 0) {
+                long key = step;
+                // Короткие, средние и дальше горизонта колеса
+                long delay = switch (random.nextInt(3)) {
+                    case 0 -> random.nextInt(120_000);
+                    case 1 -> random.nextInt(30 * 60_000);
+                    default -> random.nextLong(400_000_000L);
+                };
+                wheel.schedule(key, now + delay, now);
+                pending.put(key, now + delay);
+            }
+            now += random.nextInt(5_000);
+            expired.clear();
+            int count = wheel.advance(now, (key, deadline) -> expired.add(new long[]{key, deadline}));
+            assertEquals(expired.size(), count);
+
+            for (long[] entry : expired) {
+                Long deadline = pending.remove(entry[0]);
+                assertNotNull(deadline, "expired twice or never scheduled: " + entry[0]);
+                assertEquals(deadline.longValue(), entry[1]);
+                assertTrue(deadline <= now);
+            }
+            // Всё, что просрочено больше чем на тик, обязано было уйти
+            for (long deadline : pending.values()) {
+                assertTrue(deadline > now - tick, "overdue " + (now - deadline) + " ms");
+            }
+            assertEquals(pending.size(), wheel.size());
+        }
+    }
+
+    @Test
+    void cooldownHoldsUntilDeadlineAndExtendedOneSurvivesOldExpiry() {
+        CooldownStore store = new CooldownStore(4);
+        long now = 1_700_000_000_000L;
+
+        assertFalse(store.isCoolingDown(7, 1, now));
+        store.start(7, 1, now, 60_000);
+        assertTrue(store.isCoolingDown(7, 1, now + 59_999));
+        assertFalse(store.isCoolingDown(7, 2, now));
+        assertFalse(store.isCoolingDown(8, 1, now));
+
+        // Продлили до старого дедлайна — истечение первой записи не должно снять новый кулдаун
+        store.start(7, 1, now + 30_000, 60_000);
+        assertEquals(1, store.expire(now + 61_000));
+        assertTrue(store.isCoolingDown(7, 1, now + 61_000));
+
+        assertEquals(1, store.expire(now + 91_000));
+        assertFalse(store.isCoolingDown(7, 1, now + 91_000));
+        assertEquals(0, store.pending());
+    }
+
+    @Test
+    void packedKeyRoundTrips() {
+        long key = CooldownStore.pack(123_456, 3);
+        assertEquals(123_456, CooldownStore.symbolOf(key));
+        assertEquals(3, CooldownStore.slotOf(key));
+    }
+}
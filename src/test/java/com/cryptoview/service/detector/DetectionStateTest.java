@@ -0,0 +1,169 @@
+package com.cryptoview.service.detector;
+
+import com.cryptoview.model.domain.OrderBookLevel;
+import com.cryptoview.model.enums.Side;
+import com.cryptoview.service.orderbook.LevelArrays;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DetectionStateTest {
+
+    @Test
+    void sketchShouldAnswerWithinRelativeAccuracy() {
+        QuantileSketch sketch = new QuantileSketch();
+        Random random = new Random(3);
+        double[] values = new double[5000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.exp(2 + random.nextDouble() * 16); // от ~7$ до ~65M$
+            sketch.add(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double q : new double[]{0, 0.25, 0.5, 0.75, 0.99, 1}) {
+            double exact = values[(int) Math.floor(q * (values.length - 1))];
+            assertEquals(exact, sketch.quantile(q), exact * QuantileSketch.RELATIVE_ACCURACY * 1.01);
+        }
+    }
+
+    @Test
+    void sketchShouldSupportRemovalAndMerge() {
+        QuantileSketch a = new QuantileSketch();
+        QuantileSketch b = new QuantileSketch();
+        for (int i = 1; i <= 100; i++) a.add(i * 1000.0);
+        for (int i = 1; i <= 100; i++) a.remove(i * 1000.0);
+        assertEquals(0, a.count());
+        assertTrue(Double.isNaN(a.quantile(0.5)));
+
+        a.add(10);
+        b.add(1000);
+        b.add(100_000);
+        a.merge(b);
+        assertEquals(3, a.count());
+        assertEquals(1000, a.quantile(0.5), 1000 * QuantileSketch.RELATIVE_ACCURACY);
+    }
+
+    @Test
+    void shouldFollowChangedLevelsLikeFullRecount() {
+        DetectionState state = new DetectionState();
+        Random random = new Random(5);
+        for (int round = 0; round < 1500; round++) {
+            List<OrderBookLevel> bids = new ArrayList<>();
+            List<OrderBookLevel> asks = new ArrayList<>();
+            for (int i = 1; i <= 60; i++) {
+                if (random.nextInt(3) != 0) bids.add(level(1000 - i, 1 + random.nextInt(round % 7 == 0 ? 500 : 20)));
+                if (random.nextInt(3) != 0) asks.add(level(1000 + i, 1 + random.nextInt(20)));
+            }
+            state.apply(new Object(), LevelArrays.of(bids, true), LevelArrays.of(asks, false), round * 1000L);
+
+            double[] values = new double[bids.size() + asks.size()];
+            int n = 0;
+            for (OrderBookLevel level : bids) values[n++] = notional(level);
+            for (OrderBookLevel level : asks) values[n++] = notional(level);
+            Arrays.sort(values);
+            double mean = Arrays.stream(values).average().orElse(0);
+            double variance = Arrays.stream(values).map(v -> (v - mean) * (v - mean)).sum() / (n - 1);
+
+            assertTop(bids, state.top(Side.BID));
+            assertTop(asks, state.top(Side.ASK));
+
+            LevelStatistics.Summary summary = state.summary();
+            assertEquals(n, summary.count());
+            assertEquals(mean, summary.mean(), mean * 1e-9);
+            assertEquals(Math.sqrt(variance), summary.stdDev(), Math.sqrt(variance) * 1e-6);
+            double q3 = values[(int) Math.floor(0.75 * (n - 1))];
+            assertEquals(q3, summary.q3(), q3 * QuantileSketch.RELATIVE_ACCURACY * 1.01);
+        }
+    }
+
+    @Test
+    void shouldSkipRepeatedSourceAndCountOnlyChangedLevels() {
+        DetectionState state = new DetectionState();
+        Object book = new Object();
+        LevelArrays bids = LevelArrays.of(List.of(level(99, 10), level(98, 10), level(97, 50)), true);
+        assertEquals(3, state.apply(book, bids, LevelArrays.EMPTY, 0));
+        assertEquals(0, state.apply(book, bids, LevelArrays.EMPTY, 0));
+
+        // один уровень изменился, один исчез, один появился
+        LevelArrays next = LevelArrays.of(List.of(level(99, 10), level(98, 60), level(96, 1)), true);
+        assertEquals(3, state.apply(new Object(), next, LevelArrays.EMPTY, 0));
+        assertEquals(98.0, state.top(Side.BID).price());
+        assertEquals(1, next.indexOf(98));
+        assertEquals(-1, next.indexOf(97));
+        assertNull(state.top(Side.ASK));
+    }
+
+    @Test
+    void decayedHistogramShouldForgetOldSizesByHalfLife() {
+        long hour = 3600_000L;
+        DecayedHistogram histogram = new DecayedHistogram(hour);
+        // Час мелких уровней, затем час крупных: вес крупных вдвое больше после полураспада
+        histogram.add(1_000, 1000, 0);
+        histogram.add(1_000_000, 1000, hour);
+
+        double median = histogram.quantile(0.5);
+        assertTrue(median >= 1_000_000 && median < 1_000_000 * 1.11, "median " + median);
+        double low = histogram.quantile(0.3);
+        assertTrue(low >= 1_000 && low < 1_000 * 1.11, "q30 " + low);
+
+        // Прошло много полураспадов — факторы пересчитаны, старое ничего не весит
+        for (int i = 2; i < 200; i++) {
+            histogram.add(50_000, 1000, i * hour);
+        }
+        double q = histogram.quantile(0.999);
+        assertTrue(q >= 50_000 && q < 50_000 * 1.11, "q999 " + q);
+    }
+
+    @Test
+    void historyShouldWeighLevelsByTimeTheyStood() {
+        DetectionState state = new DetectionState();
+        long step = DetectionState.CREDIT_INTERVAL_MILLIS;
+        LevelArrays wall = LevelArrays.of(List.of(level(100, 10_000), level(99, 10)), true);
+        LevelArrays flicker = LevelArrays.of(List.of(level(100, 10_000), level(99, 1_000_000)), true);
+        assertTrue(Double.isNaN(state.historyQuantile(0.5)));
+
+        // Стена стоит всё время, крупный уровень мигает на секунду раз в интервал
+        for (int i = 0; i < 30; i++) {
+            state.apply(new Object(), wall, LevelArrays.EMPTY, i * step);
+            state.apply(new Object(), flicker, LevelArrays.EMPTY, i * step + 1000);
+            state.apply(new Object(), wall, LevelArrays.EMPTY, i * step + 2000);
+        }
+        state.apply(new Object(), wall, LevelArrays.EMPTY, 30 * step);
+        assertEquals(30 * step, state.historyMillis(30 * step));
+
+        // Мигающий уровень — ~1/120 уровне-времени: стена и есть «обычный» верх стакана, а всплеск — нет
+        double q99 = state.historyQuantile(0.99);
+        assertTrue(q99 >= 1_000_000 && q99 < 1_000_000 * 1.11, "q99 " + q99);
+        double q999 = state.historyQuantile(0.999);
+        assertTrue(q999 >= 99_000_000, "q999 " + q999);
+    }
+
+    /**
+     * Same pick as a linear pass keeping the first strictly bigger level.
+     */
+    private static void assertTop(List<OrderBookLevel> side, DetectionState.Level top) {
+        OrderBookLevel best = null;
+        for (OrderBookLevel level : side) {
+            if (best == null || notional(level) > notional(best)) best = level;
+        }
+        if (best == null) {
+            assertNull(top);
+        } else {
+            assertEquals(best.price().doubleValue(), top.price());
+        }
+    }
+
+    private static double notional(OrderBookLevel level) {
+        return level.price().doubleValue() * level.quantity().doubleValue();
+    }
+
+    private static OrderBookLevel level(long price, long qty) {
+        return new OrderBookLevel(BigDecimal.valueOf(price), BigDecimal.valueOf(qty));
+    }
+}
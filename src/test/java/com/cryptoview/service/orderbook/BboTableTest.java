@@ -0,0 +1,93 @@
+package com.cryptoview.service.orderbook;
+
+import com.cryptoview.exchange.common.LocalOrderBook;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BboTableTest {
+
+    private final BboTable table = new BboTable();
+
+    @Test
+    void shouldReadQuoteSpreadAndAge() {
+        assertTrue(Double.isNaN(table.bestBid(5)));
+        assertEquals(-1, table.ageMillis(5, 1000));
+
+        table.update(5, 99.0, 2.0, 101.0, 3.0, 1000);
+
+        BboTable.Quote quote = new BboTable.Quote();
+        assertTrue(table.read(5, quote));
+        assertEquals(99.0, quote.bidPrice(), 0);
+        assertEquals(3.0, quote.askQty(), 0);
+        assertEquals(100.0, table.mid(5), 1e-12);
+        assertEquals(200.0, table.spreadBps(5), 1e-9);
+        assertEquals(250, table.ageMillis(5, 1250));
+        assertFalse(table.read(6, quote));
+    }
+
+    @Test
+    void shouldReportOnlyChangedTouches() {
+        table.update(1, 10, 1, 11, 1, 0);
+        table.update(2, 20, 1, 21, 1, 0);
+        long stamp = table.changedSince(0, id -> {});
+
+        assertFalse(table.update(1, 10, 1, 11, 1, 50)); // same touch, only time refreshed
+        assertTrue(table.update(2, 20, 5, 21, 1, 50));
+        table.update(3000, 1, 1, 2, 1, 50); // another chunk
+
+        List<Integer> changed = new ArrayList<>();
+        stamp = table.changedSince(stamp, changed::add);
+        assertEquals(List.of(2, 3000), changed);
+        assertEquals(50, table.ageMillis(1, 100));
+
+        changed.clear();
+        table.changedSince(stamp, changed::add);
+        assertTrue(changed.isEmpty());
+    }
+
+    @Test
+    void shouldWriteTopFromLocalBookWithMultiplier() {
+        LocalOrderBook book = new LocalOrderBook("BTC-USDT-SWAP");
+        book.applySnapshot(List.of(List.of("100", "2"), List.of("99", "7")), List.of(List.of("101", "4")), 1);
+
+        book.withQuantityMultiplier(new BigDecimal("0.01")).writeTop(table, 7, 0);
+        assertEquals(100.0, table.bestBid(7), 0);
+        BboTable.Quote quote = new BboTable.Quote();
+        table.read(7, quote);
+        assertEquals(0.02, quote.bidQty(), 1e-12);
+
+        book.applyDelta(List.of(List.of("100", "0")), List.of(), 2);
+        book.writeTop(table, 7, 0);
+        assertEquals(99.0, table.bestBid(7), 0);
+        assertEquals(101.0, table.bestAsk(7), 0);
+    }
+
+    @Test
+    void readersShouldNeverSeeTornQuotes() throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<String> torn = new AtomicReference<>();
+        Thread writer = new Thread(() -> {
+            for (int i = 1; running.get(); i++) {
+                table.update(0, i, i, i + 1, i, i); // все поля согласованы между собой
+            }
+        });
+        writer.start();
+        BboTable.Quote quote = new BboTable.Quote();
+        for (int n = 0; n < 200_000 && torn.get() == null; n++) {
+            if (table.read(0, quote) && (quote.bidQty() != quote.bidPrice()
+                    || quote.askPrice() != quote.bidPrice() + 1 || quote.updatedAt() != (long) quote.bidPrice())) {
+                torn.set(quote.bidPrice() + "/" + quote.bidQty() + "/" + quote.askPrice());
+            }
+        }
+        running.set(false);
+        writer.join();
+        assertNull(torn.get());
+    }
+}
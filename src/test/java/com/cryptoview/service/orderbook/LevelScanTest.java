@@ -0,0 +1,43 @@
+package com.cryptoview.service.orderbook;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LevelScanTest {
+
+    @Test
+    void vectorKernelShouldSelectSameIndicesAsScalar() {
+        LevelScan.Kernel vector = LevelScan.vectorKernel();
+        // Тесты гоняются с --add-modules jdk.incubator.vector (build.gradle)
+        assertNotNull(vector);
+
+        Random random = new Random(49);
+        for (int size = 0; size < 70; size++) {
+            double[] notional = new double[size + 3]; // хвост за size не должен попадать в выборку
+            for (int i = 0; i < notional.length; i++) {
+                notional[i] = random.nextInt(4) == 0 ? 50_000 + random.nextInt(3) - 1 : random.nextDouble() * 100_000;
+            }
+            int[] expected = new int[size];
+            int[] actual = new int[size];
+            int n = LevelScan.SCALAR.select(notional, size, 50_000, expected);
+            assertEquals(n, vector.select(notional, size, 50_000, actual));
+            assertArrayEquals(Arrays.copyOf(expected, n), Arrays.copyOf(actual, n));
+        }
+    }
+
+    @Test
+    void atLeastShouldFillTheCallersBuffer() {
+        double[] notional = {10, 60_000, 50_000, 49_999.99, 1e9};
+        int[] out = new int[notional.length];
+        assertEquals(3, LevelScan.atLeast(notional, notional.length, 50_000, out));
+        assertArrayEquals(new int[]{1, 2, 4}, Arrays.copyOf(out, 3));
+        assertEquals(2, LevelScan.atLeast(notional, 4, 50_000, out));
+        assertArrayEquals(new int[]{1, 2}, Arrays.copyOf(out, 2));
+        assertEquals(0, LevelScan.atLeast(notional, notional.length, 2e9, out));
+        assertThrows(IllegalArgumentException.class, () -> LevelScan.atLeast(notional, notional.length, 0, new int[4]));
+    }
+}
@@ -0,0 +1,105 @@
+package com.cryptoview.service.orderbook;
+
+import com.cryptoview.model.domain.OrderBook;
+import com.cryptoview.model.domain.OrderBookLevel;
+import com.cryptoview.model.dto.LiveBookFrame;
+import com.cryptoview.model.enums.Exchange;
+import com.cryptoview.model.enums.MarketType;
+import com.cryptoview.service.symbol.SymbolRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LiveBookFeedTest {
+
+    private final SymbolRegistry registry = new SymbolRegistry();
+    private final AtomicReference<OrderBook> current = new AtomicReference<>();
+    private final AtomicLong now = new AtomicLong();
+    private final List<LiveBookFrame> encoded = new ArrayList<>();
+    private final LiveBookFeed feed = new LiveBookFeed(registry, id -> current.get(), frame -> {
+        encoded.add(frame);
+        return frame.type() + ":" + frame.seq();
+    }, now::get);
+
+    @Test
+    void shouldEncodeOnceForAllSubscribersOfTheSameTier() {
+        registry.idOf(Exchange.BINANCE, MarketType.FUTURES, "BTCUSDT");
+        current.set(book(level("100", 1), level("99", 1)));
+        List<String> first = new ArrayList<>();
+        List<String> second = new ArrayList<>();
+
+        LiveBookFeed.Subscription a = feed.subscribe(Exchange.BINANCE, MarketType.FUTURES, "BTCUSDT", 15, 4, first::add).orElseThrow();
+        feed.subscribe(Exchange.BINANCE, MarketType.FUTURES, "btcusdt", 20, 4, second::add).orElseThrow();
+        assertEquals(20, a.depth());
+        assertEquals(250, a.intervalMs());
+
+        current.set(book(level("100", 3), level("99", 1)));
+        feed.tick();
+
+        assertEquals(List.of("snapshot:1", "diff:2"), first);
+        assertEquals(first, second);
+        assertEquals(2, encoded.size()); // один снапшот и один дифф на двоих
+        assertTrue(feed.subscribe(Exchange.OKX, MarketType.FUTURES, "BTCUSDT", 20, 4, s -> {}).isEmpty());
+    }
+
+    @Test
+    void shouldThrottleToIntervalAndSendLatestState() {
+        registry.idOf(Exchange.BINANCE, MarketType.FUTURES, "BTCUSDT");
+        current.set(book(level("100", 1)));
+        List<String> frames = new ArrayList<>();
+        LiveBookFeed.Subscription subscription = feed.subscribe(Exchange.BINANCE, MarketType.FUTURES, "BTCUSDT",
+                10, 1, frames::add).orElseThrow();
+
+        current.set(book(level("100", 2)));
+        feed.tick();
+        now.set(500);
+        current.set(book(level("100", 3)));
+        feed.tick();                          // рано: интервал 1000 мс
+        current.set(book(level("100", 4)));
+        now.set(1000);
+        feed.tick();
+
+        assertEquals(List.of("snapshot:1", "diff:2", "diff:3"), frames);
+        assertEquals(0, new BigDecimal("4").compareTo(encoded.get(2).bids().get(0)[1]));
+
+        subscription.resync();
+        assertEquals("snapshot:3", frames.get(3));
+        subscription.close();
+        assertEquals(0, feed.getStats().get("channels"));
+    }
+
+    @Test
+    void diffShouldKeepClientViewEqualToTopLevels() {
+        List<OrderBookLevel> before = List.of(level("101", 1), level("102", 2), level("104", 1));
+        List<OrderBookLevel> after = List.of(level("100.5", 1), level("101", 1), level("102", 5));
+
+        List<BigDecimal[]> changes = LiveBookChannel.diff(before, after, false);
+
+        assertEquals(3, changes.size());
+        assertPair("100.5", "1", changes.get(0));
+        assertPair("102", "5", changes.get(1));
+        assertPair("104", "0", changes.get(2)); // вытеснен из полосы глубины
+        assertTrue(LiveBookChannel.diff(after, after, false).isEmpty());
+    }
+
+    private static void assertPair(String price, String qty, BigDecimal[] pair) {
+        assertEquals(0, new BigDecimal(price).compareTo(pair[0]));
+        assertEquals(0, new BigDecimal(qty).compareTo(pair[1]));
+    }
+
+    private static OrderBook book(OrderBookLevel... bids) {
+        return new OrderBook("BTCUSDT", Exchange.BINANCE, MarketType.FUTURES, List.of(bids),
+                List.of(level("101", 1)), BigDecimal.TEN, Instant.ofEpochMilli(0));
+    }
+
+    private static OrderBookLevel level(String price, long qty) {
+        return new OrderBookLevel(new BigDecimal(price), BigDecimal.valueOf(qty));
+    }
+}
@@ -0,0 +1,123 @@
+package com.cryptoview.service.orderbook;
+
+import com.cryptoview.exchange.common.LocalOrderBook;
+import com.cryptoview.model.domain.OrderBookLevel;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderBookManagerTest {
+
+    @Test
+    void shouldCutTheBandExactlyWhereRoundedDistanceExceedsTenPercent() {
+        BigDecimal current = new BigDecimal("100");
+        List<OrderBookLevel> bids = levels("110.005", "110.0049", "100", "89.9951", "89.995");
+        List<OrderBookLevel> asks = levels("89.995", "89.9951", "100", "110.0049", "110.005");
+
+        // ±10.005% округляется до 10.01% и отсекается, ±10.0049% — до 10.00% и остаётся
+        assertEquals(prices("110.0049", "100", "89.9951"), prices(filter(bids, current, true)));
+        assertEquals(prices("89.9951", "100", "110.0049"), prices(filter(asks, current, false)));
+        assertEquals(legacyFilter(bids, current), filter(bids, current, true));
+        assertEquals(legacyFilter(asks, current), filter(asks, current, false));
+    }
+
+    @Test
+    void shouldMatchLegacyRoundingFilterOnRandomBooks() {
+        Random random = new Random(34);
+        for (int run = 0; run < 2_000; run++) {
+            BigDecimal current = BigDecimal.valueOf(1 + random.nextInt(100_000_000), random.nextInt(9));
+            List<OrderBookLevel> bids = randomSide(random, current, true);
+            List<OrderBookLevel> asks = randomSide(random, current, false);
+
+            assertEquals(legacyFilter(bids, current), filter(bids, current, true), "bids around " + current);
+            assertEquals(legacyFilter(asks, current), filter(asks, current, false), "asks around " + current);
+        }
+    }
+
+    @Test
+    void shouldPutVenueLevelsBestFirst() {
+        List<OrderBookLevel> sortedBids = levels("101", "100", "99");
+        LocalOrderBook.Snapshot snapshot = LocalOrderBook.Snapshot.bestFirst(sortedBids, levels("103", "102", "104"));
+
+        assertSame(sortedBids, snapshot.bids());
+        assertEquals(prices("102", "103", "104"), prices(snapshot.asks()));
+        // Несортированная сторона после bestFirst фильтруется как в старом фильтре
+        BigDecimal current = new BigDecimal("100");
+        LocalOrderBook.Snapshot shuffled = LocalOrderBook.Snapshot.bestFirst(
+                levels("95", "120", "100", "85", "109"), List.of());
+        assertEquals(legacyFilter(shuffled.bids(), current), filter(shuffled.bids(), current, true));
+        assertEquals(prices("109", "100", "95"), prices(filter(shuffled.bids(), current, true)));
+    }
+
+    private static List<OrderBookLevel> filter(List<OrderBookLevel> levels, BigDecimal current, boolean isBid) {
+        return OrderBookManager.filterByDistance(levels,
+                current.multiply(OrderBookManager.BAND_LOWER_FACTOR),
+                current.multiply(OrderBookManager.BAND_UPPER_FACTOR), isBid);
+    }
+
+    /**
+     * The filter before the binary-search band: distance per level, rounded HALF_UP to 0.01%, at most 10%.
+     */
+    private static List<OrderBookLevel> legacyFilter(List<OrderBookLevel> levels, BigDecimal current) {
+        List<OrderBookLevel> filtered = new ArrayList<>();
+        for (OrderBookLevel level : levels) {
+            BigDecimal distance = level.price().subtract(current)
+                    .divide(current, 4, RoundingMode.HALF_UP)
+                    .multiply(new BigDecimal("100"));
+            if (distance.abs().compareTo(new BigDecimal("10")) <= 0) {
+                filtered.add(level);
+            }
+        }
+        return filtered;
+    }
+
+    /**
+     * Levels within ±20% of the price on a random tick, plus the exact band edges and their neighbours.
+     */
+    private static List<OrderBookLevel> randomSide(Random random, BigDecimal current, boolean isBid) {
+        int scale = current.scale() + random.nextInt(4);
+        List<BigDecimal> prices = new ArrayList<>();
+        int count = random.nextInt(80);
+        for (int i = 0; i < count; i++) {
+            double offset = (random.nextDouble() - 0.5) * 0.4;
+            BigDecimal price = current.multiply(BigDecimal.valueOf(1 + offset)).setScale(scale, RoundingMode.HALF_UP);
+            if (price.signum() > 0) {
+                prices.add(price);
+            }
+        }
+        for (String edge : List.of("0.10005", "0.100049", "0.1000499999", "0.1000500001")) {
+            BigDecimal delta = current.multiply(new BigDecimal(edge));
+            prices.add(current.add(delta));
+            prices.add(current.subtract(delta));
+        }
+        Comparator<BigDecimal> order = isBid ? Comparator.reverseOrder() : Comparator.naturalOrder();
+        return prices.stream()
+                .distinct()
+                .sorted(order)
+                .map(price -> new OrderBookLevel(price, BigDecimal.ONE))
+                .toList();
+    }
+
+    private static List<OrderBookLevel> levels(String... prices) {
+        List<OrderBookLevel> levels = new ArrayList<>();
+        for (String price : prices) {
+            levels.add(new OrderBookLevel(new BigDecimal(price), BigDecimal.ONE));
+        }
+        return levels;
+    }
+
+    private static List<BigDecimal> prices(String... prices) {
+        return levels(prices).stream().map(OrderBookLevel::price).toList();
+    }
+
+    private static List<BigDecimal> prices(List<OrderBookLevel> levels) {
+        return levels.stream().map(OrderBookLevel::price).toList();
+    }
+}
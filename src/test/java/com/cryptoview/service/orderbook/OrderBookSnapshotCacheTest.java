@@ -0,0 +1,78 @@
+package com.cryptoview.service.orderbook;
+
+import com.cryptoview.model.domain.OrderBook;
+import com.cryptoview.model.domain.OrderBookLevel;
+import com.cryptoview.model.dto.OrderBookResponse;
+import com.cryptoview.model.enums.Exchange;
+import com.cryptoview.model.enums.MarketType;
+import com.cryptoview.service.symbol.SymbolRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderBookSnapshotCacheTest {
+
+    private final SymbolRegistry registry = new SymbolRegistry();
+    private final AtomicReference<OrderBook> current = new AtomicReference<>();
+    private final OrderBookSnapshotCache cache = new OrderBookSnapshotCache(registry,
+            new ObjectMapper().registerModule(new JavaTimeModule()), id -> current.get());
+
+    @Test
+    void shouldFoldLevelsIntoPriceBuckets() {
+        List<OrderBookLevel> bids = List.of(level("100", 1), level("99.5", 1), level("99", 2), level("98", 1), level("96", 3));
+
+        List<OrderBookResponse.Level> folded = OrderBookSnapshotCache.levels(bids, 0, 2, true);
+
+        assertEquals(2, folded.size());
+        assertEquals(0, new BigDecimal("100").compareTo(folded.get(0).price()));
+        assertEquals(0, new BigDecimal("4").compareTo(folded.get(0).quantity()));
+        assertEquals(0, new BigDecimal("397.5").compareTo(folded.get(0).volumeUsd()));
+        assertEquals(0, new BigDecimal("98").compareTo(folded.get(1).price())); // крайний уровень попадает в последний бакет
+        assertEquals(0, new BigDecimal("4").compareTo(folded.get(1).quantity()));
+
+        assertEquals(3, OrderBookSnapshotCache.levels(bids, 3, 0, true).size());
+        assertEquals(5, OrderBookSnapshotCache.levels(bids, 0, 10, true).size()); // бакетов больше, чем уровней
+    }
+
+    @Test
+    void shouldServeSameBytesUntilNewBookIsPublished() {
+        int id = registry.idOf(Exchange.BINANCE, MarketType.SPOT, "BTCUSDT");
+        current.set(book(id, Instant.ofEpochMilli(1000)));
+
+        OrderBookSnapshotCache.Payload first = get(0);
+        assertSame(first.json(), get(0).json());
+        assertEquals(1, first.version());
+        assertNotEquals(first.eTag(), get(1).eTag());
+
+        current.set(book(id, Instant.ofEpochMilli(2000)));
+        OrderBookSnapshotCache.Payload second = get(0);
+        assertEquals(2, second.version());
+        assertNotSame(first.json(), second.json());
+
+        current.set(book(id, Instant.ofEpochMilli(1500))); // запоздавшее чтение старой книги
+        assertSame(second.json(), get(0).json());
+
+        assertTrue(cache.get(Exchange.BINANCE, MarketType.SPOT, "ETHUSDT", 0, 0).isEmpty());
+    }
+
+    private OrderBookSnapshotCache.Payload get(int buckets) {
+        return cache.get(Exchange.BINANCE, MarketType.SPOT, "btcusdt", 0, buckets).orElseThrow();
+    }
+
+    private static OrderBook book(int id, Instant timestamp) {
+        return new OrderBook("BTCUSDT", Exchange.BINANCE, MarketType.SPOT,
+                List.of(level("100", 1), level("99", 2), level("90", 1)), List.of(level("101", 1)),
+                BigDecimal.TEN, timestamp, id);
+    }
+
+    private static OrderBookLevel level(String price, long qty) {
+        return new OrderBookLevel(new BigDecimal(price), BigDecimal.valueOf(qty));
+    }
+}
@@ -0,0 +1,152 @@
+package com.cryptoview.service.orderbook;
+
+import com.cryptoview.model.domain.OrderBook;
+import com.cryptoview.model.domain.OrderBookLevel;
+import com.cryptoview.model.enums.Exchange;
+import com.cryptoview.model.enums.MarketType;
+import com.cryptoview.service.symbol.SymbolRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderBookStreamsTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final List<Runnable> timers = new ArrayList<>();
+    private final SymbolRegistry registry = new SymbolRegistry();
+    private final OrderBookStreams streams = new OrderBookStreams(registry, Runnable::run,
+            (task, delayMs) -> timers.add(task), now::get);
+
+    @Test
+    void latestShouldConflatePerSymbolUntilRequested() {
+        Recorder recorder = subscribe(OrderBookStreamSpec.latest("ui"));
+
+        publish("BTCUSDT", 1);
+        publish("BTCUSDT", 2);
+        publish("ETHUSDT", 10);
+        publish("BTCUSDT", 3);
+        assertTrue(recorder.received.isEmpty());
+
+        recorder.subscription.request(10);
+        assertEquals(List.of(BigDecimal.valueOf(3), BigDecimal.valueOf(10)), recorder.bids());
+
+        OrderBookStreams.SubscriberStats stats = streams.getStats().getFirst();
+        assertEquals(2, stats.delivered());
+        assertEquals(2, stats.conflated());
+        assertEquals(8, stats.requested());
+    }
+
+    @Test
+    void shouldDeliverOnlySubscribedSymbols() {
+        Recorder recorder = subscribe(OrderBookStreamSpec.latest("eth").withSymbols(
+                List.of(new OrderBookStreamSpec.Symbol(Exchange.BINANCE, MarketType.FUTURES, "ETHUSDT"))));
+        recorder.subscription.request(Long.MAX_VALUE);
+
+        publish("BTCUSDT", 1);
+        publish("ETHUSDT", 2);
+
+        assertEquals(List.of(BigDecimal.valueOf(2)), recorder.bids());
+    }
+
+    @Test
+    void dropShouldKeepOrderAndCountOverflow() {
+        Recorder recorder = subscribe(OrderBookStreamSpec.latest("log")
+                .withOverflow(OrderBookStreamSpec.Overflow.DROP, 2));
+
+        publish("BTCUSDT", 1);
+        publish("BTCUSDT", 2);
+        publish("BTCUSDT", 3);
+        recorder.subscription.request(5);
+
+        assertEquals(List.of(BigDecimal.valueOf(1), BigDecimal.valueOf(2)), recorder.bids());
+        assertEquals(1, streams.getStats().getFirst().dropped());
+    }
+
+    @Test
+    void bufferShouldFailSubscriberOnOverflow() {
+        Recorder recorder = subscribe(OrderBookStreamSpec.latest("strict")
+                .withOverflow(OrderBookStreamSpec.Overflow.BUFFER, 1));
+
+        publish("BTCUSDT", 1);
+        publish("BTCUSDT", 2);
+
+        assertInstanceOf(IllegalStateException.class, recorder.error);
+        assertTrue(streams.getStats().isEmpty());
+    }
+
+    @Test
+    void latestShouldDeferUpdatesAboveMaxRate() {
+        Recorder recorder = subscribe(OrderBookStreamSpec.latest("slow").withMaxRate(2)); // ≤ 1 per 500ms
+        recorder.subscription.request(Long.MAX_VALUE);
+
+        publish("BTCUSDT", 1);
+        publish("BTCUSDT", 2);
+        assertEquals(List.of(BigDecimal.valueOf(1)), recorder.bids());
+        assertEquals(1, timers.size());
+
+        now.addAndGet(500);
+        timers.remove(0).run();
+        assertEquals(List.of(BigDecimal.valueOf(1), BigDecimal.valueOf(2)), recorder.bids());
+    }
+
+    @Test
+    void cancelShouldDetachSubscriber() {
+        Recorder recorder = subscribe(OrderBookStreamSpec.latest("gone"));
+        recorder.subscription.request(1);
+        recorder.subscription.cancel();
+
+        publish("BTCUSDT", 1);
+
+        assertTrue(recorder.received.isEmpty());
+        assertTrue(streams.getStats().isEmpty());
+    }
+
+    private Recorder subscribe(OrderBookStreamSpec spec) {
+        Recorder recorder = new Recorder();
+        streams.publisher(spec).subscribe(recorder);
+        return recorder;
+    }
+
+    private void publish(String symbol, long bid) {
+        int id = registry.idOf(Exchange.BINANCE, MarketType.FUTURES, symbol);
+        streams.onOrderBook(new OrderBook(symbol, Exchange.BINANCE, MarketType.FUTURES,
+                List.of(new OrderBookLevel(BigDecimal.valueOf(bid), BigDecimal.ONE)), List.of(),
+                null, Instant.ofEpochMilli(now.get()), id));
+    }
+
+    private static final class Recorder implements Flow.Subscriber<OrderBook> {
+        Flow.Subscription subscription;
+        final List<OrderBook> received = new ArrayList<>();
+        Throwable error;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(OrderBook item) {
+            received.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+        List<BigDecimal> bids() {
+            return received.stream().map(OrderBook::getBestBid).toList();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.cryptoview.service.orderbook;
+
+import com.cryptoview.exchange.common.LocalOrderBook;
+import com.cryptoview.model.domain.OrderBookLevel;
+import com.cryptoview.model.enums.Exchange;
+import com.cryptoview.model.enums.MarketType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PublishCoalescerTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final List<BigDecimal> published = new ArrayList<>();
+    private double load;
+    private boolean queueFull;
+
+    private final PublishCoalescer coalescer = new PublishCoalescer(250, 2000, () -> load, now::get,
+            (id, symbol, exchange, marketType, snapshot) ->
+                    !queueFull && published.add(snapshot.bids().getFirst().price()));
+
+    @Test
+    void shouldPublishOnlyLatestStatePerInterval() {
+        for (int i = 1; i <= 10; i++) {
+            mark(0, i);
+        }
+        assertEquals(1, coalescer.flush());
+        assertEquals(List.of(BigDecimal.valueOf(10)), published);
+
+        mark(0, 11);
+        now.addAndGet(100);
+        assertEquals(0, coalescer.flush()); // interval not over yet
+        now.addAndGet(150);
+        assertEquals(1, coalescer.flush());
+        assertEquals(0, coalescer.flush()); // nothing changed since
+        assertEquals(List.of(BigDecimal.valueOf(10), BigDecimal.valueOf(11)), published);
+
+        PublishCoalescer.Stats stats = coalescer.stats();
+        assertEquals(11, stats.marked());
+        assertEquals(2, stats.published());
+        assertEquals(5.5, stats.coalescingRatio(), 1e-9);
+    }
+
+    @Test
+    void shouldStretchBusySymbolsUnderLoadButNotQuietOnes() {
+        coalescer.flush();
+        mark(0, 1);
+        mark(1, 1);
+        coalescer.flush();
+        published.clear();
+
+        load = 0.5; // interval 250 + 0.5 × 1750 = 1125ms
+        for (int i = 0; i < 10; i++) {
+            mark(0, 2); // busy
+        }
+        mark(1, 2); // quiet
+        now.addAndGet(300);
+
+        assertEquals(1, coalescer.flush());
+        assertEquals(1125, coalescer.stats().intervalMs());
+        now.addAndGet(825);
+        assertEquals(1, coalescer.flush());
+        assertEquals(2, published.size());
+    }
+
+    @Test
+    void shouldSkipEmptyBooksAndRepublishAfterNewMark() {
+        coalescer.mark(0, "X", Exchange.BYBIT, MarketType.SPOT, () -> new LocalOrderBook.Snapshot(List.of(), List.of()));
+        assertEquals(0, coalescer.flush());
+
+        now.addAndGet(250);
+        mark(0, 5);
+        assertEquals(1, coalescer.flush());
+        assertEquals(List.of(BigDecimal.valueOf(5)), published);
+    }
+
+    @Test
+    void shouldKeepDroppedBookDirtyUntilThePipelineTakesIt() {
+        mark(0, 7);
+        queueFull = true;
+        assertEquals(0, coalescer.flush());
+        assertEquals(1, coalescer.stats().dirty());
+        assertEquals(1, coalescer.stats().deferred());
+
+        // Книга больше не меняется, но её последнее состояние всё равно уходит после интервала
+        queueFull = false;
+        assertEquals(0, coalescer.flush());
+        now.addAndGet(250);
+        assertEquals(1, coalescer.flush());
+        assertEquals(List.of(BigDecimal.valueOf(7)), published);
+        assertEquals(0, coalescer.stats().dirty());
+    }
+
+    private void mark(int id, long bid) {
+        LocalOrderBook.Snapshot snapshot = new LocalOrderBook.Snapshot(
+                List.of(new OrderBookLevel(BigDecimal.valueOf(bid), BigDecimal.ONE)), List.of());
+        coalescer.mark(id, "S" + id, Exchange.BYBIT, MarketType.FUTURES, () -> snapshot);
+    }
+}
@@ -0,0 +1,145 @@
+package com.cryptoview.service.pipeline;
+
+import com.cryptoview.model.domain.OrderBook;
+import com.cryptoview.model.enums.Exchange;
+import com.cryptoview.model.enums.MarketType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderBookPipelineTest {
+
+    private OrderBookPipeline pipeline;
+
+    @AfterEach
+    void tearDown() {
+        if (pipeline != null) {
+            pipeline.shutdown();
+        }
+    }
+
+    @Test
+    void shouldKeepPerSymbolOrderAcrossWorkers() throws Exception {
+        int symbols = 16;
+        int updates = 500;
+        Map<Integer, List<Long>> seen = new ConcurrentHashMap<>();
+        Map<Integer, String> threads = new ConcurrentHashMap<>();
+        CountDownLatch done = new CountDownLatch(symbols * updates);
+        pipeline = new OrderBookPipeline(List.of(ob -> {
+            seen.computeIfAbsent(ob.symbolId(), k -> new ArrayList<>()).add(ob.timestamp().toEpochMilli());
+            String previous = threads.putIfAbsent(ob.symbolId(), Thread.currentThread().getName());
+            assertTrue(previous == null || previous.equals(Thread.currentThread().getName()));
+            done.countDown();
+        }), 4, updates * symbols, false);
+
+        for (int i = 0; i < updates; i++) {
+            for (int s = 0; s < symbols; s++) {
+                pipeline.publish(book(s, i));
+            }
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        for (int s = 0; s < symbols; s++) {
+            assertEquals(LongStream.range(0, updates).boxed().toList(), seen.get(s));
+        }
+        assertEquals(4, threads.values().stream().distinct().count());
+        OrderBookPipeline.Stats stats = pipeline.getStats();
+        assertEquals(symbols * updates, stats.partitions().stream().mapToLong(OrderBookPipeline.PartitionStats::processed).sum());
+    }
+
+    @Test
+    void partitionLocalShouldMatchTheWorkerThatSeesTheSymbol() throws Exception {
+        int workers = 3;
+        PartitionLocal<Map<Integer, String>> state = new PartitionLocal<>(workers, ConcurrentHashMap::new);
+        CountDownLatch done = new CountDownLatch(30);
+        pipeline = new OrderBookPipeline(List.of(ob -> {
+            state.forSymbol(ob.symbolId()).put(ob.symbolId(), Thread.currentThread().getName());
+            done.countDown();
+        }), workers, 100, false);
+
+        for (int s = 0; s < 30; s++) {
+            pipeline.publish(book(s, 0));
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        // Каждую часть писал ровно один воркер — тот, что обрабатывает её символы
+        for (int p = 0; p < workers; p++) {
+            assertEquals(10, state.get(p).size());
+            assertEquals(1, state.get(p).values().stream().distinct().count());
+        }
+        assertEquals(1, new PartitionLocal<>(0, Object::new).size()); // inline dispatch — одна часть
+    }
+
+    @Test
+    void shouldDispatchInlineWithoutWorkers() {
+        List<String> calls = new ArrayList<>();
+        pipeline = new OrderBookPipeline(List.of(ob -> calls.add(Thread.currentThread().getName())), 0, 1, false);
+
+        pipeline.publish(book(3, 0));
+
+        assertEquals(List.of(Thread.currentThread().getName()), calls);
+        assertEquals(0, pipeline.getStats().workers());
+    }
+
+    @Test
+    void shouldDropWhenPartitionIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        pipeline = new OrderBookPipeline(List.of(ob -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }), 1, 2, false);
+
+        pipeline.publish(book(0, 0));
+        assertTrue(started.await(5, TimeUnit.SECONDS)); // worker busy, queue empty
+        for (int i = 1; i <= 5; i++) {
+            assertEquals(i <= 2, pipeline.publish(book(0, i)));
+        }
+
+        OrderBookPipeline.PartitionStats stats = pipeline.getStats().partitions().getFirst();
+        assertEquals(6, stats.published());
+        assertEquals(2, stats.queued());
+        assertEquals(3, stats.dropped());
+        release.countDown();
+    }
+
+    @Test
+    void shouldIsolateFailingListener() throws Exception {
+        CountDownLatch delivered = new CountDownLatch(2);
+        pipeline = new OrderBookPipeline(List.of(
+                ob -> {
+                    throw new IllegalStateException("boom");
+                },
+                ob -> delivered.countDown()), 1, 16, false);
+
+        pipeline.publish(book(1, 0));
+        pipeline.publish(book(1, 1));
+
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (pipeline.getStats().partitions().getFirst().failed() < 2 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(2, pipeline.getStats().partitions().getFirst().failed());
+    }
+
+    private static OrderBook book(int symbolId, long sequence) {
+        return new OrderBook("S" + symbolId, Exchange.BINANCE, MarketType.FUTURES, List.of(), List.of(),
+                BigDecimal.ONE, Instant.ofEpochMilli(sequence), symbolId);
+    }
+}
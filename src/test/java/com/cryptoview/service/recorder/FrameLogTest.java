@@ -0,0 +1,172 @@
+package com.cryptoview.service.recorder;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrameLogTest {
+
+    private static final int SEGMENT_SIZE = 64 * 1024;
+
+    @TempDir
+    Path dir;
+
+    private FrameLog frameLog;
+
+    @AfterEach
+    void tearDown() {
+        if (frameLog != null) {
+            frameLog.close();
+        }
+    }
+
+    @Test
+    void shouldReadBackTextAndBinaryFrames() throws IOException {
+        frameLog = new FrameLog(dir, SEGMENT_SIZE, 10);
+        int binance = frameLog.registerSource("BINANCE_FUTURES");
+        int mexc = frameLog.registerSource("MEXC_SPOT");
+        assertEquals(binance, frameLog.registerSource("BINANCE_FUTURES"));
+
+        assertTrue(frameLog.append(binance, 1, 1_000_000L, FrameLog.FLAG_TEXT, utf8("{\"e\":\"depthUpdate\"}")));
+        assertTrue(frameLog.append(mexc, 3, 2_000_000L, FrameLog.FLAG_BINARY, ByteBuffer.wrap(new byte[]{0x0a, 0x01, (byte) 0xff})));
+        assertTrue(frameLog.append(binance, 2, 3_000_000L, FrameLog.FLAG_TEXT, utf8("")));
+        frameLog.close();
+
+        List<FrameLogReader.Frame> frames = readAll();
+        assertEquals(3, frames.size());
+
+        FrameLogReader.Frame first = frames.get(0);
+        assertEquals("BINANCE_FUTURES", first.source());
+        assertEquals(1, first.connectionId());
+        assertEquals(1_000_000L, first.receivedAtMicros());
+        assertFalse(first.binary());
+        assertEquals("{\"e\":\"depthUpdate\"}", first.text());
+
+        FrameLogReader.Frame second = frames.get(1);
+        assertEquals("MEXC_SPOT", second.source());
+        assertTrue(second.binary());
+        assertArrayEquals(new byte[]{0x0a, 0x01, (byte) 0xff}, second.payload());
+
+        assertEquals("", frames.get(2).text());
+    }
+
+    @Test
+    void shouldRotateSegmentsWithoutLosingOrder() throws Exception {
+        frameLog = new FrameLog(dir, SEGMENT_SIZE, 100);
+        int source = frameLog.registerSource("BYBIT_SPOT");
+        String payload = "x".repeat(1000);
+
+        int written = 0;
+        for (int i = 0; i < 500; i++) {
+            if (frameLog.append(source, 1, i, FrameLog.FLAG_TEXT, utf8(i + ":" + payload))) {
+                written++;
+            } else {
+                Thread.sleep(5); // standby segment still being allocated
+            }
+        }
+        frameLog.close();
+
+        assertTrue(frameLog.getStats().rotations() >= 5, "rotations: " + frameLog.getStats().rotations());
+        List<FrameLogReader.Frame> frames = readAll();
+        assertEquals(written, frames.size());
+        long previous = -1;
+        for (FrameLogReader.Frame frame : frames) {
+            assertEquals("BYBIT_SPOT", frame.source()); // every segment names its sources
+            assertTrue(frame.receivedAtMicros() > previous);
+            previous = frame.receivedAtMicros();
+        }
+    }
+
+    @Test
+    void shouldKeepConcurrentWritersIntact() throws Exception {
+        frameLog = new FrameLog(dir, 1024 * 1024, 100);
+        int source = frameLog.registerSource("OKX_FUTURES");
+        int writers = 4;
+        int perWriter = 2_000;
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            int connection = w;
+            threads.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perWriter; i++) {
+                    while (!frameLog.append(source, connection, i, FrameLog.FLAG_TEXT, utf8(connection + "-" + i))) {
+                        Thread.onSpinWait();
+                    }
+                }
+            }));
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        frameLog.close();
+
+        Map<Integer, Integer> nextPerConnection = new HashMap<>();
+        List<FrameLogReader.Frame> frames = readAll();
+        assertEquals(writers * perWriter, frames.size());
+        for (FrameLogReader.Frame frame : frames) {
+            int expected = nextPerConnection.getOrDefault(frame.connectionId(), 0);
+            assertEquals(frame.connectionId() + "-" + expected, frame.text());
+            nextPerConnection.put(frame.connectionId(), expected + 1);
+        }
+    }
+
+    @Test
+    void shouldDeleteOldestSegmentsBeyondRetention() throws Exception {
+        frameLog = new FrameLog(dir, SEGMENT_SIZE, 2);
+        int source = frameLog.registerSource("GATE_SPOT");
+        String payload = "y".repeat(4000);
+        for (int i = 0; i < 200; i++) {
+            if (!frameLog.append(source, 1, i, FrameLog.FLAG_TEXT, utf8(payload))) {
+                Thread.sleep(5);
+            }
+        }
+        frameLog.close();
+
+        assertTrue(FrameLogReader.listSegments(dir).size() <= 4,
+                "segments: " + FrameLogReader.listSegments(dir).size());
+    }
+
+    @Test
+    void shouldDropFramesLargerThanSegment() throws IOException {
+        frameLog = new FrameLog(dir, SEGMENT_SIZE, 10);
+        int source = frameLog.registerSource("LIGHTER_FUTURES");
+
+        assertFalse(frameLog.append(source, 1, 0, FrameLog.FLAG_BINARY, ByteBuffer.allocate(SEGMENT_SIZE)));
+        assertEquals(1, frameLog.getStats().oversizedFrames());
+        assertEquals(0, frameLog.getStats().framesWritten());
+    }
+
+    private List<FrameLogReader.Frame> readAll() throws IOException {
+        List<FrameLogReader.Frame> frames = new ArrayList<>();
+        try (FrameLogReader reader = new FrameLogReader(dir)) {
+            FrameLogReader.Frame frame;
+            while ((frame = reader.next()) != null) {
+                frames.add(frame);
+            }
+        }
+        return frames;
+    }
+
+    private static ByteBuffer utf8(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,70 @@
+package com.cryptoview.service.symbol;
+
+import com.cryptoview.model.enums.Exchange;
+import com.cryptoview.model.enums.MarketType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SymbolRegistryTest {
+
+    private final SymbolRegistry registry = new SymbolRegistry();
+
+    @Test
+    void shouldAssignDenseIdsPerExchangeAndMarket() {
+        int spot = registry.idOf(Exchange.BINANCE, MarketType.SPOT, "BTCUSDT");
+        int futures = registry.idOf(Exchange.BINANCE, MarketType.FUTURES, "BTCUSDT");
+        int bybit = registry.idOf(Exchange.BYBIT, MarketType.SPOT, "BTCUSDT");
+
+        assertEquals(List.of(0, 1, 2), List.of(spot, futures, bybit));
+        assertEquals(spot, registry.idOf(Exchange.BINANCE, MarketType.SPOT, "BTCUSDT"));
+        assertEquals(3, registry.size());
+        assertEquals(new SymbolRegistry.SymbolKey(futures, Exchange.BINANCE, MarketType.FUTURES, "BTCUSDT"),
+                registry.key(futures));
+    }
+
+    @Test
+    void shouldTreatSymbolsCaseInsensitively() {
+        int id = registry.idOf(Exchange.BINANCE, MarketType.FUTURES, "ethusdt");
+
+        assertEquals(id, registry.idOf(Exchange.BINANCE, MarketType.FUTURES, "ETHUSDT"));
+        assertEquals(id, registry.find(Exchange.BINANCE, MarketType.FUTURES, "EthUsdt"));
+        assertEquals("ETHUSDT", registry.key(id).symbol());
+        assertEquals(1, registry.size());
+    }
+
+    @Test
+    void findShouldNotRegister() {
+        assertEquals(SymbolRegistry.UNKNOWN, registry.find(Exchange.OKX, MarketType.SPOT, "NOPE-USDT"));
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    void tableShouldSpanChunksAndTrackSize() {
+        SymbolTable<String> table = new SymbolTable<>();
+        int far = SymbolTable.CHUNK_SIZE * 3 + 5;
+
+        assertNull(table.put(7, "a"));
+        assertNull(table.put(far, "b"));
+        assertEquals("a", table.put(7, "c"));
+        assertEquals("b", table.get(far));
+        assertNull(table.get(far + 1));
+        assertNull(table.get(-1));
+        assertNull(table.get(SymbolTable.CAPACITY));
+        assertEquals(2, table.size());
+
+        assertFalse(table.remove(7, "a"));
+        assertTrue(table.remove(7, "c"));
+        assertEquals("d", table.computeIfAbsent(9, id -> "d"));
+        assertEquals("d", table.computeIfAbsent(9, id -> "e"));
+
+        List<String> values = new ArrayList<>();
+        table.forEach(values::add);
+        assertEquals(List.of("d", "b"), values);
+        assertEquals(2, table.size());
+        assertThrows(IndexOutOfBoundsException.class, () -> table.put(SymbolTable.CAPACITY, "x"));
+    }
+}
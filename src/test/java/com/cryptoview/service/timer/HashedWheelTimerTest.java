@@ -0,0 +1,72 @@
+package com.cryptoview.service.timer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashedWheelTimerTest {
+
+    private HashedWheelTimer timer;
+
+    @BeforeEach
+    void setUp() {
+        timer = new HashedWheelTimer(10, 8); // small wheel so delays span several rounds
+    }
+
+    @AfterEach
+    void tearDown() {
+        timer.shutdown();
+    }
+
+    @Test
+    void shouldFireOneShotTaskAfterDelay() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        long start = System.nanoTime();
+
+        timer.schedule("test", latch::countDown, 200, TimeUnit.MILLISECONDS);
+
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(elapsedMs >= 190, "fired too early: " + elapsedMs + "ms");
+        assertEquals(1, timer.getStats().fired());
+        assertEquals(0, timer.getStats().pending());
+    }
+
+    @Test
+    void shouldNotFireCancelledTask() throws InterruptedException {
+        AtomicInteger runs = new AtomicInteger();
+
+        HashedWheelTimer.Timeout timeout = timer.schedule("test", runs::incrementAndGet, 100, TimeUnit.MILLISECONDS);
+        assertTrue(timeout.cancel());
+        assertFalse(timeout.cancel());
+
+        Thread.sleep(300);
+        assertEquals(0, runs.get());
+        assertTrue(timeout.isCancelled());
+        assertEquals(1, timer.getStats().cancelled());
+    }
+
+    @Test
+    void shouldRunPeriodicTaskUntilCancelled() throws InterruptedException {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(3);
+
+        HashedWheelTimer.Timeout timeout = timer.scheduleAtFixedRate("test", () -> {
+            runs.incrementAndGet();
+            latch.countDown();
+        }, 0, 50, TimeUnit.MILLISECONDS);
+
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        timeout.cancel();
+        int afterCancel = runs.get();
+
+        Thread.sleep(200);
+        assertTrue(runs.get() <= afterCancel + 1, "periodic task kept running after cancel");
+    }
+}